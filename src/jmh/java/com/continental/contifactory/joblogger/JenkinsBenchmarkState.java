@@ -0,0 +1,18 @@
+package com.continental.contifactory.joblogger;
+
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+
+/**
+ * Starts a temporary Jenkins instance for benchmarks, which need the plugin configuration.
+ * Logging is enabled, and the log file never exceeds its maximum size.
+ */
+public class JenkinsBenchmarkState extends JmhBenchmarkState {
+    private static final double UNLIMITED_LOG_FILE_SIZE = 1024 * 1024; // in MB
+
+    @Override
+    public void setup() throws Exception {
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        config.setLogEnabled(true);
+        config.setMaxLogFileSize(UNLIMITED_LOG_FILE_SIZE);
+    }
+}
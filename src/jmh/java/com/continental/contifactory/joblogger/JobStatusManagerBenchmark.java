@@ -0,0 +1,72 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import hudson.model.Job;
+import hudson.model.Run;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the job status cache, while builds are started and completed by many threads at the same time.
+ * Every thread starts and completes builds of its own job, and looks up the job status of running builds.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(JobStatusManagerBenchmark.THREADS)
+public class JobStatusManagerBenchmark {
+    static final int THREADS = 16;
+    private static final int RUNNING_BUILDS = 64;
+
+    /**
+     * The builds of one thread.
+     */
+    @State(Scope.Thread)
+    public static class Builds {
+        private Run[] runs = new Run[RUNNING_BUILDS];
+        private JobStatus[] jobStatus = new JobStatus[RUNNING_BUILDS];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            Job job = mock(Job.class);
+            when(job.getFullName()).thenReturn("benchmark/" + Thread.currentThread().getName());
+            for (int i = 0; i < RUNNING_BUILDS; i++) {
+                runs[i] = mock(Run.class);
+                when(runs[i].getParent()).thenReturn(job);
+                when(runs[i].getNumber()).thenReturn(i);
+                jobStatus[i] = new JobStatus();
+                JobStatusManager.getInstance().put(runs[i], jobStatus[i]);
+            }
+        }
+
+        private int next() {
+            next = (next + 1) % RUNNING_BUILDS;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public JobStatus putGetRemove(Builds builds) {
+        JobStatusManager manager = JobStatusManager.getInstance();
+        int i = builds.next();
+        manager.remove(builds.runs[i]);
+        manager.put(builds.runs[i], builds.jobStatus[i]);
+        return manager.get(builds.runs[(i + RUNNING_BUILDS / 2) % RUNNING_BUILDS]);
+    }
+
+    @Benchmark
+    public JobStatus get(Builds builds) {
+        return JobStatusManager.getInstance().get(builds.runs[builds.next()]);
+    }
+}
@@ -0,0 +1,91 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JenkinsBenchmarkState;
+import com.continental.contifactory.joblogger.JobStatusWriter;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing job status to the CSV log file by a single and by concurrent writers,
+ * directly with {@link CsvWriter} and queued with {@link JobStatusWriter}, and encoding a line with
+ * {@link CsvEncoder} apart from the file system. Run with {@code -prof gc} to see the allocations per line.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CsvWriterBenchmark {
+    private static final int CONCURRENT_WRITERS = 8;
+
+    /**
+     * A log file and a job status to write to it.
+     */
+    @State(Scope.Benchmark)
+    public static class LogFileState {
+        private File csvFile;
+        private JobStatus jobStatus;
+        private CsvEncoder encoder;
+
+        @Setup
+        public void setUp() throws IOException {
+            csvFile = File.createTempFile("joblogger-benchmark", ".csv");
+            csvFile.delete();
+
+            jobStatus = new JobStatus();
+            jobStatus.setJobName("benchmark_job");
+            jobStatus.setJobNumber(4711);
+            jobStatus.setBuildResult("SUCCESS");
+            jobStatus.setStartDate(new Date());
+            jobStatus.setEndDate(new Date());
+            jobStatus.setBuildCause("Started by timer");
+            jobStatus.setNodeNames(Arrays.asList("Benchmark Node 1", "Benchmark Node 2"));
+            jobStatus.setConsoleUrl("http://jenkins.example.com/job/benchmark_job/4711/console");
+            encoder = new CsvEncoder(true);
+        }
+
+        @TearDown
+        public void tearDown() {
+            JobStatusWriter.getInstance().stop();
+            CsvWriter.closeLogFile();
+            csvFile.delete();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleWriter(JenkinsBenchmarkState jenkins, LogFileState state) {
+        CsvWriter.logJobStatus(state.csvFile, state.jobStatus);
+    }
+
+    @Benchmark
+    @Threads(CONCURRENT_WRITERS)
+    public void concurrentWriters(JenkinsBenchmarkState jenkins, LogFileState state) {
+        CsvWriter.logJobStatus(state.csvFile, state.jobStatus);
+    }
+
+    @Benchmark
+    @Threads(CONCURRENT_WRITERS)
+    public void concurrentQueuedWriters(JenkinsBenchmarkState jenkins, LogFileState state) {
+        JobStatusWriter.getInstance().submit(state.jobStatus);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int encodeLine(LogFileState state) {
+        state.encoder.clear();
+        state.encoder.encodeRecord(state.jobStatus, 1);
+        return state.encoder.position();
+    }
+}
@@ -0,0 +1,80 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JenkinsBenchmarkState;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures completing builds which write their job status to the CSV log file, with every {@link LogDurability},
+ * with and without waiting for the commit of the job status.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogDurabilityBenchmark {
+    private static final int CONCURRENT_BUILDS = 8;
+    private static final int COMMIT_RECORDS = CONCURRENT_BUILDS;
+    private static final long COMMIT_INTERVAL = 10; // in ms
+    private static final AtomicInteger BUILD_NUMBER = new AtomicInteger();
+
+    /**
+     * A log file and the durability of its writes.
+     */
+    @State(Scope.Benchmark)
+    public static class DurabilityState {
+        @Param({"NONE", "PERIODIC", "GROUP_COMMIT"})
+        private LogDurability durability;
+        @Param({"false", "true"})
+        private boolean waitForCommit;
+        private File csvFile;
+
+        @Setup
+        public void setUp() throws IOException {
+            csvFile = File.createTempFile("joblogger-benchmark", ".csv");
+            csvFile.delete();
+            LogCommitter.getInstance().setDurability(durability, COMMIT_RECORDS, COMMIT_INTERVAL);
+        }
+
+        @TearDown
+        public void tearDown() {
+            CsvWriter.closeLogFile();
+            LogCommitter.getInstance().setDurability(LogDurability.NONE, COMMIT_RECORDS, COMMIT_INTERVAL);
+            csvFile.delete();
+        }
+    }
+
+    @Benchmark
+    @Threads(CONCURRENT_BUILDS)
+    public boolean completeBuild(JenkinsBenchmarkState jenkins, DurabilityState state) {
+        // a new build number per build, the committer waits for the build id of the job status
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("benchmark_job");
+        jobStatus.setJobNumber(BUILD_NUMBER.incrementAndGet());
+        jobStatus.setBuildResult("SUCCESS");
+        jobStatus.setStartDate(new Date());
+        jobStatus.setEndDate(new Date());
+        jobStatus.setNodeNames(Arrays.asList("Benchmark Node 1", "Benchmark Node 2"));
+
+        LogCommitter committer = LogCommitter.getInstance();
+        if (state.waitForCommit) {
+            committer.register(jobStatus);
+        }
+        CsvWriter.logJobStatus(state.csvFile, jobStatus);
+        return state.waitForCommit && committer.awaitCommit(jobStatus, LogCommitter.WAIT_TIMEOUT);
+    }
+}
@@ -0,0 +1,135 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JenkinsBenchmarkState;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares an aggregation over the CSV log file with the same aggregation over the binary log file:
+ * the number of failed builds per job, which ended in the second half of the logged time range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LogFormatBenchmark {
+    private static final int JOBS = 500;
+    private static final int NODES = 50;
+    private static final int BATCH_SIZE = 100;
+    private static final long BUILD_INTERVAL = 60000; // in ms
+
+    /**
+     * The same job status, logged in a CSV and in a binary log file.
+     */
+    @State(Scope.Benchmark)
+    public static class LogFiles {
+        @Param({"100000", "1000000"})
+        private int rows;
+        private File csvFile;
+        private File binaryFile;
+        private long from;
+
+        @Setup
+        public void setUp(JenkinsBenchmarkState jenkins) throws IOException {
+            csvFile = File.createTempFile("joblogger-benchmark", ".csv");
+            binaryFile = File.createTempFile("joblogger-benchmark", ".jlb");
+            csvFile.delete();
+            binaryFile.delete();
+
+            long start = System.currentTimeMillis() - rows * BUILD_INTERVAL;
+            from = start + rows / 2 * BUILD_INTERVAL;
+            List<JobStatus> batch = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                JobStatus jobStatus = new JobStatus();
+                jobStatus.setJobName("folder/job_" + i % JOBS);
+                jobStatus.setJobNumber(i / JOBS + 1);
+                jobStatus.setBuildResult(i % 7 == 0 ? "FAILURE" : "SUCCESS");
+                jobStatus.setStartDate(new Date(start + i * BUILD_INTERVAL));
+                jobStatus.setEndDate(new Date(start + i * BUILD_INTERVAL + BUILD_INTERVAL / 2));
+                jobStatus.setBuildCause("Started by timer");
+                jobStatus.setNodeNames(Arrays.asList("node_" + i % NODES));
+                jobStatus.setConsoleUrl("http://jenkins.example.com/job/folder/job/job_" + i % JOBS + "/"
+                        + jobStatus.getJobNumber() + "/console");
+                batch.add(jobStatus);
+                if (batch.size() == BATCH_SIZE || i == rows - 1) {
+                    CsvWriter.logJobStatuses(csvFile, batch);
+                    BinaryLogWriter.logJobStatuses(binaryFile, batch);
+                    batch.clear();
+                }
+            }
+            CsvWriter.closeLogFile();
+            BinaryLogWriter.closeLogFile();
+        }
+
+        @TearDown
+        public void tearDown() {
+            csvFile.delete();
+            binaryFile.delete();
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> csvFailuresPerJob(LogFiles logFiles) throws IOException, ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+        Map<String, Integer> failures = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(logFiles.csvFile.toPath(), Charset.defaultCharset())) {
+            String line = reader.readLine(); // header
+            line = reader.readLine();
+            while (line != null) {
+                String[] fields = line.split(";", -1);
+                if ("FAILURE".equals(fields[2]) && format.parse(fields[4]).getTime() >= logFiles.from) {
+                    failures.merge(fields[0], 1, Integer::sum);
+                }
+                line = reader.readLine();
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public Map<String, Integer> binaryFailuresPerJob(LogFiles logFiles) throws IOException {
+        Map<String, Integer> failures = new HashMap<>();
+        try (BinaryLogReader reader = new BinaryLogReader(logFiles.binaryFile)) {
+            BinaryLogReader.Segment segment = reader.next(logFiles.from, Long.MAX_VALUE);
+            while (segment != null) {
+                // count by dictionary index, the job names are only looked up once per segment
+                int[] counts = new int[segment.getDictionarySize()];
+                for (int row = 0; row < segment.getRowCount(); row++) {
+                    if (segment.getEndDate(row) >= logFiles.from
+                            && "FAILURE".equals(segment.getString(segment.getBuildResultIndex(row)))) {
+                        counts[segment.getJobNameIndex(row)]++;
+                    }
+                }
+                for (int index = 0; index < counts.length; index++) {
+                    if (counts[index] > 0) {
+                        failures.merge(segment.getString(index), counts[index], Integer::sum);
+                    }
+                }
+                segment = reader.next(logFiles.from, Long.MAX_VALUE);
+            }
+        }
+        return failures;
+    }
+}
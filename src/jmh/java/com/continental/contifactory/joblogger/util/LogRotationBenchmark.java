@@ -0,0 +1,82 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JenkinsBenchmarkState;
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the write of a job status, which archives a full log file first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class LogRotationBenchmark {
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    @Param({"1048576", "104857600", "524288000"})
+    private long logFileSize;
+
+    private File directory;
+    private File csvFile;
+    private JobStatus jobStatus;
+
+    @Setup(Level.Trial)
+    public void setUpTrial(JenkinsBenchmarkState jenkins) throws IOException {
+        directory = Files.createTempDirectory("joblogger-benchmark").toFile();
+        csvFile = new File(directory, JobLoggerPluginConfiguration.getLogFileShortname()
+                + JobLoggerPluginConfiguration.getLogFileExtension());
+        jobStatus = new JobStatus();
+        jobStatus.setJobName("benchmark_job");
+        jobStatus.setNodeNames(Arrays.asList("Benchmark Node 1"));
+
+        // every write archives the log file
+        JobLoggerPluginConfiguration.get().setMaxLogFileSize(Double.MIN_VALUE);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillLogFile() throws IOException {
+        // remove the archive of the previous invocation
+        FileUtils.cleanDirectory(directory);
+
+        byte[] chunk = new byte[CHUNK_SIZE];
+        Arrays.fill(chunk, (byte) 'x');
+        try (OutputStream out = Files.newOutputStream(csvFile.toPath())) {
+            for (long written = 0; written < logFileSize; written += chunk.length) {
+                out.write(chunk, 0, (int) Math.min(chunk.length, logFileSize - written));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        CsvWriter.closeLogFile();
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void archiveLogFile() {
+        CsvWriter.logJobStatus(csvFile, jobStatus);
+    }
+}
@@ -0,0 +1,89 @@
+package com.continental.contifactory.joblogger.util;
+
+import hudson.console.ConsoleNote;
+import hudson.model.Run;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the {@link NodeNameExtractor} with the former line by line search for node names,
+ * which decoded every line, removed the console notes and matched the regex on it.
+ * {@link JenkinsUtil#getNodeNames(Run, long)} is measured on the same console logs from 1 KB to 1 GB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NodeNameExtractorBenchmark {
+    private static final Pattern NODE_PATTERN = Pattern.compile("(Running on )(.+)( in .+)");
+
+    @Param({"1024", "1048576", "104857600", "1073741824"})
+    private long logSize;
+
+    private File log;
+    private Run run;
+
+    @Setup
+    public void setUp() throws IOException {
+        log = SyntheticLogs.create(logSize, 4);
+        run = mock(Run.class);
+        when(run.getLogInputStream()).thenAnswer(invocation -> Files.newInputStream(log.toPath()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        log.delete();
+    }
+
+    @Benchmark
+    public List<String> lineByLineRegex() throws IOException {
+        List<String> nodeNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(log.toPath()),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = NODE_PATTERN.matcher(ConsoleNote.removeNotes(line));
+                while (matcher.find()) {
+                    nodeNames.add(matcher.group(2));
+                }
+            }
+        }
+        return nodeNames;
+    }
+
+    @Benchmark
+    public List<String> nodeNameExtractor() throws IOException {
+        NodeNameExtractor extractor = new NodeNameExtractor(NodeNameExtractor.DEFAULT_MAX_NODE_NAMES, Long.MAX_VALUE,
+                StandardCharsets.UTF_8);
+        try (InputStream in = Files.newInputStream(log.toPath())) {
+            return extractor.extract(in);
+        }
+    }
+
+    @Benchmark
+    public List<String> jenkinsUtilGetNodeNames() {
+        return JenkinsUtil.getNodeNames(run);
+    }
+}
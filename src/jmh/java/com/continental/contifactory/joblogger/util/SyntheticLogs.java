@@ -0,0 +1,55 @@
+package com.continental.contifactory.joblogger.util;
+
+import hudson.console.ConsoleNote;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Creates console logs for benchmarks, which look like the console log of a pipeline.
+ */
+public final class SyntheticLogs {
+    private static final String NOTE = ConsoleNote.PREAMBLE_STR
+            + "////4F0mLMX0gP4hiGRK27fLn9Emp6ImuqeAsdXB8viDbWVHAAAAaB+LCAAAAAAAAP9b85aBtbiIwTG/KF0vKzUvOzOvODlTryCnNB3I0"
+            + ConsoleNote.POSTAMBLE_STR;
+    private static final int NODE_LINE_INTERVAL = 5000;
+
+    private SyntheticLogs() {
+    }
+
+    /**
+     * @param size  the size of the console log in bytes
+     * @param nodes the number of different nodes in the console log
+     * @return a temporary console log file, which is deleted on exit
+     * @throws IOException if the file cannot be written
+     */
+    public static File create(long size, int nodes) throws IOException {
+        File log = File.createTempFile("joblogger-benchmark", ".log");
+        log.deleteOnExit();
+
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(log.toPath()),
+                StandardCharsets.UTF_8))) {
+            long written = 0;
+            int lineNumber = 0;
+            while (written < size) {
+                String line;
+                if (lineNumber % NODE_LINE_INTERVAL == 0) {
+                    line = NOTE + "[Pipeline] node\nRunning on " + NOTE + "Benchmark Node " + (lineNumber / NODE_LINE_INTERVAL % nodes)
+                            + " in /var/jenkins/workspace/benchmark_job\n";
+                } else if (lineNumber % 2 == 0) {
+                    line = NOTE + "[Pipeline] sh\n";
+                } else {
+                    line = "+ make -j8 all -- compiling module " + lineNumber + " of the benchmark project\n";
+                }
+                writer.write(line);
+                written += line.length();
+                lineNumber++;
+            }
+        }
+        return log;
+    }
+}
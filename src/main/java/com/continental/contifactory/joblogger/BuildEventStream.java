@@ -0,0 +1,341 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.JsonWriter;
+import hudson.init.Terminator;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Pushes completed builds to clients which wait for them, under {@code [Jenkins URL]/job-logger/events}.<p>
+ * Every completed build is encoded as JSON once and kept in a ring of the last {@value #CAPACITY} events, with an
+ * increasing sequence number. A client polls with the sequence number of the last event it got and gets all newer
+ * events at once. If there are none, its request waits until the next build completes or its timeout is over.
+ * Waiting requests are suspended with an {@link AsyncContext} and hold no thread, a waiting client only costs a
+ * small object. They are answered by one dispatcher thread, clients waiting for the same events share the encoded
+ * response.
+ * <p>
+ * A client which fell behind by more than the ring gets the oldest kept events and the number of dropped events.
+ * A sequence number beyond the newest event, e.g. after a restart of Jenkins, starts again at the oldest event and
+ * marks the response as reset.
+ */
+public class BuildEventStream {
+    /**
+     * Number of events kept for clients which poll again.
+     */
+    public static final int CAPACITY = 1024;
+    /**
+     * Maximum number of waiting requests.
+     */
+    public static final int MAX_WAITERS = 10000;
+
+    private static final Logger LOGGER = Logger.getLogger(BuildEventStream.class.getName());
+    private static BuildEventStream instance = new BuildEventStream(CAPACITY, MAX_WAITERS);
+
+    private final String[] ring;
+    private final int maxWaiters;
+    // guarded by this
+    private final Set<Waiter> waiters = new LinkedHashSet<>();
+    private long lastSequence;
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Job Logger event dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param capacity   the number of events kept for clients which poll again
+     * @param maxWaiters the maximum number of waiting requests
+     */
+    public BuildEventStream(int capacity, int maxWaiters) {
+        this.ring = new String[capacity];
+        this.maxWaiters = maxWaiters;
+    }
+
+    /**
+     * @return the event stream of this plugin
+     */
+    public static BuildEventStream getInstance() {
+        return instance;
+    }
+
+    /**
+     * Adds the given completed build as event and answers all waiting requests in the background.
+     *
+     * @param jobStatus the {@link JobStatus} of a completed build
+     */
+    public void publish(JobStatus jobStatus) {
+        StringBuilder sb = new StringBuilder();
+        JsonWriter.writeJobStatus(sb, jobStatus);
+        List<Waiter> ready;
+        synchronized (this) {
+            lastSequence++;
+            sb.replace(0, 1, "{\"sequence\":" + lastSequence + ",");
+            ring[(int) (lastSequence % ring.length)] = sb.toString();
+            ready = new ArrayList<>(waiters);
+            waiters.clear();
+            notifyAll();
+        }
+        if (!ready.isEmpty()) {
+            dispatcher.execute(() -> dispatch(ready));
+        }
+    }
+
+    /**
+     * @return the sequence number of the newest event; or 0 if there is none
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return the number of waiting requests
+     */
+    public synchronized int getWaiterCount() {
+        return waiters.size();
+    }
+
+    /**
+     * @param after the sequence number of the last event the client got
+     * @param limit the maximum number of events
+     * @return the events after the given sequence number, oldest first
+     */
+    public synchronized Batch read(long after, int limit) {
+        long oldest = Math.max(1, lastSequence - ring.length + 1);
+        boolean reset = after > lastSequence;
+        long from = reset ? oldest : Math.max(after + 1, oldest);
+        long to = Math.min(lastSequence, from + limit - 1);
+        List<String> events = new ArrayList<>();
+        for (long sequence = from; sequence <= to; sequence++) {
+            events.add(ring[(int) (sequence % ring.length)]);
+        }
+        long sequence = to >= from ? to : Math.min(after, lastSequence);
+        return new Batch(events, sequence, reset ? 0 : from - after - 1, reset);
+    }
+
+    /**
+     * Answers the given request with the events after the given sequence number: at once if there are some,
+     * otherwise when the next build completes or the timeout is over. The content type of the response has to be
+     * set before. If the servlet container cannot suspend the request, the request thread waits.
+     *
+     * @param request  the request
+     * @param response the response
+     * @param after    the sequence number of the last event the client got
+     * @param limit    the maximum number of events
+     * @param timeout  the maximum time to wait in ms
+     * @throws IOException if the response cannot be written
+     */
+    public void poll(HttpServletRequest request, HttpServletResponse response, long after, int limit, long timeout)
+            throws IOException {
+        Batch batch = read(after, limit);
+        if (batch.getEvents().isEmpty() && !batch.isReset() && timeout > 0) {
+            if (!request.isAsyncSupported()) {
+                batch = await(after, limit, timeout);
+            } else {
+                synchronized (this) {
+                    if (lastSequence <= after) {
+                        if (waiters.size() >= maxWaiters) {
+                            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many waiting clients");
+                            return;
+                        }
+                        AsyncContext context = request.startAsync();
+                        context.setTimeout(timeout);
+                        Waiter waiter = new Waiter(context, after, limit);
+                        context.addListener(waiter);
+                        waiters.add(waiter);
+                        return;
+                    }
+                }
+                batch = read(after, limit);
+            }
+        }
+        write(response.getOutputStream(), toJson(batch));
+    }
+
+    /**
+     * @param batch a batch of events
+     * @return the given batch as JSON object, with the sequence number to poll again, the number of dropped events,
+     * the reset flag and the events
+     */
+    public static String toJson(Batch batch) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"sequence\":").append(batch.getSequence());
+        sb.append(",\"dropped\":").append(batch.getDropped());
+        sb.append(",\"reset\":").append(batch.isReset());
+        sb.append(",\"events\":[");
+        for (int i = 0; i < batch.getEvents().size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(batch.getEvents().get(i));
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Answers all waiting requests when Jenkins shuts down.
+     */
+    @Terminator
+    public static void shutdown() {
+        getInstance().close();
+    }
+
+    /**
+     * Answers all waiting requests with the events they got so far.
+     */
+    public void close() {
+        List<Waiter> ready;
+        synchronized (this) {
+            ready = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        dispatch(ready);
+    }
+
+    private synchronized Batch await(long after, int limit, long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+        long remaining = timeout;
+        try {
+            while (lastSequence <= after && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return read(after, limit);
+    }
+
+    private void dispatch(List<Waiter> ready) {
+        // most clients wait for the same events, they get the same bytes
+        Map<String, byte[]> responses = new HashMap<>();
+        for (Waiter waiter : ready) {
+            byte[] bytes = responses.computeIfAbsent(waiter.after + ":" + waiter.limit,
+                    key -> toJson(read(waiter.after, waiter.limit)).getBytes(StandardCharsets.UTF_8));
+            waiter.respond(bytes);
+        }
+    }
+
+    private synchronized void remove(Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    private static void write(OutputStream out, String json) throws IOException {
+        out.write(json.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * A suspended request which waits for events.
+     */
+    private final class Waiter implements AsyncListener {
+        private final AsyncContext context;
+        private final long after;
+        private final int limit;
+        private final AtomicBoolean answered = new AtomicBoolean();
+
+        Waiter(AsyncContext context, long after, int limit) {
+            this.context = context;
+            this.after = after;
+            this.limit = limit;
+        }
+
+        void respond(byte[] bytes) {
+            if (!answered.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                OutputStream out = context.getResponse().getOutputStream();
+                out.write(bytes);
+                out.flush();
+            } catch (IOException e) {
+                LOGGER.fine("IOException: Could not send events to client: " + e.getMessage());
+            } finally {
+                context.complete();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            remove(this);
+            respond(toJson(read(after, limit)).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            remove(this);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            remove(this);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // not restarted
+        }
+    }
+
+    /**
+     * The events of one poll.
+     */
+    public static final class Batch {
+        private final List<String> events;
+        private final long sequence;
+        private final long dropped;
+        private final boolean reset;
+
+        Batch(List<String> events, long sequence, long dropped, boolean reset) {
+            this.events = events;
+            this.sequence = sequence;
+            this.dropped = dropped;
+            this.reset = reset;
+        }
+
+        /**
+         * @return the events as JSON objects, oldest first
+         */
+        public List<String> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return the sequence number to poll again with
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return the number of events the client missed, because it fell behind by more than the kept events
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * @return true if the polled sequence number was beyond the newest event, e.g. after a restart of Jenkins
+         */
+        public boolean isReset() {
+            return reset;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.action.EventsHandler;
+import com.continental.contifactory.joblogger.action.ExportHandler;
+import com.continental.contifactory.joblogger.action.MetricsHandler;
+import com.continental.contifactory.joblogger.action.QueryHandler;
+import com.continental.contifactory.joblogger.action.StatisticsHandler;
+import com.continental.contifactory.joblogger.action.StatsHandler;
+import com.continental.contifactory.joblogger.action.TailHandler;
+import hudson.Extension;
+import hudson.model.RootAction;
+
+/**
+ * Provides the logged job status over HTTP, under {@code [Jenkins URL]/job-logger/}.<p>
+ * Every endpoint is answered by its own handler, which Stapler reaches through the getter of this action:
+ * <ul>
+ * <li>{@code query}: job status found with the log index or the database, see {@link QueryHandler}</li>
+ * <li>{@code export}: all job status as CSV or NDJSON file, see {@link ExportHandler}</li>
+ * <li>{@code tail}: the newest job status of the live log file, see {@link TailHandler}</li>
+ * <li>{@code events}: completed builds pushed to waiting clients, see {@link EventsHandler}</li>
+ * <li>{@code statistics}: build statistics of a sliding window as JSON, see {@link StatisticsHandler}</li>
+ * <li>{@code metrics}: build statistics in the text format of Prometheus, see {@link MetricsHandler}</li>
+ * <li>{@code stats}: timers and counters of this plugin, see {@link StatsHandler}</li>
+ * </ul>
+ */
+@Extension
+public class JobLogAction implements RootAction {
+    /**
+     * The URL of this action, relative to the Jenkins URL.
+     */
+    public static final String URL_NAME = "job-logger";
+
+    private final QueryHandler query = new QueryHandler();
+    private final ExportHandler export = new ExportHandler();
+    private final TailHandler tail = new TailHandler();
+    private final EventsHandler events = new EventsHandler();
+    private final StatisticsHandler statistics = new StatisticsHandler();
+    private final MetricsHandler metrics = new MetricsHandler();
+    private final StatsHandler stats = new StatsHandler();
+
+    @Override
+    public String getIconFileName() {
+        // not shown in the side panel
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Job Logger";
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    /**
+     * @return the handler of {@code query}
+     */
+    public QueryHandler getQuery() {
+        return query;
+    }
+
+    /**
+     * @return the handler of {@code export}
+     */
+    public ExportHandler getExport() {
+        return export;
+    }
+
+    /**
+     * @return the handler of {@code tail}
+     */
+    public TailHandler getTail() {
+        return tail;
+    }
+
+    /**
+     * @return the handler of {@code events}
+     */
+    public EventsHandler getEvents() {
+        return events;
+    }
+
+    /**
+     * @return the handler of {@code statistics}
+     */
+    public StatisticsHandler getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return the handler of {@code metrics}
+     */
+    public MetricsHandler getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the handler of {@code stats}
+     */
+    public StatsHandler getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,170 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.sinks.SinkQueue;
+import com.continental.contifactory.joblogger.util.PluginMetrics;
+import com.continental.contifactory.joblogger.util.TimerStatistics;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+
+/**
+ * Exposes the {@link PluginMetrics}, the job status cache and the sink queues of this plugin as MXBean.
+ * The same values are shown as text under {@code [Jenkins URL]/job-logger/stats}.
+ *
+ * @see JobLoggerPluginConfiguration#isMetricsEnabled()
+ */
+public class JobLoggerMetrics implements JobLoggerMetricsMXBean {
+    /**
+     * The JMX object name of the metrics.
+     */
+    public static final String OBJECT_NAME = "com.continental.contifactory.joblogger:type=JobLoggerMetrics";
+
+    private static final Logger LOGGER = Logger.getLogger(JobLoggerMetrics.class.getName());
+    private static JobLoggerMetrics instance = new JobLoggerMetrics();
+
+    /**
+     * @return the metrics of this plugin
+     */
+    public static JobLoggerMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server when Jenkins has started.
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(getInstance(), name);
+            }
+        } catch (JMException e) {
+            LOGGER.warning("JMException: Could not register metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unregisters the metrics when Jenkins shuts down.
+     */
+    @Terminator
+    public static void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.warning("JMException: Could not unregister metrics: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return PluginMetrics.isEnabled();
+    }
+
+    @Override
+    public Map<String, TimerStatistics> getTimers() {
+        Map<String, TimerStatistics> timers = new LinkedHashMap<>();
+        for (PluginMetrics.Timer timer : PluginMetrics.Timer.values()) {
+            timers.put(timer.getLabel(), PluginMetrics.getStatistics(timer));
+        }
+        return timers;
+    }
+
+    @Override
+    public long getNodeNameBytesScanned() {
+        return PluginMetrics.getNodeNameBytesScanned();
+    }
+
+    @Override
+    public int getJobStatusCacheSize() {
+        return JobStatusManager.getInstance().size();
+    }
+
+    @Override
+    public long getJobStatusCacheHits() {
+        return JobStatusManager.getInstance().getHits();
+    }
+
+    @Override
+    public long getJobStatusCacheMisses() {
+        return JobStatusManager.getInstance().getMisses();
+    }
+
+    @Override
+    public long getJobStatusCacheEvictions() {
+        return JobStatusManager.getInstance().getEvictions();
+    }
+
+    @Override
+    public Map<String, Long> getSinkQueueSizes() {
+        return getSinkValues(SinkQueue::getQueueSize);
+    }
+
+    @Override
+    public Map<String, Long> getSinkWritten() {
+        return getSinkValues(SinkQueue::getWritten);
+    }
+
+    @Override
+    public Map<String, Long> getSinkDropped() {
+        return getSinkValues(SinkQueue::getDropped);
+    }
+
+    @Override
+    public void reset() {
+        PluginMetrics.reset();
+    }
+
+    /**
+     * Appends all metrics as text, one value per line.
+     *
+     * @param sb the string builder to append to
+     */
+    public void writeText(StringBuilder sb) {
+        sb.append("enabled ").append(isEnabled()).append('\n');
+        for (Map.Entry<String, TimerStatistics> timer : getTimers().entrySet()) {
+            TimerStatistics statistics = timer.getValue();
+            sb.append("timer ").append(timer.getKey());
+            sb.append(" count=").append(statistics.getCount());
+            sb.append(" mean=").append(String.format(Locale.ENGLISH, "%.3f", statistics.getMeanMillis())).append("ms");
+            sb.append(" max=").append(String.format(Locale.ENGLISH, "%.3f", statistics.getMaxMillis())).append("ms\n");
+        }
+        sb.append("nodeNameBytesScanned ").append(getNodeNameBytesScanned()).append('\n');
+        sb.append("jobStatusCache size=").append(getJobStatusCacheSize());
+        sb.append(" hits=").append(getJobStatusCacheHits());
+        sb.append(" misses=").append(getJobStatusCacheMisses());
+        sb.append(" evictions=").append(getJobStatusCacheEvictions()).append('\n');
+        for (SinkQueue queue : JobStatusWriter.getInstance().getQueues()) {
+            sb.append("sink ").append(queue.getSink().getId());
+            sb.append(" queued=").append(queue.getQueueSize());
+            sb.append(" written=").append(queue.getWritten());
+            sb.append(" dropped=").append(queue.getDropped());
+            sb.append(" spilled=").append(queue.getSpilled());
+            sb.append(" failures=").append(queue.getFailures()).append('\n');
+        }
+    }
+
+    private static Map<String, Long> getSinkValues(ToLongFunction<SinkQueue> value) {
+        Map<String, Long> values = new TreeMap<>();
+        for (SinkQueue queue : JobStatusWriter.getInstance().getQueues()) {
+            values.put(queue.getSink().getId(), value.applyAsLong(queue));
+        }
+        return values;
+    }
+}
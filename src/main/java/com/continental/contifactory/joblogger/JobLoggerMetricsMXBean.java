@@ -0,0 +1,67 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.util.TimerStatistics;
+
+import java.util.Map;
+
+/**
+ * The management interface of the metrics of this plugin, registered as
+ * {@value JobLoggerMetrics#OBJECT_NAME}.
+ */
+public interface JobLoggerMetricsMXBean {
+
+    /**
+     * @return true, if the timers and counters are recorded; false otherwise
+     */
+    boolean isEnabled();
+
+    /**
+     * @return the timers of the hot paths, by name
+     */
+    Map<String, TimerStatistics> getTimers();
+
+    /**
+     * @return the number of bytes of console logs which were searched for node names
+     */
+    long getNodeNameBytesScanned();
+
+    /**
+     * @return the number of cached job status of running builds
+     */
+    int getJobStatusCacheSize();
+
+    /**
+     * @return the number of job status cache lookups which found a job status
+     */
+    long getJobStatusCacheHits();
+
+    /**
+     * @return the number of job status cache lookups which did not find a job status
+     */
+    long getJobStatusCacheMisses();
+
+    /**
+     * @return the number of job status which were evicted from the cache
+     */
+    long getJobStatusCacheEvictions();
+
+    /**
+     * @return the number of job status waiting to be written, by sink id
+     */
+    Map<String, Long> getSinkQueueSizes();
+
+    /**
+     * @return the number of job status written, by sink id
+     */
+    Map<String, Long> getSinkWritten();
+
+    /**
+     * @return the number of job status dropped, by sink id
+     */
+    Map<String, Long> getSinkDropped();
+
+    /**
+     * Resets all timers and counters to 0.
+     */
+    void reset();
+}
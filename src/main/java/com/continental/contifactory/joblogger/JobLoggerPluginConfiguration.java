@@ -1,6 +1,15 @@
 package com.continental.contifactory.joblogger;
 
+import com.continental.contifactory.joblogger.util.ArchiveCompression;
 import com.continental.contifactory.joblogger.util.JenkinsUtil;
+import com.continental.contifactory.joblogger.util.LogCommitter;
+import com.continental.contifactory.joblogger.util.LogDurability;
+import com.continental.contifactory.joblogger.util.LogImporter;
+import com.continental.contifactory.joblogger.util.PipelineTiming;
+import com.continental.contifactory.joblogger.util.PluginMetrics;
+import com.continental.contifactory.joblogger.util.RotationPeriod;
+import com.continental.contifactory.joblogger.util.UtilizationLogWriter;
+import com.continental.contifactory.joblogger.util.LogFormat;
 import hudson.Extension;
 import hudson.util.FormValidation;
 import jenkins.model.GlobalConfiguration;
@@ -21,11 +30,40 @@ public class JobLoggerPluginConfiguration extends GlobalConfiguration {
     private static final String LOG_FILE_SHORTNAME = "job_logger";
     private static final String LOG_FILE_EXT = ".csv";
     private static final String LOG_FILE_FULLNAME = LOG_FILE_SHORTNAME + LOG_FILE_EXT;
+    private static final int DEFAULT_WRITER_BATCH_SIZE = 100;
+    private static final long DEFAULT_WRITER_FLUSH_INTERVAL = 1000; // in ms
+    private static final int DEFAULT_SOCKET_PORT = 514;
+    private static final int MAX_PORT = 65535;
+    private static final int DEFAULT_COMMIT_RECORDS = 100;
+    private static final long DEFAULT_COMMIT_INTERVAL = 1000; // in ms
     private boolean logEnabled;
     private double maxLogFileSize = 1.0; // in MB
+    private int writerBatchSize = DEFAULT_WRITER_BATCH_SIZE;
+    private long writerFlushInterval = DEFAULT_WRITER_FLUSH_INTERVAL;
+    private boolean nodeNameLogScanEnabled = true;
+    private double nodeNameLogScanLimit; // in MB, 0 for no limit
+    private ArchiveCompression archiveCompression = ArchiveCompression.NONE;
+    private boolean binaryLogEnabled;
+    private String socketHost = "";
+    private int socketPort = DEFAULT_SOCKET_PORT;
+    private boolean databaseEnabled;
+    private boolean compactionEnabled;
+    private RotationPeriod rotationPeriod = RotationPeriod.NONE;
+    private int maxArchiveCount;
+    private double maxArchiveSize; // in MB
+    private int maxArchiveAge; // in days
+    private boolean metricsEnabled;
+    private PipelineTiming pipelineTiming = PipelineTiming.NONE;
+    private int utilizationSampleInterval; // in seconds
+    private LogDurability logDurability = LogDurability.NONE;
+    private int commitRecords = DEFAULT_COMMIT_RECORDS;
+    private long commitInterval = DEFAULT_COMMIT_INTERVAL;
+    private boolean waitForCommit;
 
     public JobLoggerPluginConfiguration() {
         load();
+        PluginMetrics.setEnabled(metricsEnabled);
+        LogCommitter.getInstance().setDurability(logDurability, commitRecords, commitInterval);
     }
 
     public static JobLoggerPluginConfiguration get() {
@@ -50,6 +88,200 @@ public class JobLoggerPluginConfiguration extends GlobalConfiguration {
         this.maxLogFileSize = maxLogFileSize;
     }
 
+    /**
+     * Sets the maximum number of job status entries which are written to the log file at once.
+     *
+     * @param writerBatchSize the maximum number of entries per write
+     */
+    public void setWriterBatchSize(int writerBatchSize) {
+        this.writerBatchSize = writerBatchSize;
+    }
+
+    /**
+     * Sets the maximum time a job status entry waits before it is written to the log file.
+     *
+     * @param writerFlushInterval the flush interval in milliseconds
+     */
+    public void setWriterFlushInterval(long writerFlushInterval) {
+        this.writerFlushInterval = writerFlushInterval;
+    }
+
+    /**
+     * Sets enable/disable searching the console log for node names, if they could not be captured
+     * while the build was running.
+     *
+     * @param nodeNameLogScanEnabled enable/disable searching the console log for node names
+     */
+    public void setNodeNameLogScanEnabled(boolean nodeNameLogScanEnabled) {
+        this.nodeNameLogScanEnabled = nodeNameLogScanEnabled;
+    }
+
+    /**
+     * Sets the maximum size of the console log which is searched for node names.
+     *
+     * @param nodeNameLogScanLimit the maximum size in MB; or 0 for no limit
+     */
+    public void setNodeNameLogScanLimit(double nodeNameLogScanLimit) {
+        this.nodeNameLogScanLimit = nodeNameLogScanLimit;
+    }
+
+    /**
+     * Sets the compression of archived log files.
+     *
+     * @param archiveCompression the compression of archived log files
+     */
+    public void setArchiveCompression(ArchiveCompression archiveCompression) {
+        this.archiveCompression = archiveCompression;
+    }
+
+    /**
+     * Sets enable/disable writing a binary log file, in addition to the CSV log file.
+     *
+     * @param binaryLogEnabled enable/disable the binary log file
+     */
+    public void setBinaryLogEnabled(boolean binaryLogEnabled) {
+        this.binaryLogEnabled = binaryLogEnabled;
+    }
+
+    /**
+     * Sets the host of the syslog server or TCP receiver the job status are sent to.
+     *
+     * @param socketHost the host name; or an empty string to not send job status
+     */
+    public void setSocketHost(String socketHost) {
+        this.socketHost = socketHost;
+    }
+
+    /**
+     * Sets the TCP port of the syslog server or TCP receiver the job status are sent to.
+     *
+     * @param socketPort the TCP port
+     */
+    public void setSocketPort(int socketPort) {
+        this.socketPort = socketPort;
+    }
+
+    /**
+     * Sets enable/disable writing the job status to the embedded database.
+     *
+     * @param databaseEnabled enable/disable the database
+     */
+    public void setDatabaseEnabled(boolean databaseEnabled) {
+        this.databaseEnabled = databaseEnabled;
+    }
+
+    /**
+     * Sets enable/disable compacting the archived log files into daily log files.
+     *
+     * @param compactionEnabled enable/disable the compaction
+     */
+    public void setCompactionEnabled(boolean compactionEnabled) {
+        this.compactionEnabled = compactionEnabled;
+    }
+
+    /**
+     * Sets enable/disable recording the timers and counters of this plugin.
+     *
+     * @param metricsEnabled enable/disable the metrics
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+        PluginMetrics.setEnabled(metricsEnabled);
+    }
+
+    /**
+     * Sets what is timed in running Pipeline builds.
+     *
+     * @param pipelineTiming the Pipeline timing
+     */
+    public void setPipelineTiming(PipelineTiming pipelineTiming) {
+        this.pipelineTiming = pipelineTiming;
+    }
+
+    /**
+     * Sets the interval in which the executor utilization and the length of the build queue are sampled.
+     *
+     * @param utilizationSampleInterval the sample interval in seconds; or 0 to not sample
+     */
+    public void setUtilizationSampleInterval(int utilizationSampleInterval) {
+        this.utilizationSampleInterval = utilizationSampleInterval;
+    }
+
+    /**
+     * Sets when the writes of the CSV log file are forced to the storage device.
+     *
+     * @param logDurability the durability of the log file
+     */
+    public void setLogDurability(LogDurability logDurability) {
+        this.logDurability = logDurability;
+        LogCommitter.getInstance().setDurability(logDurability, commitRecords, commitInterval);
+    }
+
+    /**
+     * Sets the number of uncommitted records which are committed at once.
+     *
+     * @param commitRecords the number of records
+     */
+    public void setCommitRecords(int commitRecords) {
+        this.commitRecords = commitRecords;
+        LogCommitter.getInstance().setDurability(logDurability, commitRecords, commitInterval);
+    }
+
+    /**
+     * Sets the maximum time written records stay uncommitted.
+     *
+     * @param commitInterval the commit interval in milliseconds
+     */
+    public void setCommitInterval(long commitInterval) {
+        this.commitInterval = commitInterval;
+        LogCommitter.getInstance().setDurability(logDurability, commitRecords, commitInterval);
+    }
+
+    /**
+     * Sets if completing builds wait until their job status is committed to the CSV log file.
+     *
+     * @param waitForCommit enable/disable waiting for the commit
+     */
+    public void setWaitForCommit(boolean waitForCommit) {
+        this.waitForCommit = waitForCommit;
+    }
+
+    /**
+     * Sets the time based rotation of the log files.
+     *
+     * @param rotationPeriod the rotation period
+     */
+    public void setRotationPeriod(RotationPeriod rotationPeriod) {
+        this.rotationPeriod = rotationPeriod;
+    }
+
+    /**
+     * Sets the maximum number of archived log files which are kept.
+     *
+     * @param maxArchiveCount the maximum number of archives; or 0 for no limit
+     */
+    public void setMaxArchiveCount(int maxArchiveCount) {
+        this.maxArchiveCount = maxArchiveCount;
+    }
+
+    /**
+     * Sets the maximum total size of the archived log files which are kept.
+     *
+     * @param maxArchiveSize the maximum total size in MB; or 0 for no limit
+     */
+    public void setMaxArchiveSize(double maxArchiveSize) {
+        this.maxArchiveSize = maxArchiveSize;
+    }
+
+    /**
+     * Sets the maximum age of the archived log files which are kept.
+     *
+     * @param maxArchiveAge the maximum age in days; or 0 for no limit
+     */
+    public void setMaxArchiveAge(int maxArchiveAge) {
+        this.maxArchiveAge = maxArchiveAge;
+    }
+
     /**
      * @return the plugin's settings if logging is enabled
      */
@@ -64,6 +296,166 @@ public class JobLoggerPluginConfiguration extends GlobalConfiguration {
         return maxLogFileSize;
     }
 
+    /**
+     * @return the plugin's settings for the maximum number of entries per write
+     */
+    public int getWriterBatchSize() {
+        return writerBatchSize;
+    }
+
+    /**
+     * @return the plugin's settings for the flush interval of the log writer in milliseconds
+     */
+    public long getWriterFlushInterval() {
+        return writerFlushInterval;
+    }
+
+    /**
+     * @return the plugin's settings if the console log is searched for node names
+     */
+    public boolean isNodeNameLogScanEnabled() {
+        return nodeNameLogScanEnabled;
+    }
+
+    /**
+     * @return the plugin's settings for the maximum size of the console log which is searched for node names (in MB);
+     * or 0 for no limit
+     */
+    public double getNodeNameLogScanLimit() {
+        return nodeNameLogScanLimit;
+    }
+
+    /**
+     * @return the plugin's settings for the compression of archived log files
+     */
+    public ArchiveCompression getArchiveCompression() {
+        return archiveCompression;
+    }
+
+    /**
+     * @return the plugin's settings if a binary log file is written, in addition to the CSV log file
+     */
+    public boolean isBinaryLogEnabled() {
+        return binaryLogEnabled;
+    }
+
+    /**
+     * @return the plugin's settings for the host of the syslog server or TCP receiver; or an empty string
+     */
+    public String getSocketHost() {
+        return socketHost;
+    }
+
+    /**
+     * @return the plugin's settings for the TCP port of the syslog server or TCP receiver
+     */
+    public int getSocketPort() {
+        return socketPort;
+    }
+
+    /**
+     * @return the plugin's settings if the job status are written to the embedded database
+     */
+    public boolean isDatabaseEnabled() {
+        return databaseEnabled;
+    }
+
+    /**
+     * @return the plugin's settings if the archived log files are compacted into daily log files
+     */
+    public boolean isCompactionEnabled() {
+        return compactionEnabled;
+    }
+
+    /**
+     * @return the plugin's settings for the time based rotation of the log files
+     */
+    public RotationPeriod getRotationPeriod() {
+        return rotationPeriod;
+    }
+
+    /**
+     * @return the plugin's settings for the maximum number of archived log files; or 0 for no limit
+     */
+    public int getMaxArchiveCount() {
+        return maxArchiveCount;
+    }
+
+    /**
+     * @return the plugin's settings for the maximum total size of the archived log files in MB; or 0 for no limit
+     */
+    public double getMaxArchiveSize() {
+        return maxArchiveSize;
+    }
+
+    /**
+     * @return the plugin's settings for the maximum age of the archived log files in days; or 0 for no limit
+     */
+    public int getMaxArchiveAge() {
+        return maxArchiveAge;
+    }
+
+    /**
+     * @return the plugin's settings if the timers and counters of this plugin are recorded
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * @return the plugin's settings for what is timed in running Pipeline builds
+     */
+    public PipelineTiming getPipelineTiming() {
+        return pipelineTiming;
+    }
+
+    /**
+     * @return the plugin's settings for the sample interval of the executor utilization in seconds; or 0 if it is
+     * not sampled
+     */
+    public int getUtilizationSampleInterval() {
+        return utilizationSampleInterval;
+    }
+
+    /**
+     * @return the plugin's settings when the writes of the CSV log file are forced to the storage device
+     */
+    public LogDurability getLogDurability() {
+        return logDurability;
+    }
+
+    /**
+     * @return the plugin's settings for the number of uncommitted records which are committed at once
+     */
+    public int getCommitRecords() {
+        return commitRecords;
+    }
+
+    /**
+     * @return the plugin's settings for the maximum time written records stay uncommitted (in ms)
+     */
+    public long getCommitInterval() {
+        return commitInterval;
+    }
+
+    /**
+     * @return the plugin's settings if completing builds wait until their job status is committed
+     */
+    public boolean isWaitForCommit() {
+        return waitForCommit;
+    }
+
+    /**
+     * @param logFormat the format of a log file
+     * @return the log file in the given format, which is located in the user content directory of Jenkins.
+     * @throws FileNotFoundException if Jenkins home/root path cannot be found
+     */
+    public File getLogFile(LogFormat logFormat) throws FileNotFoundException {
+        File userContentDir = new File(JenkinsUtil.getUserContentDirectory());
+        return new File(userContentDir.getAbsolutePath() + File.separator + LOG_FILE_SHORTNAME
+                + logFormat.getExtension());
+    }
+
     /**
      * @return the CSV log file for this plugin, which is located in the user content directory of Jenkins.
      * @throws FileNotFoundException if Jenkins home/root path cannot be found
@@ -73,6 +465,16 @@ public class JobLoggerPluginConfiguration extends GlobalConfiguration {
         return new File(userContentDir.getAbsolutePath() + File.separator + LOG_FILE_FULLNAME);
     }
 
+    /**
+     * @return the utilization log file for this plugin, which is located in the user content directory of Jenkins.
+     * @throws FileNotFoundException if Jenkins home/root path cannot be found
+     */
+    public File getUtilizationLogFile() throws FileNotFoundException {
+        File userContentDir = new File(JenkinsUtil.getUserContentDirectory());
+        return new File(userContentDir.getAbsolutePath() + File.separator + LOG_FILE_SHORTNAME
+                + UtilizationLogWriter.getLogFileExtension());
+    }
+
     /**
      * @return the log file short name (without file extension).
      */
@@ -92,10 +494,57 @@ public class JobLoggerPluginConfiguration extends GlobalConfiguration {
         logEnabled = json.getBoolean("logEnabled");
         if (!logEnabled) {
             JobStatusManager.getInstance().clear();
+            JobStatusJournal.getInstance().clear();
+            QueueTimeCache.getInstance().clear();
         }
         maxLogFileSize = json.getDouble("maxLogFileSize");
-        LOGGER.info("Saving configuration: log enabled: " + logEnabled + ", file size limit: " + maxLogFileSize);
+        writerBatchSize = json.optInt("writerBatchSize", writerBatchSize);
+        writerFlushInterval = json.optLong("writerFlushInterval", writerFlushInterval);
+        nodeNameLogScanEnabled = json.optBoolean("nodeNameLogScanEnabled", nodeNameLogScanEnabled);
+        nodeNameLogScanLimit = json.optDouble("nodeNameLogScanLimit", nodeNameLogScanLimit);
+        binaryLogEnabled = json.optBoolean("binaryLogEnabled", binaryLogEnabled);
+        socketHost = json.optString("socketHost", "").trim();
+        socketPort = json.optInt("socketPort", socketPort);
+        databaseEnabled = json.optBoolean("databaseEnabled", databaseEnabled);
+        compactionEnabled = json.optBoolean("compactionEnabled", compactionEnabled);
+        maxArchiveCount = json.optInt("maxArchiveCount", maxArchiveCount);
+        maxArchiveSize = json.optDouble("maxArchiveSize", maxArchiveSize);
+        maxArchiveAge = json.optInt("maxArchiveAge", maxArchiveAge);
+        utilizationSampleInterval = json.optInt("utilizationSampleInterval", utilizationSampleInterval);
+        commitRecords = json.optInt("commitRecords", commitRecords);
+        commitInterval = json.optLong("commitInterval", commitInterval);
+        waitForCommit = json.optBoolean("waitForCommit", waitForCommit);
+        setMetricsEnabled(json.optBoolean("metricsEnabled", metricsEnabled));
+        if (json.has("rotationPeriod")) {
+            rotationPeriod = RotationPeriod.valueOf(json.getString("rotationPeriod"));
+        }
+        if (json.has("pipelineTiming")) {
+            pipelineTiming = PipelineTiming.valueOf(json.getString("pipelineTiming"));
+        }
+        if (json.has("archiveCompression")) {
+            archiveCompression = ArchiveCompression.valueOf(json.getString("archiveCompression"));
+        }
+        if (json.has("logDurability")) {
+            logDurability = LogDurability.valueOf(json.getString("logDurability"));
+        }
+        LogCommitter.getInstance().setDurability(logDurability, commitRecords, commitInterval);
+        LOGGER.info("Saving configuration: log enabled: " + logEnabled + ", file size limit: " + maxLogFileSize
+                + ", writer batch size: " + writerBatchSize + ", writer flush interval: " + writerFlushInterval
+                + ", node name log scan enabled: " + nodeNameLogScanEnabled
+                + ", node name log scan limit: " + nodeNameLogScanLimit
+                + ", archive compression: " + archiveCompression + ", binary log enabled: " + binaryLogEnabled
+                + ", socket host: " + socketHost + ", socket port: " + socketPort
+                + ", database enabled: " + databaseEnabled + ", compaction enabled: " + compactionEnabled
+                + ", rotation period: " + rotationPeriod + ", max archive count: " + maxArchiveCount
+                + ", max archive size: " + maxArchiveSize + ", max archive age: " + maxArchiveAge
+                + ", metrics enabled: " + metricsEnabled + ", pipeline timing: " + pipelineTiming
+                + ", utilization sample interval: " + utilizationSampleInterval
+                + ", log durability: " + logDurability + ", commit records: " + commitRecords
+                + ", commit interval: " + commitInterval + ", wait for commit: " + waitForCommit);
         save();
+        if (databaseEnabled) {
+            LogImporter.importLater();
+        }
         return true;
     }
 
@@ -111,4 +560,135 @@ public class JobLoggerPluginConfiguration extends GlobalConfiguration {
         }
         return FormValidation.ok();
     }
+
+    /**
+     * Validates the entered maximum size of the console log to search for node names by a user.
+     *
+     * @param scanLimit the maximum size in MB; or 0 for no limit
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckNodeNameLogScanLimit(@QueryParameter("nodeNameLogScanLimit") final double scanLimit) {
+        if (scanLimit < 0.0) {
+            return FormValidation.error("Console log search limit must be a decimal number, zero or greater!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered batch size of the log writer by a user.
+     *
+     * @param batchSize the maximum number of entries per write
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckWriterBatchSize(@QueryParameter("writerBatchSize") final int batchSize) {
+        if (batchSize <= 0) {
+            return FormValidation.error("Batch size must be a number, greater than zero!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered flush interval of the log writer by a user.
+     *
+     * @param flushInterval the flush interval in milliseconds
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckWriterFlushInterval(@QueryParameter("writerFlushInterval") final long flushInterval) {
+        if (flushInterval <= 0) {
+            return FormValidation.error("Flush interval must be a number, greater than zero!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered maximum number of archived log files by a user.
+     *
+     * @param maxCount the maximum number of archives
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckMaxArchiveCount(@QueryParameter("maxArchiveCount") final int maxCount) {
+        if (maxCount < 0) {
+            return FormValidation.error("Maximum number of archives must be a number, zero for no limit!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered maximum total size of archived log files by a user.
+     *
+     * @param maxSize the maximum total size in MB
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckMaxArchiveSize(@QueryParameter("maxArchiveSize") final double maxSize) {
+        if (maxSize < 0.0) {
+            return FormValidation.error("Maximum archive size must be a decimal number, zero for no limit!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered maximum age of archived log files by a user.
+     *
+     * @param maxAge the maximum age in days
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckMaxArchiveAge(@QueryParameter("maxArchiveAge") final int maxAge) {
+        if (maxAge < 0) {
+            return FormValidation.error("Maximum archive age must be a number of days, zero for no limit!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered sample interval of the executor utilization by a user.
+     *
+     * @param interval the sample interval in seconds
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckUtilizationSampleInterval(
+            @QueryParameter("utilizationSampleInterval") final int interval) {
+        if (interval < 0) {
+            return FormValidation.error("Sample interval must be a number of seconds, zero to not sample!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered number of records per commit by a user.
+     *
+     * @param records the number of uncommitted records which are committed at once
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckCommitRecords(@QueryParameter("commitRecords") final int records) {
+        if (records <= 0) {
+            return FormValidation.error("Commit records must be a number, greater than zero!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered commit interval by a user.
+     *
+     * @param interval the commit interval in milliseconds
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckCommitInterval(@QueryParameter("commitInterval") final long interval) {
+        if (interval <= 0) {
+            return FormValidation.error("Commit interval must be a number, greater than zero!");
+        }
+        return FormValidation.ok();
+    }
+
+    /**
+     * Validates the entered TCP port of the syslog server or TCP receiver by a user.
+     *
+     * @param port the TCP port
+     * @return {@link FormValidation#ok()} if the entered number is valid; otherwise it will throw a validation error
+     */
+    public FormValidation doCheckSocketPort(@QueryParameter("socketPort") final int port) {
+        if (port <= 0 || port > MAX_PORT) {
+            return FormValidation.error("Port must be a number between 1 and " + MAX_PORT + "!");
+        }
+        return FormValidation.ok();
+    }
 }
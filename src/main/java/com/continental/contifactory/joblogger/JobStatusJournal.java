@@ -0,0 +1,506 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.JenkinsUtil;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * This class journals the job status of started builds in an append-only file in {@code JENKINS_HOME}, so builds
+ * which are still running when Jenkins restarts are logged after they are resumed.<p>
+ * Started and completed builds only put a record into a bounded queue. A background thread appends all queued
+ * records at once and syncs them to disk with a single fsync, so {@code onStarted} never waits for the disk.
+ * The journal is replayed into the {@link JobStatusManager} on startup, and rewritten with the records of the
+ * running builds only, whenever it grows too large.
+ * <p>
+ * Each line of the journal is one record, with tab separated fields:<br>
+ * {@code S [build id] [job name] [job number] [start time] [cause] [console url] [queue time] [left queue time]
+ * [label] [executor]} for a started build, the queue fields are missing in records of older versions<br>
+ * {@code N [build id] [node name]} for a node used by a running build<br>
+ * {@code C [build id]} for a completed build
+ * <p>
+ * The node names of a restored build are marked as captured if the journal holds any of them, otherwise the
+ * console log is searched for them when the build is completed.
+ */
+public class JobStatusJournal {
+    /**
+     * Name of the journal file in the Jenkins Home directory.
+     */
+    public static final String JOURNAL_FILE_NAME = "job-logger-journal.log";
+
+    private static final Logger LOGGER = Logger.getLogger(JobStatusJournal.class.getName());
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final long POLL_INTERVAL = 1000; // in ms
+    private static final long SHUTDOWN_TIMEOUT = 30000; // in ms
+    private static final int COMPACT_MIN_RECORDS = 1000;
+    private static final String STARTED = "S";
+    private static final String COMPLETED = "C";
+    private static final String NODE = "N";
+    private static final String CLEAR = "X";
+    private static final char SEPARATOR = '\t';
+    private static final int STARTED_FIELDS = 7;
+    private static final int JOB_NAME_INDEX = 2;
+    private static final int JOB_NUMBER_INDEX = 3;
+    private static final int START_DATE_INDEX = 4;
+    private static final int CAUSE_INDEX = 5;
+    private static final int CONSOLE_URL_INDEX = 6;
+    private static final int QUEUE_FIELDS = 11;
+    private static final int QUEUE_DATE_INDEX = 7;
+    private static final int LEFT_QUEUE_DATE_INDEX = 8;
+    private static final int LABEL_INDEX = 9;
+    private static final int EXECUTOR_INDEX = 10;
+    private static final int NODE_FIELDS = 3;
+    private static JobStatusJournal instance = new JobStatusJournal(null);
+
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // records of the running builds, by build id, the started record first
+    private final Map<String, List<String>> liveRecords = new LinkedHashMap<>();
+    private File journalFile;
+    private FileChannel channel;
+    private int recordCount;
+    private int liveRecordCount;
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * @param journalFile the journal file; or null for the journal file in the Jenkins Home directory
+     */
+    public JobStatusJournal(File journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * @return the journal of this plugin
+     */
+    public static JobStatusJournal getInstance() {
+        return instance;
+    }
+
+    /**
+     * Replays the journal into the job status cache, before the builds are resumed.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void replayJournal() {
+        try {
+            Map<String, JobStatus> jobStatusMap = getInstance().replay(JobStatusManager.DEFAULT_TIME_TO_LIVE);
+            for (Map.Entry<String, JobStatus> entry : jobStatusMap.entrySet()) {
+                JobStatusManager.getInstance().put(entry.getKey(), entry.getValue());
+            }
+            LOGGER.info("Restored " + jobStatusMap.size() + " running builds from the job status journal");
+        } catch (IOException e) {
+            LOGGER.severe("IOException: Could not replay job status journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes all queued records to the journal when Jenkins shuts down.
+     */
+    @Terminator
+    public static void shutdown() {
+        getInstance().stop();
+    }
+
+    /**
+     * Queues a record for the given started build.
+     *
+     * @param buildId   the id of the build
+     * @param jobStatus the job status of the build
+     * @see JobStatusManager#getBuildId(hudson.model.Run)
+     */
+    public void started(String buildId, JobStatus jobStatus) {
+        StringBuilder sb = new StringBuilder(STARTED);
+        appendField(sb, buildId);
+        appendField(sb, jobStatus.getJobName());
+        appendField(sb, String.valueOf(jobStatus.getJobNumber()));
+        appendField(sb, toMillis(jobStatus.getStartDate()));
+        appendField(sb, jobStatus.getBuildCause());
+        appendField(sb, jobStatus.getConsoleUrl());
+        appendField(sb, toMillis(jobStatus.getQueueDate()));
+        appendField(sb, toMillis(jobStatus.getLeftQueueDate()));
+        appendField(sb, jobStatus.getLabel());
+        appendField(sb, jobStatus.getExecutor() != null ? String.valueOf(jobStatus.getExecutor()) : "");
+        submit(sb.toString());
+    }
+
+    /**
+     * Queues a record for a node used by the given running build.
+     *
+     * @param buildId  the id of the build
+     * @param nodeName the name of the node
+     */
+    public void nodeAdded(String buildId, String nodeName) {
+        StringBuilder sb = new StringBuilder(NODE);
+        appendField(sb, buildId);
+        appendField(sb, nodeName);
+        submit(sb.toString());
+    }
+
+    /**
+     * Queues a record for the given completed build.
+     *
+     * @param buildId the id of the build
+     */
+    public void completed(String buildId) {
+        StringBuilder sb = new StringBuilder(COMPLETED);
+        appendField(sb, buildId);
+        submit(sb.toString());
+    }
+
+    /**
+     * Removes all records from the journal.
+     */
+    public void clear() {
+        submit(CLEAR);
+    }
+
+    /**
+     * Reads the journal and rewrites it with the records of the running builds only.
+     *
+     * @param maxAge the maximum age in ms of a running build, older builds are dropped
+     * @return the job status of the running builds, by build id
+     * @throws IOException if the journal cannot be read or written
+     */
+    public synchronized Map<String, JobStatus> replay(long maxAge) throws IOException {
+        File file = getJournalFile();
+        liveRecords.clear();
+        liveRecordCount = 0;
+        if (file.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String record = reader.readLine();
+                while (record != null) {
+                    apply(record);
+                    record = reader.readLine();
+                }
+            }
+        }
+
+        Map<String, JobStatus> jobStatusMap = new LinkedHashMap<>();
+        long minStartTime = System.currentTimeMillis() - maxAge;
+        for (Map.Entry<String, List<String>> entry : new ArrayList<>(liveRecords.entrySet())) {
+            JobStatus jobStatus = decode(entry.getValue());
+            if (jobStatus == null || jobStatus.getStartDate() == null
+                    || jobStatus.getStartDate().getTime() < minStartTime) {
+                LOGGER.fine("Dropping job status journal record: " + entry.getKey());
+                remove(entry.getKey());
+            } else {
+                jobStatusMap.put(entry.getKey(), jobStatus);
+            }
+        }
+        compact();
+        return jobStatusMap;
+    }
+
+    /**
+     * Starts the journal thread, if it is not running yet.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drain, "Job Logger journal");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the journal thread after all queued records are written, and closes the journal.
+     */
+    public void stop() {
+        Thread stopped;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            // no interrupt here, an interrupted FileChannel write would close the journal
+            running = false;
+            stopped = worker;
+            worker = null;
+        }
+        try {
+            stopped.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (stopped.isAlive()) {
+            LOGGER.warning("Journal writer did not stop in time, " + queue.size() + " records not written!");
+        }
+        closeJournal();
+    }
+
+    private void submit(String record) {
+        start();
+        if (!queue.offer(record)) {
+            LOGGER.warning("Journal queue is full, writing record directly");
+            List<String> records = new ArrayList<>();
+            records.add(record);
+            write(records);
+        }
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        while (running) {
+            try {
+                String first = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // all records which were queued in the meantime share one fsync
+                batch.add(first);
+                queue.drainTo(batch);
+            } catch (InterruptedException e) {
+                LOGGER.fine("Journal writer interrupted");
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+
+        // drain what is left on shutdown
+        queue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private synchronized void write(List<String> records) {
+        StringBuilder sb = new StringBuilder();
+        boolean cleared = false;
+        for (String record : records) {
+            if (CLEAR.equals(record)) {
+                liveRecords.clear();
+                liveRecordCount = 0;
+                sb.setLength(0);
+                cleared = true;
+                continue;
+            }
+            apply(record);
+            sb.append(record).append('\n');
+            recordCount++;
+        }
+
+        try {
+            // rewrite the journal, if most records belong to completed builds
+            if (cleared || recordCount > COMPACT_MIN_RECORDS && recordCount > 2 * liveRecordCount) {
+                compact();
+                return;
+            }
+
+            openJournal();
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            LOGGER.severe("IOException during writing job status journal: " + e.getMessage());
+            closeJournal();
+        }
+    }
+
+    private void apply(String record) {
+        String[] fields = split(record);
+        if (fields.length < 2) {
+            return;
+        }
+        if (STARTED.equals(fields[0])) {
+            List<String> records = new ArrayList<>();
+            records.add(record);
+            remove(fields[1]);
+            liveRecords.put(fields[1], records);
+            liveRecordCount++;
+        } else if (NODE.equals(fields[0])) {
+            List<String> records = liveRecords.get(fields[1]);
+            if (records != null) {
+                records.add(record);
+                liveRecordCount++;
+            }
+        } else if (COMPLETED.equals(fields[0])) {
+            remove(fields[1]);
+        }
+    }
+
+    private void remove(String buildId) {
+        List<String> records = liveRecords.remove(buildId);
+        if (records != null) {
+            liveRecordCount -= records.size();
+        }
+    }
+
+    private void compact() throws IOException {
+        closeJournal();
+        File file = getJournalFile();
+        File tmpFile = new File(file.getPath() + ".tmp");
+        StringBuilder sb = new StringBuilder();
+        for (List<String> records : liveRecords.values()) {
+            for (String record : records) {
+                sb.append(record).append('\n');
+            }
+        }
+
+        try (FileChannel tmpChannel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                tmpChannel.write(buffer);
+            }
+            tmpChannel.force(false);
+        }
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = liveRecordCount;
+        LOGGER.fine("Compacted job status journal: " + liveRecords.size() + " running builds");
+    }
+
+    private void openJournal() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            return;
+        }
+        channel = FileChannel.open(getJournalFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private synchronized void closeJournal() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warning("IOException: Could not close job status journal: " + e.getMessage());
+            }
+        }
+        channel = null;
+    }
+
+    private File getJournalFile() throws IOException {
+        if (journalFile == null) {
+            journalFile = new File(JenkinsUtil.getJenkinsHomeDirectory(), JOURNAL_FILE_NAME);
+        }
+        return journalFile;
+    }
+
+    private static JobStatus decode(List<String> records) {
+        JobStatus jobStatus = decodeStarted(records.get(0));
+        if (jobStatus == null) {
+            return null;
+        }
+        for (String record : records.subList(1, records.size())) {
+            String[] fields = split(record);
+            if (fields.length >= NODE_FIELDS) {
+                jobStatus.addNodeName(fields[2]);
+                jobStatus.setNodeNamesCaptured(true);
+            }
+        }
+        return jobStatus;
+    }
+
+    private static JobStatus decodeStarted(String record) {
+        String[] fields = split(record);
+        if (fields.length < STARTED_FIELDS) {
+            return null;
+        }
+        try {
+            JobStatus jobStatus = new JobStatus();
+            jobStatus.setJobName(fields[JOB_NAME_INDEX]);
+            jobStatus.setJobNumber(Integer.parseInt(fields[JOB_NUMBER_INDEX]));
+            jobStatus.setStartDate(toDate(fields[START_DATE_INDEX]));
+            jobStatus.setBuildCause(fields[CAUSE_INDEX]);
+            jobStatus.setConsoleUrl(fields[CONSOLE_URL_INDEX]);
+            if (fields.length >= QUEUE_FIELDS) {
+                jobStatus.setQueueDate(toDate(fields[QUEUE_DATE_INDEX]));
+                jobStatus.setLeftQueueDate(toDate(fields[LEFT_QUEUE_DATE_INDEX]));
+                jobStatus.setLabel(fields[LABEL_INDEX].isEmpty() ? null : fields[LABEL_INDEX]);
+                jobStatus.setExecutor(fields[EXECUTOR_INDEX].isEmpty() ? null
+                        : Integer.valueOf(fields[EXECUTOR_INDEX]));
+            }
+            return jobStatus;
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid job status journal record: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String toMillis(Date date) {
+        return date != null ? String.valueOf(date.getTime()) : "";
+    }
+
+    private static Date toDate(String millis) {
+        return millis.isEmpty() ? null : new Date(Long.parseLong(millis));
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        sb.append(SEPARATOR);
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c == SEPARATOR) {
+                sb.append("\\t");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private static String[] split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < record.length()) {
+                i++;
+                char escaped = record.charAt(i);
+                if (escaped == 't') {
+                    field.append(SEPARATOR);
+                } else if (escaped == 'n') {
+                    field.append('\n');
+                } else if (escaped == 'r') {
+                    field.append('\r');
+                } else {
+                    field.append(escaped);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -1,46 +1,243 @@
 package com.continental.contifactory.joblogger;
 
 import com.continental.contifactory.joblogger.model.JobStatus;
+import hudson.model.Job;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.StaplerRequest;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
 
 /**
  * This class caches job status in between job runs.
  * If a job started, the job status will be cached here in it will be removed after the job is completed.
  * The cache is cleared completely if logging is disabled for this plugin.
+ * <p>
+ * The job status are cached by their build id ({@code [full job name]#[build number]}), so the cache does not keep
+ * whole builds in memory. Job status which were not used for a long time are evicted, e.g. if a build never
+ * completed, and the cache never holds more than its maximum number of job status. A full cache evicts the least
+ * recently used tenth of its job status at once, so it is not searched again on every put.
  *
  * @see com.continental.contifactory.joblogger.listeners.JobRunListener#onStarted(Run, TaskListener)
  * @see com.continental.contifactory.joblogger.listeners.JobRunListener#onCompleted(Run, TaskListener)
  * @see JobLoggerPluginConfiguration#configure(StaplerRequest, JSONObject)
  */
 public class JobStatusManager {
+    /**
+     * Default maximum number of cached job status.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    /**
+     * Default time in ms after which an unused job status is evicted.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.DAYS.toMillis(7);
+    private static final long EVICTION_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+    private static final Logger LOGGER = Logger.getLogger(JobStatusManager.class.getName());
     private static JobStatusManager instance = new JobStatusManager();
 
-    private Map<Run, JobStatus> jobStatusMap = Collections.synchronizedMap(new HashMap<>());
+    private final ConcurrentMap<String, Entry> jobStatusMap = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long timeToLive;
+    private final AtomicLong nextEviction = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
+    /**
+     * Creates a cache with the default maximum size and time to live.
+     */
+    public JobStatusManager() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param maxSize    the maximum number of cached job status
+     * @param timeToLive the time in ms after which an unused job status is evicted
+     */
+    public JobStatusManager(int maxSize, long timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @return the job status cache of this plugin
+     */
     public static JobStatusManager getInstance() {
         return instance;
     }
 
+    /**
+     * @param run a build
+     * @return the id of the given build: {@code [full job name]#[build number]}
+     */
+    public static String getBuildId(Run run) {
+        Job parent = run.getParent();
+        String jobName = parent != null ? parent.getFullName() : "";
+        return jobName + "#" + run.getNumber();
+    }
+
+    /**
+     * Caches the job status of the given build.
+     * Stale job status are evicted first, and the oldest job status if the cache is full.
+     *
+     * @param run       a started build
+     * @param jobStatus the job status of the build
+     */
     public void put(Run run, JobStatus jobStatus) {
-        jobStatusMap.put(run, jobStatus);
+        put(getBuildId(run), jobStatus);
+    }
+
+    /**
+     * Caches the job status of the build with the given id.
+     *
+     * @param buildId   the id of a started build
+     * @param jobStatus the job status of the build
+     * @see #getBuildId(Run)
+     */
+    public void put(String buildId, JobStatus jobStatus) {
+        long now = System.currentTimeMillis();
+        if (isEvictionDue(now)) {
+            evictStale(now);
+        }
+        while (jobStatusMap.size() >= maxSize) {
+            if (evictOldest(now) == 0) {
+                break;
+            }
+        }
+        jobStatusMap.put(buildId, new Entry(jobStatus, now));
     }
 
+    /**
+     * @param run a build
+     * @return the cached job status of the given build; or null if there is none
+     */
     public JobStatus get(Run run) {
-        return jobStatusMap.get(run);
+        Entry entry = jobStatusMap.get(getBuildId(run));
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.jobStatus;
     }
 
+    /**
+     * @param run a build
+     */
     public void remove(Run run) {
-        jobStatusMap.remove(run);
+        jobStatusMap.remove(getBuildId(run));
     }
 
+    /**
+     * Removes all cached job status.
+     */
     public void clear() {
         jobStatusMap.clear();
     }
+
+    /**
+     * Evicts all job status which were not used within the time to live.
+     *
+     * @return the number of evicted job status
+     */
+    public int evictStale() {
+        return evictStale(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the number of cached job status
+     */
+    public int size() {
+        return jobStatusMap.size();
+    }
+
+    /**
+     * @return the number of lookups which found a job status
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups which did not find a job status
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of job status which were evicted, because they were stale or the cache was full
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // only one thread searches for stale job status per eviction interval
+    private boolean isEvictionDue(long now) {
+        long next = nextEviction.get();
+        return now >= next && nextEviction.compareAndSet(next, now + EVICTION_INTERVAL);
+    }
+
+    private int evictStale(long now) {
+        int evicted = 0;
+        Iterator<Map.Entry<String, Entry>> it = jobStatusMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (now - entry.getValue().lastAccess > timeToLive) {
+                LOGGER.fine("Evicting stale job status: " + entry.getKey());
+                it.remove();
+                evicted++;
+            }
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    // evicts the stale job status and the least recently used tenth of the cache, in one pass over the cache
+    private int evictOldest(long now) {
+        long[] lastAccesses = jobStatusMap.values().stream().mapToLong(entry -> entry.lastAccess).toArray();
+        if (lastAccesses.length == 0) {
+            return 0;
+        }
+        Arrays.sort(lastAccesses);
+        int batchSize = Math.max(1, maxSize / EVICTION_BATCH_DIVISOR);
+        long oldestKept = lastAccesses[Math.min(batchSize, lastAccesses.length) - 1];
+        LOGGER.fine("Job status cache is full, evicting job status not used since: " + oldestKept);
+
+        int evicted = 0;
+        for (Map.Entry<String, Entry> entry : jobStatusMap.entrySet()) {
+            long lastAccess = entry.getValue().lastAccess;
+            // the entry might have been removed or replaced by another thread in the meantime, then it is kept
+            if ((lastAccess <= oldestKept || now - lastAccess > timeToLive)
+                    && jobStatusMap.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * A cached job status, with the time it was last used.
+     */
+    private static final class Entry {
+        private final JobStatus jobStatus;
+        private volatile long lastAccess;
+
+        private Entry(JobStatus jobStatus, long lastAccess) {
+            this.jobStatus = jobStatus;
+            this.lastAccess = lastAccess;
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.model.StageStatus;
+import com.continental.contifactory.joblogger.sinks.JobStatusSink;
+import com.continental.contifactory.joblogger.sinks.SinkQueue;
+import com.continental.contifactory.joblogger.util.JenkinsUtil;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * This class dispatches job status to all enabled {@link JobStatusSink}s, e.g. the CSV log file.<p>
+ * Every sink has its own {@link SinkQueue} with a bounded queue and a writer thread, which writes the job status
+ * in batches. Completed builds only put their job status into the queues, so build completion never waits for a
+ * sink, and a slow sink does not delay the other sinks. If a queue is full, the backpressure policy of its sink
+ * decides what happens to the job status.
+ *
+ * @see JobLoggerPluginConfiguration#getWriterBatchSize()
+ * @see JobLoggerPluginConfiguration#getWriterFlushInterval()
+ */
+public class JobStatusWriter {
+    /**
+     * Name of the directory in the Jenkins Home directory with the spill files of the sinks.
+     */
+    public static final String SPILL_DIR_NAME = "job-logger-spill";
+
+    private static final Logger LOGGER = Logger.getLogger(JobStatusWriter.class.getName());
+    private static JobStatusWriter instance = new JobStatusWriter(null);
+
+    // queues of the sinks, by sink id
+    private final Map<String, SinkQueue> queues = new ConcurrentHashMap<>();
+    private File spillDir;
+
+    /**
+     * @param spillDir the directory of the spill files; or null for the directory in the Jenkins Home directory
+     */
+    public JobStatusWriter(File spillDir) {
+        this.spillDir = spillDir;
+    }
+
+    /**
+     * @return the log writer of this plugin
+     */
+    public static JobStatusWriter getInstance() {
+        return instance;
+    }
+
+    /**
+     * Queues the given job status to be written to all enabled sinks. A {@link StageStatus} is only written to the
+     * sinks of Pipeline stages.
+     *
+     * @param jobStatus the {@link JobStatus} to be logged
+     * @see JobStatusSink#isStageSink()
+     */
+    public void submit(JobStatus jobStatus) {
+        boolean stage = jobStatus instanceof StageStatus;
+        for (JobStatusSink sink : JobStatusSink.all()) {
+            if (sink.isEnabled() && sink.isStageSink() == stage) {
+                getQueue(sink).offer(jobStatus);
+            }
+        }
+    }
+
+    /**
+     * @return the number of job status which are waiting to be written, in all queues
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (SinkQueue queue : queues.values()) {
+            size += queue.getQueueSize();
+        }
+        return size;
+    }
+
+    /**
+     * @return the queues of the sinks which were used since the last start
+     */
+    public List<SinkQueue> getQueues() {
+        return new ArrayList<>(queues.values());
+    }
+
+    /**
+     * Starts the queues of all enabled sinks, so job status which were spilled before a restart are written.
+     */
+    public void start() {
+        for (JobStatusSink sink : JobStatusSink.all()) {
+            if (sink.isEnabled()) {
+                getQueue(sink);
+            }
+        }
+    }
+
+    /**
+     * Stops all writer threads after all queued job status are written, and closes the sinks.
+     */
+    public synchronized void stop() {
+        for (SinkQueue queue : queues.values()) {
+            queue.stop();
+        }
+        queues.clear();
+    }
+
+    /**
+     * Starts the queues of all enabled sinks when Jenkins has started.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void startSinks() {
+        getInstance().start();
+    }
+
+    /**
+     * Writes all queued job status when Jenkins shuts down.
+     */
+    @Terminator
+    public static void shutdown() {
+        LOGGER.fine("Jenkins is shutting down, writing remaining job status...");
+        getInstance().stop();
+    }
+
+    private SinkQueue getQueue(JobStatusSink sink) {
+        SinkQueue queue = queues.get(sink.getId());
+        if (queue != null) {
+            return queue;
+        }
+        synchronized (this) {
+            queue = queues.get(sink.getId());
+            if (queue == null) {
+                queue = new SinkQueue(sink, getSpillDirectory());
+                queue.start();
+                queues.put(sink.getId(), queue);
+            }
+            return queue;
+        }
+    }
+
+    private File getSpillDirectory() {
+        if (spillDir == null) {
+            try {
+                spillDir = new File(JenkinsUtil.getJenkinsHomeDirectory(), SPILL_DIR_NAME);
+            } catch (FileNotFoundException e) {
+                LOGGER.warning("FileNotFoundException: No directory for spill files: " + e.getMessage());
+            }
+        }
+        return spillDir;
+    }
+}
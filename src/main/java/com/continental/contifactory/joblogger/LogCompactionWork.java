@@ -0,0 +1,44 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.util.LogCompactor;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Compacts the archived log files into daily log files once a day, if compaction is enabled.
+ *
+ * @see JobLoggerPluginConfiguration#isCompactionEnabled()
+ */
+@Extension
+public class LogCompactionWork extends AsyncPeriodicWork {
+
+    /**
+     * Creates the daily compaction.
+     */
+    public LogCompactionWork() {
+        super("Job Logger compaction");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return DAY;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        if (!config.isCompactionEnabled()) {
+            return;
+        }
+        try {
+            int compacted = LogCompactor.compactLater(config.getCsvLogFile()).get();
+            listener.getLogger().println("Compacted " + compacted + " archived log files");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not compact archived log files: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.util.LogRetention;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Deletes archived log files beyond the retention limits once an hour, so the append path never lists or deletes
+ * archives.
+ *
+ * @see LogRetention
+ */
+@Extension
+public class LogRetentionWork extends AsyncPeriodicWork {
+
+    /**
+     * Creates the hourly retention.
+     */
+    public LogRetentionWork() {
+        super("Job Logger retention");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return HOUR;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        try {
+            int deleted = LogRetention.enforceLater(JobLoggerPluginConfiguration.get().getCsvLogFile()).get();
+            listener.getLogger().println("Deleted " + deleted + " archived log files");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not delete archived log files: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.continental.contifactory.joblogger;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class caches the queue times of items which left the queue to an executor, by queue id, until their build
+ * is started and takes them over into its job status.<p>
+ * An item usually stays here for milliseconds only. Items whose build never started, e.g. because it was not
+ * logged, are evicted after their time to live, and the cache never holds more than its maximum number of items.
+ *
+ * @see com.continental.contifactory.joblogger.listeners.JobQueueListener
+ */
+public class QueueTimeCache {
+    /**
+     * Default maximum number of cached queue times.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    /**
+     * Default time in ms after which a queue time is evicted.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(10);
+    private static QueueTimeCache instance = new QueueTimeCache(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+
+    private final ConcurrentMap<Long, QueueTime> queueTimes = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long timeToLive;
+
+    /**
+     * @param maxSize    the maximum number of cached queue times
+     * @param timeToLive the time in ms after which a queue time is evicted
+     */
+    public QueueTimeCache(int maxSize, long timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @return the queue time cache of this plugin
+     */
+    public static QueueTimeCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Caches the queue time of an item which left the queue. Stale queue times are evicted first if the cache is
+     * full, if it is still full the queue time is not cached.
+     *
+     * @param queueId   the id of the queue item
+     * @param queueTime the queue time of the item
+     */
+    public void put(long queueId, QueueTime queueTime) {
+        if (queueTimes.size() >= maxSize) {
+            evictStale(queueTime.getLeftTime());
+            if (queueTimes.size() >= maxSize) {
+                return;
+            }
+        }
+        queueTimes.put(queueId, queueTime);
+    }
+
+    /**
+     * @param queueId the id of the queue item of a started build
+     * @return the queue time of the item, which is removed from the cache; or null if there is none
+     */
+    public QueueTime remove(long queueId) {
+        return queueTimes.remove(queueId);
+    }
+
+    /**
+     * @return the number of cached queue times
+     */
+    public int size() {
+        return queueTimes.size();
+    }
+
+    /**
+     * Removes all cached queue times.
+     */
+    public void clear() {
+        queueTimes.clear();
+    }
+
+    private void evictStale(long now) {
+        Iterator<QueueTime> it = queueTimes.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().getLeftTime() > timeToLive) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The times an item entered and left the queue, and the label it waited for.
+     */
+    public static final class QueueTime {
+        private final long queueTime;
+        private final long leftTime;
+        private final String label;
+
+        /**
+         * @param queueTime the time the item entered the queue, in epoch milliseconds
+         * @param leftTime  the time the item left the queue, in epoch milliseconds
+         * @param label     the label expression of the item; or null if it could run anywhere
+         */
+        public QueueTime(long queueTime, long leftTime, String label) {
+            this.queueTime = queueTime;
+            this.leftTime = leftTime;
+            this.label = label;
+        }
+
+        /**
+         * @return the time the item entered the queue, in epoch milliseconds
+         */
+        public long getQueueTime() {
+            return queueTime;
+        }
+
+        /**
+         * @return the time the item left the queue, in epoch milliseconds
+         */
+        public long getLeftTime() {
+            return leftTime;
+        }
+
+        /**
+         * @return the label expression of the item; or null if it could run anywhere
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+}
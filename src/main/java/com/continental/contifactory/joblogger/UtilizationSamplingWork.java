@@ -0,0 +1,74 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.util.UtilizationLogWriter;
+import com.continental.contifactory.joblogger.util.UtilizationSampler;
+import hudson.Extension;
+import hudson.init.Terminator;
+import hudson.model.PeriodicWork;
+import hudson.model.Queue;
+import jenkins.model.Jenkins;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Samples the busy and idle executors of every node and the length of the build queue, in the configured
+ * utilization sample interval, and writes the samples in batches to the utilization log file.<p>
+ * This work runs every second on the Jenkins timer and returns immediately if no sample is due, so a changed
+ * interval takes effect without a restart. The build queue is read from its lock free snapshot.
+ *
+ * @see UtilizationSampler
+ * @see JobLoggerPluginConfiguration#getUtilizationSampleInterval()
+ */
+@Extension
+public class UtilizationSamplingWork extends PeriodicWork {
+    private static final Logger LOGGER = Logger.getLogger(UtilizationSamplingWork.class.getName());
+    private static final long TICK = TimeUnit.SECONDS.toMillis(1);
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TICK;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        UtilizationSampler sampler = UtilizationSampler.getInstance();
+        long now = System.currentTimeMillis();
+        if (!config.isLogEnabled() || config.getUtilizationSampleInterval() <= 0) {
+            if (sampler.size() > 0) {
+                sampler.flush(config.getUtilizationLogFile());
+            }
+            return;
+        }
+
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        long interval = TimeUnit.SECONDS.toMillis(config.getUtilizationSampleInterval());
+        if (jenkins == null || !sampler.isSampleDue(now, interval)) {
+            return;
+        }
+        Queue queue = jenkins.getQueue();
+        int queueLength = queue != null ? queue.getApproximateItemsQuickly().size() : 0;
+        sampler.sample(jenkins.getComputers(), queueLength, now);
+        if (sampler.isFlushDue(now)) {
+            sampler.flush(config.getUtilizationLogFile());
+        }
+    }
+
+    /**
+     * Writes the collected samples when Jenkins shuts down.
+     */
+    @Terminator
+    public static void shutdown() {
+        UtilizationSampler sampler = UtilizationSampler.getInstance();
+        if (sampler.size() > 0) {
+            try {
+                sampler.flush(JobLoggerPluginConfiguration.get().getUtilizationLogFile());
+            } catch (FileNotFoundException e) {
+                LOGGER.warning("FileNotFoundException: Could not write utilization samples: " + e.getMessage());
+            }
+        }
+        UtilizationLogWriter.closeLogFile();
+    }
+}
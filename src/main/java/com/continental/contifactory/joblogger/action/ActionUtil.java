@@ -0,0 +1,117 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.JsonWriter;
+import com.continental.contifactory.joblogger.util.LogQuery;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * This class provides the request parsing and response writing which is shared by the endpoints of
+ * {@link com.continental.contifactory.joblogger.JobLogAction}.
+ */
+final class ActionUtil {
+    /**
+     * Maximum number of job status in a response.
+     */
+    static final int MAX_LIMIT = 10000;
+
+    private ActionUtil() {
+    }
+
+    /**
+     * @param request      a request with query parameters
+     * @param defaultLimit the limit if the request has no limit
+     * @param maxLimit     the maximum limit of the request
+     * @return the query of the given request
+     * @throws IllegalArgumentException if a parameter is invalid
+     */
+    static LogQuery parseQuery(StaplerRequest request, int defaultLimit, int maxLimit) {
+        LogQuery query = new LogQuery();
+        query.setJobName(emptyToNull(request.getParameter("job")));
+        query.setResult(emptyToNull(request.getParameter("result")));
+        query.setNodeName(emptyToNull(request.getParameter("node")));
+        query.setFrom(parseTime(request.getParameter("from"), Long.MIN_VALUE));
+        query.setTo(parseTime(request.getParameter("to"), Long.MAX_VALUE));
+        String limit = emptyToNull(request.getParameter("limit"));
+        query.setLimit(limit != null ? Integer.parseInt(limit) : defaultLimit);
+        if (query.getLimit() <= 0 || query.getLimit() > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        return query;
+    }
+
+    /**
+     * @param limit the limit parameter of a request; or null for the default limit
+     * @return the given limit
+     * @throws IllegalArgumentException if the limit is invalid
+     */
+    static int parseLimit(String limit) {
+        int value = limit != null && !limit.isEmpty() ? Integer.parseInt(limit) : LogQuery.DEFAULT_LIMIT;
+        if (value <= 0 || value > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return value;
+    }
+
+    /**
+     * @param time         epoch milliseconds or an ISO-8601 instant, e.g. {@code 2018-03-07T15:01:08Z}
+     * @param defaultValue the value if no time is given
+     * @return the given time in epoch milliseconds
+     * @throws IllegalArgumentException if the given time is invalid
+     */
+    static long parseTime(String time, long defaultValue) {
+        if (time == null || time.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            if (time.chars().allMatch(Character::isDigit)) {
+                return Long.parseLong(time);
+            }
+            return Instant.parse(time).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time: " + time, e);
+        }
+    }
+
+    /**
+     * @param value a request parameter
+     * @return the given parameter; or null if it is empty
+     */
+    static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Appends the given job status as JSON array.
+     *
+     * @param sb          the JSON
+     * @param jobStatuses the job status
+     * @return the given JSON
+     */
+    static StringBuilder writeJobStatuses(StringBuilder sb, List<JobStatus> jobStatuses) {
+        sb.append('[');
+        for (int i = 0; i < jobStatuses.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            JsonWriter.writeJobStatus(sb, jobStatuses.get(i));
+        }
+        return sb.append(']');
+    }
+
+    /**
+     * @param response a response
+     * @param json     the JSON answer
+     * @throws IOException if the response cannot be written
+     */
+    static void writeJson(StaplerResponse response, CharSequence json) throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(json.toString());
+    }
+}
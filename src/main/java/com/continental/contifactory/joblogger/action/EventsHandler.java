@@ -0,0 +1,60 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.BuildEventStream;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes completed builds to waiting clients under {@code [Jenkins URL]/job-logger/events}, see
+ * {@link BuildEventStream}.<p>
+ * {@code events?after=[sequence]&amp;limit=[n]&amp;timeout=[s]} waits for completed builds after a sequence number.
+ * Without {@code after}, the request waits for the next completed build. The response is a JSON object with the
+ * events, the {@code sequence} to poll again, the number of events which were {@code dropped} because the client
+ * fell behind, and {@code reset} after a restart of Jenkins.
+ */
+public class EventsHandler {
+    private static final long DEFAULT_TIMEOUT = 30; // in s
+    private static final long MAX_TIMEOUT = 300; // in s
+
+    /**
+     * Answers the completed builds after a sequence number with a JSON object, as soon as there are some or the
+     * timeout is over.
+     *
+     * @param request  the request with the sequence number, the limit and the timeout
+     * @param response the response
+     * @throws IOException if the response cannot be written
+     */
+    public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        BuildEventStream stream = BuildEventStream.getInstance();
+        long after;
+        int limit;
+        long timeout;
+        try {
+            String sequence = ActionUtil.emptyToNull(request.getParameter("after"));
+            after = sequence != null ? Long.parseLong(sequence) : stream.getLastSequence();
+            if (after < 0) {
+                throw new IllegalArgumentException("after must not be negative");
+            }
+            limit = ActionUtil.parseLimit(request.getParameter("limit"));
+            String seconds = ActionUtil.emptyToNull(request.getParameter("timeout"));
+            timeout = seconds != null ? Long.parseLong(seconds) : DEFAULT_TIMEOUT;
+            if (timeout < 0 || timeout > MAX_TIMEOUT) {
+                throw new IllegalArgumentException("timeout must be between 0 and " + MAX_TIMEOUT);
+            }
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        stream.poll(request, response, after, limit, TimeUnit.SECONDS.toMillis(timeout));
+    }
+}
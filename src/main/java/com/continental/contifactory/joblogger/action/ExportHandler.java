@@ -0,0 +1,184 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.util.ExportFormat;
+import com.continental.contifactory.joblogger.util.LogExporter;
+import com.continental.contifactory.joblogger.util.LogIndex;
+import com.continental.contifactory.joblogger.util.LogQuery;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams all job status of the log file and its archives under {@code [Jenkins URL]/job-logger/export}, with the
+ * filters of {@link QueryHandler} and {@code format=csv} (default) or {@code format=ndjson}.<p>
+ * The response is compressed with gzip if the client accepts it. An unfiltered CSV export supports {@code Range}
+ * requests to resume a download, validated by the {@code ETag} of the exported log files.
+ */
+public class ExportHandler {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String RANGE_UNIT = "bytes=";
+
+    /**
+     * Streams the job status of the log file and its archives as CSV or NDJSON file.
+     *
+     * @param request  the request with the query parameters and the format
+     * @param response the response
+     * @throws IOException if a log file cannot be read or the response cannot be written
+     */
+    public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        LogQuery query;
+        ExportFormat format;
+        try {
+            query = ActionUtil.parseQuery(request, Integer.MAX_VALUE, Integer.MAX_VALUE);
+            format = parseFormat(request.getParameter("format"));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        File logFile = JobLoggerPluginConfiguration.get().getCsvLogFile();
+        List<File> logFiles = LogIndex.getInstance().findLogFiles(logFile, query);
+        LogExporter exporter = new LogExporter(logFiles, query, format);
+        String charset = format == ExportFormat.CSV ? Charset.defaultCharset().name() : "UTF-8";
+        response.setContentType(format.getContentType() + ";charset=" + charset);
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + JobLoggerPluginConfiguration
+                .getLogFileShortname() + format.getExtension() + "\"");
+        response.setHeader("Vary", "Accept-Encoding");
+
+        if (exporter.isRaw()) {
+            long length = exporter.getLength();
+            String eTag = exporter.getETag();
+            response.setHeader("Accept-Ranges", "bytes");
+            response.setHeader("ETag", eTag);
+            String ifRange = request.getHeader("If-Range");
+            long[] range = ifRange == null || ifRange.equals(eTag) ? parseRange(request.getHeader("Range"), length)
+                    : null;
+            if (range != null && range.length == 0) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + range[0] + "-" + (range[1] - 1) + "/" + length);
+                response.setContentLengthLong(range[1] - range[0]);
+                exporter.write(response.getOutputStream(), range[0], range[1]);
+                return;
+            }
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (acceptsGzip(request.getHeader("Accept-Encoding"))) {
+            response.setHeader("Content-Encoding", "gzip");
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            exporter.write(gzip);
+            gzip.finish();
+            gzip.flush();
+        } else {
+            if (exporter.isRaw()) {
+                response.setContentLengthLong(exporter.getLength());
+            }
+            exporter.write(out);
+        }
+    }
+
+    /**
+     * @param format the name of an export format; or null for CSV
+     * @return the export format
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    static ExportFormat parseFormat(String format) {
+        if (format == null || format.isEmpty()) {
+            return ExportFormat.CSV;
+        }
+        return ExportFormat.valueOf(format.toUpperCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Parses a single byte range, multiple ranges are not supported and answered with the whole content.
+     *
+     * @param range  the value of the {@code Range} header, e.g. {@code bytes=100-199}, {@code bytes=100-} or
+     *               {@code bytes=-100}
+     * @param length the length of the content
+     * @return the first (inclusive) and last (exclusive) byte of the range; an empty array if the range cannot be
+     * satisfied; or null to answer with the whole content
+     */
+    static long[] parseRange(String range, long length) {
+        if (range == null || !range.startsWith(RANGE_UNIT) || range.contains(",")) {
+            return null;
+        }
+        String spec = range.substring(RANGE_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // suffix range: the last bytes of the content
+                start = Math.max(0, length - Long.parseLong(last));
+                end = length;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            }
+            if (start >= length) {
+                return new long[0];
+            }
+            if (start >= end) {
+                // syntactically invalid ranges are ignored
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param acceptEncoding the value of the {@code Accept-Encoding} header
+     * @return true, if the client accepts gzip compressed content; false otherwise
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && isZero(param.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality) <= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
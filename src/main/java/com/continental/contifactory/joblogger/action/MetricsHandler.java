@@ -0,0 +1,40 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.util.BuildStatistics;
+import com.continental.contifactory.joblogger.util.StatisticsWindow;
+import com.continental.contifactory.joblogger.util.StatisticsWriter;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers the {@link BuildStatistics} of all sliding windows in the text format of Prometheus under
+ * {@code [Jenkins URL]/job-logger/metrics}.
+ */
+public class MetricsHandler {
+
+    /**
+     * Answers the build statistics of all sliding windows in the text format of Prometheus.
+     *
+     * @param request  the request
+     * @param response the response
+     * @throws IOException if the response cannot be written
+     */
+    public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        long now = System.currentTimeMillis();
+        List<BuildStatistics.Snapshot> snapshots = new ArrayList<>();
+        for (StatisticsWindow window : StatisticsWindow.values()) {
+            snapshots.add(BuildStatistics.getInstance().getSnapshot(window, now));
+        }
+        StringBuilder sb = new StringBuilder();
+        StatisticsWriter.writePrometheus(sb, snapshots);
+        response.setContentType(StatisticsWriter.PROMETHEUS_CONTENT_TYPE);
+        response.getWriter().write(sb.toString());
+    }
+}
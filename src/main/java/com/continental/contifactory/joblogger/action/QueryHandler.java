@@ -0,0 +1,69 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.JobStatusDatabase;
+import com.continental.contifactory.joblogger.util.LogIndex;
+import com.continental.contifactory.joblogger.util.LogQuery;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Answers queries for job status under {@code [Jenkins URL]/job-logger/query}, with the {@link LogIndex},
+ * without reading the whole log file and all archives:
+ * <pre>
+ * GET /job-logger/query?job=[full job name]&amp;result=[result]&amp;node=[node name]
+ *                       &amp;from=[time]&amp;to=[time]&amp;limit=[n]
+ * </pre>
+ * All parameters are optional. Times are epoch milliseconds or ISO-8601, and are compared with the end date of the
+ * builds. The response is a JSON array of job status. If the embedded database is enabled and the log files are
+ * imported, the query is answered by the {@link JobStatusDatabase} instead.
+ */
+public class QueryHandler {
+    private static final Logger LOGGER = Logger.getLogger(QueryHandler.class.getName());
+
+    /**
+     * Answers a query for job status with a JSON array.
+     *
+     * @param request  the request with the query parameters
+     * @param response the response
+     * @throws IOException if the response cannot be written
+     */
+    public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        LogQuery query;
+        try {
+            query = ActionUtil.parseQuery(request, LogQuery.DEFAULT_LIMIT, ActionUtil.MAX_LIMIT);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<JobStatus> jobStatuses = query(query);
+        LOGGER.fine("Query found " + jobStatuses.size() + " job status in " + (System.currentTimeMillis() - start)
+                + " ms");
+        ActionUtil.writeJson(response, ActionUtil.writeJobStatuses(new StringBuilder(), jobStatuses));
+    }
+
+    private static List<JobStatus> query(LogQuery query) throws IOException {
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        JobStatusDatabase database = JobStatusDatabase.getInstance();
+        if (config.isDatabaseEnabled() && database.isImportComplete()) {
+            try {
+                return database.query(query);
+            } catch (SQLException e) {
+                LOGGER.warning("SQLException: Could not query the database, using the log index: " + e.getMessage());
+            }
+        }
+        return LogIndex.getInstance().query(config.getCsvLogFile(), query);
+    }
+}
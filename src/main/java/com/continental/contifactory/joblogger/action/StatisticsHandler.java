@@ -0,0 +1,42 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.util.BuildStatistics;
+import com.continental.contifactory.joblogger.util.StatisticsWindow;
+import com.continental.contifactory.joblogger.util.StatisticsWriter;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Answers the {@link BuildStatistics} of the last hour (default) or day as JSON object under
+ * {@code [Jenkins URL]/job-logger/statistics?window=[1h|24h]}.
+ */
+public class StatisticsHandler {
+
+    /**
+     * Answers the build statistics of a sliding window with a JSON object.
+     *
+     * @param request  the request with the window
+     * @param response the response
+     * @throws IOException if the response cannot be written
+     */
+    public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        StatisticsWindow window;
+        try {
+            String label = ActionUtil.emptyToNull(request.getParameter("window"));
+            window = label != null ? StatisticsWindow.fromLabel(label) : StatisticsWindow.HOUR;
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        StatisticsWriter.writeJson(sb, BuildStatistics.getInstance().getSnapshot(window, System.currentTimeMillis()));
+        ActionUtil.writeJson(response, sb);
+    }
+}
@@ -0,0 +1,31 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.JobLoggerMetrics;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.IOException;
+
+/**
+ * Answers the timers and counters of this plugin as text under {@code [Jenkins URL]/job-logger/stats}, see
+ * {@link JobLoggerMetrics}.
+ */
+public class StatsHandler {
+
+    /**
+     * Answers the timers and counters of this plugin as text.
+     *
+     * @param request  the request
+     * @param response the response
+     * @throws IOException if the response cannot be written
+     */
+    public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        StringBuilder sb = new StringBuilder();
+        JobLoggerMetrics.getInstance().writeText(sb);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(sb.toString());
+    }
+}
@@ -0,0 +1,52 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.util.JsonWriter;
+import com.continental.contifactory.joblogger.util.LogTailReader;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Answers the newest job status of the live log file under {@code [Jenkins URL]/job-logger/tail}, see
+ * {@link LogTailReader}.<p>
+ * {@code tail?limit=[n]} answers the newest job status, {@code tail?after=[cursor]&amp;limit=[n]} the job status
+ * written after a cursor of a previous response. The response is a JSON object with the job status
+ * ({@code records}), the {@code cursor} to continue and {@code reset}, if the log file was archived since the cursor.
+ */
+public class TailHandler {
+
+    /**
+     * Answers the newest job status of the live log file, or the job status written after a cursor, with a JSON
+     * object.
+     *
+     * @param request  the request with the cursor and the limit
+     * @param response the response
+     * @throws IOException if the log file cannot be read or the response cannot be written
+     */
+    public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        File logFile = JobLoggerPluginConfiguration.get().getCsvLogFile();
+        String cursor = ActionUtil.emptyToNull(request.getParameter("after"));
+        LogTailReader.Tail tail;
+        try {
+            int limit = ActionUtil.parseLimit(request.getParameter("limit"));
+            tail = cursor != null ? LogTailReader.readAfter(logFile, cursor, limit)
+                    : LogTailReader.readLast(logFile, limit);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder("{\"cursor\":");
+        JsonWriter.writeString(sb, tail.getCursor());
+        sb.append(",\"reset\":").append(tail.isReset()).append(",\"records\":");
+        ActionUtil.writeJobStatuses(sb, tail.getJobStatuses()).append('}');
+        ActionUtil.writeJson(response, sb);
+    }
+}
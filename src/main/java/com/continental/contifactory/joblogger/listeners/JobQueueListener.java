@@ -0,0 +1,35 @@
+package com.continental.contifactory.joblogger.listeners;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.QueueTimeCache;
+import hudson.Extension;
+import hudson.model.Label;
+import hudson.model.Queue;
+import hudson.model.queue.QueueListener;
+
+import java.util.logging.Logger;
+
+/**
+ * This {@link QueueListener} records when an item entered the queue, when it left the queue to an executor and
+ * which label it waited for, if logging is enabled. The times are cached in the {@link QueueTimeCache} by queue id,
+ * until {@link JobRunListener} takes them over into the job status of the started build.
+ * Cancelled items are not recorded.
+ */
+@Extension
+public class JobQueueListener extends QueueListener {
+    private static final Logger LOGGER = Logger.getLogger(JobQueueListener.class.getName());
+
+    @Override
+    public void onLeft(Queue.LeftItem item) {
+        if (item.isCancelled() || !JobLoggerPluginConfiguration.get().isLogEnabled()) {
+            return;
+        }
+
+        Label label = item.getAssignedLabel();
+        String expression = label != null ? label.getExpression() : null;
+        long now = System.currentTimeMillis();
+        LOGGER.fine("Queue item " + item.getId() + " left the queue after " + (now - item.getInQueueSince()) + " ms");
+        QueueTimeCache.getInstance().put(item.getId(), new QueueTimeCache.QueueTime(item.getInQueueSince(), now,
+                expression));
+    }
+}
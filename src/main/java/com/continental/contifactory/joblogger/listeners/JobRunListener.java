@@ -1,25 +1,37 @@
 package com.continental.contifactory.joblogger.listeners;
 
+import com.continental.contifactory.joblogger.BuildEventStream;
 import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.JobStatusJournal;
 import com.continental.contifactory.joblogger.JobStatusManager;
+import com.continental.contifactory.joblogger.JobStatusWriter;
+import com.continental.contifactory.joblogger.QueueTimeCache;
 import com.continental.contifactory.joblogger.model.JobStatus;
-import com.continental.contifactory.joblogger.util.CsvWriter;
+import com.continental.contifactory.joblogger.util.FileUtil;
 import com.continental.contifactory.joblogger.util.JenkinsUtil;
+import com.continental.contifactory.joblogger.util.LogCommitter;
+import com.continental.contifactory.joblogger.util.PluginMetrics;
 import hudson.Extension;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.model.listeners.RunListener;
 
 import javax.annotation.Nonnull;
-import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
  * This {@link RunListener} logs job status to a CSV log file, if logging is enabled.<p>
- * When a job is started, job information will be partially cached in the plugin. When the job is finished,
- * the job information will be completed by adding the job status and the nodes used by the job,
- * and finally the job status is written into the log file.
+ * When a job is started, job information will be partially cached in the plugin, together with the queue times
+ * recorded by {@link JobQueueListener} and the executor slot. The nodes used by the job
+ * are captured while the job is running, see {@link PipelineNodeListener} for pipelines.
+ * When the job is finished, the job information will be completed by adding the job status,
+ * and finally the job status is handed over to the {@link JobStatusWriter}, which writes it into the log file,
+ * and to the {@link BuildEventStream}, which pushes it to waiting clients. If configured, the build waits until
+ * its job status is committed to the log file, see {@link LogCommitter}.
  */
 @Extension
 public class JobRunListener extends RunListener<Run<?, ?>> {
@@ -32,6 +44,7 @@ public class JobRunListener extends RunListener<Run<?, ?>> {
             return;
         }
 
+        long start = PluginMetrics.start();
         String jobName = JenkinsUtil.getBuildName(run);
         LOGGER.fine("Build started: " + jobName);
 
@@ -44,7 +57,23 @@ public class JobRunListener extends RunListener<Run<?, ?>> {
         job.setBuildCause(JenkinsUtil.getFirstCause(run));
         job.setConsoleUrl(JenkinsUtil.getJobConsoleUrl(run));
 
-        JobStatusManager.getInstance().put(run, job);
+        String nodeName = JenkinsUtil.getExecutorNodeName(run);
+        if (nodeName != null) {
+            job.addNodeName(nodeName);
+            job.setNodeNamesCaptured(true);
+        }
+        job.setExecutor(JenkinsUtil.getExecutorNumber(run));
+        QueueTimeCache.QueueTime queueTime = QueueTimeCache.getInstance().remove(run.getQueueId());
+        if (queueTime != null) {
+            job.setQueueDate(new Date(queueTime.getQueueTime()));
+            job.setLeftQueueDate(new Date(queueTime.getLeftTime()));
+            job.setLabel(queueTime.getLabel());
+        }
+
+        String buildId = JobStatusManager.getBuildId(run);
+        JobStatusManager.getInstance().put(buildId, job);
+        JobStatusJournal.getInstance().started(buildId, job);
+        PluginMetrics.stop(PluginMetrics.Timer.ON_STARTED, start);
     }
 
     @Override
@@ -53,6 +82,7 @@ public class JobRunListener extends RunListener<Run<?, ?>> {
             return;
         }
 
+        long start = PluginMetrics.start();
         JobStatus job = JobStatusManager.getInstance().get(run);
         if (job == null) {
             LOGGER.warning("Could not find build: " + run.getParent().getName()
@@ -62,18 +92,40 @@ public class JobRunListener extends RunListener<Run<?, ?>> {
 
         job.setEndDate(Calendar.getInstance().getTime());
         job.setBuildResult(run.getResult().toString());
-        job.setNodeNames(JenkinsUtil.getNodeNames(run));
+        if (!job.isNodeNamesCaptured() && JobLoggerPluginConfiguration.get().isNodeNameLogScanEnabled()) {
+            LOGGER.fine("Node names not captured, searching console log: " + run.getFullDisplayName());
+            double scanLimit = JobLoggerPluginConfiguration.get().getNodeNameLogScanLimit();
+            long maxBytes = scanLimit > 0 ? (long) (scanLimit * FileUtil.BYTES_PER_MB) : Long.MAX_VALUE;
+            // keep the nodes restored from the journal, if the build was resumed
+            List<String> nodeNames = JenkinsUtil.getNodeNames(run, maxBytes);
+            for (String nodeName : nodeNames) {
+                job.addNodeName(nodeName);
+            }
+            if (job.getNodeNames() == null) {
+                job.setNodeNames(nodeNames);
+            }
+        } else if (job.getNodeNames() == null) {
+            job.setNodeNames(new ArrayList<>());
+        }
 
         LOGGER.fine("job: " + job);
         listener.getLogger().println(job);
 
         try {
-            CsvWriter.logJobStatus(JobLoggerPluginConfiguration.get().getCsvLogFile(), job);
+            boolean waitForCommit = JobLoggerPluginConfiguration.get().isWaitForCommit();
+            if (waitForCommit) {
+                LogCommitter.getInstance().register(job);
+            }
+            JobStatusWriter.getInstance().submit(job);
+            BuildEventStream.getInstance().publish(job);
+            if (waitForCommit && !LogCommitter.getInstance().awaitCommit(job, LogCommitter.WAIT_TIMEOUT)) {
+                LOGGER.fine("Job status not committed in time: " + run.getFullDisplayName());
+            }
             LOGGER.fine("Build completed: " + run.getFullDisplayName());
-        } catch (FileNotFoundException e) {
-            LOGGER.severe("FileNotFoundException: " + e.getMessage());
         } finally {
             JobStatusManager.getInstance().remove(run);
+            JobStatusJournal.getInstance().completed(JobStatusManager.getBuildId(run));
+            PluginMetrics.stop(PluginMetrics.Timer.ON_COMPLETED, start);
         }
     }
 
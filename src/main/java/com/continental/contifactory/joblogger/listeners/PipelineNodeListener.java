@@ -0,0 +1,85 @@
+package com.continental.contifactory.joblogger.listeners;
+
+import com.continental.contifactory.joblogger.JobStatusJournal;
+import com.continental.contifactory.joblogger.JobStatusManager;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.JenkinsUtil;
+import hudson.Extension;
+import hudson.model.Queue;
+import hudson.model.Run;
+import org.jenkinsci.plugins.workflow.actions.WorkspaceAction;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionListener;
+import org.jenkinsci.plugins.workflow.flow.GraphListener;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.logging.Logger;
+
+/**
+ * This listener captures the nodes used by a pipeline while it is running, so the console log does not have
+ * to be searched for node names when the pipeline is completed.<p>
+ * The body of every {@code node {}} block starts with a new block, whose parent (the {@code node} step) holds
+ * the {@link WorkspaceAction} with the name of the node.
+ * Every new node is journaled, so the nodes used before a restart of Jenkins are restored with the job status.
+ * Only available if the Pipeline plugins are installed.
+ */
+@Extension(optional = true)
+public class PipelineNodeListener extends FlowExecutionListener implements GraphListener {
+    private static final Logger LOGGER = Logger.getLogger(PipelineNodeListener.class.getName());
+
+    @Override
+    public void onRunning(@Nonnull FlowExecution execution) {
+        markNodeNamesCaptured(execution);
+    }
+
+    @Override
+    public void onNewHead(FlowNode node) {
+        if (!(node instanceof BlockStartNode)) {
+            return;
+        }
+
+        for (FlowNode parent : node.getParents()) {
+            WorkspaceAction workspace = parent.getAction(WorkspaceAction.class);
+            if (workspace == null) {
+                continue;
+            }
+
+            Run<?, ?> run = getRun(node.getExecution());
+            JobStatus job = run != null ? JobStatusManager.getInstance().get(run) : null;
+            if (job != null) {
+                String nodeName = JenkinsUtil.getNodeDisplayName(workspace.getNode());
+                LOGGER.fine("Pipeline is running on node: " + nodeName);
+                if (job.addNodeName(nodeName)) {
+                    JobStatusJournal.getInstance().nodeAdded(JobStatusManager.getBuildId(run), nodeName);
+                }
+            }
+        }
+    }
+
+    private static void markNodeNamesCaptured(FlowExecution execution) {
+        Run<?, ?> run = getRun(execution);
+        JobStatus job = run != null ? JobStatusManager.getInstance().get(run) : null;
+        if (job != null) {
+            job.setNodeNamesCaptured(true);
+        }
+    }
+
+    private static Run<?, ?> getRun(FlowExecution execution) {
+        if (execution == null) {
+            return null;
+        }
+
+        try {
+            Queue.Executable executable = execution.getOwner().getExecutable();
+            if (executable instanceof Run) {
+                return (Run<?, ?>) executable;
+            }
+        } catch (IOException e) {
+            LOGGER.fine("Could not find build of pipeline: " + e.getMessage());
+        }
+        return null;
+    }
+}
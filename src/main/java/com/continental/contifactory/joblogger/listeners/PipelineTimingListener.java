@@ -0,0 +1,223 @@
+package com.continental.contifactory.joblogger.listeners;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.JobStatusManager;
+import com.continental.contifactory.joblogger.JobStatusWriter;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.model.StageStatus;
+import com.continental.contifactory.joblogger.util.JenkinsUtil;
+import com.continental.contifactory.joblogger.util.PipelineTiming;
+import hudson.Extension;
+import hudson.model.Queue;
+import hudson.model.Run;
+import org.jenkinsci.plugins.workflow.actions.ErrorAction;
+import org.jenkinsci.plugins.workflow.actions.LabelAction;
+import org.jenkinsci.plugins.workflow.actions.ThreadNameAction;
+import org.jenkinsci.plugins.workflow.actions.TimingAction;
+import org.jenkinsci.plugins.workflow.actions.WorkspaceAction;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionListener;
+import org.jenkinsci.plugins.workflow.flow.GraphListener;
+import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Logger;
+
+/**
+ * This listener times the stages, parallel branches and optionally the steps of a Pipeline while it is running,
+ * if enabled. When a stage ends, its {@link StageStatus} is handed over to the {@link JobStatusWriter} at once,
+ * so only the stages which are currently running are kept in memory, at most {@value #MAX_OPEN_STAGES} per build.
+ * <p>
+ * A stage starts with a block with a {@link LabelAction}, a parallel branch with a block with a
+ * {@link ThreadNameAction}, and both end with the end of their block. A step without body ends with the next flow
+ * node following it. Only available if the Pipeline plugins are installed.
+ *
+ * @see JobLoggerPluginConfiguration#getPipelineTiming()
+ */
+@Extension(optional = true)
+public class PipelineTimingListener extends FlowExecutionListener implements GraphListener {
+    /**
+     * Maximum number of stages and steps per build which are running at the same time and timed.
+     */
+    public static final int MAX_OPEN_STAGES = 64;
+
+    private static final Logger LOGGER = Logger.getLogger(PipelineTimingListener.class.getName());
+    private static final String SUCCESS = "SUCCESS";
+    private static final String FAILURE = "FAILURE";
+
+    // the builds are removed when they are completed, or when the pipeline is garbage collected
+    private final Map<FlowExecution, BuildTiming> builds = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public void onNewHead(FlowNode node) {
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        PipelineTiming timing = config.getPipelineTiming();
+        if (timing == null || timing == PipelineTiming.NONE || !config.isLogEnabled()) {
+            return;
+        }
+
+        BuildTiming build = getBuildTiming(node.getExecution());
+        if (build != null) {
+            for (StageStatus stage : build.onNewHead(node, timing == PipelineTiming.STEPS)) {
+                LOGGER.fine("Pipeline stage completed: " + stage);
+                JobStatusWriter.getInstance().submit(stage);
+            }
+        }
+    }
+
+    @Override
+    public void onCompleted(@Nonnull FlowExecution execution) {
+        builds.remove(execution);
+    }
+
+    private BuildTiming getBuildTiming(FlowExecution execution) {
+        if (execution == null) {
+            return null;
+        }
+        BuildTiming build = builds.get(execution);
+        if (build != null) {
+            return build;
+        }
+
+        try {
+            Queue.Executable executable = execution.getOwner().getExecutable();
+            if (!(executable instanceof Run)) {
+                return null;
+            }
+            // only builds which are logged are timed
+            JobStatus job = JobStatusManager.getInstance().get((Run) executable);
+            if (job == null) {
+                return null;
+            }
+            return builds.computeIfAbsent(execution, e -> new BuildTiming(job.getJobName(), job.getJobNumber()));
+        } catch (IOException e) {
+            LOGGER.fine("Could not find build of pipeline: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * The running stages of one build, by the id of their flow node.
+     */
+    static final class BuildTiming {
+        private final String jobName;
+        private final int jobNumber;
+        private final Map<String, StageStatus> open = new HashMap<>();
+
+        BuildTiming(String jobName, int jobNumber) {
+            this.jobName = jobName;
+            this.jobNumber = jobNumber;
+        }
+
+        /**
+         * @param node      the new flow node of the build
+         * @param withSteps true, if steps without body are timed as well
+         * @return the stages and steps which ended with the given flow node
+         */
+        synchronized List<StageStatus> onNewHead(FlowNode node, boolean withSteps) {
+            List<StageStatus> completed = new ArrayList<>();
+            for (FlowNode parent : node.getParents()) {
+                StageStatus step = open.get(parent.getId());
+                if (step != null && step.getType() == StageStatus.Type.STEP) {
+                    completed.add(close(parent.getId(), parent, node));
+                }
+            }
+
+            if (node instanceof BlockEndNode) {
+                BlockStartNode start = ((BlockEndNode<?>) node).getStartNode();
+                if (start != null && open.containsKey(start.getId())) {
+                    completed.add(close(start.getId(), node, node));
+                }
+            } else if (node instanceof BlockStartNode) {
+                captureNodeName(node);
+                ThreadNameAction thread = node.getAction(ThreadNameAction.class);
+                LabelAction label = node.getAction(LabelAction.class);
+                if (thread != null) {
+                    start(node, StageStatus.Type.BRANCH, thread.getThreadName());
+                } else if (label != null) {
+                    start(node, StageStatus.Type.STAGE, label.getDisplayName());
+                }
+            } else if (withSteps) {
+                start(node, StageStatus.Type.STEP, node.getDisplayFunctionName());
+            }
+            return completed;
+        }
+
+        /**
+         * @return the number of running stages and steps
+         */
+        synchronized int getOpenCount() {
+            return open.size();
+        }
+
+        private void start(FlowNode node, StageStatus.Type type, String name) {
+            if (open.size() >= MAX_OPEN_STAGES) {
+                LOGGER.fine("Too many running stages, not timing: " + name);
+                return;
+            }
+
+            StageStatus stage = new StageStatus();
+            stage.setJobName(jobName);
+            stage.setJobNumber(jobNumber);
+            stage.setType(type);
+            stage.setId(node.getId());
+            stage.setStageName(name);
+            stage.setStartDate(getTime(node));
+            String nodeName = null;
+            for (BlockStartNode block : node.getEnclosingBlocks()) {
+                StageStatus parent = open.get(block.getId());
+                if (stage.getParentId() == null && parent != null && parent.getType() != StageStatus.Type.STEP) {
+                    stage.setParentId(parent.getId());
+                }
+                WorkspaceAction workspace = block.getAction(WorkspaceAction.class);
+                if (nodeName == null && workspace != null) {
+                    nodeName = JenkinsUtil.getNodeDisplayName(workspace.getNode());
+                }
+            }
+            stage.setNodeNames(new ArrayList<>());
+            if (nodeName != null) {
+                stage.addNodeName(nodeName);
+            }
+            open.put(node.getId(), stage);
+        }
+
+        private StageStatus close(String id, FlowNode errorNode, FlowNode endNode) {
+            StageStatus stage = open.remove(id);
+            stage.setEndDate(getTime(endNode));
+            stage.setBuildResult(errorNode.getAction(ErrorAction.class) != null ? FAILURE : SUCCESS);
+            return stage;
+        }
+
+        // the body of a node block started, all running stages within the block run on its node
+        private void captureNodeName(FlowNode node) {
+            for (FlowNode parent : node.getParents()) {
+                WorkspaceAction workspace = parent.getAction(WorkspaceAction.class);
+                if (workspace == null) {
+                    continue;
+                }
+                String nodeName = JenkinsUtil.getNodeDisplayName(workspace.getNode());
+                for (BlockStartNode block : node.getEnclosingBlocks()) {
+                    StageStatus stage = open.get(block.getId());
+                    if (stage != null) {
+                        stage.addNodeName(nodeName);
+                    }
+                }
+            }
+        }
+
+        private static Date getTime(FlowNode node) {
+            long time = TimingAction.getStartTime(node);
+            return new Date(time > 0 ? time : System.currentTimeMillis());
+        }
+    }
+}
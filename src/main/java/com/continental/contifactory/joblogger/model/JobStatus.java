@@ -1,5 +1,6 @@
 package com.continental.contifactory.joblogger.model;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -14,7 +15,13 @@ public class JobStatus {
     private String buildResult;
     private String buildCause;
     private List<String> nodeNames;
+    // set by the thread which captures the nodes while the build runs, read when the build completed
+    private volatile boolean nodeNamesCaptured;
     private String consoleUrl;
+    private Date queueDate;
+    private Date leftQueueDate;
+    private String label;
+    private Integer executor;
 
     public String getJobName() {
         return jobName;
@@ -64,14 +71,43 @@ public class JobStatus {
         this.buildCause = buildCause;
     }
 
-    public List<String> getNodeNames() {
+    public synchronized List<String> getNodeNames() {
         return nodeNames;
     }
 
-    public void setNodeNames(List<String> nodeName) {
+    public synchronized void setNodeNames(List<String> nodeName) {
         this.nodeNames = nodeName;
     }
 
+    /**
+     * Adds a node name used by the job, if it was not added before.
+     *
+     * @param nodeName the node name
+     * @return true, if the node name was added; false, if it was added before
+     */
+    public synchronized boolean addNodeName(String nodeName) {
+        if (nodeNames == null) {
+            nodeNames = new ArrayList<>();
+        }
+        if (nodeNames.contains(nodeName)) {
+            return false;
+        }
+        nodeNames.add(nodeName);
+        return true;
+    }
+
+    /**
+     * @return true, if the node names are captured while the job is running,
+     *         so they don't have to be searched in the console log
+     */
+    public boolean isNodeNamesCaptured() {
+        return nodeNamesCaptured;
+    }
+
+    public void setNodeNamesCaptured(boolean nodeNamesCaptured) {
+        this.nodeNamesCaptured = nodeNamesCaptured;
+    }
+
     public String getConsoleUrl() {
         return consoleUrl;
     }
@@ -80,6 +116,50 @@ public class JobStatus {
         this.consoleUrl = consoleUrl;
     }
 
+    /**
+     * @return the time the build entered the queue; or null if unknown
+     */
+    public Date getQueueDate() {
+        return queueDate;
+    }
+
+    public void setQueueDate(Date queueDate) {
+        this.queueDate = queueDate;
+    }
+
+    /**
+     * @return the time the build left the queue to an executor; or null if unknown
+     */
+    public Date getLeftQueueDate() {
+        return leftQueueDate;
+    }
+
+    public void setLeftQueueDate(Date leftQueueDate) {
+        this.leftQueueDate = leftQueueDate;
+    }
+
+    /**
+     * @return the label expression the build waited for in the queue; or null if the build could run anywhere
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the number of the executor slot of the node which built the job; or null if unknown
+     */
+    public Integer getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(Integer executor) {
+        this.executor = executor;
+    }
+
     @Override
     public String toString() {
         StringBuilder msg = new StringBuilder();
@@ -91,7 +171,11 @@ public class JobStatus {
         msg.append("end date: " + endDate + ", ");
         msg.append("cause: " + buildCause + ", ");
         msg.append("node(s): " + nodeNames + ", ");
-        msg.append("console URL: " + consoleUrl);
+        msg.append("console URL: " + consoleUrl + ", ");
+        msg.append("queued: " + queueDate + ", ");
+        msg.append("left queue: " + leftQueueDate + ", ");
+        msg.append("label: " + label + ", ");
+        msg.append("executor: " + executor);
         msg.append("]");
 
         return msg.toString();
@@ -0,0 +1,90 @@
+package com.continental.contifactory.joblogger.model;
+
+import java.util.Date;
+
+/**
+ * This class holds the timing of a stage, parallel branch or step of a running Pipeline build.
+ * It is a child record of the {@link JobStatus} of the build: the job name and number are the ones of the build,
+ * the result, start date, end date and node name are the ones of the stage.
+ */
+public class StageStatus extends JobStatus {
+    private Type type;
+    private String id;
+    private String parentId;
+    private String stageName;
+
+    /**
+     * The kinds of timed parts of a Pipeline.
+     */
+    public enum Type {
+        /**
+         * A {@code stage} block.
+         */
+        STAGE,
+        /**
+         * A branch of a {@code parallel} step.
+         */
+        BRANCH,
+        /**
+         * A step which has no body, e.g. {@code sh}.
+         */
+        STEP
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the id of the flow node which started the stage, unique within the build
+     */
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the id of the enclosing stage or branch; or null if the stage is not enclosed by another one
+     */
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    /**
+     * @return the name of the stage or branch, or the function name of the step
+     */
+    public String getStageName() {
+        return stageName;
+    }
+
+    public void setStageName(String stageName) {
+        this.stageName = stageName;
+    }
+
+    /**
+     * @return the time between start date and end date in ms; or -1 if one of them is unknown
+     */
+    public long getDuration() {
+        Date start = getStartDate();
+        Date end = getEndDate();
+        return start != null && end != null ? end.getTime() - start.getTime() : -1;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getJobName() + "#" + getJobNumber() + ", " + type + ": " + stageName + ", id: " + id
+                + ", parent: " + parentId + ", result: " + getBuildResult() + ", start date: " + getStartDate()
+                + ", duration: " + getDuration() + " ms, node(s): " + getNodeNames() + "]";
+    }
+}
@@ -0,0 +1,85 @@
+package com.continental.contifactory.joblogger.model;
+
+/**
+ * This class holds one sample of the executor utilization: the number of busy and idle executors of every node and
+ * the length of the build queue at one point in time.
+ */
+public class UtilizationSample {
+    private final long time;
+    private final int queueLength;
+    private final String[] nodeNames;
+    private final int[] busyExecutors;
+    private final int[] idleExecutors;
+
+    /**
+     * @param time          the time of the sample, in epoch milliseconds
+     * @param queueLength   the number of items in the build queue
+     * @param nodeNames     the display names of the nodes
+     * @param busyExecutors the number of busy executors, per node
+     * @param idleExecutors the number of idle executors, per node
+     */
+    public UtilizationSample(long time, int queueLength, String[] nodeNames, int[] busyExecutors,
+                             int[] idleExecutors) {
+        this.time = time;
+        this.queueLength = queueLength;
+        this.nodeNames = nodeNames;
+        this.busyExecutors = busyExecutors;
+        this.idleExecutors = idleExecutors;
+    }
+
+    /**
+     * @return the time of the sample, in epoch milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the number of items in the build queue
+     */
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    /**
+     * @return the number of sampled nodes
+     */
+    public int getNodeCount() {
+        return nodeNames.length;
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the display name of the node
+     */
+    public String getNodeName(int node) {
+        return nodeNames[node];
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the number of busy executors of the node
+     */
+    public int getBusyExecutors(int node) {
+        return busyExecutors[node];
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the number of idle executors of the node, offline nodes have no idle executors
+     */
+    public int getIdleExecutors(int node) {
+        return idleExecutors[node];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("UtilizationSample{time=").append(time).append(", queue=").append(queueLength);
+        for (int i = 0; i < nodeNames.length; i++) {
+            sb.append(", ").append(nodeNames[i]).append('=').append(busyExecutors[i]).append('/')
+                    .append(busyExecutors[i] + idleExecutors[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.continental.contifactory.joblogger.sinks;
+
+/**
+ * What happens to a job status if the queue of a {@link JobStatusSink} is full.
+ */
+public enum BackpressurePolicy {
+    /**
+     * The job status is dropped and counted.
+     */
+    DROP,
+    /**
+     * The completing build waits for space in the queue, at most {@link JobStatusSink#getBlockTimeout()},
+     * afterwards the job status is dropped.
+     */
+    BLOCK,
+    /**
+     * The job status is appended to a spill file in the Jenkins Home directory, and written to the sink
+     * after its queue has drained. Job status which could not be written to the sink are spilled as well.
+     */
+    SPILL
+}
@@ -0,0 +1,26 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.util.LogFormat;
+import hudson.Extension;
+
+/**
+ * Writes the job status to the binary log file, if it is enabled.
+ *
+ * @see JobLoggerPluginConfiguration#isBinaryLogEnabled()
+ */
+@Extension
+public class BinarySink extends LogFileSink {
+
+    /**
+     * Creates the sink of the binary log file.
+     */
+    public BinarySink() {
+        super(LogFormat.BINARY);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return JobLoggerPluginConfiguration.get().isBinaryLogEnabled();
+    }
+}
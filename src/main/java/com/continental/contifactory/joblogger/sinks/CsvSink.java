@@ -0,0 +1,29 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.util.LogFormat;
+import hudson.Extension;
+
+/**
+ * Writes the job status to the CSV log file, which is always enabled.
+ * Job status are spilled if the queue is full, so the CSV log file does not lose any job status.
+ */
+@Extension
+public class CsvSink extends LogFileSink {
+
+    /**
+     * Creates the sink of the CSV log file.
+     */
+    public CsvSink() {
+        super(LogFormat.CSV);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public BackpressurePolicy getBackpressurePolicy() {
+        return BackpressurePolicy.SPILL;
+    }
+}
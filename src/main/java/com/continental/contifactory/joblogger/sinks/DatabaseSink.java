@@ -0,0 +1,49 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.JobStatusDatabase;
+import hudson.Extension;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes the job status to the embedded database, if it is enabled. Every batch is inserted in one transaction.
+ * Job status are spilled if the queue is full or the database fails, so the database does not lose any job status.
+ *
+ * @see JobLoggerPluginConfiguration#isDatabaseEnabled()
+ */
+@Extension
+public class DatabaseSink extends JobStatusSink {
+
+    @Override
+    public String getId() {
+        return "database";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return JobLoggerPluginConfiguration.get().isDatabaseEnabled();
+    }
+
+    @Override
+    public BackpressurePolicy getBackpressurePolicy() {
+        return BackpressurePolicy.SPILL;
+    }
+
+    @Override
+    public void write(List<JobStatus> jobStatuses) throws IOException {
+        try {
+            JobStatusDatabase.getInstance().insert(jobStatuses);
+        } catch (SQLException e) {
+            throw new IOException("Could not insert job status into the database: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        JobStatusDatabase.getInstance().close();
+    }
+}
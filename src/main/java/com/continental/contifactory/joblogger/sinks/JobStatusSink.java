@@ -0,0 +1,116 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.JobStatusWriter;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.model.StageStatus;
+import hudson.ExtensionList;
+import hudson.ExtensionPoint;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination of the logged job status, e.g. the CSV log file.<p>
+ * The {@link JobStatusWriter} gives every enabled sink its own bounded queue and writer thread, so a slow sink
+ * neither delays the completion of builds nor the other sinks. The job status are written in batches.
+ * Plugins can add sinks with the {@link hudson.Extension} annotation.
+ */
+public abstract class JobStatusSink implements ExtensionPoint {
+    /**
+     * Default capacity of the queue of a sink.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    /**
+     * Default time a completing build waits for space in a full queue, see {@link BackpressurePolicy#BLOCK}.
+     */
+    public static final long DEFAULT_BLOCK_TIMEOUT = 1000; // in ms
+    /**
+     * Default time after a failed write, before spilled job status are written again.
+     */
+    public static final long DEFAULT_RETRY_INTERVAL = 10000; // in ms
+
+    /**
+     * @return all registered sinks
+     */
+    public static List<JobStatusSink> all() {
+        return ExtensionList.lookup(JobStatusSink.class);
+    }
+
+    /**
+     * @return a short, unique name of this sink, which is used for its thread and spill file, e.g. {@code csv}
+     */
+    public abstract String getId();
+
+    /**
+     * @return true, if job status are written to this sink; false otherwise
+     */
+    public abstract boolean isEnabled();
+
+    /**
+     * @return true, if this sink writes the {@link StageStatus} of Pipeline stages instead of the job status of
+     * builds; false otherwise
+     */
+    public boolean isStageSink() {
+        return false;
+    }
+
+    /**
+     * Writes the given batch of job status. Called from the writer thread of this sink only.
+     *
+     * @param jobStatuses the list of {@link JobStatus} to write
+     * @throws IOException if the job status could not be written
+     */
+    public abstract void write(List<JobStatus> jobStatuses) throws IOException;
+
+    /**
+     * Releases the resources of this sink, e.g. open files. Called from the writer thread of this sink,
+     * or after it has stopped.
+     */
+    public void close() {
+        // nothing to release by default
+    }
+
+    /**
+     * @return the capacity of the queue of this sink
+     */
+    public int getQueueCapacity() {
+        return DEFAULT_QUEUE_CAPACITY;
+    }
+
+    /**
+     * @return the maximum number of job status per write
+     */
+    public int getBatchSize() {
+        return JobLoggerPluginConfiguration.get().getWriterBatchSize();
+    }
+
+    /**
+     * @return the maximum time a job status waits in the queue for more job status of the same batch (in ms)
+     */
+    public long getFlushInterval() {
+        return JobLoggerPluginConfiguration.get().getWriterFlushInterval();
+    }
+
+    /**
+     * @return what happens to a job status if the queue is full
+     */
+    public BackpressurePolicy getBackpressurePolicy() {
+        return BackpressurePolicy.DROP;
+    }
+
+    /**
+     * @return the maximum time a completing build waits for space in a full queue (in ms)
+     * @see BackpressurePolicy#BLOCK
+     */
+    public long getBlockTimeout() {
+        return DEFAULT_BLOCK_TIMEOUT;
+    }
+
+    /**
+     * @return the time after a failed write, before spilled job status are written again (in ms)
+     */
+    public long getRetryInterval() {
+        return DEFAULT_RETRY_INTERVAL;
+    }
+}
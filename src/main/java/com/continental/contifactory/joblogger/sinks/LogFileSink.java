@@ -0,0 +1,44 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.LogFormat;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A sink which writes the job status to a log file in the user content directory, in one {@link LogFormat}.
+ */
+public abstract class LogFileSink extends JobStatusSink {
+    private final LogFormat logFormat;
+
+    /**
+     * @param logFormat the format of the log file
+     */
+    protected LogFileSink(LogFormat logFormat) {
+        this.logFormat = logFormat;
+    }
+
+    /**
+     * @return the format of the log file
+     */
+    public LogFormat getLogFormat() {
+        return logFormat;
+    }
+
+    @Override
+    public String getId() {
+        return logFormat.name().toLowerCase();
+    }
+
+    @Override
+    public void write(List<JobStatus> jobStatuses) throws IOException {
+        logFormat.write(JobLoggerPluginConfiguration.get().getLogFile(logFormat), jobStatuses);
+    }
+
+    @Override
+    public void close() {
+        logFormat.close();
+    }
+}
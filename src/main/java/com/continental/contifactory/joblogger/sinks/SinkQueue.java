@@ -0,0 +1,310 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.CsvReader;
+import com.continental.contifactory.joblogger.util.CsvWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The bounded queue and writer thread of one {@link JobStatusSink}.<p>
+ * The writer thread drains the queue in batches of {@link JobStatusSink#getBatchSize()}, waiting at most
+ * {@link JobStatusSink#getFlushInterval()} for a batch to fill up. If the queue is full, the
+ * {@link BackpressurePolicy} of the sink decides what happens to a job status.
+ * <p>
+ * Spilled job status are written as CSV lines to {@code [spill directory]/[sink id].spill}, and written to the sink
+ * when its queue is empty, so they may be written after newer job status. If the sink fails, the spill file is
+ * retried after {@link JobStatusSink#getRetryInterval()}.
+ */
+public class SinkQueue {
+    private static final Logger LOGGER = Logger.getLogger(SinkQueue.class.getName());
+    private static final long SHUTDOWN_TIMEOUT = 30000; // in ms
+    private static final String SPILL_EXT = ".spill";
+    private static final String REPLAY_EXT = ".replay";
+
+    private final JobStatusSink sink;
+    private final BackpressurePolicy policy;
+    private final BlockingQueue<JobStatus> queue;
+    private final File spillFile;
+    private final File replayFile;
+    private final Object spillLock = new Object();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean running;
+    // only warn once when the queue starts dropping
+    private volatile boolean dropping;
+    private long retryTime;
+    private Thread worker;
+
+    /**
+     * @param sink     the sink to write to
+     * @param spillDir the directory of the spill file; or null if job status cannot be spilled, then
+     *                 {@link BackpressurePolicy#SPILL} blocks instead
+     */
+    public SinkQueue(JobStatusSink sink, File spillDir) {
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(sink.getQueueCapacity());
+        BackpressurePolicy sinkPolicy = sink.getBackpressurePolicy();
+        if (sinkPolicy == BackpressurePolicy.SPILL && spillDir == null) {
+            LOGGER.warning("No spill directory, job status sink " + sink.getId() + " blocks instead of spilling");
+            sinkPolicy = BackpressurePolicy.BLOCK;
+        }
+        this.policy = sinkPolicy;
+        this.spillFile = spillDir != null ? new File(spillDir, sink.getId() + SPILL_EXT) : null;
+        this.replayFile = spillDir != null ? new File(spillDir, sink.getId() + REPLAY_EXT) : null;
+    }
+
+    /**
+     * Queues the given job status to be written to the sink, or applies the backpressure policy if the queue
+     * is full.
+     *
+     * @param jobStatus the {@link JobStatus} to write
+     */
+    public void offer(JobStatus jobStatus) {
+        boolean queued;
+        try {
+            queued = policy == BackpressurePolicy.BLOCK
+                    ? queue.offer(jobStatus, sink.getBlockTimeout(), TimeUnit.MILLISECONDS) : queue.offer(jobStatus);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (queued || policy == BackpressurePolicy.SPILL && spill(Collections.singletonList(jobStatus))) {
+            return;
+        }
+        dropped.increment();
+        if (!dropping) {
+            dropping = true;
+            LOGGER.warning("Queue of job status sink " + sink.getId() + " is full, dropping job status");
+        }
+    }
+
+    /**
+     * Starts the writer thread, if it is not running yet.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drain, "Job Logger writer: " + sink.getId());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the writer thread after all queued job status are written, and closes the sink.
+     * Spilled job status stay in the spill file, until the queue is started again.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        // no interrupt here, an interrupted FileChannel write would close the log file
+        running = false;
+        try {
+            worker.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            LOGGER.warning("Writer of job status sink " + sink.getId() + " did not stop in time, " + queue.size()
+                    + " job status not written!");
+        }
+        worker = null;
+        sink.close();
+    }
+
+    /**
+     * @return the sink of this queue
+     */
+    public JobStatusSink getSink() {
+        return sink;
+    }
+
+    /**
+     * @return the backpressure policy of this queue
+     */
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return the number of job status which are waiting to be written
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of job status which were written to the sink
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * @return the number of job status which were dropped, because the queue was full or the sink failed
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of job status which were appended to the spill file
+     */
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    /**
+     * @return the number of failed writes to the sink
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    private void drain() {
+        List<JobStatus> batch = new ArrayList<>();
+        while (running) {
+            try {
+                JobStatus first = queue.poll(sink.getFlushInterval(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpillFile();
+                    continue;
+                }
+                batch.add(first);
+
+                // wait for more entries, until the batch is full or the flush interval is over
+                long deadline = System.currentTimeMillis() + sink.getFlushInterval();
+                while (batch.size() < sink.getBatchSize()) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    JobStatus next = remaining > 0 ? queue.poll(remaining, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                LOGGER.fine("Writer of job status sink " + sink.getId() + " interrupted");
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+
+        // drain what is left on shutdown
+        queue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<JobStatus> batch) {
+        if (!writeToSink(batch) && (policy != BackpressurePolicy.SPILL || !spill(batch))) {
+            dropped.add(batch.size());
+        }
+    }
+
+    private boolean writeToSink(List<JobStatus> batch) {
+        try {
+            sink.write(batch);
+            written.add(batch.size());
+            dropping = false;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            retryTime = System.currentTimeMillis() + sink.getRetryInterval();
+            LOGGER.warning("Could not write " + batch.size() + " job status to sink " + sink.getId() + ": "
+                    + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean spill(List<JobStatus> jobStatuses) {
+        if (spillFile == null) {
+            return false;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (JobStatus jobStatus : jobStatuses) {
+            sb.append(CsvWriter.toCsvLine(jobStatus));
+        }
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(spillFile.getParentFile().toPath());
+                Files.write(spillFile.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                spilled.add(jobStatuses.size());
+                return true;
+            } catch (IOException e) {
+                LOGGER.warning("IOException: Could not spill job status of sink " + sink.getId() + ": "
+                        + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    // writes the spilled job status to the sink, the job status which cannot be written are spilled again
+    private void replaySpillFile() {
+        if (spillFile == null || System.currentTimeMillis() < retryTime) {
+            return;
+        }
+        synchronized (spillLock) {
+            // a replay file is left if Jenkins stopped during a replay
+            if (!replayFile.exists() && (!spillFile.exists() || !spillFile.renameTo(replayFile))) {
+                return;
+            }
+        }
+
+        LOGGER.fine("Writing spilled job status to sink " + sink.getId());
+        CsvReader reader = new CsvReader();
+        List<JobStatus> batch = new ArrayList<>();
+        boolean failed = false;
+        try (BufferedReader in = Files.newBufferedReader(replayFile.toPath(), StandardCharsets.UTF_8)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                JobStatus jobStatus = reader.parse(line);
+                if (jobStatus != null) {
+                    batch.add(jobStatus);
+                }
+                if (batch.size() >= sink.getBatchSize()) {
+                    failed = replay(batch, failed);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                replay(batch, failed);
+            }
+            Files.delete(replayFile.toPath());
+        } catch (IOException e) {
+            LOGGER.warning("IOException: Could not replay spill file of sink " + sink.getId() + ": " + e.getMessage());
+        }
+    }
+
+    // returns true, if the writing failed or the sink stopped; afterwards the batches are spilled again
+    private boolean replay(List<JobStatus> batch, boolean failed) {
+        if (!failed && running && writeToSink(batch)) {
+            return false;
+        }
+        if (!spill(batch)) {
+            dropped.add(batch.size());
+        }
+        return true;
+    }
+}
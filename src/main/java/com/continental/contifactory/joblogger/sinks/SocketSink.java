@@ -0,0 +1,139 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.JsonWriter;
+import hudson.Extension;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Sends the job status to a syslog server or any other TCP receiver, if a host is configured.<p>
+ * Every job status is one syslog message (RFC 5424) with a JSON object as message, terminated by a line break:<br>
+ * {@code <134>1 [end date] [host name] jenkins-job-logger - - - {"jobName":...}}
+ * <p>
+ * The connection is kept open between writes. Job status are spilled while the receiver is not reachable.
+ *
+ * @see JobLoggerPluginConfiguration#getSocketHost()
+ */
+@Extension
+public class SocketSink extends JobStatusSink {
+    /**
+     * Name of the application in the syslog messages.
+     */
+    public static final String APP_NAME = "jenkins-job-logger";
+
+    private static final Logger LOGGER = Logger.getLogger(SocketSink.class.getName());
+    private static final int CONNECT_TIMEOUT = 5000; // in ms
+    // facility local0 (16), severity informational (6)
+    private static final int PRIORITY = 134;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private Socket socket;
+    private OutputStream out;
+    private String address;
+    private String hostName;
+
+    @Override
+    public String getId() {
+        return "socket";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        String host = JobLoggerPluginConfiguration.get().getSocketHost();
+        return host != null && !host.isEmpty();
+    }
+
+    @Override
+    public BackpressurePolicy getBackpressurePolicy() {
+        return BackpressurePolicy.SPILL;
+    }
+
+    @Override
+    public void write(List<JobStatus> jobStatuses) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (JobStatus jobStatus : jobStatuses) {
+            writeMessage(sb, jobStatus);
+        }
+
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        try {
+            connect(config.getSocketHost(), config.getSocketPort());
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.fine("IOException: Could not close socket: " + e.getMessage());
+            }
+        }
+        socket = null;
+        out = null;
+        address = null;
+    }
+
+    /**
+     * Appends the syslog message of the given job status, with line break.
+     *
+     * @param sb        the string builder to append to
+     * @param jobStatus the {@link JobStatus} to write
+     */
+    void writeMessage(StringBuilder sb, JobStatus jobStatus) {
+        Instant timestamp = jobStatus.getEndDate() != null ? jobStatus.getEndDate().toInstant() : Instant.now();
+        sb.append('<').append(PRIORITY).append(">1 ").append(timestamp).append(' ').append(getHostName())
+                .append(' ').append(APP_NAME).append(" - - - ");
+        JsonWriter.writeJobStatus(sb, jobStatus);
+        sb.append('\n');
+    }
+
+    private void connect(String host, int port) throws IOException {
+        String newAddress = host + ":" + port;
+        if (socket != null && !socket.isClosed() && newAddress.equals(address)) {
+            return;
+        }
+        close();
+        Socket newSocket = new Socket();
+        try {
+            newSocket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+        } catch (IOException e) {
+            newSocket.close();
+            throw e;
+        }
+        socket = newSocket;
+        out = new BufferedOutputStream(newSocket.getOutputStream(), BUFFER_SIZE);
+        address = newAddress;
+        LOGGER.fine("Connected to " + newAddress);
+    }
+
+    private String getHostName() {
+        if (hostName == null) {
+            try {
+                hostName = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                // the nil value of syslog
+                hostName = "-";
+            }
+        }
+        return hostName;
+    }
+}
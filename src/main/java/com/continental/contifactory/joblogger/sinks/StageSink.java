@@ -0,0 +1,35 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.StageStatus;
+import com.continental.contifactory.joblogger.util.LogFormat;
+import com.continental.contifactory.joblogger.util.PipelineTiming;
+import hudson.Extension;
+
+/**
+ * Writes the {@link StageStatus} of Pipeline stages to the stage log file, if Pipeline timing is enabled.
+ * Stages are dropped if the queue is full, the spill file only keeps the fields of builds.
+ *
+ * @see JobLoggerPluginConfiguration#getPipelineTiming()
+ */
+@Extension
+public class StageSink extends LogFileSink {
+
+    /**
+     * Creates the sink of the stage log file.
+     */
+    public StageSink() {
+        super(LogFormat.STAGES);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        PipelineTiming timing = JobLoggerPluginConfiguration.get().getPipelineTiming();
+        return timing != null && timing != PipelineTiming.NONE;
+    }
+
+    @Override
+    public boolean isStageSink() {
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.BuildStatistics;
+import hudson.Extension;
+
+import java.util.List;
+
+/**
+ * Adds the job status to the in-memory {@link BuildStatistics}, which is always enabled.
+ * Job status are dropped if the queue is full, the statistics are not worth delaying a build.
+ */
+@Extension
+public class StatisticsSink extends JobStatusSink {
+
+    @Override
+    public String getId() {
+        return "statistics";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void write(List<JobStatus> jobStatuses) {
+        BuildStatistics.getInstance().record(jobStatuses);
+    }
+}
@@ -0,0 +1,166 @@
+package com.continental.contifactory.joblogger.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * A log file which is appended by one of the log writers, e.g. {@link CsvWriter} or {@link BinaryLogWriter}.<p>
+ * The log file is kept open between writes, it is only reopened if the log file changed or was archived.
+ * Its size is counted while writing instead of asking the file system on every write. If the log file exceed
+ * the maximum size or rotation period, it is archived, see {@link CsvWriter#archiveLogFile(File, String)}.
+ * <p>
+ * A log file is not thread-safe, it is guarded by the lock of its writer.
+ */
+final class AppendingLogFile {
+    /**
+     * Recovers a log file before it is opened for appending.
+     */
+    @FunctionalInterface
+    interface Recovery {
+        /**
+         * @param logFile the log file, which may not exist, e.g. after it was archived
+         * @return the length of the valid part of the log file; a longer log file is truncated to it
+         * @throws IOException if the log file cannot be recovered
+         */
+        long recover(File logFile) throws IOException;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(AppendingLogFile.class.getName());
+
+    private final String description;
+    private final Recovery recovery;
+    private final Consumer<FileChannel> closing;
+    private FileChannel channel;
+    private File channelFile;
+    private long size;
+    private long lastWriteTime;
+
+    /**
+     * Creates a log file which is appended as it is.
+     *
+     * @param description the description of the log file in log messages, e.g. {@code "stage log file"}
+     */
+    AppendingLogFile(String description) {
+        this(description, File::length, channel -> {
+        });
+    }
+
+    /**
+     * @param description the description of the log file in log messages, e.g. {@code "stage log file"}
+     * @param recovery    recovers the log file before it is opened
+     * @param closing     called with the open channel before the log file is closed, e.g. to write buffered data
+     */
+    AppendingLogFile(String description, Recovery recovery, Consumer<FileChannel> closing) {
+        this.description = description;
+        this.recovery = recovery;
+        this.closing = closing;
+    }
+
+    /**
+     * @param logFile a log file
+     * @return true, if the given log file is open
+     */
+    boolean isOpen(File logFile) {
+        return channel != null && channel.isOpen() && logFile.equals(channelFile);
+    }
+
+    /**
+     * Opens the given log file for appending, if it is not open yet. Another open log file is closed before.
+     *
+     * @param logFile the log file, it is created if it does not exist
+     * @throws IOException if the log file cannot be opened
+     */
+    void open(File logFile) throws IOException {
+        if (isOpen(logFile)) {
+            return;
+        }
+
+        close();
+        // the time of the last write is taken before the log file is recovered, 0 if the log file does not exist
+        long lastModified = logFile.lastModified();
+        long validLength = recovery.recover(logFile);
+        channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channelFile = logFile;
+        if (channel.size() > validLength) {
+            LOGGER.warning("Removing invalid end of " + description + ": " + logFile.getAbsolutePath());
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        size = validLength;
+        lastWriteTime = lastModified > 0 ? lastModified : logFile.lastModified();
+    }
+
+    /**
+     * Archives the given open log file and opens a new log file, if it exceed the maximum size or rotation period.
+     *
+     * @param logFile the open log file
+     * @param ext     the file extension of the log file
+     * @return true, if the log file was archived
+     * @throws IOException if the new log file cannot be opened
+     */
+    boolean rotate(File logFile, String ext) throws IOException {
+        if (size == 0 || !FileUtil.exceedMaximumSize(size) && !FileUtil.exceedRotationPeriod(lastWriteTime)) {
+            return false;
+        }
+        LOGGER.fine("Log file exceed maximum size or rotation period, archiving log file: "
+                + logFile.getAbsolutePath());
+        long rotationStart = PluginMetrics.start();
+        close();
+        CsvWriter.archiveLogFile(logFile, ext);
+        open(logFile);
+        PluginMetrics.stop(PluginMetrics.Timer.ROTATION, rotationStart);
+        return true;
+    }
+
+    /**
+     * Appends the given buffer to the open log file.
+     *
+     * @param buffer the bytes to be written, from its position to its limit
+     * @throws IOException if the log file cannot be written
+     */
+    void write(ByteBuffer buffer) throws IOException {
+        size += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Closes the log file if it is open.
+     */
+    void close() {
+        if (channel != null) {
+            if (channel.isOpen()) {
+                closing.accept(channel);
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warning("IOException: Could not close " + description + ": " + e.getMessage());
+            }
+        }
+        channel = null;
+        channelFile = null;
+        size = 0;
+        lastWriteTime = 0;
+    }
+
+    /**
+     * @return the channel of the open log file; or null if it is closed
+     */
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return the size of the open log file in bytes, counted while writing; or 0 if it is closed
+     */
+    long getSize() {
+        return size;
+    }
+}
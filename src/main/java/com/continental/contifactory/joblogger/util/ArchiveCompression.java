@@ -0,0 +1,28 @@
+package com.continental.contifactory.joblogger.util;
+
+/**
+ * Compression of archived log files.
+ */
+public enum ArchiveCompression {
+    /**
+     * Archived log files are not compressed.
+     */
+    NONE(""),
+    /**
+     * Archived log files are compressed with gzip.
+     */
+    GZIP(".gz");
+
+    private final String extension;
+
+    ArchiveCompression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return the file extension which is appended to a compressed archive file
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,86 @@
+package com.continental.contifactory.joblogger.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses archived log files in a background thread, so archiving a log file does not delay writing
+ * the next job status.
+ */
+public final class ArchiveCompressor {
+    private static final Logger LOGGER = Logger.getLogger(ArchiveCompressor.class.getName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Job Logger archive compressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ArchiveCompressor() {
+    }
+
+    /**
+     * Compresses the given archive file in the background. The archive file is replaced by the compressed file.
+     *
+     * @param archiveFile the archived log file
+     * @param compression the compression to use
+     * @return the compressed file, when compression is completed; or null if compression failed
+     */
+    public static Future<File> compressLater(File archiveFile, ArchiveCompression compression) {
+        return EXECUTOR.submit(() -> {
+            try {
+                return compress(archiveFile, compression);
+            } catch (IOException e) {
+                LOGGER.warning("IOException: Could not compress archive file: " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Runs the given task in the thread of the compressor, so it never works on archive files which are being
+     * compressed.
+     *
+     * @param task the task on archive files
+     * @param <T>  the result type of the task
+     * @return the result of the task, when the task is completed
+     */
+    public static <T> Future<T> submit(Callable<T> task) {
+        return EXECUTOR.submit(task);
+    }
+
+    /**
+     * Compresses the given archive file. The archive file is replaced by the compressed file.
+     *
+     * @param archiveFile the archived log file
+     * @param compression the compression to use
+     * @return the compressed file; or the given archive file if compression is {@link ArchiveCompression#NONE}
+     * @throws IOException if the archive file cannot be compressed
+     */
+    public static File compress(File archiveFile, ArchiveCompression compression) throws IOException {
+        if (compression == null || compression == ArchiveCompression.NONE) {
+            return archiveFile;
+        }
+
+        File compressedFile = new File(archiveFile.getPath() + compression.getExtension());
+        File tempFile = new File(compressedFile.getPath() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile.toPath()), BUFFER_SIZE)) {
+            Files.copy(archiveFile.toPath(), out);
+        }
+
+        // the compressed file only appears when it is complete
+        Files.move(tempFile.toPath(), compressedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(archiveFile.toPath());
+        LOGGER.fine("Archive file compressed: " + compressedFile.getAbsolutePath());
+        return compressedFile;
+    }
+}
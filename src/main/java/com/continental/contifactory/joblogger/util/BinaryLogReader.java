@@ -0,0 +1,452 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Reads the segments of a binary log file, written by {@link BinaryLogWriter}.<p>
+ * Each segment is decoded into columns, so scans and aggregations work on arrays of numbers and dictionary indexes
+ * instead of parsing text. Segments outside of a requested time range are skipped by their header.
+ * A truncated segment or a segment with a wrong checksum, e.g. after a crash, ends the log file.
+ * Pending segments are read like full segments, unless a full segment follows, which supersedes them.
+ */
+public class BinaryLogReader implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(BinaryLogReader.class.getName());
+
+    private final File logFile;
+    private final FileChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(BinaryLogWriter.HEADER_SIZE);
+    // the start of the next full segment after the pending segment checked last; or -1 if there is none
+    private long nextFullSegment = -1;
+    private long checkedUntil;
+
+    /**
+     * @param logFile the binary log file
+     * @throws IOException if the log file cannot be opened
+     */
+    public BinaryLogReader(File logFile) throws IOException {
+        this.logFile = logFile;
+        this.channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * @param logFile the binary log file
+     * @return all job status of the given log file
+     * @throws IOException if the log file cannot be read
+     */
+    public static List<JobStatus> readAll(File logFile) throws IOException {
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            Segment segment = reader.next();
+            while (segment != null) {
+                for (int row = 0; row < segment.getRowCount(); row++) {
+                    jobStatuses.add(segment.toJobStatus(row));
+                }
+                segment = reader.next();
+            }
+        }
+        return jobStatuses;
+    }
+
+    /**
+     * @return the next segment; or null at the end of the log file
+     * @throws IOException if the log file cannot be read
+     */
+    public Segment next() throws IOException {
+        return next(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Skips all segments without a build in the given time range, without decoding them.
+     *
+     * @param from the start of the time range in epoch milliseconds, compared to the end date of the builds
+     * @param to   the end of the time range in epoch milliseconds, compared to the start date of the builds
+     * @return the next segment which might contain builds in the given time range; or null at the end of the log file
+     * @throws IOException if the log file cannot be read
+     */
+    public Segment next(long from, long to) throws IOException {
+        while (true) {
+            long start = channel.position();
+            if (start >= channel.size()) {
+                return null;
+            }
+            header.clear();
+            if (!readFully(header)) {
+                return null;
+            }
+            header.flip();
+            int magic = header.getInt();
+            int bodyLength = header.getInt();
+            int rows = header.getInt();
+            long minStartDate = header.getLong();
+            long maxEndDate = header.getLong();
+            int checksum = header.getInt();
+            if (!isValid(magic, bodyLength, rows, channel.position())) {
+                LOGGER.warning("Invalid segment in binary log file: " + logFile.getAbsolutePath());
+                return null;
+            }
+
+            boolean pending = magic == BinaryLogWriter.PENDING_MAGIC;
+            if (minStartDate > to || maxEndDate < from || pending && isSuperseded(start)) {
+                channel.position(channel.position() + bodyLength);
+                continue;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            if (!readFully(body)) {
+                return null;
+            }
+            body.flip();
+            if (BinaryLogWriter.getChecksum(header, body) != checksum) {
+                LOGGER.warning("Segment with wrong checksum in binary log file: " + logFile.getAbsolutePath());
+                return null;
+            }
+            return new Segment(body, rows, minStartDate, maxEndDate, pending);
+        }
+    }
+
+    /**
+     * @return the position in the log file after the last segment read or skipped
+     * @throws IOException if the log file is closed
+     */
+    long position() throws IOException {
+        return channel.position();
+    }
+
+    private boolean isValid(int magic, int bodyLength, int rows, long bodyStart) throws IOException {
+        return (magic == BinaryLogWriter.SEGMENT_MAGIC || magic == BinaryLogWriter.PENDING_MAGIC)
+                && bodyLength >= 0 && rows >= 0 && bodyStart + bodyLength <= channel.size();
+    }
+
+    // a pending segment is superseded, if a complete full segment follows it
+    private boolean isSuperseded(long start) throws IOException {
+        if (start >= checkedUntil) {
+            nextFullSegment = findFullSegment(start);
+            checkedUntil = nextFullSegment >= 0 ? nextFullSegment : Long.MAX_VALUE;
+        }
+        return nextFullSegment > start;
+    }
+
+    // the start of the first full segment with a valid checksum after the given position; or -1 if there is none
+    private long findFullSegment(long from) throws IOException {
+        ByteBuffer segmentHeader = ByteBuffer.allocate(BinaryLogWriter.HEADER_SIZE);
+        long position = from;
+        while (readAt(segmentHeader, position)) {
+            segmentHeader.flip();
+            int magic = segmentHeader.getInt();
+            int bodyLength = segmentHeader.getInt();
+            int rows = segmentHeader.getInt();
+            long bodyStart = position + BinaryLogWriter.HEADER_SIZE;
+            if (!isValid(magic, bodyLength, rows, bodyStart)) {
+                return -1;
+            }
+            if (magic == BinaryLogWriter.SEGMENT_MAGIC) {
+                ByteBuffer body = ByteBuffer.allocate(bodyLength);
+                if (!readAt(body, bodyStart)) {
+                    return -1;
+                }
+                body.flip();
+                int checksum = segmentHeader.getInt(BinaryLogWriter.CHECKSUM_OFFSET);
+                return BinaryLogWriter.getChecksum(segmentHeader, body) == checksum ? position : -1;
+            }
+            position = bodyStart + bodyLength;
+            segmentHeader.clear();
+        }
+        return -1;
+    }
+
+    private boolean readAt(ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                LOGGER.warning("Truncated segment at the end of binary log file: " + logFile.getAbsolutePath());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A decoded segment of a binary log file, with one column per job status field.
+     */
+    public static final class Segment {
+        private final int rows;
+        private final long minStartDate;
+        private final long maxEndDate;
+        private final String[] dictionary;
+        private final int[] jobNames;
+        private final int[] jobNumbers;
+        private final int[] results;
+        private final long[] startDates;
+        private final long[] endDates;
+        private final int[] causes;
+        private final int[] consoleUrls;
+        private final int[] nodeOffsets;
+        private final int[] nodeNames;
+        private final long[] queueDates;
+        private final long[] leftQueueDates;
+        private final int[] labels;
+        private final int[] executors;
+        private final boolean pending;
+
+        private Segment(ByteBuffer body, int rows, long minStartDate, long maxEndDate, boolean pending) {
+            this.rows = rows;
+            this.pending = pending;
+            this.minStartDate = minStartDate;
+            this.maxEndDate = maxEndDate;
+
+            dictionary = new String[body.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] value = new byte[body.getInt()];
+                body.get(value);
+                dictionary[i] = new String(value, StandardCharsets.UTF_8);
+            }
+            jobNames = readInts(body, rows);
+            jobNumbers = readInts(body, rows);
+            results = readInts(body, rows);
+            startDates = readLongs(body, rows);
+            endDates = readLongs(body, rows);
+            causes = readInts(body, rows);
+            consoleUrls = readInts(body, rows);
+            int[] nodeCounts = readInts(body, rows);
+            nodeOffsets = new int[rows + 1];
+            for (int row = 0; row < rows; row++) {
+                nodeOffsets[row + 1] = nodeOffsets[row] + nodeCounts[row];
+            }
+            nodeNames = readInts(body, nodeOffsets[rows]);
+            queueDates = readLongs(body, rows);
+            leftQueueDates = readLongs(body, rows);
+            labels = readInts(body, rows);
+            executors = readInts(body, rows);
+        }
+
+        /**
+         * @return true, if this segment is pending and not superseded by a full segment yet
+         */
+        public boolean isPending() {
+            return pending;
+        }
+
+        /**
+         * @return the number of job status in this segment
+         */
+        public int getRowCount() {
+            return rows;
+        }
+
+        /**
+         * @return the earliest start date of this segment in epoch milliseconds
+         */
+        public long getMinStartDate() {
+            return minStartDate;
+        }
+
+        /**
+         * @return the latest end date of this segment in epoch milliseconds
+         */
+        public long getMaxEndDate() {
+            return maxEndDate;
+        }
+
+        /**
+         * @param index an index into the dictionary of this segment
+         * @return the string of the given index; or null for {@link BinaryLogWriter#NULL_INDEX}
+         */
+        public String getString(int index) {
+            return index == BinaryLogWriter.NULL_INDEX ? null : dictionary[index];
+        }
+
+        /**
+         * @return the number of distinct strings in this segment
+         */
+        public int getDictionarySize() {
+            return dictionary.length;
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the dictionary index of the job name
+         */
+        public int getJobNameIndex(int row) {
+            return jobNames[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the dictionary index of the build result
+         */
+        public int getBuildResultIndex(int row) {
+            return results[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the job name
+         */
+        public String getJobName(int row) {
+            return getString(jobNames[row]);
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the build number
+         */
+        public int getJobNumber(int row) {
+            return jobNumbers[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the build result
+         */
+        public String getBuildResult(int row) {
+            return getString(results[row]);
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the start date in epoch milliseconds; or {@link BinaryLogWriter#NULL_DATE}
+         */
+        public long getStartDate(int row) {
+            return startDates[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the end date in epoch milliseconds; or {@link BinaryLogWriter#NULL_DATE}
+         */
+        public long getEndDate(int row) {
+            return endDates[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the build cause
+         */
+        public String getBuildCause(int row) {
+            return getString(causes[row]);
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the console URL
+         */
+        public String getConsoleUrl(int row) {
+            return getString(consoleUrls[row]);
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the node names
+         */
+        public List<String> getNodeNames(int row) {
+            List<String> names = new ArrayList<>(nodeOffsets[row + 1] - nodeOffsets[row]);
+            for (int i = nodeOffsets[row]; i < nodeOffsets[row + 1]; i++) {
+                names.add(getString(nodeNames[i]));
+            }
+            return names;
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the queue date in epoch milliseconds; or {@link BinaryLogWriter#NULL_DATE}
+         */
+        public long getQueueDate(int row) {
+            return queueDates[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the date the build left the queue in epoch milliseconds; or {@link BinaryLogWriter#NULL_DATE}
+         */
+        public long getLeftQueueDate(int row) {
+            return leftQueueDates[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the label expression of the build
+         */
+        public String getLabel(int row) {
+            return getString(labels[row]);
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return the executor number; or null if unknown
+         */
+        public Integer getExecutor(int row) {
+            return executors[row] == BinaryLogWriter.NULL_INDEX ? null : executors[row];
+        }
+
+        /**
+         * @param row a row of this segment
+         * @return a new job status with the fields of the given row
+         */
+        public JobStatus toJobStatus(int row) {
+            JobStatus jobStatus = new JobStatus();
+            jobStatus.setJobName(getJobName(row));
+            jobStatus.setJobNumber(getJobNumber(row));
+            jobStatus.setBuildResult(getBuildResult(row));
+            jobStatus.setStartDate(toDate(getStartDate(row)));
+            jobStatus.setEndDate(toDate(getEndDate(row)));
+            jobStatus.setBuildCause(getBuildCause(row));
+            jobStatus.setNodeNames(getNodeNames(row));
+            jobStatus.setConsoleUrl(getConsoleUrl(row));
+            jobStatus.setQueueDate(toDate(getQueueDate(row)));
+            jobStatus.setLeftQueueDate(toDate(getLeftQueueDate(row)));
+            jobStatus.setLabel(getLabel(row));
+            jobStatus.setExecutor(getExecutor(row));
+            return jobStatus;
+        }
+
+        private static Date toDate(long epochMillis) {
+            return epochMillis == BinaryLogWriter.NULL_DATE ? null : new Date(epochMillis);
+        }
+
+        private static int[] readInts(ByteBuffer body, int count) {
+            int[] values = new int[count];
+            IntBuffer ints = body.asIntBuffer();
+            ints.get(values);
+            body.position(body.position() + count * Integer.BYTES);
+            return values;
+        }
+
+        private static long[] readLongs(ByteBuffer body, int count) {
+            long[] values = new long[count];
+            LongBuffer longs = body.asLongBuffer();
+            longs.get(values);
+            body.position(body.position() + count * Long.BYTES);
+            return values;
+        }
+    }
+}
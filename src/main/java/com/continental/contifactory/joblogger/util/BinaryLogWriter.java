@@ -0,0 +1,329 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * A utility class to write job status to a binary, columnar log file.<p>
+ * The log file is a sequence of segments with up to {@link #SEGMENT_ROWS} job status each. Every segment starts
+ * with a header, followed by a dictionary of all strings in the segment and one column per job status field:
+ * <pre>
+ * header:     int magic, int body length, int row count, long min start date, long max end date, int checksum
+ * dictionary: int size, size x (int length, UTF-8 bytes)
+ * columns:    int[] job name, int[] job number, int[] result, long[] start date, long[] end date,
+ *             int[] cause, int[] console URL, int[] node count, int[] node names,
+ *             long[] queue date, long[] left queue date, int[] label, int[] executor
+ * </pre>
+ * Strings are stored as index into the dictionary ({@link #NULL_INDEX} for null), dates as epoch milliseconds
+ * ({@link #NULL_DATE} for null), executor numbers as int ({@link #NULL_INDEX} for null).
+ * Segments can be skipped by their header, without reading the body. The checksum is the CRC-32 of the header
+ * fields before it and of the body, so a segment which was not written completely is not decoded.
+ * <p>
+ * Job status are collected in memory until a segment is full. Until then, every write appends the new job status
+ * as a small pending segment ({@link #PENDING_MAGIC}), so they are not lost if Jenkins stops. When
+ * {@link #SEGMENT_ROWS} job status are collected, or the log file is archived or closed, one full segment with all
+ * collected job status is appended. It supersedes the pending segments in front of it, which are skipped by
+ * {@link BinaryLogReader}. Segments are only appended, never overwritten, so a crash leaves at most an incomplete
+ * segment at the end of the log file, which is removed when the log file is opened again. Then the pending segments
+ * which are not superseded are read back into memory.
+ *
+ * @see BinaryLogReader
+ */
+public final class BinaryLogWriter {
+    /**
+     * Magic number at the start of each segment.
+     */
+    public static final int SEGMENT_MAGIC = 0x4A4C4253; // "JLBS"
+    /**
+     * Magic number at the start of each pending segment, which is superseded by the next full segment.
+     */
+    public static final int PENDING_MAGIC = 0x4A4C4250; // "JLBP"
+    /**
+     * Size of a segment header in bytes.
+     */
+    public static final int HEADER_SIZE = 4 * Integer.BYTES + 2 * Long.BYTES;
+    /**
+     * Position of the checksum in a segment header.
+     */
+    static final int CHECKSUM_OFFSET = HEADER_SIZE - Integer.BYTES;
+    /**
+     * Maximum number of job status in one segment.
+     */
+    public static final int SEGMENT_ROWS = 4096;
+    /**
+     * Dictionary index of a null string, and executor number of an unknown executor.
+     */
+    public static final int NULL_INDEX = -1;
+    /**
+     * Epoch milliseconds of a null date.
+     */
+    public static final long NULL_DATE = Long.MIN_VALUE;
+
+    private static final Logger LOGGER = Logger.getLogger(BinaryLogWriter.class.getName());
+    private static final String LOG_FILE_EXT = ".jlb";
+    // job name, job number, result, cause, console URL, node count, label, executor
+    private static final int INT_COLUMNS = 8;
+    private static final int LONG_COLUMNS = 4; // start date, end date, queue date, left queue date
+
+    // job status of the segment which is not full yet, written as pending segments
+    private static final List<JobStatus> PENDING_ROWS = new ArrayList<>();
+
+    // an incomplete segment at the end of the log file is truncated, the pending segments are written when closing
+    private static final AppendingLogFile LOG_FILE = new AppendingLogFile("binary log file",
+            BinaryLogWriter::readPendingRows, channel -> writePendingRowsOnClose());
+
+    private BinaryLogWriter() {
+        // avoid instantiation
+    }
+
+    /**
+     * @return the file extension of binary log files
+     */
+    public static String getLogFileExtension() {
+        return LOG_FILE_EXT;
+    }
+
+    /**
+     * Appends the given list of {@link JobStatus} to the given binary log file, in one or more segments.<p>
+     * The job status are appended as pending segment, until {@link #SEGMENT_ROWS} job status fill a segment.<p>
+     * If the log file exceed the maximum size or rotation period, it is archived like the CSV log file.
+     *
+     * @param logFile     the binary log file
+     * @param jobStatuses the list of {@link JobStatus} to be logged
+     * @see CsvWriter#logJobStatuses(File, List)
+     */
+    public static synchronized void logJobStatuses(File logFile, List<JobStatus> jobStatuses) {
+        if (logFile == null) {
+            LOGGER.fine("Binary log file cannot be null!");
+            return;
+        }
+
+        try {
+            LOG_FILE.open(logFile);
+            LOG_FILE.rotate(logFile, LOG_FILE_EXT);
+
+            PENDING_ROWS.addAll(jobStatuses);
+            if (PENDING_ROWS.size() >= SEGMENT_ROWS) {
+                writePendingRows(false);
+            } else if (!jobStatuses.isEmpty()) {
+                LOG_FILE.write(encodeSegment(jobStatuses, PENDING_MAGIC));
+            }
+        } catch (IOException e) {
+            LOGGER.severe("IOException during writing binary log file: " + e.getMessage());
+            closeLogFile();
+        }
+    }
+
+    /**
+     * Closes the binary log file if it is still open from a previous write.
+     * The pending job status are written as one segment first.
+     */
+    public static synchronized void closeLogFile() {
+        LOG_FILE.close();
+        PENDING_ROWS.clear();
+    }
+
+    /**
+     * @param jobStatuses up to {@link #SEGMENT_ROWS} job status
+     * @param magic       {@link #SEGMENT_MAGIC} or {@link #PENDING_MAGIC}
+     * @return a buffer with the encoded segment, ready to be written
+     */
+    static ByteBuffer encodeSegment(List<JobStatus> jobStatuses, int magic) {
+        int rows = jobStatuses.size();
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> dictionary = new ArrayList<>();
+        int[] jobNames = new int[rows];
+        int[] results = new int[rows];
+        int[] causes = new int[rows];
+        int[] consoleUrls = new int[rows];
+        int[] nodeCounts = new int[rows];
+        int[] labels = new int[rows];
+        List<Integer> nodeNames = new ArrayList<>();
+        long minStartDate = Long.MAX_VALUE;
+        long maxEndDate = Long.MIN_VALUE;
+
+        for (int row = 0; row < rows; row++) {
+            JobStatus jobStatus = jobStatuses.get(row);
+            jobNames[row] = index(indexes, dictionary, jobStatus.getJobName());
+            results[row] = index(indexes, dictionary, jobStatus.getBuildResult());
+            causes[row] = index(indexes, dictionary, jobStatus.getBuildCause());
+            consoleUrls[row] = index(indexes, dictionary, jobStatus.getConsoleUrl());
+            labels[row] = index(indexes, dictionary, jobStatus.getLabel());
+            List<String> nodes = jobStatus.getNodeNames();
+            if (nodes != null) {
+                for (String nodeName : new ArrayList<>(nodes)) {
+                    nodeNames.add(index(indexes, dictionary, nodeName));
+                    nodeCounts[row]++;
+                }
+            }
+            if (jobStatus.getStartDate() != null) {
+                minStartDate = Math.min(minStartDate, jobStatus.getStartDate().getTime());
+            }
+            if (jobStatus.getEndDate() != null) {
+                maxEndDate = Math.max(maxEndDate, jobStatus.getEndDate().getTime());
+            }
+        }
+
+        int dictionaryBytes = Integer.BYTES;
+        for (byte[] value : dictionary) {
+            dictionaryBytes += Integer.BYTES + value.length;
+        }
+        int bodyLength = dictionaryBytes + rows * (INT_COLUMNS * Integer.BYTES + LONG_COLUMNS * Long.BYTES)
+                + nodeNames.size() * Integer.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodyLength);
+        buffer.putInt(magic);
+        buffer.putInt(bodyLength);
+        buffer.putInt(rows);
+        buffer.putLong(minStartDate);
+        buffer.putLong(maxEndDate);
+        buffer.putInt(0); // the checksum is set when the body is written
+
+        buffer.putInt(dictionary.size());
+        for (byte[] value : dictionary) {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+        buffer.asIntBuffer().put(jobNames);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        for (JobStatus jobStatus : jobStatuses) {
+            buffer.putInt(jobStatus.getJobNumber());
+        }
+        buffer.asIntBuffer().put(results);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        for (JobStatus jobStatus : jobStatuses) {
+            buffer.putLong(toEpochMillis(jobStatus.getStartDate()));
+        }
+        for (JobStatus jobStatus : jobStatuses) {
+            buffer.putLong(toEpochMillis(jobStatus.getEndDate()));
+        }
+        buffer.asIntBuffer().put(causes);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        buffer.asIntBuffer().put(consoleUrls);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        buffer.asIntBuffer().put(nodeCounts);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        for (int nodeName : nodeNames) {
+            buffer.putInt(nodeName);
+        }
+        for (JobStatus jobStatus : jobStatuses) {
+            buffer.putLong(toEpochMillis(jobStatus.getQueueDate()));
+        }
+        for (JobStatus jobStatus : jobStatuses) {
+            buffer.putLong(toEpochMillis(jobStatus.getLeftQueueDate()));
+        }
+        buffer.asIntBuffer().put(labels);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        for (JobStatus jobStatus : jobStatuses) {
+            buffer.putInt(jobStatus.getExecutor() != null ? jobStatus.getExecutor() : NULL_INDEX);
+        }
+        buffer.flip();
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE);
+        buffer.putInt(CHECKSUM_OFFSET, getChecksum(buffer, body));
+        return buffer;
+    }
+
+    /**
+     * @param header the header of a segment, from its start
+     * @param body   the body of a segment, from its position to its limit
+     * @return the checksum of the given segment
+     */
+    static int getChecksum(ByteBuffer header, ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        ByteBuffer fields = header.duplicate();
+        fields.limit(CHECKSUM_OFFSET).position(0);
+        crc.update(fields);
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Appends the pending job status as full segments, which supersede the pending segments, and appends the
+     * remaining job status as one pending segment again.
+     *
+     * @param all true, to write all pending job status as full segment, even if the last segment is not full
+     */
+    private static void writePendingRows(boolean all) throws IOException {
+        int from = 0;
+        while (PENDING_ROWS.size() - from >= SEGMENT_ROWS || all && from < PENDING_ROWS.size()) {
+            int to = Math.min(from + SEGMENT_ROWS, PENDING_ROWS.size());
+            LOG_FILE.write(encodeSegment(PENDING_ROWS.subList(from, to), SEGMENT_MAGIC));
+            from = to;
+        }
+        // the full segments are on disk, before the job status are dropped from memory
+        LOG_FILE.getChannel().force(false);
+        PENDING_ROWS.subList(0, from).clear();
+        if (!PENDING_ROWS.isEmpty()) {
+            LOG_FILE.write(encodeSegment(PENDING_ROWS, PENDING_MAGIC));
+        }
+    }
+
+    private static void writePendingRowsOnClose() {
+        try {
+            if (!PENDING_ROWS.isEmpty()) {
+                writePendingRows(true);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("IOException: Could not write pending segment of binary log file: " + e.getMessage());
+        } finally {
+            PENDING_ROWS.clear();
+        }
+    }
+
+    /**
+     * Reads the job status of the pending segments, which are not superseded, back into memory.
+     *
+     * @return the length of the valid segments of the log file
+     */
+    private static long readPendingRows(File logFile) throws IOException {
+        PENDING_ROWS.clear();
+        if (!logFile.exists()) {
+            return 0;
+        }
+        long validLength = 0;
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            BinaryLogReader.Segment segment = reader.next();
+            while (segment != null) {
+                if (segment.isPending()) {
+                    for (int row = 0; row < segment.getRowCount(); row++) {
+                        PENDING_ROWS.add(segment.toJobStatus(row));
+                    }
+                } else {
+                    PENDING_ROWS.clear();
+                }
+                validLength = reader.position();
+                segment = reader.next();
+            }
+        }
+        return validLength;
+    }
+
+    private static int index(Map<String, Integer> indexes, List<byte[]> dictionary, String value) {
+        if (value == null) {
+            return NULL_INDEX;
+        }
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            indexes.put(value, index);
+            dictionary.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+
+    private static long toEpochMillis(Date date) {
+        return date != null ? date.getTime() : NULL_DATE;
+    }
+}
@@ -0,0 +1,278 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rolling statistics of the completed builds, kept in memory for every {@link StatisticsWindow}: the number of
+ * builds per result, a {@link DurationHistogram} of the build durations and the busy time, per job and per node.
+ * <p>
+ * Builds are counted in the slot of their end date. The memory is bounded: every slot tracks at most
+ * {@value #MAX_KEYS} jobs and nodes each, further jobs and nodes are counted as {@value #OTHER}.
+ * The whole duration of a build is counted in the slot of its end date, as busy time of every node of the build.
+ */
+public class BuildStatistics {
+    /**
+     * Maximum number of jobs and nodes each, per slot.
+     */
+    public static final int MAX_KEYS = 500;
+    /**
+     * Name of the jobs or nodes beyond {@link #MAX_KEYS}.
+     */
+    public static final String OTHER = "(other)";
+    /**
+     * Name of the result of builds without result.
+     */
+    public static final String NO_RESULT = "NONE";
+
+    private static BuildStatistics instance = new BuildStatistics();
+
+    private final Map<StatisticsWindow, Slot[]> windows = new EnumMap<>(StatisticsWindow.class);
+
+    /**
+     * Creates empty statistics.
+     */
+    public BuildStatistics() {
+        for (StatisticsWindow window : StatisticsWindow.values()) {
+            windows.put(window, new Slot[window.getSlots()]);
+        }
+    }
+
+    /**
+     * @return the build statistics of this plugin
+     */
+    public static BuildStatistics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Adds the given completed builds to all windows. Builds without end date are not counted.
+     *
+     * @param jobStatuses the list of {@link JobStatus} of completed builds
+     */
+    public synchronized void record(List<JobStatus> jobStatuses) {
+        for (JobStatus jobStatus : jobStatuses) {
+            if (jobStatus.getEndDate() != null) {
+                long endDate = jobStatus.getEndDate().getTime();
+                for (Map.Entry<StatisticsWindow, Slot[]> window : windows.entrySet()) {
+                    Slot slot = getSlot(window.getKey(), window.getValue(), endDate);
+                    if (slot != null) {
+                        slot.record(jobStatus);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param window the window
+     * @param now    the current time, in epoch milliseconds
+     * @return the statistics of the builds which completed in the given window before the given time
+     */
+    public synchronized Snapshot getSnapshot(StatisticsWindow window, long now) {
+        long slotStart = now - now % window.getSlotMillis();
+        long from = slotStart - window.getMillis() + window.getSlotMillis();
+        Snapshot snapshot = new Snapshot(window, from, now);
+        for (Slot slot : windows.get(window)) {
+            if (slot != null && slot.start >= from && slot.start <= slotStart) {
+                add(snapshot.jobs, slot.jobs);
+                add(snapshot.nodes, slot.nodes);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Forgets all builds.
+     */
+    public synchronized void clear() {
+        for (Slot[] slots : windows.values()) {
+            Arrays.fill(slots, null);
+        }
+    }
+
+    // the slot of the given time; or null if the time is older than the window
+    private static Slot getSlot(StatisticsWindow window, Slot[] slots, long time) {
+        long start = time - time % window.getSlotMillis();
+        int index = (int) ((start / window.getSlotMillis()) % slots.length);
+        Slot slot = slots[index];
+        if (slot == null || slot.start < start) {
+            slot = new Slot(start);
+            slots[index] = slot;
+        }
+        return slot.start == start ? slot : null;
+    }
+
+    private static void add(Map<String, KeyStatistics> target, Map<String, KeyStatistics> source) {
+        for (Map.Entry<String, KeyStatistics> entry : source.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), key -> new KeyStatistics()).add(entry.getValue());
+        }
+    }
+
+    /**
+     * The builds of one slot.
+     */
+    private static final class Slot {
+        private final long start;
+        private final Map<String, KeyStatistics> jobs = new HashMap<>();
+        private final Map<String, KeyStatistics> nodes = new HashMap<>();
+
+        Slot(long start) {
+            this.start = start;
+        }
+
+        void record(JobStatus jobStatus) {
+            long duration = jobStatus.getStartDate() != null
+                    ? jobStatus.getEndDate().getTime() - jobStatus.getStartDate().getTime() : -1;
+            String result = jobStatus.getBuildResult() != null ? jobStatus.getBuildResult() : NO_RESULT;
+            get(jobs, jobStatus.getJobName()).record(result, duration);
+            List<String> nodeNames = jobStatus.getNodeNames();
+            if (nodeNames != null) {
+                for (String nodeName : nodeNames) {
+                    get(nodes, nodeName).record(result, duration);
+                }
+            }
+        }
+
+        private static KeyStatistics get(Map<String, KeyStatistics> statistics, String name) {
+            String key = name != null ? name : OTHER;
+            KeyStatistics keyStatistics = statistics.get(key);
+            if (keyStatistics == null) {
+                if (statistics.size() >= MAX_KEYS) {
+                    key = OTHER;
+                }
+                keyStatistics = statistics.computeIfAbsent(key, k -> new KeyStatistics());
+            }
+            return keyStatistics;
+        }
+    }
+
+    /**
+     * The statistics of one job or node.
+     */
+    public static final class KeyStatistics {
+        private final Map<String, Long> results = new TreeMap<>();
+        private final DurationHistogram durations = new DurationHistogram();
+
+        void record(String result, long duration) {
+            results.merge(result, 1L, Long::sum);
+            if (duration >= 0) {
+                durations.record(duration);
+            }
+        }
+
+        void add(KeyStatistics other) {
+            for (Map.Entry<String, Long> result : other.results.entrySet()) {
+                results.merge(result.getKey(), result.getValue(), Long::sum);
+            }
+            durations.add(other.durations);
+        }
+
+        /**
+         * @return the number of builds per result, sorted by result
+         */
+        public Map<String, Long> getResults() {
+            return Collections.unmodifiableMap(results);
+        }
+
+        /**
+         * @return the number of builds
+         */
+        public long getCount() {
+            long count = 0;
+            for (long resultCount : results.values()) {
+                count += resultCount;
+            }
+            return count;
+        }
+
+        /**
+         * @return the durations of the builds which have a start date
+         */
+        public DurationHistogram getDurations() {
+            return durations;
+        }
+    }
+
+    /**
+     * The statistics of a window at one point in time.
+     */
+    public static final class Snapshot {
+        private final StatisticsWindow window;
+        private final long from;
+        private final long to;
+        private final Map<String, KeyStatistics> jobs = new TreeMap<>();
+        private final Map<String, KeyStatistics> nodes = new TreeMap<>();
+
+        Snapshot(StatisticsWindow window, long from, long to) {
+            this.window = window;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return the window of this snapshot
+         */
+        public StatisticsWindow getWindow() {
+            return window;
+        }
+
+        /**
+         * @return the start of the window, in epoch milliseconds
+         */
+        public long getFrom() {
+            return from;
+        }
+
+        /**
+         * @return the time of this snapshot, in epoch milliseconds
+         */
+        public long getTo() {
+            return to;
+        }
+
+        /**
+         * @return the statistics per job, sorted by job name
+         */
+        public Map<String, KeyStatistics> getJobs() {
+            return Collections.unmodifiableMap(jobs);
+        }
+
+        /**
+         * @return the statistics per node, sorted by node name
+         */
+        public Map<String, KeyStatistics> getNodes() {
+            return Collections.unmodifiableMap(nodes);
+        }
+
+        /**
+         * @param node the statistics of a node
+         * @return the fraction of the window the node was busy with builds, between 0 and 1
+         */
+        public double getUtilization(KeyStatistics node) {
+            long millis = Math.max(1, to - from);
+            return Math.min(1.0, (double) node.getDurations().getSum() / millis);
+        }
+
+        /**
+         * @return the number of builds per result, of all jobs
+         */
+        public Map<String, Long> getResults() {
+            Map<String, Long> results = new LinkedHashMap<>();
+            for (KeyStatistics job : jobs.values()) {
+                for (Map.Entry<String, Long> result : job.getResults().entrySet()) {
+                    results.merge(result.getKey(), result.getValue(), Long::sum);
+                }
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.continental.contifactory.joblogger.util;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+/**
+ * CRC-32C (Castagnoli) checksum, as used by iSCSI, ext4 and many log formats. Java 8 only has the CRC-32 of
+ * {@link java.util.zip.CRC32}, so the checksum is computed with a lookup table of the reflected polynomial.
+ * A checksum is not thread-safe.
+ */
+public class Crc32c implements Checksum {
+    private static final int POLYNOMIAL = 0x82F63B78; // reflected 0x1EDC6F41
+    private static final int TABLE_SIZE = 256;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BITS_PER_BYTE = 8;
+    private static final long INT_MASK = 0xFFFFFFFFL;
+    private static final int[] TABLE = new int[TABLE_SIZE];
+
+    static {
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            int crc = i;
+            for (int bit = 0; bit < BITS_PER_BYTE; bit++) {
+                crc = (crc & 1) != 0 ? crc >>> 1 ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLE[i] = crc;
+        }
+    }
+
+    private int crc = -1;
+
+    @Override
+    public void update(int b) {
+        crc = crc >>> BITS_PER_BYTE ^ TABLE[(crc ^ b) & BYTE_MASK];
+    }
+
+    @Override
+    public void update(byte[] bytes, int offset, int length) {
+        int value = crc;
+        for (int i = offset; i < offset + length; i++) {
+            value = value >>> BITS_PER_BYTE ^ TABLE[(value ^ bytes[i]) & BYTE_MASK];
+        }
+        crc = value;
+    }
+
+    /**
+     * Updates the checksum with the bytes of the given buffer between the given positions, without changing the
+     * position of the buffer.
+     *
+     * @param buffer the buffer, heap or direct
+     * @param from   the position of the first byte
+     * @param to     the position after the last byte
+     */
+    public void update(ByteBuffer buffer, int from, int to) {
+        int value = crc;
+        for (int i = from; i < to; i++) {
+            value = value >>> BITS_PER_BYTE ^ TABLE[(value ^ buffer.get(i)) & BYTE_MASK];
+        }
+        crc = value;
+    }
+
+    @Override
+    public long getValue() {
+        return ~crc & INT_MASK;
+    }
+
+    @Override
+    public void reset() {
+        crc = -1;
+    }
+}
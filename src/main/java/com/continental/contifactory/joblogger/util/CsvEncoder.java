@@ -0,0 +1,448 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes job status into lines of the CSV log file, directly into a reused {@link ByteBuffer}.<p>
+ * Dates are written in the format of {@link Date#toString()} without formatting a string per date: the parts of
+ * the date which do not change within a day and time zone offset are taken from {@link Date#toString()} once and
+ * cached, the time of day is written digit by digit. Strings are written byte by byte if they are ASCII, other
+ * characters with a reused {@link CharsetEncoder}. As long as the buffer is large enough and the dates are in the
+ * cached day, encoding a job status creates no garbage. For charsets which do not encode ASCII as single bytes,
+ * e.g. UTF-16, each line is encoded as UTF-8 first and then re-encoded as a whole.
+ * <p>
+ * Separators, line breaks and backslashes in strings are escaped with a backslash ({@code \;}, {@code \n},
+ * {@code \r} and {@code \\}), so every line of the log file is exactly one job status. {@link CsvReader} removes
+ * the escapes again.
+ * <p>
+ * The lines of the CSV log file are framed as records: the sequence number of the record in the log file and the
+ * {@link Crc32c} checksum of the line up to the sequence number are appended as the last two fields, the checksum
+ * as 8 hex digits. {@link LogRecovery} uses them to find a torn end of the log file. An encoder is not thread-safe.
+ */
+public class CsvEncoder {
+    /**
+     * The header line of the CSV log file, with line break.
+     */
+    public static final String HEADER = "JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl;"
+            + "QueueDate;LeftQueueDate;Label;Executor\n";
+    /**
+     * The header line of the CSV log file with framed records, with line break.
+     */
+    public static final String RECORD_HEADER = HEADER.substring(0, HEADER.length() - 1) + ";Sequence;Checksum\n";
+    /**
+     * Number of hex digits of the checksum of a record.
+     */
+    public static final int CHECKSUM_DIGITS = 8;
+    /**
+     * Initial size of the buffer in bytes.
+     */
+    static final int INITIAL_CAPACITY = 16 * 1024;
+    /**
+     * Maximum size of the buffer in bytes which is kept after {@link #clear()}, a larger buffer is released.
+     */
+    static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private static final byte SEPARATOR = ';';
+    private static final byte LINE_BREAK = '\n';
+    private static final byte ESCAPE = '\\';
+    private static final char ASCII_LIMIT = 0x80;
+    private static final int MAX_NUMBER_LENGTH = 20;
+    private static final int RADIX = 10;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int BITS_PER_HEX_DIGIT = 4;
+    private static final int HEX_DIGIT_MASK = 0xF;
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final int SECONDS_PER_DAY = (int) TimeUnit.DAYS.toSeconds(1);
+    private static final int SECONDS_PER_HOUR = (int) TimeUnit.HOURS.toSeconds(1);
+    private static final int SECONDS_PER_MINUTE = (int) TimeUnit.MINUTES.toSeconds(1);
+    private static final int MILLIS_PER_SECOND = (int) TimeUnit.SECONDS.toMillis(1);
+    // Date.toString(): "EEE MMM dd HH:mm:ss zzz yyyy", the time of day is between the prefix and the suffix
+    private static final int DATE_PREFIX_LENGTH = "EEE MMM dd ".length();
+    private static final int DATE_SUFFIX_START = "EEE MMM dd HH:mm:ss".length();
+
+    private final boolean direct;
+    private final Charset charset;
+    private final CharsetEncoder charsetEncoder;
+    private final int maxBytesPerChar;
+    // encodes the lines as UTF-8 first, if the charset is not ASCII compatible; otherwise null
+    private final CsvEncoder lineEncoder;
+    private final byte[] header;
+    private final byte[] digits = new byte[MAX_NUMBER_LENGTH];
+    private final Crc32c checksum = new Crc32c();
+    private ByteBuffer buffer;
+
+    // the cached parts of Date.toString(), valid for dates in [dateFrom, dateTo)
+    private long dateFrom = Long.MAX_VALUE;
+    private long dateTo = Long.MIN_VALUE;
+    private long dateOffset;
+    private byte[] datePrefix;
+    private byte[] dateSuffix;
+
+    /**
+     * Creates an encoder for the default charset, which is the charset of the CSV log file.
+     *
+     * @param direct true for a direct buffer, which is written to a file channel without copying it
+     */
+    public CsvEncoder(boolean direct) {
+        this(direct, Charset.defaultCharset());
+    }
+
+    /**
+     * @param direct  true for a direct buffer, which is written to a file channel without copying it
+     * @param charset the charset of the lines
+     */
+    CsvEncoder(boolean direct, Charset charset) {
+        this.direct = direct;
+        this.charset = charset;
+        this.charsetEncoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.maxBytesPerChar = Math.max(2, (int) Math.ceil(charsetEncoder.maxBytesPerChar()));
+        byte[] ascii = new byte[ASCII_LIMIT];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        boolean asciiCompatible = Arrays.equals(ascii,
+                new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+        this.lineEncoder = asciiCompatible ? null : new CsvEncoder(false, StandardCharsets.UTF_8);
+        this.header = RECORD_HEADER.getBytes(charset);
+        this.buffer = allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param value a string
+     * @return the given string with escaped separators, line breaks and backslashes; or null for null
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped = getEscape(c);
+            if (escaped != null && sb == null) {
+                sb = new StringBuilder(value.length() * 2).append(value, 0, i);
+            }
+            if (sb != null) {
+                sb.append(escaped != null ? escaped : String.valueOf(c));
+            }
+        }
+        return sb != null ? sb.toString() : value;
+    }
+
+    /**
+     * Removes all encoded lines, the buffer is reused.
+     */
+    public void clear() {
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = allocate(INITIAL_CAPACITY);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return the number of encoded bytes
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * @return the buffer with the encoded lines, ready to be written; it is only valid until the next call
+     */
+    public ByteBuffer flip() {
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return the encoded lines as string
+     */
+    public String decode() {
+        ByteBuffer lines = buffer.duplicate();
+        lines.flip();
+        return charset.decode(lines).toString();
+    }
+
+    /**
+     * Appends the header line of the CSV log file, see {@link #RECORD_HEADER}.
+     */
+    public void writeHeader() {
+        ensure(header.length);
+        buffer.put(header);
+    }
+
+    /**
+     * Appends the line of the given job status, with line break.
+     *
+     * @param jobStatus a job status
+     * @param isoDates  true for ISO-8601 dates (UTC), as in compacted log files; false for the format of
+     *                  {@link Date#toString()}
+     */
+    public void encode(JobStatus jobStatus, boolean isoDates) {
+        if (lineEncoder != null) {
+            lineEncoder.clear();
+            lineEncoder.encode(jobStatus, isoDates);
+            String line = lineEncoder.decode();
+            writeEncoded(line, 0, line.length());
+            return;
+        }
+
+        writeString(jobStatus.getJobName());
+        writeSeparator();
+        writeNumber(jobStatus.getJobNumber());
+        writeSeparator();
+        writeString(jobStatus.getBuildResult());
+        writeSeparator();
+        writeDate(jobStatus.getStartDate(), isoDates);
+        writeSeparator();
+        writeDate(jobStatus.getEndDate(), isoDates);
+        writeSeparator();
+        writeString(jobStatus.getBuildCause());
+        writeSeparator();
+        writeNodeNames(jobStatus.getNodeNames());
+        writeSeparator();
+        writeString(jobStatus.getConsoleUrl());
+        writeSeparator();
+        writeDate(jobStatus.getQueueDate(), isoDates);
+        writeSeparator();
+        writeDate(jobStatus.getLeftQueueDate(), isoDates);
+        writeSeparator();
+        writeString(jobStatus.getLabel());
+        writeSeparator();
+        if (jobStatus.getExecutor() != null) {
+            writeNumber(jobStatus.getExecutor());
+        }
+        ensure(1);
+        buffer.put(LINE_BREAK);
+    }
+
+    /**
+     * Appends the line of the given job status as a framed record, with line break. Dates are written in the format
+     * of {@link Date#toString()}.
+     *
+     * @param jobStatus a job status
+     * @param sequence  the sequence number of the record in the log file
+     */
+    public void encodeRecord(JobStatus jobStatus, long sequence) {
+        int start = buffer.position();
+        if (lineEncoder != null) {
+            lineEncoder.clear();
+            lineEncoder.encode(jobStatus, false);
+            String line = lineEncoder.decode();
+            String framed = line.substring(0, line.length() - 1) + (char) SEPARATOR + sequence;
+            writeEncoded(framed, 0, framed.length());
+            checksum.reset();
+            checksum.update(buffer, start, buffer.position());
+            String end = String.format("%c%0" + CHECKSUM_DIGITS + "x%c", SEPARATOR, checksum.getValue(), LINE_BREAK);
+            writeEncoded(end, 0, end.length());
+            return;
+        }
+
+        encode(jobStatus, false);
+        // the sequence number and the checksum replace the line break
+        buffer.position(buffer.position() - 1);
+        writeSeparator();
+        writeNumber(sequence);
+
+        checksum.reset();
+        checksum.update(buffer, start, buffer.position());
+        long value = checksum.getValue();
+        ensure(CHECKSUM_DIGITS + 2);
+        buffer.put(SEPARATOR);
+        for (int shift = (CHECKSUM_DIGITS - 1) * BITS_PER_HEX_DIGIT; shift >= 0; shift -= BITS_PER_HEX_DIGIT) {
+            buffer.put(HEX_DIGITS[(int) (value >>> shift) & HEX_DIGIT_MASK]);
+        }
+        buffer.put(LINE_BREAK);
+    }
+
+    private void writeSeparator() {
+        ensure(1);
+        buffer.put(SEPARATOR);
+    }
+
+    private void writeNodeNames(List<String> nodeNames) {
+        if (nodeNames == null) {
+            return;
+        }
+        // the node names are written as List.toString(): [node 1, node 2]
+        ensure(1);
+        buffer.put((byte) '[');
+        for (int i = 0; i < nodeNames.size(); i++) {
+            if (i > 0) {
+                ensure(2);
+                buffer.put((byte) ',').put((byte) ' ');
+            }
+            String nodeName = nodeNames.get(i);
+            writeString(nodeName != null ? nodeName : "null");
+        }
+        ensure(1);
+        buffer.put((byte) ']');
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            return;
+        }
+        ensure(value.length() * maxBytesPerChar);
+        int encodeFrom = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= ASCII_LIMIT) {
+                if (encodeFrom < 0) {
+                    encodeFrom = i;
+                }
+                continue;
+            }
+            if (encodeFrom >= 0) {
+                writeEncoded(value, encodeFrom, i);
+                encodeFrom = -1;
+            }
+            if (c == SEPARATOR || c == ESCAPE) {
+                buffer.put(ESCAPE).put((byte) c);
+            } else if (c == '\n') {
+                buffer.put(ESCAPE).put((byte) 'n');
+            } else if (c == '\r') {
+                buffer.put(ESCAPE).put((byte) 'r');
+            } else {
+                buffer.put((byte) c);
+            }
+        }
+        if (encodeFrom >= 0) {
+            writeEncoded(value, encodeFrom, value.length());
+        }
+    }
+
+    private void writeEncoded(String value, int from, int to) {
+        CharBuffer chars = CharBuffer.wrap(value, from, to);
+        charsetEncoder.reset();
+        while (true) {
+            CoderResult result = charsetEncoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                ensure(chars.remaining() * maxBytesPerChar);
+            } else {
+                break;
+            }
+        }
+        while (charsetEncoder.flush(buffer).isOverflow()) {
+            ensure(maxBytesPerChar);
+        }
+    }
+
+    private void writeNumber(long value) {
+        ensure(MAX_NUMBER_LENGTH);
+        if (value == 0) {
+            buffer.put((byte) '0');
+            return;
+        }
+        // digits are taken from the negative value, so Long.MIN_VALUE does not overflow
+        long rest = value < 0 ? value : -value;
+        int position = digits.length;
+        while (rest != 0) {
+            digits[--position] = (byte) ('0' - rest % RADIX);
+            rest /= RADIX;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    private void writeDate(Date date, boolean isoDate) {
+        if (date == null) {
+            return;
+        }
+        long time = date.getTime();
+        if (isoDate) {
+            String iso = Instant.ofEpochMilli(time).toString();
+            ensure(iso.length());
+            for (int i = 0; i < iso.length(); i++) {
+                buffer.put((byte) iso.charAt(i));
+            }
+            return;
+        }
+
+        if (time < dateFrom || time >= dateTo) {
+            cacheDate(time);
+        }
+        int secondOfDay = (int) Math.floorMod(Math.floorDiv(time + dateOffset, MILLIS_PER_SECOND), SECONDS_PER_DAY);
+        ensure(datePrefix.length + "HH:mm:ss".length() + dateSuffix.length);
+        buffer.put(datePrefix);
+        writeTwoDigits(secondOfDay / SECONDS_PER_HOUR);
+        buffer.put((byte) ':');
+        writeTwoDigits(secondOfDay % SECONDS_PER_HOUR / SECONDS_PER_MINUTE);
+        buffer.put((byte) ':');
+        writeTwoDigits(secondOfDay % SECONDS_PER_MINUTE);
+        buffer.put(dateSuffix);
+    }
+
+    private void writeTwoDigits(int value) {
+        buffer.put((byte) ('0' + value / RADIX)).put((byte) ('0' + value % RADIX));
+    }
+
+    // caches the parts of Date.toString() which are the same for all dates of the local day and time zone offset
+    private void cacheDate(long time) {
+        String text = new Date(time).toString();
+        datePrefix = text.substring(0, DATE_PREFIX_LENGTH).getBytes(charset);
+        dateSuffix = text.substring(DATE_SUFFIX_START).getBytes(charset);
+
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        Instant instant = Instant.ofEpochMilli(time);
+        dateOffset = TimeUnit.SECONDS.toMillis(rules.getOffset(instant).getTotalSeconds());
+        dateFrom = Math.floorDiv(time + dateOffset, DAY) * DAY - dateOffset;
+        dateTo = dateFrom + DAY;
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+        if (previous != null) {
+            dateFrom = Math.max(dateFrom, previous.getInstant().toEpochMilli());
+        }
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        if (next != null) {
+            dateTo = Math.min(dateTo, next.getInstant().toEpochMilli());
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer larger = allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static String getEscape(char c) {
+        switch (c) {
+            case ';':
+                return "\\;";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses the lines of a CSV log file, written by {@link CsvWriter}, back into job status.<p>
+ * Dates are read in the format of {@link Date#toString()} or, in compacted log files, in ISO-8601 format.
+ * Lines written before the queue times were logged have no queue fields, they are read without them.
+ * Separators, line breaks and backslashes escaped by {@link CsvEncoder} are unescaped.
+ * A reader is not thread-safe, every thread needs its own reader.
+ */
+public class CsvReader {
+    /**
+     * The format of the dates in the CSV log file, which is the format of {@link Date#toString()}.
+     */
+    public static final String DATE_PATTERN = "EEE MMM dd HH:mm:ss zzz yyyy";
+
+    /**
+     * The start of the header line of a CSV log file.
+     */
+    public static final String HEADER_START = "JobName;";
+
+    private static final String SEPARATOR = ";";
+    private static final char ESCAPE = '\\';
+    private static final int FIELDS = 8;
+    private static final int JOB_NUMBER_INDEX = 1;
+    private static final int RESULT_INDEX = 2;
+    private static final int START_DATE_INDEX = 3;
+    private static final int END_DATE_INDEX = 4;
+    private static final int CAUSE_INDEX = 5;
+    private static final int NODE_INDEX = 6;
+    private static final int CONSOLE_URL_INDEX = 7;
+    private static final int QUEUE_FIELDS = 12;
+    private static final int QUEUE_DATE_INDEX = 8;
+    private static final int LEFT_QUEUE_DATE_INDEX = 9;
+    private static final int LABEL_INDEX = 10;
+    private static final int EXECUTOR_INDEX = 11;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN, Locale.US);
+
+    /**
+     * @param line a line of a CSV log file
+     * @return the job status of the given line; or null for the header or an invalid line
+     */
+    public JobStatus parse(String line) {
+        if (line == null || line.startsWith(HEADER_START)) {
+            return null;
+        }
+        // most lines have no escapes, they are split without unescaping
+        String[] fields = line.indexOf(ESCAPE) < 0 ? line.split(SEPARATOR, -1) : splitEscaped(line);
+        if (fields.length < FIELDS) {
+            return null;
+        }
+
+        try {
+            JobStatus jobStatus = new JobStatus();
+            jobStatus.setJobName(emptyToNull(fields[0]));
+            jobStatus.setJobNumber(fields[JOB_NUMBER_INDEX].isEmpty() ? 0 : Integer.parseInt(fields[JOB_NUMBER_INDEX]));
+            jobStatus.setBuildResult(emptyToNull(fields[RESULT_INDEX]));
+            jobStatus.setStartDate(parseDate(fields[START_DATE_INDEX]));
+            jobStatus.setEndDate(parseDate(fields[END_DATE_INDEX]));
+            jobStatus.setBuildCause(emptyToNull(fields[CAUSE_INDEX]));
+            jobStatus.setNodeNames(parseNodeNames(fields[NODE_INDEX]));
+            jobStatus.setConsoleUrl(emptyToNull(fields[CONSOLE_URL_INDEX]));
+            if (fields.length >= QUEUE_FIELDS) {
+                jobStatus.setQueueDate(parseDate(fields[QUEUE_DATE_INDEX]));
+                jobStatus.setLeftQueueDate(parseDate(fields[LEFT_QUEUE_DATE_INDEX]));
+                jobStatus.setLabel(emptyToNull(fields[LABEL_INDEX]));
+                jobStatus.setExecutor(fields[EXECUTOR_INDEX].isEmpty() ? null
+                        : Integer.valueOf(fields[EXECUTOR_INDEX]));
+            }
+            return jobStatus;
+        } catch (NumberFormatException | ParseException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // splits at the separators which are not escaped, and removes the escapes
+    private static String[] splitEscaped(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ESCAPE && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                if (escaped == 'n') {
+                    field.append('\n');
+                } else if (escaped == 'r') {
+                    field.append('\r');
+                } else if (escaped == ';' || escaped == ESCAPE) {
+                    field.append(escaped);
+                } else {
+                    // not an escape of the encoder, e.g. a backslash in a line written before escaping
+                    field.append(c).append(escaped);
+                }
+            } else if (c == SEPARATOR.charAt(0)) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private Date parseDate(String date) throws ParseException {
+        if (date.isEmpty()) {
+            return null;
+        }
+        // compacted log files have ISO-8601 dates, which start with the year instead of the day of week
+        if (Character.isDigit(date.charAt(0))) {
+            return Date.from(Instant.parse(date));
+        }
+        return dateFormat.parse(date);
+    }
+
+    private static List<String> parseNodeNames(String nodeNames) {
+        // the node names are written as List.toString(): [node 1, node 2]
+        String names = nodeNames.startsWith("[") && nodeNames.endsWith("]")
+                ? nodeNames.substring(1, nodeNames.length() - 1) : nodeNames;
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(names.split(", ")));
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -2,12 +2,21 @@ package com.continental.contifactory.joblogger.util;
 
 import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
 import com.continental.contifactory.joblogger.model.JobStatus;
-import org.apache.commons.io.FileUtils;
-
 import java.io.File;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
@@ -20,108 +29,229 @@ public class CsvWriter {
 
     private static final Logger LOGGER = Logger.getLogger(CsvWriter.class.getName());
 
-    private static final char SEPARATOR = ';';
+    private static final DateTimeFormatter ARCHIVE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    // encodes the lines of a write directly into a reused direct buffer, guarded by the lock of this class
+    private static final CsvEncoder ENCODER = new CsvEncoder(true);
+    // encoders for the lines returned as string, e.g. when compacting or spilling
+    private static final ThreadLocal<CsvEncoder> LINE_ENCODER = ThreadLocal.withInitial(() -> new CsvEncoder(false));
+
+    // a log file which was not closed properly may end with a torn line, which is truncated before appending
+    private static final AppendingLogFile LOG_FILE = new AppendingLogFile("log file", CsvWriter::recover,
+            channel -> LogCommitter.getInstance().closing(channel));
+    // sequence number of the next record in the open log file
+    private static long nextSequence;
 
     /**
      * Writes the given {@link JobStatus} to the given log file.<p>
-     * If the given log file's size exceed the maximum size, the content of the log file
-     * will be archived in a new archive log file: {@code job_logger_[currentTime].csv},
-     * and the log file content will be first cleared before it is written again.
+     * If the given log file's size exceed the maximum size, or the rotation period of the log file is over,
+     * the log file will be renamed to a new archive log file: {@code job_logger_[currentTime].csv},
+     * and a new log file will be created.
+     * The archive log file is compressed in the background, if configured.
      * <p>
      * The format of the CSV file is:<br>
-     * {@code JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl}
+     * {@code JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl;QueueDate;LeftQueueDate;Label;Executor;}
+     * {@code Sequence;Checksum}<br>
+     * Every line is a framed record with its sequence number in the log file and its checksum, see
+     * {@link CsvEncoder#encodeRecord(JobStatus, long)}.
      *
      * @param csvFile   the CSV log file to be appended with job status information
      * @param jobStatus the {@link JobStatus} to be logged
+     * @see #logJobStatuses(File, List)
+     */
+    public static void logJobStatus(File csvFile, JobStatus jobStatus) {
+        logJobStatuses(csvFile, Collections.singletonList(jobStatus));
+    }
+
+    /**
+     * Writes the given list of {@link JobStatus} to the given log file in one write.<p>
+     * The log file stays open afterwards, so consecutive writes do not pay for opening and closing
+     * the log file again. The file system is only asked for the log file size when the log file is opened,
+     * afterwards the size is counted while writing. The lines are encoded directly into a reused buffer, see
+     * {@link CsvEncoder}.
+     * Archiving works as described in {@link #logJobStatus(File, JobStatus)}. The time waiting for the lock of the
+     * log file is measured apart from the time writing, see {@link PluginMetrics}. The writes are forced to the
+     * storage device by the {@link LogCommitter}, according to the configured {@link LogDurability}.
+     *
+     * @param csvFile     the CSV log file to be appended with job status information
+     * @param jobStatuses the list of {@link JobStatus} to be logged
      */
-    public static synchronized void logJobStatus(File csvFile, JobStatus jobStatus) {
+    public static void logJobStatuses(File csvFile, List<JobStatus> jobStatuses) {
+        long start = PluginMetrics.start();
+        synchronized (CsvWriter.class) {
+            PluginMetrics.stop(PluginMetrics.Timer.WRITE_LOCK_WAIT, start);
+            long writeStart = PluginMetrics.start();
+            writeJobStatuses(csvFile, jobStatuses);
+            PluginMetrics.stop(PluginMetrics.Timer.WRITE, writeStart);
+        }
+    }
+
+    private static void writeJobStatuses(File csvFile, List<JobStatus> jobStatuses) {
         if (csvFile == null) {
             LOGGER.fine("CSV log file cannot be null!");
             return;
         }
 
-        if (csvFile.exists() && FileUtil.exceedMaximumSize(csvFile)) {
-            LOGGER.fine("Log file exceed maximum size, archiving log file: " + csvFile.getAbsolutePath());
-            archiveLogFile(csvFile);
-        }
-
         try {
-            if (!csvFile.exists()) {
+            openLogFile(csvFile);
+            LOG_FILE.rotate(csvFile, JobLoggerPluginConfiguration.getLogFileExtension());
+
+            ENCODER.clear();
+            boolean newFile = LOG_FILE.getSize() == 0;
+            if (newFile) {
                 LOGGER.fine("Creating new log file: " + csvFile.getAbsolutePath());
-                writeHeader(csvFile);
+                ENCODER.writeHeader();
             }
 
-            writeJobStatus(csvFile, jobStatus);
-            LOGGER.fine("Updated log file: " + csvFile.getAbsolutePath());
+            // the offset of each line is kept for the log index
+            long[] offsets = new long[jobStatuses.size()];
+            for (int i = 0; i < jobStatuses.size(); i++) {
+                offsets[i] = LOG_FILE.getSize() + ENCODER.position();
+                ENCODER.encodeRecord(jobStatuses.get(i), nextSequence++);
+            }
+            LOG_FILE.write(ENCODER.flip());
+            ENCODER.clear();
+            LogCommitter.getInstance().written(LOG_FILE.getChannel(), jobStatuses);
+            LogIndex.getInstance().add(csvFile, newFile, offsets, jobStatuses);
+            LOGGER.fine("Updated log file: " + csvFile.getAbsolutePath() + " (" + jobStatuses.size() + " entries)");
         } catch (IOException e) {
             LOGGER.severe("IOException during writing csv log file: " + e.getMessage());
+            closeLogFile();
+        }
+    }
+
+    /**
+     * Closes the log file if it is still open from a previous write. Written job status are committed before,
+     * see {@link LogCommitter}.
+     */
+    public static synchronized void closeLogFile() {
+        LOG_FILE.close();
+        nextSequence = 0;
+    }
+
+    /**
+     * Truncates the torn end of the given log file, if it is not open for writing yet, see {@link LogRecovery}.
+     *
+     * @param csvFile the CSV log file
+     * @throws IOException if the log file cannot be recovered
+     */
+    public static synchronized void recoverLogFile(File csvFile) throws IOException {
+        if (!LOG_FILE.isOpen(csvFile)) {
+            LogRecovery.recover(csvFile);
+        }
+    }
+
+    private static void openLogFile(File csvFile) throws IOException {
+        if (LOG_FILE.isOpen(csvFile)) {
+            return;
+        }
+
+        closeLogFile();
+        // a log file of an older version has another header, it is archived so each log file has a single layout
+        if (csvFile.length() > 0 && !hasRecordHeader(csvFile)) {
+            LOGGER.info("Log file has an outdated header, archiving log file: " + csvFile.getAbsolutePath());
+            archiveLogFile(csvFile, JobLoggerPluginConfiguration.getLogFileExtension());
+        }
+        LOG_FILE.open(csvFile);
+    }
+
+    private static long recover(File csvFile) throws IOException {
+        nextSequence = LogRecovery.recover(csvFile);
+        return csvFile.length();
+    }
+
+    private static boolean hasRecordHeader(File csvFile) throws IOException {
+        byte[] header = CsvEncoder.RECORD_HEADER.getBytes(Charset.defaultCharset());
+        ByteBuffer start = ByteBuffer.allocate(header.length);
+        try (FileChannel file = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ)) {
+            while (start.hasRemaining() && file.read(start) >= 0) {
+                // read until the length of the header or the end of the log file
+            }
         }
+        return Arrays.equals(header, start.array());
+    }
+
+    /**
+     * @param jobStatus a job status
+     * @return the line of the given job status in the CSV log file, with line break
+     */
+    public static String toCsvLine(JobStatus jobStatus) {
+        return toLine(jobStatus, false);
+    }
+
+    /**
+     * @param jobStatus a job status
+     * @return the line of the given job status in a compacted CSV log file, with ISO-8601 dates (UTC) and
+     * line break
+     */
+    public static String toCompactedCsvLine(JobStatus jobStatus) {
+        return toLine(jobStatus, true);
     }
 
-    private static void writeJobStatus(File csvFile, JobStatus jobStatus) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        write(sb, jobStatus.getJobName());
-        write(sb, SEPARATOR);
-        write(sb, jobStatus.getJobNumber());
-        write(sb, SEPARATOR);
-        write(sb, jobStatus.getBuildResult());
-        write(sb, SEPARATOR);
-        write(sb, jobStatus.getStartDate());
-        write(sb, SEPARATOR);
-        write(sb, jobStatus.getEndDate());
-        write(sb, SEPARATOR);
-        write(sb, jobStatus.getBuildCause());
-        write(sb, SEPARATOR);
-        write(sb, jobStatus.getNodeNames());
-        write(sb, SEPARATOR);
-        write(sb, jobStatus.getConsoleUrl());
-        sb.append("\n");
-        FileUtils.writeStringToFile(csvFile, sb.toString(), true);
+    private static String toLine(JobStatus jobStatus, boolean isoDates) {
+        CsvEncoder encoder = LINE_ENCODER.get();
+        encoder.clear();
+        encoder.encode(jobStatus, isoDates);
+        return encoder.decode();
     }
 
-    private static void writeHeader(File csvFile) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        sb.append("JobName");
-        sb.append(SEPARATOR);
-        sb.append("JobNumber");
-        sb.append(SEPARATOR);
-        sb.append("Result");
-        sb.append(SEPARATOR);
-        sb.append("StartDate");
-        sb.append(SEPARATOR);
-        sb.append("EndDate");
-        sb.append(SEPARATOR);
-        sb.append("Cause");
-        sb.append(SEPARATOR);
-        sb.append("Node");
-        sb.append(SEPARATOR);
-        sb.append("ConsoleUrl");
-        sb.append("\n");
-        FileUtils.writeStringToFile(csvFile, sb.toString(), true);
+    /**
+     * @return the header line of the CSV log file, with line break
+     */
+    static String getHeader() {
+        return CsvEncoder.HEADER;
     }
 
-    private static void archiveLogFile(File csvLogFile) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
-        String currentTime = dateFormat.format(Calendar.getInstance().getTime());
+    /**
+     * Renames the given closed log file to a new archive log file: {@code job_logger_[currentTime][extension]},
+     * and compresses the archive log file in the background, if configured.
+     *
+     * @param csvLogFile the log file to archive
+     * @param ext        the file extension of the log file
+     */
+    static void archiveLogFile(File csvLogFile, String ext) {
+        String currentTime = ARCHIVE_DATE_FORMAT.format(Calendar.getInstance().getTime().toInstant()
+                .atZone(ZoneId.systemDefault()));
         String logFileName = JobLoggerPluginConfiguration.getLogFileShortname();
-        String ext = JobLoggerPluginConfiguration.getLogFileExtension();
         File archiveFile = new File(csvLogFile.getParent() + File.separator + logFileName + "_" + currentTime
                 + ext);
+        // never overwrite an archive file which was created in the same second, even if it is compressed already
+        for (int i = 1; isArchived(archiveFile); i++) {
+            archiveFile = new File(csvLogFile.getParent() + File.separator + logFileName + "_" + currentTime
+                    + "_" + i + ext);
+        }
+
         try {
-            LOGGER.fine("Copying log file to archive file...");
-            FileUtils.copyFile(csvLogFile, archiveFile);
-            csvLogFile.delete();
+            LOGGER.fine("Moving log file to archive file...");
+            moveFile(csvLogFile, archiveFile);
+            LogIndex.getInstance().archived(csvLogFile, archiveFile);
             LOGGER.info("Log file archived in: " + archiveFile.getAbsolutePath());
         } catch (IOException e) {
             LOGGER.warning("IOException: Could not archive log file: " + e.getMessage());
+            return;
+        }
+
+        ArchiveCompression compression = JobLoggerPluginConfiguration.get().getArchiveCompression();
+        if (compression != null && compression != ArchiveCompression.NONE) {
+            ArchiveCompressor.compressLater(archiveFile, compression);
         }
     }
 
-    private static void write(StringBuilder writer, Object object) throws IOException {
-        if (object != null) {
-            writer.append(String.valueOf(object));
-        } else {
-            writer.append("");
+    private static boolean isArchived(File archiveFile) {
+        for (ArchiveCompression compression : ArchiveCompression.values()) {
+            if (new File(archiveFile.getPath() + compression.getExtension()).exists()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void moveFile(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOGGER.fine("Atomic move not supported, moving log file: " + e.getMessage());
+            Files.move(source.toPath(), target.toPath());
         }
     }
 }
@@ -0,0 +1,127 @@
+package com.continental.contifactory.joblogger.util;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of build durations with log-linear buckets, like an HdrHistogram: every power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so a percentile is at most 12.5% above the exact value, whatever the scale.<p>
+ * The counts grow with the longest recorded duration only, up to {@value #MAX_BUCKETS} buckets. Not thread-safe.
+ */
+public class DurationHistogram {
+    /**
+     * Number of buckets per power of two.
+     */
+    public static final int SUB_BUCKETS = 8;
+    /**
+     * Maximum number of buckets, which covers durations up to 2^40 ms (about 35 years).
+     */
+    public static final int MAX_BUCKETS = 312;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final double PERCENT = 100.0;
+
+    private int[] counts = new int[0];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Records one duration.
+     *
+     * @param millis the duration in milliseconds, negative durations are recorded as 0
+     */
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        int index = Math.min(MAX_BUCKETS - 1, getIndex(value));
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, index + 1);
+        }
+        counts[index]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all durations of the given histogram to this histogram.
+     *
+     * @param other a histogram
+     */
+    public void add(DurationHistogram other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of all recorded durations in milliseconds
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the longest recorded duration in milliseconds; or 0 if no duration was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100, e.g. 95
+     * @return the duration in milliseconds which the given percentage of durations do not exceed, rounded up to the
+     * end of its bucket; or 0 if no duration was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / PERCENT * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // the last bucket has no upper bound, it counts all longer durations
+                return i < MAX_BUCKETS - 1 ? Math.min(max, getUpperBound(i)) : max;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @param value a duration in milliseconds, not negative
+     * @return the bucket of the given duration
+     */
+    static int getIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @param index a bucket
+     * @return the longest duration in the given bucket, in milliseconds
+     */
+    static long getUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
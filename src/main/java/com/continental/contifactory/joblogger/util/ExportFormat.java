@@ -0,0 +1,37 @@
+package com.continental.contifactory.joblogger.util;
+
+/**
+ * Output formats of a log export.
+ */
+public enum ExportFormat {
+    /**
+     * The lines of the CSV log file, with one header line.
+     */
+    CSV("text/csv", ".csv"),
+    /**
+     * One JSON object per line (newline delimited JSON), written by {@link JsonWriter}.
+     */
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * @return the media type of this format
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the file extension of this format
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
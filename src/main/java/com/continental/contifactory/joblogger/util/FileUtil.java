@@ -3,12 +3,18 @@ package com.continental.contifactory.joblogger.util;
 import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
 
 import java.io.File;
+import java.time.ZoneId;
 import java.util.logging.Logger;
 
 /**
  * This class provides file utility methods which is used by this plugin.
  */
 public final class FileUtil {
+    /**
+     * Number of bytes in a megabyte.
+     */
+    public static final long BYTES_PER_MB = 1024 * 1024;
+
     private static final Logger LOGGER = Logger.getLogger(FileUtil.class.getName());
 
     private FileUtil() {
@@ -34,6 +40,34 @@ public final class FileUtil {
         return exceeded;
     }
 
+    /**
+     * @param fileSize the size of a file in bytes
+     * @return true, if the given file size exceed the maximum file size limit; false otherwise
+     * @see JobLoggerPluginConfiguration#getMaxLogFileSize()
+     */
+    public static boolean exceedMaximumSize(long fileSize) {
+        double maxLogFileSize = JobLoggerPluginConfiguration.get().getMaxLogFileSize();
+        if (fileSize > maxLogFileSize * BYTES_PER_MB) {
+            LOGGER.fine("log file exceed max size (" + maxLogFileSize + "): " + fileSize + " bytes");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param logFileTime the time of the last write to a log file, in epoch milliseconds
+     * @return true, if the current time is in a new rotation period; false otherwise
+     * @see JobLoggerPluginConfiguration#getRotationPeriod()
+     */
+    public static boolean exceedRotationPeriod(long logFileTime) {
+        RotationPeriod period = JobLoggerPluginConfiguration.get().getRotationPeriod();
+        if (period != null && period.isNewPeriod(logFileTime, System.currentTimeMillis(), ZoneId.systemDefault())) {
+            LOGGER.fine("log file exceed rotation period (" + period + ")");
+            return true;
+        }
+        return false;
+    }
+
     /**
      * @param csvFile a file
      * @return the given file size in megabyte(s)
@@ -44,6 +78,6 @@ public final class FileUtil {
             throw new NullPointerException("CSV file cannot be null!");
         }
         // file.length() is in bytes, compute to megabyte
-        return Long.valueOf(csvFile.length()).doubleValue() / (1024 * 1024);
+        return Long.valueOf(csvFile.length()).doubleValue() / BYTES_PER_MB;
     }
 }
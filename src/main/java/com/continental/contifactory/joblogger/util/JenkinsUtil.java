@@ -1,20 +1,21 @@
 package com.continental.contifactory.joblogger.util;
 
 import hudson.FilePath;
-import hudson.console.ConsoleNote;
+import hudson.model.AbstractBuild;
+import hudson.model.Computer;
+import hudson.model.Executor;
+import hudson.model.Node;
 import hudson.model.Run;
 import jenkins.model.Jenkins;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A utility class to provide various Jenkins information.
@@ -91,37 +92,95 @@ public final class JenkinsUtil {
         return jenkins.getRootUrl() + run.getUrl() + "/console";
     }
 
+    /**
+     * @param run an instance of Jenkins {@link Run}
+     * @return the display name of the node which builds the given run; or null if the run is not
+     *         an {@link AbstractBuild} (e.g. a pipeline) or not assigned to an executor
+     */
+    public static String getExecutorNodeName(@Nonnull Run<?, ?> run) {
+        // pipelines run on a flyweight executor on master, their nodes are defined by node {} blocks
+        if (!(run instanceof AbstractBuild)) {
+            return null;
+        }
+
+        Executor executor = run.getExecutor();
+        if (executor == null) {
+            return null;
+        }
+
+        Computer computer = executor.getOwner();
+        Node node = computer != null ? computer.getNode() : null;
+        return node != null ? node.getDisplayName() : null;
+    }
+
+    /**
+     * @param run an instance of Jenkins {@link Run}
+     * @return the number of the executor slot which builds the given run; or null if the run is not assigned to
+     *         an executor, or to a flyweight executor without slot (e.g. a pipeline)
+     */
+    public static Integer getExecutorNumber(@Nonnull Run<?, ?> run) {
+        Executor executor = run.getExecutor();
+        if (executor == null || executor.getNumber() < 0) {
+            return null;
+        }
+        return executor.getNumber();
+    }
+
+    /**
+     * @param nodeName the name of a node, an empty name is the Jenkins master
+     * @return the display name of the given node, as it is shown in "Running on [node name] in" in the console
+     *         log; or the given node name if the node cannot be found
+     */
+    public static String getNodeDisplayName(String nodeName) {
+        Jenkins jenkins = Jenkins.getInstance();
+        if (jenkins == null || nodeName == null) {
+            return nodeName;
+        }
+
+        Node node = nodeName.isEmpty() ? jenkins : jenkins.getNode(nodeName);
+        return node != null ? node.getDisplayName() : nodeName;
+    }
+
     /**
      * Extract node names from the given run, by searching for the regex {@code "Running on [node name] in"}
      * in the console log of the run.
      *
      * @param run an instance of Jenkins {@link Run}
      * @return the node names used by the given run; or an empty list if nothing is found
+     * @see #getNodeNames(Run, long)
      */
     public static List<String> getNodeNames(@Nonnull Run<?, ?> run) {
-        List<String> nodeNames = new ArrayList<>();
-
-        final String nodeRegex = "(Running on )(.+)( in .+)";
-        final int nodeNameIndex = 2;
-        Pattern pattern = Pattern.compile(nodeRegex);
-
-        try (BufferedReader reader = new BufferedReader(run.getLogReader())) {
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                // remove HA (High Availability) protocol notes from the line
-                String cleanedLine = ConsoleNote.removeNotes(line);
-                Matcher matcher = pattern.matcher(cleanedLine);
-                while (matcher.find()) {
-                    nodeNames.add(matcher.group(nodeNameIndex));
-                }
-            }
+        return getNodeNames(run, Long.MAX_VALUE);
+    }
+
+    /**
+     * Extract node names from the given run, by searching for the regex {@code "Running on [node name] in"}
+     * in the first bytes of the console log of the run.
+     *
+     * @param run      an instance of Jenkins {@link Run}
+     * @param maxBytes the maximum number of bytes of the console log to search
+     * @return the distinct node names used by the given run; or an empty list if nothing is found
+     * @see NodeNameExtractor
+     */
+    public static List<String> getNodeNames(@Nonnull Run<?, ?> run, long maxBytes) {
+        long start = PluginMetrics.start();
+        NodeNameExtractor extractor = new NodeNameExtractor(NodeNameExtractor.DEFAULT_MAX_NODE_NAMES, maxBytes,
+                run.getCharset());
+
+        try (InputStream log = run.getLogInputStream()) {
+            List<String> nodeNames = extractor.extract(log);
+            LOGGER.fine("Searched " + extractor.getBytesScanned() + " bytes of console log for node names");
+            return nodeNames;
         } catch (IOException e) {
             LOGGER.warning("Could not retrieve node name. "
                     + "IOException occurred while reading log file for build \"" + run.getParent().getName() + "\": "
                     + e.getMessage());
+        } finally {
+            PluginMetrics.addNodeNameBytesScanned(extractor.getBytesScanned());
+            PluginMetrics.stop(PluginMetrics.Timer.NODE_NAMES, start);
         }
 
-        return nodeNames;
+        return new ArrayList<>();
     }
 
     /**
@@ -0,0 +1,392 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * An embedded H2 database file with the history of the logged job status, indexed by job name, end date, result
+ * and node name, so queries do not scan the log files.<p>
+ * The database file is {@code JENKINS_HOME/job-logger-db.mv.db}, no database server is needed.
+ * Job status are inserted in batches, one transaction per batch. The ids of the job status are assigned by this
+ * class, so batches of several connections can be inserted in parallel.
+ */
+public class JobStatusDatabase {
+    /**
+     * Name of the database file in the Jenkins Home directory, without the extension of H2.
+     */
+    public static final String DATABASE_NAME = "job-logger-db";
+
+    private static final Logger LOGGER = Logger.getLogger(JobStatusDatabase.class.getName());
+    private static final String DRIVER_CLASS = "org.h2.Driver";
+    // the file name of a log file, which marks that all log files were imported
+    private static final String IMPORT_COMPLETE = "*";
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS job_status (id BIGINT PRIMARY KEY, job_name VARCHAR, job_number INT,"
+                + " result VARCHAR(32), start_date TIMESTAMP, end_date TIMESTAMP, cause VARCHAR, console_url VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS job_status_node (status_id BIGINT NOT NULL, position INT NOT NULL,"
+                + " node_name VARCHAR NOT NULL, PRIMARY KEY (status_id, position))",
+        "CREATE TABLE IF NOT EXISTS imported_file (file_name VARCHAR PRIMARY KEY)",
+        "CREATE INDEX IF NOT EXISTS job_status_job ON job_status (job_name, job_number)",
+        "CREATE INDEX IF NOT EXISTS job_status_end ON job_status (end_date)",
+        "CREATE INDEX IF NOT EXISTS job_status_result ON job_status (result, end_date)",
+        "CREATE INDEX IF NOT EXISTS job_status_node_name ON job_status_node (node_name, status_id)"
+    };
+    private static final String INSERT_STATUS = "INSERT INTO job_status (id, job_name, job_number, result, start_date,"
+            + " end_date, cause, console_url) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_NODE = "INSERT INTO job_status_node (status_id, position, node_name)"
+            + " VALUES (?, ?, ?)";
+    private static final String EXISTS = "SELECT 1 FROM job_status WHERE job_name = ? AND job_number = ?";
+    private static final int JOB_NAME_INDEX = 2;
+    private static final int JOB_NUMBER_INDEX = 3;
+    private static final int RESULT_INDEX = 4;
+    private static final int START_DATE_INDEX = 5;
+    private static final int END_DATE_INDEX = 6;
+    private static final int CAUSE_INDEX = 7;
+    private static final int CONSOLE_URL_INDEX = 8;
+    private static final int NODE_NAME_INDEX = 9;
+    private static final int NODE_PARAMETER_INDEX = 3;
+    private static JobStatusDatabase instance = new JobStatusDatabase(null);
+
+    private final AtomicLong lastId = new AtomicLong();
+    private final Object writeLock = new Object();
+    private File databaseFile;
+    private Driver driver;
+    private Connection writeConnection;
+    private volatile boolean imported;
+
+    /**
+     * @param databaseFile the database file without extension; or null for the database in the Jenkins Home
+     *                     directory
+     */
+    public JobStatusDatabase(File databaseFile) {
+        this.databaseFile = databaseFile;
+    }
+
+    /**
+     * @return the database of this plugin
+     */
+    public static JobStatusDatabase getInstance() {
+        return instance;
+    }
+
+    /**
+     * Opens a new connection to the database, and creates the tables if they do not exist yet.
+     * The connection does not commit automatically.
+     *
+     * @return a new connection, which has to be closed by the caller
+     * @throws SQLException if the database cannot be opened
+     */
+    public synchronized Connection openConnection() throws SQLException {
+        boolean created = driver == null;
+        if (created) {
+            driver = loadDriver();
+        }
+        Connection connection = driver.connect(getUrl(), new Properties());
+        if (connection == null) {
+            throw new SQLException("H2 driver does not accept the database URL: " + getUrl());
+        }
+        connection.setAutoCommit(false);
+        if (created) {
+            try {
+                createSchema(connection);
+            } catch (SQLException e) {
+                driver = null;
+                connection.close();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Inserts the given job status in one transaction. Called by the writer thread of the database sink.
+     *
+     * @param jobStatuses the list of {@link JobStatus} to insert
+     * @throws SQLException if the job status cannot be inserted
+     */
+    public void insert(List<JobStatus> jobStatuses) throws SQLException {
+        synchronized (writeLock) {
+            if (writeConnection == null || writeConnection.isClosed()) {
+                writeConnection = openConnection();
+            }
+            try {
+                insert(writeConnection, jobStatuses, false);
+            } catch (SQLException e) {
+                closeWriteConnection();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Inserts the given job status in one transaction of the given connection.
+     *
+     * @param connection   a connection of {@link #openConnection()}
+     * @param jobStatuses  the list of {@link JobStatus} to insert
+     * @param skipExisting true, to skip job status whose job name and number are already in the database
+     * @return the number of inserted job status
+     * @throws SQLException if the job status cannot be inserted, the transaction is rolled back
+     */
+    public int insert(Connection connection, List<JobStatus> jobStatuses, boolean skipExisting) throws SQLException {
+        int inserted = 0;
+        try (PreparedStatement status = connection.prepareStatement(INSERT_STATUS);
+             PreparedStatement node = connection.prepareStatement(INSERT_NODE);
+             PreparedStatement exists = skipExisting ? connection.prepareStatement(EXISTS) : null) {
+            for (JobStatus jobStatus : jobStatuses) {
+                if (exists != null && exists(exists, jobStatus)) {
+                    continue;
+                }
+                long id = lastId.incrementAndGet();
+                status.setLong(1, id);
+                status.setString(JOB_NAME_INDEX, jobStatus.getJobName());
+                status.setInt(JOB_NUMBER_INDEX, jobStatus.getJobNumber());
+                status.setString(RESULT_INDEX, jobStatus.getBuildResult());
+                setTimestamp(status, START_DATE_INDEX, jobStatus.getStartDate());
+                setTimestamp(status, END_DATE_INDEX, jobStatus.getEndDate());
+                status.setString(CAUSE_INDEX, jobStatus.getBuildCause());
+                status.setString(CONSOLE_URL_INDEX, jobStatus.getConsoleUrl());
+                status.addBatch();
+
+                List<String> nodeNames = jobStatus.getNodeNames();
+                for (int i = 0; nodeNames != null && i < nodeNames.size(); i++) {
+                    if (nodeNames.get(i) != null) {
+                        node.setLong(1, id);
+                        node.setInt(2, i);
+                        node.setString(NODE_PARAMETER_INDEX, nodeNames.get(i));
+                        node.addBatch();
+                    }
+                }
+                inserted++;
+            }
+            status.executeBatch();
+            node.executeBatch();
+            connection.commit();
+            return inserted;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the job status which match the given query, ordered by their end date.
+     *
+     * @param query the query
+     * @return the matching job status, up to the limit of the query
+     * @throws SQLException if the database cannot be queried
+     */
+    public List<JobStatus> query(LogQuery query) throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT s.id, s.job_name, s.job_number, s.result, s.start_date,"
+                + " s.end_date, s.cause, s.console_url, n.node_name FROM (SELECT * FROM job_status WHERE 1 = 1");
+        if (query.getJobName() != null) {
+            sql.append(" AND job_name = ?");
+            parameters.add(query.getJobName());
+        }
+        if (query.getResult() != null) {
+            sql.append(" AND result = ?");
+            parameters.add(query.getResult());
+        }
+        if (query.getFrom() != Long.MIN_VALUE) {
+            sql.append(" AND end_date >= ?");
+            parameters.add(new Timestamp(query.getFrom()));
+        }
+        if (query.getTo() != Long.MAX_VALUE) {
+            sql.append(" AND end_date <= ?");
+            parameters.add(new Timestamp(query.getTo()));
+        }
+        if (query.getNodeName() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM job_status_node x WHERE x.status_id = job_status.id"
+                    + " AND x.node_name = ?)");
+            parameters.add(query.getNodeName());
+        }
+        sql.append(" ORDER BY end_date, id LIMIT ?) s LEFT JOIN job_status_node n ON n.status_id = s.id"
+                + " ORDER BY s.end_date, s.id, n.position");
+        parameters.add(query.getLimit());
+
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        try (Connection connection = openConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                long id = -1;
+                JobStatus jobStatus = null;
+                while (rows.next()) {
+                    if (jobStatus == null || rows.getLong(1) != id) {
+                        id = rows.getLong(1);
+                        jobStatus = toJobStatus(rows);
+                        jobStatuses.add(jobStatus);
+                    }
+                    String nodeName = rows.getString(NODE_NAME_INDEX);
+                    if (nodeName != null) {
+                        jobStatus.getNodeNames().add(nodeName);
+                    }
+                }
+            }
+        }
+        return jobStatuses;
+    }
+
+    /**
+     * @param connection a connection of {@link #openConnection()}
+     * @param fileName   the name of a log file
+     * @return true, if the given log file was imported; false otherwise
+     * @throws SQLException if the database cannot be queried
+     */
+    public boolean isImported(Connection connection, String fileName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT 1 FROM imported_file WHERE file_name = ?")) {
+            statement.setString(1, fileName);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    /**
+     * Marks the given log file as imported, and commits.
+     *
+     * @param connection a connection of {@link #openConnection()}
+     * @param fileName   the name of a log file
+     * @throws SQLException if the database cannot be updated
+     */
+    public void setImported(Connection connection, String fileName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO imported_file (file_name) VALUES (?)")) {
+            statement.setString(1, fileName);
+            statement.executeUpdate();
+            connection.commit();
+        }
+    }
+
+    /**
+     * @return true, if the existing log files were completely imported; false otherwise
+     */
+    public boolean isImportComplete() {
+        if (!imported) {
+            try (Connection connection = openConnection()) {
+                imported = isImported(connection, IMPORT_COMPLETE);
+            } catch (SQLException e) {
+                LOGGER.warning("SQLException: Could not read the import state: " + e.getMessage());
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Marks that the existing log files were completely imported.
+     *
+     * @param connection a connection of {@link #openConnection()}
+     * @throws SQLException if the database cannot be updated
+     */
+    public void setImportComplete(Connection connection) throws SQLException {
+        setImported(connection, IMPORT_COMPLETE);
+        imported = true;
+    }
+
+    /**
+     * Closes the connection of the database sink. The database itself is closed by H2 when its last connection
+     * is closed.
+     */
+    public void close() {
+        synchronized (writeLock) {
+            closeWriteConnection();
+        }
+    }
+
+    private void closeWriteConnection() {
+        if (writeConnection != null) {
+            try {
+                writeConnection.close();
+            } catch (SQLException e) {
+                LOGGER.warning("SQLException: Could not close database connection: " + e.getMessage());
+            }
+        }
+        writeConnection = null;
+    }
+
+    private void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM job_status")) {
+                rows.next();
+                lastId.set(rows.getLong(1));
+            }
+        }
+        connection.commit();
+        LOGGER.fine("Opened job status database: " + getUrl());
+    }
+
+    private String getUrl() throws SQLException {
+        if (databaseFile == null) {
+            try {
+                databaseFile = new File(JenkinsUtil.getJenkinsHomeDirectory(), DATABASE_NAME);
+            } catch (FileNotFoundException e) {
+                throw new SQLException("No directory for the database: " + e.getMessage(), e);
+            }
+        }
+        return "jdbc:h2:file:" + databaseFile.getAbsolutePath();
+    }
+
+    private static Driver loadDriver() throws SQLException {
+        // the driver is not looked up with the DriverManager, which does not see the class loader of plugins
+        try {
+            return (Driver) Class.forName(DRIVER_CLASS).newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("H2 database driver not found: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean exists(PreparedStatement exists, JobStatus jobStatus) throws SQLException {
+        exists.setString(1, jobStatus.getJobName());
+        exists.setInt(2, jobStatus.getJobNumber());
+        try (ResultSet rows = exists.executeQuery()) {
+            return rows.next();
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, Date date) throws SQLException {
+        if (date != null) {
+            statement.setTimestamp(index, new Timestamp(date.getTime()));
+        } else {
+            statement.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    private static JobStatus toJobStatus(ResultSet rows) throws SQLException {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(rows.getString(JOB_NAME_INDEX));
+        jobStatus.setJobNumber(rows.getInt(JOB_NUMBER_INDEX));
+        jobStatus.setBuildResult(rows.getString(RESULT_INDEX));
+        jobStatus.setStartDate(toDate(rows.getTimestamp(START_DATE_INDEX)));
+        jobStatus.setEndDate(toDate(rows.getTimestamp(END_DATE_INDEX)));
+        jobStatus.setBuildCause(rows.getString(CAUSE_INDEX));
+        jobStatus.setConsoleUrl(rows.getString(CONSOLE_URL_INDEX));
+        jobStatus.setNodeNames(new ArrayList<>());
+        return jobStatus;
+    }
+
+    private static Date toDate(Timestamp timestamp) {
+        return timestamp != null ? new Date(timestamp.getTime()) : null;
+    }
+}
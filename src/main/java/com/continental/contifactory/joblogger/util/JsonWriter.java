@@ -0,0 +1,96 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A utility class to write job status as JSON objects. Dates are written in ISO-8601 format (UTC).
+ */
+public final class JsonWriter {
+    private static final int CONTROL_CHAR_LIMIT = 0x20;
+
+    private JsonWriter() {
+        // avoid instantiation
+    }
+
+    /**
+     * Appends the given job status as one JSON object, without a line break.
+     *
+     * @param sb        the string builder to append to
+     * @param jobStatus the {@link JobStatus} to write
+     */
+    public static void writeJobStatus(StringBuilder sb, JobStatus jobStatus) {
+        sb.append("{\"jobName\":");
+        writeString(sb, jobStatus.getJobName());
+        sb.append(",\"jobNumber\":").append(jobStatus.getJobNumber());
+        sb.append(",\"result\":");
+        writeString(sb, jobStatus.getBuildResult());
+        sb.append(",\"startDate\":");
+        writeDate(sb, jobStatus.getStartDate());
+        sb.append(",\"endDate\":");
+        writeDate(sb, jobStatus.getEndDate());
+        sb.append(",\"cause\":");
+        writeString(sb, jobStatus.getBuildCause());
+        sb.append(",\"nodes\":[");
+        List<String> nodeNames = jobStatus.getNodeNames();
+        if (nodeNames != null) {
+            for (int i = 0; i < nodeNames.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                writeString(sb, nodeNames.get(i));
+            }
+        }
+        sb.append("],\"consoleUrl\":");
+        writeString(sb, jobStatus.getConsoleUrl());
+        sb.append(",\"queueDate\":");
+        writeDate(sb, jobStatus.getQueueDate());
+        sb.append(",\"leftQueueDate\":");
+        writeDate(sb, jobStatus.getLeftQueueDate());
+        sb.append(",\"label\":");
+        writeString(sb, jobStatus.getLabel());
+        sb.append(",\"executor\":").append(jobStatus.getExecutor());
+        sb.append('}');
+    }
+
+    /**
+     * Appends the given string as JSON string, or {@code null}.
+     *
+     * @param sb    the string builder to append to
+     * @param value the string to write
+     */
+    public static void writeString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\t') {
+                sb.append("\\t");
+            } else if (c < CONTROL_CHAR_LIMIT) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void writeDate(StringBuilder sb, Date date) {
+        if (date == null) {
+            sb.append("null");
+        } else {
+            sb.append('"').append(date.toInstant().toString()).append('"');
+        }
+    }
+}
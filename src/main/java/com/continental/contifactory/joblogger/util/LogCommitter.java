@@ -0,0 +1,279 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Forces the writes of the CSV log file to the storage device, according to the {@link LogDurability}.<p>
+ * {@link CsvWriter} reports every write, the forces are done by a committer thread, so writes go on while the
+ * storage device is busy, and one force commits all records written until then. Before the log file is closed,
+ * e.g. when it is archived, the remaining records are committed by the writer itself.
+ * <p>
+ * Completing builds can wait until their job status is committed: the job status is registered before it is
+ * submitted, and {@link #awaitCommit(JobStatus, long)} returns as soon as the record of the job status is
+ * committed. The records are counted since the start, a record is committed if its number is not greater than
+ * the number of committed records. Waiting job status are identified by job name and build number, so a job
+ * status which was spilled and read back as a new object is still found.
+ */
+public class LogCommitter {
+    /**
+     * Maximum time a completing build waits for the commit of its job status.
+     */
+    public static final long WAIT_TIMEOUT = 10000; // in ms
+    /**
+     * Time after a failed force, before the records are forced again.
+     */
+    static final long RETRY_INTERVAL = 1000; // in ms
+
+    private static final Logger LOGGER = Logger.getLogger(LogCommitter.class.getName());
+    private static LogCommitter instance = new LogCommitter();
+
+    // build ids of the registered job status with the number of their record once it is written; or 0 if it is not
+    // written yet
+    private final Map<String, Long> waiting = new HashMap<>();
+    private LogDurability durability = LogDurability.NONE;
+    private int commitRecords = 1;
+    private long commitInterval;
+    // the channel of the last write, until it is closed
+    private FileChannel channel;
+    private long written;
+    private long committed;
+    private long firstUncommittedTime;
+    private long lastCommitTime;
+    private long retryTime;
+    private long commits;
+    private Thread committer;
+
+    /**
+     * @return the committer of the CSV log file
+     */
+    public static LogCommitter getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets when writes are forced to the storage device, and starts or stops the committer thread.
+     *
+     * @param logDurability the durability of the log file; null for {@link LogDurability#NONE}
+     * @param records       the number of uncommitted records which are committed at once,
+     *                      see {@link LogDurability#GROUP_COMMIT}
+     * @param interval      the commit interval in ms
+     */
+    public synchronized void setDurability(LogDurability logDurability, int records, long interval) {
+        this.durability = logDurability != null ? logDurability : LogDurability.NONE;
+        this.commitRecords = Math.max(1, records);
+        this.commitInterval = Math.max(0, interval);
+        if (durability == LogDurability.NONE) {
+            // the committer thread ends, waiting builds return
+            committer = null;
+        } else if (committer == null) {
+            committer = new Thread(this::commitLoop, "Job Logger committer");
+            committer.setDaemon(true);
+            committer.start();
+        }
+        notifyAll();
+    }
+
+    /**
+     * @return the durability of the log file
+     */
+    public synchronized LogDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Registers the given job status before it is submitted, so {@link #awaitCommit(JobStatus, long)} can wait for
+     * its commit. Nothing is registered if writes are never forced.
+     *
+     * @param jobStatus the job status of a completing build
+     */
+    public synchronized void register(JobStatus jobStatus) {
+        if (durability != LogDurability.NONE) {
+            waiting.put(getBuildId(jobStatus), 0L);
+        }
+    }
+
+    /**
+     * Waits until the record of the given registered job status is committed.
+     *
+     * @param jobStatus the registered job status
+     * @param timeout   the maximum time to wait in ms
+     * @return true, if the job status is committed; false if it was not registered or not committed in time
+     */
+    public synchronized boolean awaitCommit(JobStatus jobStatus, long timeout) {
+        String buildId = getBuildId(jobStatus);
+        long deadline = System.currentTimeMillis() + timeout;
+        try {
+            while (durability != LogDurability.NONE) {
+                Long record = waiting.get(buildId);
+                if (record == null) {
+                    return false;
+                }
+                if (record > 0 && record <= committed) {
+                    return true;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.remove(buildId);
+        }
+    }
+
+    /**
+     * Counts the given job status as written to the given channel. Called by {@link CsvWriter} after a write.
+     *
+     * @param logChannel  the channel of the log file
+     * @param jobStatuses the written job status
+     */
+    synchronized void written(FileChannel logChannel, List<JobStatus> jobStatuses) {
+        if (written == committed) {
+            firstUncommittedTime = System.currentTimeMillis();
+        }
+        channel = logChannel;
+        for (JobStatus jobStatus : jobStatuses) {
+            written++;
+            if (!waiting.isEmpty()) {
+                waiting.replace(getBuildId(jobStatus), written);
+            }
+        }
+        if (durability != LogDurability.NONE) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Commits all records written to the given channel before it is closed. Called by {@link CsvWriter}.
+     *
+     * @param logChannel the channel of the log file
+     */
+    void closing(FileChannel logChannel) {
+        long records;
+        synchronized (this) {
+            if (logChannel != channel) {
+                return;
+            }
+            channel = null;
+            if (durability == LogDurability.NONE || written == committed) {
+                return;
+            }
+            records = written;
+        }
+        commit(logChannel, records);
+    }
+
+    /**
+     * @return the number of records written since the start
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    /**
+     * @return the number of records committed since the start
+     */
+    public synchronized long getCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return the number of forces since the start
+     */
+    public synchronized long getCommits() {
+        return commits;
+    }
+
+    /**
+     * @param now the current time in ms
+     * @return the time until the next commit is due in ms; 0 if it is due now, or {@link Long#MAX_VALUE} if there
+     * is nothing to commit
+     */
+    synchronized long getCommitDelay(long now) {
+        if (channel == null || written == committed) {
+            return Long.MAX_VALUE;
+        }
+        long due;
+        switch (durability) {
+            case PERIODIC:
+                due = lastCommitTime + commitInterval;
+                break;
+            case GROUP_COMMIT:
+                due = written - committed >= commitRecords ? now : firstUncommittedTime + commitInterval;
+                break;
+            default:
+                return Long.MAX_VALUE;
+        }
+        return Math.max(0, Math.max(due, retryTime) - now);
+    }
+
+    private void commitLoop() {
+        while (true) {
+            FileChannel logChannel;
+            long records;
+            synchronized (this) {
+                try {
+                    for (long delay = getCommitDelay(System.currentTimeMillis()); delay > 0 && isCommitter();
+                         delay = getCommitDelay(System.currentTimeMillis())) {
+                        // wait(0) waits until notified
+                        wait(delay == Long.MAX_VALUE ? 0 : delay);
+                    }
+                } catch (InterruptedException e) {
+                    LOGGER.fine("Committer interrupted");
+                }
+                if (!isCommitter()) {
+                    return;
+                }
+                logChannel = channel;
+                records = written;
+                firstUncommittedTime = System.currentTimeMillis();
+            }
+            if (logChannel != null) {
+                commit(logChannel, records);
+            }
+        }
+    }
+
+    private static String getBuildId(JobStatus jobStatus) {
+        return jobStatus.getJobName() + "#" + jobStatus.getJobNumber();
+    }
+
+    private boolean isCommitter() {
+        return committer == Thread.currentThread();
+    }
+
+    private void commit(FileChannel logChannel, long records) {
+        long start = PluginMetrics.start();
+        try {
+            logChannel.force(false);
+            PluginMetrics.stop(PluginMetrics.Timer.COMMIT, start);
+            synchronized (this) {
+                committed = Math.max(committed, records);
+                lastCommitTime = System.currentTimeMillis();
+                commits++;
+                notifyAll();
+            }
+        } catch (ClosedChannelException e) {
+            // the log file was closed while forcing, the records were committed before closing
+            LOGGER.fine("Log file closed while committing");
+        } catch (IOException e) {
+            LOGGER.warning("IOException: Could not commit log file: " + e.getMessage());
+            synchronized (this) {
+                retryTime = System.currentTimeMillis() + RETRY_INTERVAL;
+            }
+        }
+    }
+}
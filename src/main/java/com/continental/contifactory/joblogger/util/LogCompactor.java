@@ -0,0 +1,291 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compacts archived log files into one compressed log file per day: {@code job_logger_[yyyy-MM-dd].csv.gz}.<p>
+ * The archives are read in parallel with fork/join, in chunks to bound the memory. The job status of every day
+ * are merged with the existing daily log file, sorted by end date, deduplicated by job name, number and end date,
+ * and written with ISO-8601 dates. A daily log file replaces the previous one only after it was read back and
+ * verified, and the archives are deleted afterwards. An interrupted compaction leaves duplicates at most, which
+ * are removed by the next compaction.
+ */
+public class LogCompactor {
+    private static final Logger LOGGER = Logger.getLogger(LogCompactor.class.getName());
+    private static final int CHUNK_SIZE = 64;
+    private static final int MAX_THREADS = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_EXT = JobLoggerPluginConfiguration.getLogFileExtension();
+    private static final String COMPRESSED_EXT = ArchiveCompression.GZIP.getExtension();
+    private static final String TEMP_EXT = ".tmp";
+    private static final Comparator<JobStatus> ORDER = Comparator.comparingLong(LogCompactor::getTime)
+            .thenComparing(JobStatus::getJobName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(JobStatus::getJobNumber);
+
+    private final ZoneId zone;
+
+    /**
+     * @param zone the time zone of the days of the daily log files
+     */
+    public LogCompactor(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Compacts the archives of the given log file in the thread of the {@link ArchiveCompressor}, so archives which
+     * are being compressed are not compacted at the same time.
+     *
+     * @param logFile the current CSV log file, which is not compacted
+     * @return the number of compacted archives, when compaction is completed
+     */
+    public static Future<Integer> compactLater(File logFile) {
+        return ArchiveCompressor.submit(() -> new LogCompactor(ZoneId.systemDefault()).compact(logFile));
+    }
+
+    /**
+     * Compacts the archives of the given log file into daily log files, and deletes the archives.
+     *
+     * @param logFile the current CSV log file, which is not compacted
+     * @return the number of compacted archives
+     * @throws IOException          if an archive cannot be read or a daily log file cannot be written
+     * @throws InterruptedException if the compaction is interrupted
+     */
+    public int compact(File logFile) throws IOException, InterruptedException {
+        List<File> archives = findArchives(logFile);
+        if (archives.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        try {
+            for (int i = 0; i < archives.size(); i += CHUNK_SIZE) {
+                compactChunk(pool, logFile.getParentFile(), archives.subList(i, Math.min(archives.size(),
+                        i + CHUNK_SIZE)));
+            }
+        } finally {
+            pool.shutdownNow();
+            LogIndex.getInstance().reset();
+        }
+        LOGGER.info("Compacted " + archives.size() + " archives in " + (System.currentTimeMillis() - start) + " ms");
+        return archives.size();
+    }
+
+    private void compactChunk(ForkJoinPool pool, File dir, List<File> archives)
+            throws IOException, InterruptedException {
+        List<JobStatus> jobStatuses;
+        try {
+            jobStatuses = pool.invoke(new ReadTask(archives, 0, archives.size()));
+        } catch (CompactionException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        }
+        Map<LocalDate, List<JobStatus>> days = new TreeMap<>();
+        for (JobStatus jobStatus : jobStatuses) {
+            LocalDate day = Instant.ofEpochMilli(getTime(jobStatus)).atZone(zone).toLocalDate();
+            days.computeIfAbsent(day, d -> new ArrayList<>()).add(jobStatus);
+        }
+
+        List<Callable<File>> tasks = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<JobStatus>> day : days.entrySet()) {
+            tasks.add(() -> writeDailyLogFile(getDailyLogFile(dir, day.getKey()), day.getValue()));
+        }
+        for (Future<File> result : pool.invokeAll(tasks)) {
+            getResult(result);
+        }
+
+        // the archives are only deleted when all their job status are in verified daily log files
+        for (File archive : archives) {
+            Files.delete(archive.toPath());
+            LogIndex.getInstance().removed(getLogFile(archive));
+        }
+    }
+
+    private File writeDailyLogFile(File dailyFile, List<JobStatus> jobStatuses) throws IOException {
+        if (dailyFile.exists()) {
+            jobStatuses.addAll(readLogFile(dailyFile));
+        }
+        jobStatuses.sort(ORDER);
+        List<JobStatus> unique = new ArrayList<>();
+        for (JobStatus jobStatus : jobStatuses) {
+            if (unique.isEmpty() || !isDuplicate(unique.get(unique.size() - 1), jobStatus)) {
+                unique.add(jobStatus);
+            }
+        }
+
+        File tempFile = new File(dailyFile.getPath() + TEMP_EXT);
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tempFile.toPath()),
+                BUFFER_SIZE), Charset.defaultCharset())) {
+            out.write(CsvWriter.getHeader());
+            for (JobStatus jobStatus : unique) {
+                out.write(CsvWriter.toCompactedCsvLine(jobStatus));
+            }
+        }
+        int read = readLogFile(tempFile).size();
+        if (read != unique.size()) {
+            Files.delete(tempFile.toPath());
+            throw new IOException("Verification of " + dailyFile.getName() + " failed: " + read + " of "
+                    + unique.size() + " job status read");
+        }
+
+        // the daily log file ages with its last build, like an archive, for the retention
+        if (!tempFile.setLastModified(getTime(unique.get(unique.size() - 1)))) {
+            LOGGER.fine("Could not set last modified time of: " + tempFile.getAbsolutePath());
+        }
+        LogIndex.getInstance().removed(getLogFile(dailyFile));
+        Files.move(tempFile.toPath(), dailyFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.fine("Compacted " + unique.size() + " job status into: " + dailyFile.getAbsolutePath());
+        return dailyFile;
+    }
+
+    /**
+     * @param logFile the current CSV log file
+     * @return the archives of the given log file which are not daily log files, sorted by name
+     */
+    static List<File> findArchives(File logFile) {
+        String prefix = JobLoggerPluginConfiguration.getLogFileShortname();
+        Pattern daily = Pattern.compile(Pattern.quote(prefix) + "_\\d{4}-\\d{2}-\\d{2}" + Pattern.quote(CSV_EXT
+                + COMPRESSED_EXT));
+        File[] files = logFile.getParentFile().listFiles((d, name) -> name.startsWith(prefix + "_")
+                && (name.endsWith(CSV_EXT) || name.endsWith(CSV_EXT + COMPRESSED_EXT))
+                && !daily.matcher(name).matches());
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files);
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    /**
+     * @param dir the directory of the log files
+     * @param day a day
+     * @return the daily log file of the given day
+     */
+    static File getDailyLogFile(File dir, LocalDate day) {
+        return new File(dir, JobLoggerPluginConfiguration.getLogFileShortname() + "_" + day + CSV_EXT
+                + COMPRESSED_EXT);
+    }
+
+    private static List<JobStatus> readLogFile(File file) throws IOException {
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        CsvReader reader = new CsvReader();
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(COMPRESSED_EXT) || file.getName().endsWith(COMPRESSED_EXT + TEMP_EXT)) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()),
+                BUFFER_SIZE)) {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                JobStatus jobStatus = reader.parse(line);
+                if (jobStatus != null) {
+                    jobStatuses.add(jobStatus);
+                }
+            }
+        }
+        return jobStatuses;
+    }
+
+    // the log file of the log index, without compression extension
+    private static File getLogFile(File file) {
+        String path = file.getPath();
+        return path.endsWith(COMPRESSED_EXT) ? new File(path.substring(0, path.length() - COMPRESSED_EXT.length()))
+                : file;
+    }
+
+    // builds without end date are sorted by their start date
+    private static long getTime(JobStatus jobStatus) {
+        Date date = jobStatus.getEndDate() != null ? jobStatus.getEndDate() : jobStatus.getStartDate();
+        return date != null ? date.getTime() : 0;
+    }
+
+    private static boolean isDuplicate(JobStatus previous, JobStatus jobStatus) {
+        return getTime(previous) == getTime(jobStatus) && previous.getJobNumber() == jobStatus.getJobNumber()
+                && Objects.equals(previous.getJobName(), jobStatus.getJobName());
+    }
+
+    private static void getResult(Future<File> result) throws IOException, InterruptedException {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Reads a range of archives, by splitting it until every task reads one archive.
+     */
+    private static final class ReadTask extends RecursiveTask<List<JobStatus>> {
+        private final List<File> archives;
+        private final int from;
+        private final int to;
+
+        ReadTask(List<File> archives, int from, int to) {
+            this.archives = archives;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<JobStatus> compute() {
+            if (to - from == 1) {
+                try {
+                    return readLogFile(archives.get(from));
+                } catch (IOException e) {
+                    throw new CompactionException(archives.get(from), e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ReadTask left = new ReadTask(archives, from, middle);
+            left.fork();
+            List<JobStatus> jobStatuses = new ReadTask(archives, middle, to).compute();
+            jobStatuses.addAll(left.join());
+            return jobStatuses;
+        }
+    }
+
+    /**
+     * An archive could not be read in a fork/join task.
+     */
+    private static final class CompactionException extends RuntimeException {
+        CompactionException(File archive, IOException cause) {
+            super("Could not read archive " + archive.getName() + ": " + cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.continental.contifactory.joblogger.util;
+
+/**
+ * When the writes of the CSV log file are forced to the storage device, see {@link LogCommitter}.
+ */
+public enum LogDurability {
+    /**
+     * Writes are never forced, the operating system decides when they reach the storage device.
+     */
+    NONE,
+    /**
+     * Writes are forced once per commit interval, if anything was written.
+     */
+    PERIODIC,
+    /**
+     * Writes are forced as soon as the commit records are written, or the oldest uncommitted write is older than
+     * the commit interval. One force commits the job status of all builds which completed in the meantime.
+     */
+    GROUP_COMMIT
+}
@@ -0,0 +1,349 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the job status of the CSV log file and its archives, without loading them into memory.<p>
+ * An export without filter in CSV format is the header line followed by the lines of all log files, which are
+ * copied with {@link FileChannel#transferTo(long, long, WritableByteChannel)}. Its length is known before
+ * it is written, so it can be written in byte ranges to resume a download. The lines are copied with their frame,
+ * so a raw export has the header of framed records, see {@link CsvEncoder#RECORD_HEADER}; if only some of the
+ * log files are framed, the export is not raw.
+ * Other exports parse and filter every line while streaming through the log files, CSV lines are written again
+ * without frame.
+ * <p>
+ * The size of every log file is taken when the exporter is created, lines which are appended to the log file
+ * afterwards are not exported.
+ */
+public class LogExporter {
+    private static final String COMPRESSED_EXT = ArchiveCompression.GZIP.getExtension();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_SIZE_BYTES = 4;
+    private static final int BYTE_BITS = 8;
+    private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final LogQuery query;
+    private final ExportFormat format;
+    private final byte[] header;
+    private final boolean mixedFrames;
+    private final List<File> logFiles = new ArrayList<>();
+    private final List<Long> headerLengths = new ArrayList<>();
+    private final List<Long> lengths = new ArrayList<>();
+
+    /**
+     * @param logFiles the CSV log files to export in this order, without compression extension
+     * @param query    the query of the job status to export, its limit is the maximum number of exported lines
+     * @param format   the output format
+     * @throws IOException if the size of a log file cannot be read
+     */
+    public LogExporter(List<File> logFiles, LogQuery query, ExportFormat format) throws IOException {
+        this.query = query;
+        this.format = format;
+        byte[] recordHeader = CsvEncoder.RECORD_HEADER.getBytes(Charset.defaultCharset());
+        int framedFiles = 0;
+        for (File logFile : logFiles) {
+            File compressedFile = new File(logFile.getPath() + COMPRESSED_EXT);
+            long length;
+            if (logFile.exists()) {
+                length = getCompleteLength(logFile);
+            } else if (compressedFile.exists()) {
+                length = getUncompressedLength(compressedFile);
+            } else {
+                continue;
+            }
+            this.logFiles.add(logFile);
+            this.lengths.add(length);
+            byte[] fileHeader = readHeader(logFile, length);
+            this.headerLengths.add((long) fileHeader.length);
+            if (Arrays.equals(fileHeader, recordHeader)) {
+                framedFiles++;
+            }
+        }
+        boolean framed = framedFiles > 0 && framedFiles == this.logFiles.size();
+        this.mixedFrames = framedFiles > 0 && !framed;
+        this.header = framed ? recordHeader : CsvWriter.getHeader().getBytes(Charset.defaultCharset());
+    }
+
+    /**
+     * @return true, if this export is a plain copy of the log files, which has a known length and can be
+     * written in byte ranges; false if the lines are filtered or converted, or only some log files are framed
+     */
+    public boolean isRaw() {
+        return format == ExportFormat.CSV && !mixedFrames && query.getJobName() == null && query.getResult() == null
+                && query.getNodeName() == null && !query.hasTimeRange() && query.getLimit() == Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return the length of a raw export in bytes
+     * @see #isRaw()
+     */
+    public long getLength() {
+        long length = header.length;
+        for (int i = 0; i < logFiles.size(); i++) {
+            length += lengths.get(i) - headerLengths.get(i);
+        }
+        return length;
+    }
+
+    /**
+     * @return an entity tag of a raw export, which changes when a log file changed
+     * @see #isRaw()
+     */
+    public String getETag() {
+        long hash = 1;
+        for (int i = 0; i < logFiles.size(); i++) {
+            hash = HASH_MULTIPLIER * hash + logFiles.get(i).getName().hashCode();
+            hash = HASH_MULTIPLIER * hash + lengths.get(i);
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Writes the whole export to the given output stream.
+     *
+     * @param out the output stream, which is not closed
+     * @throws IOException if a log file cannot be read or the output stream cannot be written
+     */
+    public void write(OutputStream out) throws IOException {
+        if (isRaw()) {
+            write(out, 0, getLength());
+        } else {
+            writeFiltered(out);
+        }
+    }
+
+    /**
+     * Writes a byte range of a raw export to the given output stream.
+     *
+     * @param out   the output stream, which is not closed
+     * @param start the first byte to write (inclusive)
+     * @param end   the last byte to write (exclusive)
+     * @throws IOException if a log file cannot be read or the output stream cannot be written
+     * @see #isRaw()
+     */
+    public void write(OutputStream out, long start, long end) throws IOException {
+        if (start < header.length) {
+            out.write(header, (int) start, (int) (Math.min(end, header.length) - start));
+        }
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = header.length;
+        for (int i = 0; i < logFiles.size() && position < end; i++) {
+            long headerLength = headerLengths.get(i);
+            long fileEnd = position + lengths.get(i) - headerLength;
+            if (fileEnd > start) {
+                long from = Math.max(start, position) - position + headerLength;
+                long to = Math.min(end, fileEnd) - position + headerLength;
+                transfer(logFiles.get(i), from, to - from, out, target);
+            }
+            position = fileEnd;
+        }
+        out.flush();
+    }
+
+    private void writeFiltered(OutputStream stream) throws IOException {
+        OutputStream out = new BufferedOutputStream(stream, BUFFER_SIZE);
+        Charset charset = Charset.defaultCharset();
+        if (format == ExportFormat.CSV) {
+            out.write(CsvWriter.getHeader().getBytes(charset));
+        }
+        CsvReader reader = new CsvReader();
+        StringBuilder sb = new StringBuilder();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int count = 0;
+        for (int i = 0; i < logFiles.size() && count < query.getLimit(); i++) {
+            try (InputStream in = open(logFiles.get(i), 0, lengths.get(i))) {
+                line.reset();
+                for (int b = in.read(); b != -1 && count < query.getLimit(); b = in.read()) {
+                    if (b != '\n') {
+                        line.write(b);
+                        continue;
+                    }
+                    JobStatus jobStatus = reader.parse(new String(line.toByteArray(), charset));
+                    if (jobStatus != null && query.matches(jobStatus)) {
+                        if (format == ExportFormat.CSV) {
+                            out.write(CsvWriter.toCsvLine(jobStatus).getBytes(charset));
+                        } else {
+                            sb.setLength(0);
+                            JsonWriter.writeJobStatus(sb, jobStatus);
+                            sb.append('\n');
+                            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                        }
+                        count++;
+                    }
+                    line.reset();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static void transfer(File logFile, long from, long count, OutputStream out, WritableByteChannel target)
+            throws IOException {
+        if (logFile.exists()) {
+            try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+                long position = from;
+                long end = from + count;
+                while (position < end) {
+                    long transferred = channel.transferTo(position, end - position, target);
+                    if (transferred <= 0) {
+                        throw new IOException("Log file was truncated: " + logFile.getAbsolutePath());
+                    }
+                    position += transferred;
+                }
+            }
+            return;
+        }
+
+        // the log file was compressed in the meantime, or is a compressed archive
+        try (InputStream in = open(logFile, from, from + count)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = count;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Log file was truncated: " + logFile.getAbsolutePath());
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    // opens the bytes from start to end (exclusive) of the given log file, or of its compressed archive
+    private static InputStream open(File logFile, long start, long end) throws IOException {
+        InputStream in;
+        if (logFile.exists()) {
+            in = new BufferedInputStream(new FileInputStream(logFile), BUFFER_SIZE);
+        } else {
+            in = new BufferedInputStream(new GZIPInputStream(new FileInputStream(
+                    new File(logFile.getPath() + COMPRESSED_EXT)), BUFFER_SIZE), BUFFER_SIZE);
+        }
+        long skipped = 0;
+        while (skipped < start) {
+            long n = in.skip(start - skipped);
+            if (n <= 0) {
+                break;
+            }
+            skipped += n;
+        }
+        return new BoundedInputStream(in, end - start);
+    }
+
+    // the header line of the given log file, with line break; or an empty array if it has no header
+    private static byte[] readHeader(File logFile, long length) throws IOException {
+        byte[] headerStart = CsvReader.HEADER_START.getBytes(Charset.defaultCharset());
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (InputStream in = open(logFile, 0, length)) {
+            for (int b = in.read(); b != -1; b = in.read()) {
+                if (line.size() < headerStart.length && b != headerStart[line.size()]) {
+                    return new byte[0];
+                }
+                line.write(b);
+                if (b == '\n') {
+                    return line.toByteArray();
+                }
+            }
+        }
+        return new byte[0];
+    }
+
+    // the length of the log file up to its last line break, a line which is being written is not exported
+    private static long getCompleteLength(File logFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - BUFFER_SIZE);
+                buffer.clear();
+                buffer.limit((int) (end - start));
+                int read = channel.read(buffer, start);
+                for (int i = read - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+            }
+            return 0;
+        }
+    }
+
+    // gzip stores the uncompressed size modulo 2^32 at its end, archives are much smaller than 4 GB
+    private static long getUncompressedLength(File compressedFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(compressedFile, "r")) {
+            if (file.length() < GZIP_SIZE_BYTES) {
+                return 0;
+            }
+            file.seek(file.length() - GZIP_SIZE_BYTES);
+            long size = 0;
+            for (int i = 0; i < GZIP_SIZE_BYTES; i++) {
+                size |= (long) file.read() << (i * BYTE_BITS);
+            }
+            return size & UNSIGNED_INT_MASK;
+        }
+    }
+
+    /**
+     * An input stream which ends after a maximum number of bytes.
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long remaining) {
+            this.in = in;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Formats of the log files, the job status are written to.
+ */
+public enum LogFormat {
+    /**
+     * CSV log file, see {@link CsvWriter}.
+     */
+    CSV(".csv") {
+        @Override
+        public void write(File logFile, List<JobStatus> jobStatuses) {
+            CsvWriter.logJobStatuses(logFile, jobStatuses);
+        }
+
+        @Override
+        public void close() {
+            CsvWriter.closeLogFile();
+        }
+    },
+    /**
+     * Binary, columnar log file, see {@link BinaryLogWriter}.
+     */
+    BINARY(BinaryLogWriter.getLogFileExtension()) {
+        @Override
+        public void write(File logFile, List<JobStatus> jobStatuses) {
+            BinaryLogWriter.logJobStatuses(logFile, jobStatuses);
+        }
+
+        @Override
+        public void close() {
+            BinaryLogWriter.closeLogFile();
+        }
+    },
+    /**
+     * CSV log file of the Pipeline stages, see {@link StageLogWriter}.
+     */
+    STAGES(StageLogWriter.getLogFileExtension()) {
+        @Override
+        public void write(File logFile, List<JobStatus> jobStatuses) {
+            StageLogWriter.logStageStatuses(logFile, jobStatuses);
+        }
+
+        @Override
+        public void close() {
+            StageLogWriter.closeLogFile();
+        }
+    };
+
+    private final String extension;
+
+    LogFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return the file extension of log files in this format
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Appends the given list of {@link JobStatus} to the given log file in this format.
+     *
+     * @param logFile     the log file
+     * @param jobStatuses the list of {@link JobStatus} to be logged
+     */
+    public abstract void write(File logFile, List<JobStatus> jobStatuses);
+
+    /**
+     * Closes the log file in this format, if it is still open from a previous write.
+     */
+    public abstract void close();
+}
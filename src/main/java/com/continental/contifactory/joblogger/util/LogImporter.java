@@ -0,0 +1,200 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports the existing CSV log file and its archives into the {@link JobStatusDatabase}, once.<p>
+ * The log files are imported in parallel, every log file with its own database connection. Every imported log
+ * file is recorded in the database, so an interrupted import continues with the remaining log files. Job status
+ * which are already in the database, e.g. written by the database sink during the import, are skipped.
+ */
+public class LogImporter {
+    private static final Logger LOGGER = Logger.getLogger(LogImporter.class.getName());
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_THREADS = 4;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_EXT = JobLoggerPluginConfiguration.getLogFileExtension();
+    private static final String COMPRESSED_EXT = ArchiveCompression.GZIP.getExtension();
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    private final JobStatusDatabase database;
+
+    /**
+     * @param database the database to import into
+     */
+    public LogImporter(JobStatusDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Imports the log files into the database of this plugin in a background thread, unless the import is
+     * already completed or running.
+     */
+    public static void importLater() {
+        if (JobStatusDatabase.getInstance().isImportComplete() || !RUNNING.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                File logFile = JobLoggerPluginConfiguration.get().getCsvLogFile();
+                new LogImporter(JobStatusDatabase.getInstance()).importLogFiles(logFile);
+            } catch (IOException e) {
+                LOGGER.warning("IOException: Could not import log files into the database: " + e.getMessage());
+            } catch (InterruptedException e) {
+                LOGGER.warning("Import of log files into the database interrupted");
+            } finally {
+                RUNNING.set(false);
+            }
+        }, "Job Logger database import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Continues an incomplete import when Jenkins has started.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void importOnStartup() {
+        if (JobLoggerPluginConfiguration.get().isDatabaseEnabled()) {
+            importLater();
+        }
+    }
+
+    /**
+     * Imports the given log file and its archives in parallel, and marks the import as complete.
+     *
+     * @param logFile the CSV log file
+     * @return the number of imported job status
+     * @throws IOException          if a log file cannot be read or imported
+     * @throws InterruptedException if the import is interrupted
+     */
+    public long importLogFiles(File logFile) throws IOException, InterruptedException {
+        List<File> logFiles = findLogFiles(logFile.getParentFile());
+        long start = System.currentTimeMillis();
+        long imported = 0;
+        if (!logFiles.isEmpty()) {
+            int threads = Math.min(logFiles.size(), Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Callable<Integer>> tasks = new ArrayList<>();
+                for (File file : logFiles) {
+                    tasks.add(() -> importLogFile(file));
+                }
+                for (Future<Integer> result : executor.invokeAll(tasks)) {
+                    imported += getResult(result);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        try (Connection connection = database.openConnection()) {
+            database.setImportComplete(connection);
+        } catch (SQLException e) {
+            throw new IOException("Could not complete the import: " + e.getMessage(), e);
+        }
+        LOGGER.info("Imported " + imported + " job status of " + logFiles.size() + " log files into the database in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return imported;
+    }
+
+    /**
+     * Imports the given log file, unless it was imported before.
+     *
+     * @param file the CSV log file or compressed archive
+     * @return the number of imported job status
+     * @throws IOException if the log file cannot be read or imported
+     */
+    int importLogFile(File file) throws IOException {
+        CsvReader reader = new CsvReader();
+        int imported = 0;
+        try (Connection connection = database.openConnection()) {
+            if (database.isImported(connection, file.getName())) {
+                return 0;
+            }
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(openStream(file),
+                    Charset.defaultCharset()), READ_BUFFER_SIZE)) {
+                List<JobStatus> batch = new ArrayList<>();
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    JobStatus jobStatus = reader.parse(line);
+                    if (jobStatus != null) {
+                        batch.add(jobStatus);
+                    }
+                    if (batch.size() >= BATCH_SIZE) {
+                        imported += database.insert(connection, batch, true);
+                        batch.clear();
+                    }
+                }
+                imported += database.insert(connection, batch, true);
+            }
+            database.setImported(connection, file.getName());
+        } catch (SQLException e) {
+            throw new IOException("Could not import log file " + file.getName() + ": " + e.getMessage(), e);
+        }
+        LOGGER.fine("Imported " + imported + " job status of log file: " + file.getAbsolutePath());
+        return imported;
+    }
+
+    /**
+     * @param dir the directory of the log files
+     * @return the CSV log file and its archives, compressed or not, sorted by name
+     */
+    static List<File> findLogFiles(File dir) {
+        String prefix = JobLoggerPluginConfiguration.getLogFileShortname();
+        File[] files = dir != null ? dir.listFiles((d, name) -> name.startsWith(prefix)
+                && (name.endsWith(CSV_EXT) || name.endsWith(CSV_EXT + COMPRESSED_EXT))) : null;
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files);
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    private static InputStream openStream(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(COMPRESSED_EXT)) {
+            try {
+                return new GZIPInputStream(in, READ_BUFFER_SIZE);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+        return in;
+    }
+
+    private static int getResult(Future<Integer> result) throws IOException, InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * An index over the CSV log file and its archives, so queries only read the matching lines.<p>
+ * Every CSV log file has an index file next to it ({@code [log file].idx}), with one record per line of the
+ * log file: the byte offset of the line, the end date, the job name and the result of the build.
+ * The index is appended by {@link CsvWriter} with every write, and renamed with the log file when it is archived.
+ * Log files without an index, e.g. written by an older version of this plugin, are indexed once when they are
+ * queried for the first time.
+ * <p>
+ * In memory, the index holds one segment per log file with its time range and the lines of each job,
+ * so a query skips all log files outside of its time range or without the job, and seeks to the lines of the job.
+ */
+public class LogIndex {
+    /**
+     * File extension of index files, which is appended to the name of the log file.
+     */
+    public static final String INDEX_EXT = ".idx";
+
+    private static final Logger LOGGER = Logger.getLogger(LogIndex.class.getName());
+    private static final String CSV_EXT = LogFormat.CSV.getExtension();
+    private static final String COMPRESSED_EXT = ArchiveCompression.GZIP.getExtension();
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static LogIndex instance = new LogIndex();
+
+    // segments of the loaded log directory, by log file (without compression extension)
+    private final Map<File, Segment> segments = new HashMap<>();
+    private File logDir;
+
+    /**
+     * @return the log index of this plugin
+     */
+    public static LogIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param logFile a CSV log file
+     * @return the index file of the given log file
+     */
+    public static File getIndexFile(File logFile) {
+        return new File(logFile.getPath() + INDEX_EXT);
+    }
+
+    /**
+     * Adds the lines which were appended to the given log file.
+     * If the log file has no index yet, it is indexed completely on the next query instead.
+     *
+     * @param logFile     the CSV log file
+     * @param newFile     true, if the log file was created by this write
+     * @param offsets     the byte offsets of the appended lines
+     * @param jobStatuses the job status of the appended lines
+     */
+    public synchronized void add(File logFile, boolean newFile, long[] offsets, List<JobStatus> jobStatuses) {
+        File indexFile = getIndexFile(logFile);
+        if (!newFile && !indexFile.exists()) {
+            return;
+        }
+
+        Segment segment = null;
+        if (logDir != null && logDir.equals(logFile.getParentFile())) {
+            segment = newFile ? null : segments.get(logFile);
+            if (segment == null) {
+                segment = new Segment(logFile);
+                segments.put(logFile, segment);
+            }
+        }
+        // lines which were already indexed by a query in the meantime are skipped
+        long lastOffset = segment != null && segment.rows > 0 ? segment.offsets[segment.rows - 1] : -1;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(indexFile, !newFile)))) {
+            for (int i = 0; i < offsets.length; i++) {
+                if (offsets[i] <= lastOffset) {
+                    continue;
+                }
+                JobStatus jobStatus = jobStatuses.get(i);
+                long endDate = toEpochMillis(jobStatus);
+                writeRecord(out, offsets[i], endDate, jobStatus.getJobName(), jobStatus.getBuildResult());
+                if (segment != null) {
+                    segment.add(offsets[i], endDate, jobStatus.getJobName(), jobStatus.getBuildResult());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warning("IOException: Could not update log index, removing it: " + e.getMessage());
+            removed(logFile);
+        }
+    }
+
+    /**
+     * Renames the index of the given log file, after the log file was archived.
+     *
+     * @param logFile     the log file
+     * @param archiveFile the archive file the log file was renamed to
+     */
+    public synchronized void archived(File logFile, File archiveFile) {
+        File indexFile = getIndexFile(logFile);
+        if (indexFile.exists() && !indexFile.renameTo(getIndexFile(archiveFile))) {
+            LOGGER.warning("Could not rename log index: " + indexFile.getAbsolutePath());
+        }
+        Segment segment = segments.remove(logFile);
+        if (segment != null) {
+            segment.logFile = archiveFile;
+            segments.put(archiveFile, segment);
+        }
+    }
+
+    /**
+     * Removes the index of the given log file, after the log file was deleted.
+     *
+     * @param logFile the log file, without compression extension
+     */
+    public synchronized void removed(File logFile) {
+        File indexFile = getIndexFile(logFile);
+        if (indexFile.exists() && !indexFile.delete()) {
+            LOGGER.warning("Could not delete log index: " + indexFile.getAbsolutePath());
+        }
+        segments.remove(logFile);
+    }
+
+    /**
+     * Finds the job status which match the given query, in the given log file and its archives.
+     * The job status are returned in the order of the log files' time ranges.
+     *
+     * @param logFile the current CSV log file
+     * @param query   the query
+     * @return the matching job status, up to the limit of the query
+     * @throws IOException if a log file or an index cannot be read
+     */
+    public List<JobStatus> query(File logFile, LogQuery query) throws IOException {
+        List<Candidates> candidates = findCandidates(logFile, query);
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        CsvReader reader = new CsvReader();
+        for (Candidates candidate : candidates) {
+            if (jobStatuses.size() >= query.getLimit()) {
+                break;
+            }
+            // the node names are not indexed, all lines of the candidates are read to filter them
+            boolean allMatch = query.getNodeName() == null;
+            for (String line : candidate.readLines(query.getLimit() - jobStatuses.size(), allMatch)) {
+                JobStatus jobStatus = reader.parse(line);
+                if (jobStatus != null && query.matches(jobStatus) && jobStatuses.size() < query.getLimit()) {
+                    jobStatuses.add(jobStatus);
+                }
+            }
+        }
+        return jobStatuses;
+    }
+
+    /**
+     * @return the number of log files in the loaded index
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Forgets the loaded index, it is loaded again on the next query.
+     */
+    public synchronized void reset() {
+        segments.clear();
+        logDir = null;
+    }
+
+    /**
+     * Finds the log files which may contain job status matching the given query, by their time range and jobs.
+     *
+     * @param logFile the current CSV log file
+     * @param query   the query
+     * @return the log files in the order of their time ranges, without compression extension
+     * @throws IOException if a log file or an index cannot be read
+     */
+    public synchronized List<File> findLogFiles(File logFile, LogQuery query) throws IOException {
+        List<File> logFiles = new ArrayList<>();
+        for (Segment segment : findSegments(logFile, query)) {
+            if (query.getJobName() == null || segment.rowsByJob.containsKey(query.getJobName())) {
+                logFiles.add(segment.logFile);
+            }
+        }
+        return logFiles;
+    }
+
+    // selects the lines to read under the lock, the lines are read without holding it
+    private synchronized List<Candidates> findCandidates(File logFile, LogQuery query) throws IOException {
+        List<Candidates> candidates = new ArrayList<>();
+        for (Segment segment : findSegments(logFile, query)) {
+            long[] offsets = segment.findOffsets(query);
+            if (offsets.length > 0) {
+                candidates.add(new Candidates(segment.logFile, offsets));
+            }
+        }
+        return candidates;
+    }
+
+    // the segments in the time range of the query, in the order of their time ranges
+    private List<Segment> findSegments(File logFile, LogQuery query) throws IOException {
+        load(logFile.getParentFile());
+
+        List<Segment> sorted = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (!query.hasTimeRange() || segment.maxEndDate >= query.getFrom() && segment.minEndDate <= query.getTo()) {
+                sorted.add(segment);
+            }
+        }
+        sorted.sort(Comparator.comparingLong((Segment segment) -> segment.minEndDate)
+                .thenComparing(segment -> segment.logFile.getName()));
+        return sorted;
+    }
+
+    private void load(File dir) throws IOException {
+        if (dir.equals(logDir)) {
+            return;
+        }
+        segments.clear();
+        logDir = dir;
+
+        String prefix = JobLoggerPluginConfiguration.getLogFileShortname();
+        File[] files = dir.listFiles((d, name) -> name.startsWith(prefix)
+                && (name.endsWith(CSV_EXT) || name.endsWith(CSV_EXT + COMPRESSED_EXT)));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            boolean compressed = file.getName().endsWith(COMPRESSED_EXT);
+            File logFile = compressed ? new File(file.getPath().substring(0, file.getPath().length()
+                    - COMPRESSED_EXT.length())) : file;
+            Segment segment = loadSegment(logFile, file, compressed);
+            segments.put(logFile, segment);
+        }
+        LOGGER.fine("Loaded log index of " + segments.size() + " log files: " + dir.getAbsolutePath());
+    }
+
+    private static Segment loadSegment(File logFile, File dataFile, boolean compressed) throws IOException {
+        Segment segment = new Segment(logFile);
+        File indexFile = getIndexFile(logFile);
+        if (indexFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                while (true) {
+                    segment.add(in.readLong(), in.readLong(), emptyToNull(in.readUTF()), emptyToNull(in.readUTF()));
+                }
+            } catch (EOFException e) {
+                LOGGER.finest("End of log index: " + indexFile.getName());
+            }
+        }
+
+        // index the lines which are not in the index yet, which are all lines if there is no index
+        long start = 0;
+        if (segment.rows > 0) {
+            if (compressed) {
+                return segment;
+            }
+            long lastOffset = segment.offsets[segment.rows - 1];
+            start = lastOffset + readLineBytes(dataFile, lastOffset).length + 1;
+        }
+        indexLines(segment, dataFile, compressed, start, indexFile);
+        return segment;
+    }
+
+    private static void indexLines(Segment segment, File dataFile, boolean compressed, long start, File indexFile)
+            throws IOException {
+        CsvReader reader = new CsvReader();
+        Charset charset = Charset.defaultCharset();
+        int indexed = 0;
+        try (InputStream in = openStream(dataFile, compressed, start);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     new FileOutputStream(indexFile, start > 0)))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = start;
+            long lineStart = start;
+            int b = in.read();
+            while (b != -1) {
+                if (b == '\n') {
+                    JobStatus jobStatus = reader.parse(new String(line.toByteArray(), charset));
+                    if (jobStatus != null) {
+                        long endDate = toEpochMillis(jobStatus);
+                        writeRecord(out, lineStart, endDate, jobStatus.getJobName(), jobStatus.getBuildResult());
+                        segment.add(lineStart, endDate, jobStatus.getJobName(), jobStatus.getBuildResult());
+                        indexed++;
+                    }
+                    line.reset();
+                    lineStart = offset + 1;
+                } else {
+                    line.write(b);
+                }
+                offset++;
+                b = in.read();
+            }
+        }
+        if (indexed > 0) {
+            LOGGER.fine("Indexed " + indexed + " lines of log file: " + dataFile.getAbsolutePath());
+        }
+    }
+
+    private static InputStream openStream(File dataFile, boolean compressed, long start) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(dataFile), READ_BUFFER_SIZE);
+        if (compressed) {
+            in = new BufferedInputStream(new GZIPInputStream(in), READ_BUFFER_SIZE);
+        }
+        long skipped = 0;
+        while (skipped < start) {
+            long n = in.skip(start - skipped);
+            if (n <= 0) {
+                break;
+            }
+            skipped += n;
+        }
+        return in;
+    }
+
+    // reads the line at the given offset of an uncompressed log file, without the newline
+    private static byte[] readLineBytes(File dataFile, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ)) {
+            return readLineBytes(channel, offset, ByteBuffer.allocate(READ_BUFFER_SIZE));
+        }
+    }
+
+    private static byte[] readLineBytes(FileChannel channel, long offset, ByteBuffer buffer) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = offset;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return line.toByteArray();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    line.write(buffer.array(), 0, i);
+                    return line.toByteArray();
+                }
+            }
+            line.write(buffer.array(), 0, read);
+            position += read;
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, long offset, long endDate, String jobName, String result)
+            throws IOException {
+        out.writeLong(offset);
+        out.writeLong(endDate);
+        out.writeUTF(jobName != null ? jobName : "");
+        out.writeUTF(result != null ? result : "");
+    }
+
+    private static long toEpochMillis(JobStatus jobStatus) {
+        return jobStatus.getEndDate() != null ? jobStatus.getEndDate().getTime() : BinaryLogWriter.NULL_DATE;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * The index of one log file: the offset, end date, job name and result of every line,
+     * and the lines of each job.
+     */
+    private static final class Segment {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private File logFile;
+        private int rows;
+        private long[] offsets = new long[INITIAL_CAPACITY];
+        private long[] endDates = new long[INITIAL_CAPACITY];
+        private String[] results = new String[INITIAL_CAPACITY];
+        private final Map<String, Rows> rowsByJob = new HashMap<>();
+        private final Map<String, String> strings = new HashMap<>();
+        private long minEndDate = Long.MAX_VALUE;
+        private long maxEndDate = Long.MIN_VALUE;
+
+        private Segment(File logFile) {
+            this.logFile = logFile;
+        }
+
+        private void add(long offset, long endDate, String jobName, String result) {
+            if (rows == offsets.length) {
+                offsets = Arrays.copyOf(offsets, rows * 2);
+                endDates = Arrays.copyOf(endDates, rows * 2);
+                results = Arrays.copyOf(results, rows * 2);
+            }
+            offsets[rows] = offset;
+            endDates[rows] = endDate;
+            results[rows] = intern(result);
+            rowsByJob.computeIfAbsent(intern(jobName), name -> new Rows()).add(rows);
+            rows++;
+            if (endDate != BinaryLogWriter.NULL_DATE) {
+                minEndDate = Math.min(minEndDate, endDate);
+                maxEndDate = Math.max(maxEndDate, endDate);
+            }
+        }
+
+        private String intern(String value) {
+            if (value == null) {
+                return null;
+            }
+            String interned = strings.putIfAbsent(value, value);
+            return interned != null ? interned : value;
+        }
+
+        private long[] findOffsets(LogQuery query) {
+            long[] found = new long[INITIAL_CAPACITY];
+            int count = 0;
+            Rows jobRows = query.getJobName() != null ? rowsByJob.get(query.getJobName()) : null;
+            if (query.getJobName() != null && jobRows == null) {
+                return new long[0];
+            }
+            int size = jobRows != null ? jobRows.size : rows;
+            for (int i = 0; i < size; i++) {
+                int row = jobRows != null ? jobRows.values[i] : i;
+                if (query.hasTimeRange() && !query.matchesTime(endDates[row])) {
+                    continue;
+                }
+                if (query.getResult() != null && !query.getResult().equals(results[row])) {
+                    continue;
+                }
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = offsets[row];
+            }
+            return Arrays.copyOf(found, count);
+        }
+    }
+
+    /**
+     * The row numbers of one job in a segment.
+     */
+    private static final class Rows {
+        private int[] values = new int[2];
+        private int size;
+
+        private void add(int row) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = row;
+        }
+    }
+
+    /**
+     * The offsets of the lines to read from one log file.
+     */
+    private static final class Candidates {
+        private final File logFile;
+        private final long[] offsets;
+
+        private Candidates(File logFile, long[] offsets) {
+            this.logFile = logFile;
+            this.offsets = offsets;
+        }
+
+        // reads the lines at the offsets, stops after the limit if every line is known to match
+        private List<String> readLines(int limit, boolean allMatch) throws IOException {
+            int max = allMatch ? Math.min(limit, offsets.length) : offsets.length;
+            List<String> lines = new ArrayList<>();
+            Charset charset = Charset.defaultCharset();
+            if (logFile.exists()) {
+                try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                    for (int i = 0; i < max; i++) {
+                        lines.add(new String(readLineBytes(channel, offsets[i], buffer), charset));
+                    }
+                }
+                return lines;
+            }
+
+            File compressedFile = new File(logFile.getPath() + COMPRESSED_EXT);
+            if (!compressedFile.exists()) {
+                return lines;
+            }
+            // compressed log files cannot seek, the lines are picked while streaming through the log file
+            try (InputStream in = openStream(compressedFile, true, 0)) {
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                long offset = 0;
+                int next = 0;
+                int b = in.read();
+                while (b != -1 && next < max) {
+                    if (offset >= offsets[next]) {
+                        if (b == '\n') {
+                            lines.add(new String(line.toByteArray(), charset));
+                            line.reset();
+                            next++;
+                        } else {
+                            line.write(b);
+                        }
+                    }
+                    offset++;
+                    b = in.read();
+                }
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.util.List;
+
+/**
+ * A query for job status in the log files. All criteria are optional, a job status matches if it matches all
+ * given criteria. The time range is compared with the end date of the builds.
+ */
+public class LogQuery {
+    /**
+     * Default maximum number of job status a query returns.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    private String jobName;
+    private String result;
+    private String nodeName;
+    private long from = Long.MIN_VALUE;
+    private long to = Long.MAX_VALUE;
+    private int limit = DEFAULT_LIMIT;
+
+    /**
+     * @return the full name of the job; or null for all jobs
+     */
+    public String getJobName() {
+        return jobName;
+    }
+
+    /**
+     * @param jobName the full name of the job; or null for all jobs
+     */
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    /**
+     * @return the build result, e.g. {@code FAILURE}; or null for all results
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @param result the build result, e.g. {@code FAILURE}; or null for all results
+     */
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    /**
+     * @return the name of a node the builds ran on; or null for all nodes
+     */
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    /**
+     * @param nodeName the name of a node the builds ran on; or null for all nodes
+     */
+    public void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    /**
+     * @return the start of the time range in epoch milliseconds (inclusive)
+     */
+    public long getFrom() {
+        return from;
+    }
+
+    /**
+     * @param from the start of the time range in epoch milliseconds (inclusive)
+     */
+    public void setFrom(long from) {
+        this.from = from;
+    }
+
+    /**
+     * @return the end of the time range in epoch milliseconds (inclusive)
+     */
+    public long getTo() {
+        return to;
+    }
+
+    /**
+     * @param to the end of the time range in epoch milliseconds (inclusive)
+     */
+    public void setTo(long to) {
+        this.to = to;
+    }
+
+    /**
+     * @return the maximum number of job status to return
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit the maximum number of job status to return
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return true, if this query has a time range; false otherwise
+     */
+    public boolean hasTimeRange() {
+        return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+
+    /**
+     * @param endDate the end date of a build in epoch milliseconds
+     * @return true, if the given end date is in the time range of this query; false otherwise
+     */
+    public boolean matchesTime(long endDate) {
+        return endDate >= from && endDate <= to;
+    }
+
+    /**
+     * @param jobStatus a job status
+     * @return true, if the given job status matches all criteria of this query; false otherwise
+     */
+    public boolean matches(JobStatus jobStatus) {
+        if (jobName != null && !jobName.equals(jobStatus.getJobName())) {
+            return false;
+        }
+        if (result != null && !result.equals(jobStatus.getBuildResult())) {
+            return false;
+        }
+        if (hasTimeRange() && (jobStatus.getEndDate() == null || !matchesTime(jobStatus.getEndDate().getTime()))) {
+            return false;
+        }
+        if (nodeName != null) {
+            List<String> nodeNames = jobStatus.getNodeNames();
+            return nodeNames != null && nodeNames.contains(nodeName);
+        }
+        return true;
+    }
+}
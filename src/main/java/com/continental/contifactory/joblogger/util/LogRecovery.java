@@ -0,0 +1,213 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Recovers the end of the CSV log file after a crash, before new records are appended.<p>
+ * If Jenkins dies while a record is written, the log file can end with a torn line: a line without line break, or
+ * a line which was only partly written to the storage device. Only the tail of the log file is scanned, backwards
+ * from the end: the torn suffix up to the last valid line is truncated, and the numbering of the records resumes
+ * after the sequence number of that line. A line is valid if it is a framed record with the right {@link Crc32c}
+ * checksum, the header, or a line of an older version of the plugin without frame.
+ *
+ * @see CsvEncoder#encodeRecord(com.continental.contifactory.joblogger.model.JobStatus, long)
+ */
+public final class LogRecovery {
+    /**
+     * The sequence number of the first record in a log file.
+     */
+    public static final long FIRST_SEQUENCE = 1;
+    /**
+     * Size of the tail which is scanned first.
+     */
+    static final int TAIL_SIZE = 64 * 1024;
+    /**
+     * Maximum size of the tail which is scanned, if no valid line was found in a smaller tail.
+     */
+    static final int MAX_TAIL_SIZE = 1024 * 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(LogRecovery.class.getName());
+    private static final byte LINE_BREAK = '\n';
+    private static final byte SEPARATOR = ';';
+    private static final int HEX_RADIX = 16;
+    // the shortest framed record: ;[1 digit];[8 hex digits]
+    private static final int MIN_FRAME_LENGTH = CsvEncoder.CHECKSUM_DIGITS + 3;
+    // result of a checked line which is valid, but no framed record
+    private static final long NO_SEQUENCE = 0;
+    // result of a checked line which is invalid
+    private static final long INVALID = -1;
+
+    private LogRecovery() {
+        // avoid instantiation
+    }
+
+    /**
+     * Recovers the CSV log file when Jenkins has started, before the first build is written.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void recoverOnStartup() {
+        try {
+            CsvWriter.recoverLogFile(JobLoggerPluginConfiguration.get().getCsvLogFile());
+        } catch (IOException e) {
+            LOGGER.warning("IOException: Could not recover log file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Truncates the torn suffix of the given log file, if any. The log file must not be open for writing.
+     *
+     * @param logFile the CSV log file
+     * @return the sequence number of the next record in the log file
+     * @throws IOException if the log file cannot be read or truncated
+     */
+    public static long recover(File logFile) throws IOException {
+        if (!logFile.isFile()) {
+            return FIRST_SEQUENCE;
+        }
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            int tailSize = (int) Math.min(size, TAIL_SIZE);
+            while (true) {
+                byte[] tail = read(channel, size - tailSize, tailSize);
+                Tail result = scan(tail, size == tailSize);
+                if (result != null) {
+                    long validLength = size - tailSize + result.getLength();
+                    if (validLength < size) {
+                        LOGGER.warning("Truncating torn end of log file " + logFile.getAbsolutePath() + ": "
+                                + (size - validLength) + " bytes after byte " + validLength);
+                        channel.truncate(validLength);
+                        channel.force(true);
+                        // the index may contain the truncated lines, it is rebuilt on the next query
+                        LogIndex.getInstance().removed(logFile);
+                    }
+                    return result.getSequence() + 1;
+                }
+                if (tailSize == size || tailSize >= MAX_TAIL_SIZE) {
+                    LOGGER.warning("No valid line in the last " + tailSize + " bytes of log file "
+                            + logFile.getAbsolutePath() + ", the log file is not recovered");
+                    return FIRST_SEQUENCE;
+                }
+                tailSize = (int) Math.min(size, (long) tailSize * 2);
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the last valid line in the given tail of a log file.
+     *
+     * @param tail      the tail of a log file
+     * @param fileStart true, if the tail starts at the beginning of the log file
+     * @return the length of the valid part of the tail, and the sequence number of the last valid record; or null
+     * if no valid line starts in the tail
+     */
+    static Tail scan(byte[] tail, boolean fileStart) {
+        int end = tail.length;
+        while (end > 0) {
+            int lineEnd = tail[end - 1] == LINE_BREAK ? end - 1 : end;
+            int lineStart = lineEnd;
+            while (lineStart > 0 && tail[lineStart - 1] != LINE_BREAK) {
+                lineStart--;
+            }
+            if (lineStart == 0 && !fileStart) {
+                // the line may start before the tail
+                return null;
+            }
+            long sequence = checkLine(tail, lineStart, lineEnd);
+            if (sequence != INVALID && lineEnd < end) {
+                return new Tail(end, sequence);
+            }
+            // an invalid line, or the last line without line break, is the torn suffix
+            end = lineStart;
+        }
+        return fileStart ? new Tail(0, NO_SEQUENCE) : null;
+    }
+
+    /**
+     * @return the sequence number of a valid framed record; {@link #NO_SEQUENCE} for a valid line without frame;
+     * or {@link #INVALID}
+     */
+    private static long checkLine(byte[] line, int from, int to) {
+        // a framed record ends with ;[sequence];[8 hex digits]
+        int checksumStart = to - CsvEncoder.CHECKSUM_DIGITS;
+        int sequenceEnd = checksumStart - 1;
+        int sequenceStart = sequenceEnd;
+        boolean framed = to - from >= MIN_FRAME_LENGTH && line[sequenceEnd] == SEPARATOR
+                && isHex(line, checksumStart, to);
+        if (framed) {
+            while (sequenceStart > from && Character.isDigit(line[sequenceStart - 1])) {
+                sequenceStart--;
+            }
+            framed = sequenceStart > from && sequenceStart < sequenceEnd && line[sequenceStart - 1] == SEPARATOR;
+        }
+        if (framed) {
+            Crc32c checksum = new Crc32c();
+            checksum.update(line, from, sequenceEnd - from);
+            long expected = Long.parseLong(new String(line, checksumStart, CsvEncoder.CHECKSUM_DIGITS,
+                    StandardCharsets.US_ASCII), HEX_RADIX);
+            return checksum.getValue() == expected ? Long.parseLong(new String(line, sequenceStart,
+                    sequenceEnd - sequenceStart, StandardCharsets.US_ASCII)) : INVALID;
+        }
+
+        // the header, or a line of an older version of the plugin, which can only be checked by parsing it
+        String text = new String(line, from, to - from, Charset.defaultCharset());
+        return text.startsWith(CsvReader.HEADER_START) || new CsvReader().parse(text) != null ? NO_SEQUENCE : INVALID;
+    }
+
+    private static boolean isHex(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(bytes[i], HEX_RADIX) < 0 || Character.isUpperCase(bytes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * The valid part of a tail.
+     */
+    static final class Tail {
+        private final int length;
+        private final long sequence;
+
+        private Tail(int length, long sequence) {
+            this.length = length;
+            this.sequence = sequence;
+        }
+
+        /**
+         * @return the length of the valid part of the tail
+         */
+        int getLength() {
+            return length;
+        }
+
+        /**
+         * @return the sequence number of the last valid record; or 0 if the last valid line is no framed record
+         */
+        long getSequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Deletes the oldest archived log files, CSV and binary, compressed or not, until the archives are within the
+ * retention limits: a maximum number of archives, a maximum total size and a maximum age.
+ * The age of an archive is the time of its last write.
+ */
+public class LogRetention {
+    private static final Logger LOGGER = Logger.getLogger(LogRetention.class.getName());
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final String COMPRESSED_EXT = ArchiveCompression.GZIP.getExtension();
+
+    private final int maxCount;
+    private final long maxBytes;
+    private final long maxAge;
+
+    /**
+     * @param maxCount the maximum number of archives; or 0 for no limit
+     * @param maxBytes the maximum total size of the archives in bytes; or 0 for no limit
+     * @param maxAge   the maximum age of an archive in milliseconds; or 0 for no limit
+     */
+    public LogRetention(int maxCount, long maxBytes, long maxAge) {
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Enforces the configured retention limits in the thread of the {@link ArchiveCompressor}, so archives which are
+     * being compressed or compacted are not deleted at the same time.
+     *
+     * @param logFile the current CSV log file, which is never deleted
+     * @return the number of deleted archives, when retention is completed
+     * @see JobLoggerPluginConfiguration#getMaxArchiveCount()
+     * @see JobLoggerPluginConfiguration#getMaxArchiveSize()
+     * @see JobLoggerPluginConfiguration#getMaxArchiveAge()
+     */
+    public static Future<Integer> enforceLater(File logFile) {
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        long maxBytes = (long) (config.getMaxArchiveSize() * FileUtil.BYTES_PER_MB);
+        LogRetention retention = new LogRetention(config.getMaxArchiveCount(), maxBytes,
+                config.getMaxArchiveAge() * MILLIS_PER_DAY);
+        return ArchiveCompressor.submit(() -> retention.enforce(logFile, System.currentTimeMillis()));
+    }
+
+    /**
+     * @return true, if any retention limit is set; false otherwise
+     */
+    public boolean isLimited() {
+        return maxCount > 0 || maxBytes > 0 || maxAge > 0;
+    }
+
+    /**
+     * Deletes the oldest archives of the given log file until the archives are within the retention limits.
+     *
+     * @param logFile the current CSV log file, which is never deleted
+     * @param now     the current time, in epoch milliseconds
+     * @return the number of deleted archives
+     * @throws IOException if an archive cannot be deleted
+     */
+    public int enforce(File logFile, long now) throws IOException {
+        if (!isLimited()) {
+            return 0;
+        }
+        List<File> archives = findArchives(logFile);
+        int count = archives.size();
+        long total = 0;
+        for (File archive : archives) {
+            total += archive.length();
+        }
+
+        int deleted = 0;
+        for (File archive : archives) {
+            boolean expired = maxAge > 0 && now - archive.lastModified() > maxAge;
+            boolean tooMany = maxCount > 0 && count > maxCount;
+            boolean tooLarge = maxBytes > 0 && total > maxBytes;
+            if (!expired && !tooMany && !tooLarge) {
+                // the archives are sorted by age, all newer archives are within the limits as well
+                break;
+            }
+            long length = archive.length();
+            Files.delete(archive.toPath());
+            LogIndex.getInstance().removed(getLogFile(archive));
+            LOGGER.fine("Deleted archive by retention: " + archive.getAbsolutePath());
+            count--;
+            total -= length;
+            deleted++;
+        }
+        if (deleted > 0) {
+            LOGGER.info("Deleted " + deleted + " archived log files by retention, " + count + " archives with "
+                    + total + " bytes kept");
+        }
+        return deleted;
+    }
+
+    /**
+     * @param logFile the current CSV log file
+     * @return the CSV, binary, stage and utilization archives of the given log file, oldest first
+     */
+    static List<File> findArchives(File logFile) {
+        String prefix = JobLoggerPluginConfiguration.getLogFileShortname() + "_";
+        String csvExt = JobLoggerPluginConfiguration.getLogFileExtension();
+        String binaryExt = BinaryLogWriter.getLogFileExtension();
+        String stageExt = StageLogWriter.getLogFileExtension();
+        String utilizationExt = UtilizationLogWriter.getLogFileExtension();
+        File[] files = logFile.getParentFile().listFiles((d, name) -> name.startsWith(prefix)
+                && (name.endsWith(csvExt) || name.endsWith(csvExt + COMPRESSED_EXT) || name.endsWith(binaryExt)
+                || name.endsWith(binaryExt + COMPRESSED_EXT) || name.endsWith(stageExt)
+                || name.endsWith(stageExt + COMPRESSED_EXT) || name.endsWith(utilizationExt)
+                || name.endsWith(utilizationExt + COMPRESSED_EXT)));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        List<File> archives = new ArrayList<>(Arrays.asList(files));
+        archives.sort(Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        return archives;
+    }
+
+    // the log file of the log index, without compression extension
+    private static File getLogFile(File file) {
+        String path = file.getPath();
+        return path.endsWith(COMPRESSED_EXT) ? new File(path.substring(0, path.length() - COMPRESSED_EXT.length()))
+                : file;
+    }
+}
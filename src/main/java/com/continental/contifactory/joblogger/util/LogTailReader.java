@@ -0,0 +1,253 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the newest job status of the live CSV log file, without reading the whole log file.<p>
+ * {@link #readLast(File, int)} reads the log file backwards from its end in chunks of {@value #CHUNK_SIZE} bytes,
+ * until enough lines are found. {@link #readAfter(File, String, int)} reads forward from a cursor, so a client
+ * which polls the log file only reads the lines written since its last poll.
+ * <p>
+ * A cursor is {@code [file id]-[offset]}: the id of the log file and the byte offset after the last returned line.
+ * When the log file is archived, the new log file has another id. A cursor of another log file, or an offset
+ * beyond the end of the log file, starts again at the beginning of the log file and the tail is marked as reset.
+ * Only complete lines are read, a line which is written at the same time is returned by the next read.
+ * The log file is read with positional reads instead of being mapped into memory, so it can still be archived
+ * while it is read.
+ */
+public final class LogTailReader {
+    /**
+     * Number of bytes read at once.
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final byte LINE_BREAK = '\n';
+    private static final String CURSOR_SEPARATOR = "-";
+    private static final String NO_FILE_ID = "0";
+
+    private LogTailReader() {
+        // avoid instantiation
+    }
+
+    /**
+     * @param logFile the CSV log file
+     * @param count   the maximum number of job status to read
+     * @return the last job status of the given log file, oldest first, and the cursor after them
+     * @throws IOException if the log file cannot be read
+     */
+    public static Tail readLast(File logFile, int count) throws IOException {
+        String fileId = getFileId(logFile);
+        if (fileId.equals(NO_FILE_ID)) {
+            return new Tail(Collections.emptyList(), toCursor(fileId, 0), false);
+        }
+
+        CsvReader reader = new CsvReader();
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            long end = findCompleteEnd(channel);
+            byte[] carry = new byte[0]; // the end of a line whose start is not read yet
+            long position = end;
+            while (position > 0 && jobStatuses.size() < count) {
+                int length = (int) Math.min(CHUNK_SIZE, position);
+                position -= length;
+                byte[] chunk = new byte[length + carry.length];
+                read(channel, position, chunk, length);
+                System.arraycopy(carry, 0, chunk, length, carry.length);
+
+                // every line ends with a line break, a line is complete when the line break before it is found
+                int lineEnd = chunk.length;
+                for (int i = chunk.length - 2; i >= 0 && jobStatuses.size() < count; i--) {
+                    if (chunk[i] == LINE_BREAK) {
+                        addLine(reader, jobStatuses, chunk, i + 1, lineEnd);
+                        lineEnd = i + 1;
+                    }
+                }
+                carry = new byte[lineEnd];
+                System.arraycopy(chunk, 0, carry, 0, lineEnd);
+                if (position == 0 && jobStatuses.size() < count) {
+                    addLine(reader, jobStatuses, carry, 0, carry.length);
+                }
+            }
+            Collections.reverse(jobStatuses);
+            return new Tail(jobStatuses, toCursor(fileId, end), false);
+        }
+    }
+
+    /**
+     * @param logFile the CSV log file
+     * @param cursor  the cursor of a previous read; or null to read from the beginning of the log file
+     * @param limit   the maximum number of job status to read
+     * @return the job status written after the given cursor, oldest first, and the cursor after them
+     * @throws IOException              if the log file cannot be read
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public static Tail readAfter(File logFile, String cursor, int limit) throws IOException {
+        String fileId = getFileId(logFile);
+        long offset = 0;
+        boolean reset = false;
+        if (cursor != null) {
+            int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            try {
+                offset = Long.parseLong(cursor.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+            if (!cursor.substring(0, separator).equals(fileId) || offset < 0) {
+                offset = 0;
+                reset = true;
+            }
+        }
+        if (fileId.equals(NO_FILE_ID)) {
+            return new Tail(Collections.emptyList(), toCursor(fileId, 0), reset);
+        }
+
+        CsvReader reader = new CsvReader();
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            long end = findCompleteEnd(channel);
+            if (offset > end) {
+                offset = 0;
+                reset = true;
+            }
+            byte[] carry = new byte[0]; // the start of a line whose end is not read yet
+            long position = offset;
+            while (position < end && jobStatuses.size() < limit) {
+                int length = (int) Math.min(CHUNK_SIZE, end - position);
+                byte[] chunk = new byte[carry.length + length];
+                System.arraycopy(carry, 0, chunk, 0, carry.length);
+                read(channel, position, chunk, carry.length, length);
+                position += length;
+
+                int lineStart = 0;
+                for (int i = carry.length; i < chunk.length && jobStatuses.size() < limit; i++) {
+                    if (chunk[i] == LINE_BREAK) {
+                        addLine(reader, jobStatuses, chunk, lineStart, i + 1);
+                        lineStart = i + 1;
+                    }
+                }
+                carry = new byte[chunk.length - lineStart];
+                System.arraycopy(chunk, lineStart, carry, 0, carry.length);
+            }
+            // the cursor points after the last line which was read, not after the end of the chunk
+            return new Tail(jobStatuses, toCursor(fileId, position - carry.length), reset);
+        }
+    }
+
+    /**
+     * @param logFile a log file
+     * @return an id of the given log file which changes when the log file is archived and created again;
+     * or {@code 0} if the log file does not exist
+     * @throws IOException if the attributes of the log file cannot be read
+     */
+    static String getFileId(File logFile) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(logFile.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return NO_FILE_ID;
+        }
+        // the file key is the inode on Unix, the creation time is used if the file system has no file keys
+        Object fileKey = attributes.fileKey();
+        long id = fileKey != null ? fileKey.hashCode() : attributes.creationTime().toMillis();
+        return Long.toHexString(id == 0 ? 1 : id);
+    }
+
+    private static String toCursor(String fileId, long offset) {
+        return fileId + CURSOR_SEPARATOR + offset;
+    }
+
+    // the position after the last line break, the bytes after it are a line which is still written
+    private static long findCompleteEnd(FileChannel channel) throws IOException {
+        long end = channel.size();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        while (end > 0) {
+            int length = (int) Math.min(CHUNK_SIZE, end);
+            read(channel, end - length, chunk, length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk[i] == LINE_BREAK) {
+                    return end - length + i + 1;
+                }
+            }
+            end -= length;
+        }
+        return 0;
+    }
+
+    private static void addLine(CsvReader reader, List<JobStatus> jobStatuses, byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (length > 0 && bytes[end - 1] == LINE_BREAK) {
+            length--;
+        }
+        JobStatus jobStatus = reader.parse(new String(bytes, start, length, Charset.defaultCharset()));
+        if (jobStatus != null) {
+            jobStatuses.add(jobStatus);
+        }
+    }
+
+    private static void read(FileChannel channel, long position, byte[] bytes, int length) throws IOException {
+        read(channel, position, bytes, 0, length);
+    }
+
+    private static void read(FileChannel channel, long position, byte[] bytes, int offset, int length)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - offset) < 0) {
+                throw new IOException("Unexpected end of log file");
+            }
+        }
+    }
+
+    /**
+     * The job status of a read and the cursor to continue reading after them.
+     */
+    public static final class Tail {
+        private final List<JobStatus> jobStatuses;
+        private final String cursor;
+        private final boolean reset;
+
+        Tail(List<JobStatus> jobStatuses, String cursor, boolean reset) {
+            this.jobStatuses = jobStatuses;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+
+        /**
+         * @return the job status, oldest first
+         */
+        public List<JobStatus> getJobStatuses() {
+            return jobStatuses;
+        }
+
+        /**
+         * @return the cursor to continue reading after the returned job status
+         */
+        public String getCursor() {
+            return cursor;
+        }
+
+        /**
+         * @return true if the cursor of the read belonged to an archived log file or was beyond the end of the log
+         * file, and the log file was read from its beginning
+         */
+        public boolean isReset() {
+            return reset;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.continental.contifactory.joblogger.util;
+
+import hudson.console.ConsoleNote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts node names from a console log, by searching for {@code "Running on [node name] in"}.<p>
+ * The console log is searched on the raw bytes for {@code "Running on "}. Only the rest of a matching line is
+ * decoded and cleaned from {@link ConsoleNote}s, all other lines are skipped without decoding them.
+ * The number of node names and the number of bytes to scan are limited.
+ */
+public class NodeNameExtractor {
+    /**
+     * Default maximum number of node names which are extracted.
+     */
+    public static final int DEFAULT_MAX_NODE_NAMES = 100;
+
+    private static final String MARKER = "Running on ";
+    private static final byte[] MARKER_BYTES = MARKER.getBytes(StandardCharsets.US_ASCII);
+    private static final int BYTE_MASK = 0xFF;
+    private static final int[] MARKER_SKIP = createMarkerSkipTable();
+    private static final Pattern NODE_PATTERN = Pattern.compile("(Running on )(.+)( in .+)");
+    private static final int NODE_NAME_INDEX = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final int maxNodeNames;
+    private final long maxBytes;
+    private final Charset charset;
+    private long bytesScanned;
+
+    /**
+     * @param maxNodeNames the maximum number of node names to extract, scanning stops if it is reached
+     * @param maxBytes     the maximum number of bytes to scan
+     * @param charset      the charset of the console log; or null for UTF-8
+     */
+    public NodeNameExtractor(int maxNodeNames, long maxBytes, Charset charset) {
+        this.maxNodeNames = maxNodeNames;
+        this.maxBytes = maxBytes;
+        this.charset = charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * @param log the console log
+     * @return the distinct node names in the given console log, in order of their first appearance
+     * @throws IOException if the console log cannot be read
+     */
+    public List<String> extract(InputStream log) throws IOException {
+        Set<String> nodeNames = new LinkedHashSet<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        boolean candidate = false; // marker was found in the current line, collect the rest of the line
+        int carry = 0; // bytes of the previous read, which are kept at the start of the buffer
+        bytesScanned = 0;
+
+        while (bytesScanned < maxBytes) {
+            int read = log.read(buffer, carry, (int) Math.min(buffer.length - carry, maxBytes - bytesScanned));
+            if (read == -1) {
+                break;
+            }
+            bytesScanned += read;
+
+            int end = carry + read;
+            int pos = 0;
+            while (pos < end) {
+                if (candidate) {
+                    int newline = indexOf(buffer, (byte) '\n', pos, end);
+                    int lineEnd = newline < 0 ? end : newline;
+                    line.write(buffer, pos, Math.min(lineEnd - pos, Math.max(0, MAX_LINE_LENGTH - line.size())));
+                    if (newline < 0) {
+                        pos = end;
+                        break;
+                    }
+
+                    addNodeName(nodeNames, line);
+                    line.reset();
+                    candidate = false;
+                    pos = newline + 1;
+                    if (nodeNames.size() >= maxNodeNames) {
+                        bytesScanned -= end - pos;
+                        return new ArrayList<>(nodeNames);
+                    }
+                } else {
+                    int marker = indexOfMarker(buffer, pos, end);
+                    if (marker < 0) {
+                        // the last bytes might be the beginning of a marker, which continues in the next read
+                        pos = Math.max(pos, end - (MARKER_BYTES.length - 1));
+                        break;
+                    }
+                    candidate = true;
+                    pos = marker + MARKER_BYTES.length;
+                }
+            }
+
+            carry = end - pos;
+            System.arraycopy(buffer, pos, buffer, 0, carry);
+        }
+
+        if (candidate) {
+            addNodeName(nodeNames, line);
+        }
+        return new ArrayList<>(nodeNames);
+    }
+
+    /**
+     * @return the number of bytes scanned by the last {@link #extract(InputStream)}
+     */
+    public long getBytesScanned() {
+        return bytesScanned;
+    }
+
+    private static int indexOf(byte[] buffer, byte b, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Boyer-Moore-Horspool search, most bytes of a console log are skipped without looking at them.
+     */
+    private static int indexOfMarker(byte[] buffer, int from, int end) {
+        int last = MARKER_BYTES.length - 1;
+        int i = from;
+        while (i + last < end) {
+            byte b = buffer[i + last];
+            if (b == MARKER_BYTES[last] && matchesMarker(buffer, i)) {
+                return i;
+            }
+            i += MARKER_SKIP[b & BYTE_MASK];
+        }
+        return -1;
+    }
+
+    private static boolean matchesMarker(byte[] buffer, int offset) {
+        for (int i = 0; i < MARKER_BYTES.length; i++) {
+            if (buffer[offset + i] != MARKER_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] createMarkerSkipTable() {
+        int[] skip = new int[BYTE_MASK + 1];
+        Arrays.fill(skip, MARKER_BYTES.length);
+        for (int i = 0; i < MARKER_BYTES.length - 1; i++) {
+            skip[MARKER_BYTES[i] & BYTE_MASK] = MARKER_BYTES.length - 1 - i;
+        }
+        return skip;
+    }
+
+    private void addNodeName(Set<String> nodeNames, ByteArrayOutputStream line) throws IOException {
+        if (nodeNames.size() >= maxNodeNames) {
+            return;
+        }
+
+        // remove HA (High Availability) protocol notes from the line
+        String cleanedLine = ConsoleNote.removeNotes(MARKER + line.toString(charset.name()));
+        Matcher matcher = NODE_PATTERN.matcher(cleanedLine);
+        while (matcher.find() && nodeNames.size() < maxNodeNames) {
+            nodeNames.add(matcher.group(NODE_NAME_INDEX));
+        }
+    }
+}
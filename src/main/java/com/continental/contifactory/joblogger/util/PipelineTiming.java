@@ -0,0 +1,19 @@
+package com.continental.contifactory.joblogger.util;
+
+/**
+ * What is timed in a running Pipeline build, see {@link com.continental.contifactory.joblogger.model.StageStatus}.
+ */
+public enum PipelineTiming {
+    /**
+     * Nothing is timed.
+     */
+    NONE,
+    /**
+     * Stages and parallel branches are timed.
+     */
+    STAGES,
+    /**
+     * Stages, parallel branches and all steps without body are timed.
+     */
+    STEPS
+}
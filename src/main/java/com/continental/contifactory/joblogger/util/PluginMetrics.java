@@ -0,0 +1,176 @@
+package com.continental.contifactory.joblogger.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timers and counters of the hot paths of this plugin, to see what the plugin costs a build.<p>
+ * The metrics are only recorded if they are enabled. If they are disabled, {@link #start()} only reads one
+ * volatile field and {@link #stop(Timer, long)} does nothing, so the hot paths do not pay for the metrics.
+ * <pre>
+ * long start = PluginMetrics.start();
+ * ...
+ * PluginMetrics.stop(PluginMetrics.Timer.WRITE, start);
+ * </pre>
+ */
+public final class PluginMetrics {
+    /**
+     * The start time returned by {@link #start()} if the metrics are disabled.
+     */
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    private static final Map<Timer, TimerCounter> TIMERS = new EnumMap<>(Timer.class);
+    private static final LongAdder NODE_NAME_BYTES_SCANNED = new LongAdder();
+    private static volatile boolean enabled;
+
+    static {
+        for (Timer timer : Timer.values()) {
+            TIMERS.put(timer, new TimerCounter());
+        }
+    }
+
+    private PluginMetrics() {
+        // avoid instantiation
+    }
+
+    /**
+     * The measured hot paths.
+     */
+    public enum Timer {
+        /**
+         * Caching the job status of a started build.
+         */
+        ON_STARTED("onStarted"),
+        /**
+         * Completing the job status of a completed build and queueing it for the sinks.
+         */
+        ON_COMPLETED("onCompleted"),
+        /**
+         * Searching the console log of a build for node names.
+         */
+        NODE_NAMES("getNodeNames"),
+        /**
+         * Writing job status to the CSV log file, without waiting for the lock.
+         */
+        WRITE("logJobStatus"),
+        /**
+         * Waiting for the lock of the CSV log file.
+         */
+        WRITE_LOCK_WAIT("logJobStatusLockWait"),
+        /**
+         * Archiving a log file which exceeded its maximum size or rotation period.
+         */
+        ROTATION("rotation"),
+        /**
+         * Forcing the writes of the CSV log file to the storage device, see {@link LogDurability}.
+         */
+        COMMIT("commit");
+
+        private final String label;
+
+        Timer(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @return the name of this timer in the metrics
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * @return true, if the metrics are recorded; false otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled enable/disable recording the metrics
+     */
+    public static void setEnabled(boolean enabled) {
+        PluginMetrics.enabled = enabled;
+    }
+
+    /**
+     * @return the start time of a measurement in nanoseconds; or {@link #DISABLED} if the metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Records the time since the given start time, if the measurement was started while the metrics were enabled.
+     *
+     * @param timer the timer of the measurement
+     * @param start the start time returned by {@link #start()}
+     */
+    public static void stop(Timer timer, long start) {
+        if (start != DISABLED) {
+            TIMERS.get(timer).add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param bytes the number of bytes of a console log which were searched for node names
+     */
+    public static void addNodeNameBytesScanned(long bytes) {
+        if (enabled) {
+            NODE_NAME_BYTES_SCANNED.add(bytes);
+        }
+    }
+
+    /**
+     * @return the number of bytes of console logs which were searched for node names
+     */
+    public static long getNodeNameBytesScanned() {
+        return NODE_NAME_BYTES_SCANNED.sum();
+    }
+
+    /**
+     * @param timer a timer
+     * @return the current values of the given timer
+     */
+    public static TimerStatistics getStatistics(Timer timer) {
+        return TIMERS.get(timer).toStatistics();
+    }
+
+    /**
+     * Resets all timers and counters to 0.
+     */
+    public static void reset() {
+        for (TimerCounter counter : TIMERS.values()) {
+            counter.reset();
+        }
+        NODE_NAME_BYTES_SCANNED.reset();
+    }
+
+    /**
+     * The counters of one timer, which are updated without locks.
+     */
+    private static final class TimerCounter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        TimerStatistics toStatistics() {
+            return new TimerStatistics(count.sum(), totalNanos.sum(), maxNanos.get());
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+        }
+    }
+}
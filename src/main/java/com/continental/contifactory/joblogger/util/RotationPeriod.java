@@ -0,0 +1,43 @@
+package com.continental.contifactory.joblogger.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Time based rotation of the log files, in addition to the maximum log file size.
+ */
+public enum RotationPeriod {
+    /**
+     * Log files are only rotated by size.
+     */
+    NONE(null),
+    /**
+     * Log files are rotated when the first job status of a new hour is written.
+     */
+    HOURLY(ChronoUnit.HOURS),
+    /**
+     * Log files are rotated when the first job status of a new day is written.
+     */
+    DAILY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RotationPeriod(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * @param logFileTime the time of the last write to the log file, in epoch milliseconds
+     * @param time        the current time, in epoch milliseconds
+     * @param zone        the time zone of the days
+     * @return true, if the given times are in different periods and the log file has to be rotated; false otherwise
+     */
+    public boolean isNewPeriod(long logFileTime, long time, ZoneId zone) {
+        if (unit == null) {
+            return false;
+        }
+        return !Instant.ofEpochMilli(logFileTime).atZone(zone).truncatedTo(unit)
+                .equals(Instant.ofEpochMilli(time).atZone(zone).truncatedTo(unit));
+    }
+}
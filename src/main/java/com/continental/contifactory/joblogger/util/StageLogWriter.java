@@ -0,0 +1,118 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.model.StageStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A utility class to write the {@link StageStatus} of Pipeline stages to a CSV log file next to the CSV log file
+ * of the builds. Dates are written in ISO-8601 format (UTC), the duration in ms.
+ * <p>
+ * The format of the log file is:<br>
+ * {@code JobName;JobNumber;Id;ParentId;Type;Name;Result;StartDate;EndDate;Duration;Node}
+ * <p>
+ * The file extension is not {@code .csv}, so the stages are never mistaken for builds, e.g. by the log index.
+ */
+public final class StageLogWriter {
+    private static final Logger LOGGER = Logger.getLogger(StageLogWriter.class.getName());
+    private static final String LOG_FILE_EXT = ".stages";
+    private static final char SEPARATOR = ';';
+    private static final String HEADER = "JobName;JobNumber;Id;ParentId;Type;Name;Result;StartDate;EndDate;Duration;"
+            + "Node\n";
+
+    private static final AppendingLogFile LOG_FILE = new AppendingLogFile("stage log file");
+
+    private StageLogWriter() {
+        // avoid instantiation
+    }
+
+    /**
+     * @return the file extension of stage log files
+     */
+    public static String getLogFileExtension() {
+        return LOG_FILE_EXT;
+    }
+
+    /**
+     * Appends the given list of {@link StageStatus} to the given stage log file, other job status are ignored.
+     * If the log file exceed the maximum size or rotation period, it is archived like the CSV log file.
+     *
+     * @param logFile     the stage log file
+     * @param jobStatuses the list of {@link StageStatus} to be logged
+     * @see CsvWriter#logJobStatuses(File, List)
+     */
+    public static synchronized void logStageStatuses(File logFile, List<JobStatus> jobStatuses) {
+        if (logFile == null) {
+            LOGGER.fine("Stage log file cannot be null!");
+            return;
+        }
+
+        try {
+            LOG_FILE.open(logFile);
+            LOG_FILE.rotate(logFile, LOG_FILE_EXT);
+
+            StringBuilder sb = new StringBuilder();
+            if (LOG_FILE.getSize() == 0) {
+                sb.append(HEADER);
+            }
+            for (JobStatus jobStatus : jobStatuses) {
+                if (jobStatus instanceof StageStatus) {
+                    writeStageStatus(sb, (StageStatus) jobStatus);
+                }
+            }
+            LOG_FILE.write(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            LOGGER.severe("IOException during writing stage log file: " + e.getMessage());
+            closeLogFile();
+        }
+    }
+
+    /**
+     * Closes the stage log file if it is still open from a previous write.
+     */
+    public static synchronized void closeLogFile() {
+        LOG_FILE.close();
+    }
+
+    /**
+     * @param stage a stage status
+     * @return the line of the given stage status in the stage log file, with line break
+     */
+    public static String toCsvLine(StageStatus stage) {
+        StringBuilder sb = new StringBuilder();
+        writeStageStatus(sb, stage);
+        return sb.toString();
+    }
+
+    private static void writeStageStatus(StringBuilder sb, StageStatus stage) {
+        write(sb, stage.getJobName()).append(SEPARATOR);
+        sb.append(stage.getJobNumber()).append(SEPARATOR);
+        write(sb, stage.getId()).append(SEPARATOR);
+        write(sb, stage.getParentId()).append(SEPARATOR);
+        write(sb, stage.getType()).append(SEPARATOR);
+        write(sb, stage.getStageName()).append(SEPARATOR);
+        write(sb, stage.getBuildResult()).append(SEPARATOR);
+        write(sb, toIsoDate(stage.getStartDate())).append(SEPARATOR);
+        write(sb, toIsoDate(stage.getEndDate())).append(SEPARATOR);
+        sb.append(stage.getDuration()).append(SEPARATOR);
+        List<String> nodeNames = stage.getNodeNames();
+        write(sb, nodeNames != null && !nodeNames.isEmpty() ? String.join(",", nodeNames) : null);
+        sb.append('\n');
+    }
+
+    private static String toIsoDate(Date date) {
+        return date != null ? date.toInstant().toString() : null;
+    }
+
+    private static StringBuilder write(StringBuilder sb, Object value) {
+        // strings are escaped like in the CSV log file, so stage names with separators do not break a line
+        return value != null ? sb.append(CsvEncoder.escape(String.valueOf(value))) : sb;
+    }
+}
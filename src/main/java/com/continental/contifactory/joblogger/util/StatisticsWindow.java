@@ -0,0 +1,68 @@
+package com.continental.contifactory.joblogger.util;
+
+/**
+ * A sliding window of the build statistics, which is divided into slots. The oldest slot is dropped as a whole
+ * when a new slot starts, so the window slides in steps of one slot.
+ */
+public enum StatisticsWindow {
+    /**
+     * The last hour, in slots of 5 minutes.
+     */
+    HOUR("1h", 5 * 60 * 1000L, 12),
+    /**
+     * The last day, in slots of 1 hour.
+     */
+    DAY("24h", 60 * 60 * 1000L, 24);
+
+    private final String label;
+    private final long slotMillis;
+    private final int slots;
+
+    StatisticsWindow(String label, long slotMillis, int slots) {
+        this.label = label;
+        this.slotMillis = slotMillis;
+        this.slots = slots;
+    }
+
+    /**
+     * @return the short name of this window, e.g. {@code 1h}
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return the duration of a slot in milliseconds
+     */
+    public long getSlotMillis() {
+        return slotMillis;
+    }
+
+    /**
+     * @return the number of slots
+     */
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * @return the duration of this window in milliseconds
+     */
+    public long getMillis() {
+        return slotMillis * slots;
+    }
+
+    /**
+     * @param label the short name of a window, e.g. {@code 1h}
+     * @return the window with the given name
+     * @throws IllegalArgumentException if there is no window with the given name
+     */
+    public static StatisticsWindow fromLabel(String label) {
+        for (StatisticsWindow window : values()) {
+            if (window.label.equals(label)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown window: " + label);
+    }
+}
@@ -0,0 +1,197 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.util.BuildStatistics.KeyStatistics;
+import com.continental.contifactory.joblogger.util.BuildStatistics.Snapshot;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A utility class to write {@link BuildStatistics} as JSON object or in the text format of Prometheus.
+ * Durations are written in milliseconds in JSON, and in seconds for Prometheus.
+ */
+public final class StatisticsWriter {
+    /**
+     * The content type of the Prometheus text format.
+     */
+    public static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=UTF-8";
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final double PERCENT = 100.0;
+    private static final String PREFIX = "job_logger_";
+
+    private StatisticsWriter() {
+        // avoid instantiation
+    }
+
+    /**
+     * Appends the given snapshot as one JSON object.
+     *
+     * @param sb       the string builder to append to
+     * @param snapshot the statistics of a window
+     */
+    public static void writeJson(StringBuilder sb, Snapshot snapshot) {
+        sb.append("{\"window\":");
+        JsonWriter.writeString(sb, snapshot.getWindow().getLabel());
+        sb.append(",\"from\":");
+        JsonWriter.writeString(sb, Instant.ofEpochMilli(snapshot.getFrom()).toString());
+        sb.append(",\"to\":");
+        JsonWriter.writeString(sb, Instant.ofEpochMilli(snapshot.getTo()).toString());
+        sb.append(",\"results\":");
+        writeResults(sb, snapshot.getResults());
+        sb.append(",\"jobs\":{");
+        boolean first = true;
+        for (Map.Entry<String, KeyStatistics> job : snapshot.getJobs().entrySet()) {
+            first = writeKey(sb, job.getKey(), first);
+            writeKeyStatistics(sb, job.getValue());
+            sb.append('}');
+        }
+        sb.append("},\"nodes\":{");
+        first = true;
+        for (Map.Entry<String, KeyStatistics> node : snapshot.getNodes().entrySet()) {
+            first = writeKey(sb, node.getKey(), first);
+            writeKeyStatistics(sb, node.getValue());
+            sb.append(",\"utilization\":").append(snapshot.getUtilization(node.getValue())).append('}');
+        }
+        sb.append("}}");
+    }
+
+    /**
+     * Appends the given snapshots in the text format of Prometheus, one gauge per window and job or node.
+     *
+     * @param sb        the string builder to append to
+     * @param snapshots the statistics of all windows
+     */
+    public static void writePrometheus(StringBuilder sb, List<Snapshot> snapshots) {
+        writeHeader(sb, "builds", "gauge", "Builds completed in the window, by job and result.");
+        for (Snapshot snapshot : snapshots) {
+            for (Map.Entry<String, KeyStatistics> job : snapshot.getJobs().entrySet()) {
+                writeResultSamples(sb, "builds", snapshot, "job", job.getKey(), job.getValue());
+            }
+        }
+        writeHeader(sb, "build_duration_seconds", "summary",
+                "Durations of the builds completed in the window, by job.");
+        for (Snapshot snapshot : snapshots) {
+            for (Map.Entry<String, KeyStatistics> job : snapshot.getJobs().entrySet()) {
+                writeDurationSamples(sb, "build_duration_seconds", snapshot, "job", job.getKey(), job.getValue());
+            }
+        }
+        writeHeader(sb, "node_builds", "gauge", "Builds completed in the window, by node and result.");
+        for (Snapshot snapshot : snapshots) {
+            for (Map.Entry<String, KeyStatistics> node : snapshot.getNodes().entrySet()) {
+                writeResultSamples(sb, "node_builds", snapshot, "node", node.getKey(), node.getValue());
+            }
+        }
+        writeHeader(sb, "node_build_duration_seconds", "summary",
+                "Durations of the builds completed in the window, by node.");
+        for (Snapshot snapshot : snapshots) {
+            for (Map.Entry<String, KeyStatistics> node : snapshot.getNodes().entrySet()) {
+                writeDurationSamples(sb, "node_build_duration_seconds", snapshot, "node", node.getKey(),
+                        node.getValue());
+            }
+        }
+        writeHeader(sb, "node_utilization", "gauge", "Fraction of the window the node was busy with builds.");
+        for (Snapshot snapshot : snapshots) {
+            for (Map.Entry<String, KeyStatistics> node : snapshot.getNodes().entrySet()) {
+                writeSample(sb, "node_utilization", snapshot, "node", node.getKey(), null, null,
+                        snapshot.getUtilization(node.getValue()));
+            }
+        }
+    }
+
+    private static boolean writeKey(StringBuilder sb, String key, boolean first) {
+        if (!first) {
+            sb.append(',');
+        }
+        JsonWriter.writeString(sb, key);
+        sb.append(":{");
+        return false;
+    }
+
+    private static void writeKeyStatistics(StringBuilder sb, KeyStatistics statistics) {
+        DurationHistogram durations = statistics.getDurations();
+        sb.append("\"count\":").append(statistics.getCount());
+        sb.append(",\"results\":");
+        writeResults(sb, statistics.getResults());
+        sb.append(",\"duration\":{\"count\":").append(durations.getCount());
+        for (double percentile : PERCENTILES) {
+            sb.append(",\"p").append((int) percentile).append("\":").append(durations.getValueAtPercentile(percentile));
+        }
+        sb.append(",\"max\":").append(durations.getMax()).append('}');
+    }
+
+    private static void writeResults(StringBuilder sb, Map<String, Long> results) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> result : results.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            JsonWriter.writeString(sb, result.getKey());
+            sb.append(':').append(result.getValue());
+        }
+        sb.append('}');
+    }
+
+    private static void writeHeader(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeResultSamples(StringBuilder sb, String name, Snapshot snapshot, String label,
+                                           String key, KeyStatistics statistics) {
+        for (Map.Entry<String, Long> result : statistics.getResults().entrySet()) {
+            writeSample(sb, name, snapshot, label, key, "result", result.getKey(), result.getValue());
+        }
+    }
+
+    private static void writeDurationSamples(StringBuilder sb, String name, Snapshot snapshot, String label,
+                                             String key, KeyStatistics statistics) {
+        DurationHistogram durations = statistics.getDurations();
+        if (durations.getCount() == 0) {
+            return;
+        }
+        for (double percentile : PERCENTILES) {
+            writeSample(sb, name, snapshot, label, key, "quantile", String.valueOf(percentile / PERCENT),
+                    durations.getValueAtPercentile(percentile) / MILLIS_PER_SECOND);
+        }
+        writeSample(sb, name + "_sum", snapshot, label, key, null, null, durations.getSum() / MILLIS_PER_SECOND);
+        writeSample(sb, name + "_count", snapshot, label, key, null, null, durations.getCount());
+    }
+
+    private static void writeSample(StringBuilder sb, String name, Snapshot snapshot, String label, String key,
+                                    String extraLabel, String extraValue, double value) {
+        sb.append(PREFIX).append(name).append("{window=\"").append(snapshot.getWindow().getLabel()).append("\",");
+        sb.append(label).append("=\"");
+        writeLabelValue(sb, key);
+        sb.append('"');
+        if (extraLabel != null) {
+            sb.append(',').append(extraLabel).append("=\"");
+            writeLabelValue(sb, extraValue);
+            sb.append('"');
+        }
+        sb.append("} ");
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+    }
+
+    private static void writeLabelValue(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.continental.contifactory.joblogger.util;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The values of a {@link PluginMetrics.Timer} at one point in time.
+ */
+public final class TimerStatistics {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    /**
+     * @param count      the number of measurements
+     * @param totalNanos the sum of all measurements in nanoseconds
+     * @param maxNanos   the longest measurement in nanoseconds
+     */
+    @ConstructorProperties({"count", "totalNanos", "maxNanos"})
+    public TimerStatistics(long count, long totalNanos, long maxNanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the number of measurements
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of all measurements in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the longest measurement in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return the mean of all measurements in milliseconds; or 0 if nothing was measured
+     */
+    public double getMeanMillis() {
+        return count > 0 ? totalNanos / NANOS_PER_MILLI / count : 0;
+    }
+
+    /**
+     * @return the longest measurement in milliseconds
+     */
+    public double getMaxMillis() {
+        return maxNanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,108 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.UtilizationSample;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A utility class to read the blocks of a utilization log file, written by {@link UtilizationLogWriter}.<p>
+ * A truncated or corrupt block at the end of the log file, e.g. after a crash, ends the log file.
+ */
+public final class UtilizationLogReader {
+    private static final Logger LOGGER = Logger.getLogger(UtilizationLogReader.class.getName());
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+    private static final int BYTE_MASK = 0xFF;
+
+    private UtilizationLogReader() {
+        // avoid instantiation
+    }
+
+    /**
+     * @param logFile the utilization log file
+     * @return all samples of the given log file, in the order they were written
+     * @throws IOException if the log file cannot be read
+     */
+    public static List<UtilizationSample> readAll(File logFile) throws IOException {
+        List<UtilizationSample> samples = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(UtilizationLogWriter.HEADER_SIZE);
+            while (channel.position() < channel.size()) {
+                header.clear();
+                if (!readFully(channel, header) || header.getInt(0) != UtilizationLogWriter.BLOCK_MAGIC) {
+                    LOGGER.warning("Incomplete block at the end of utilization log file: " + logFile);
+                    break;
+                }
+                int bodyLength = header.getInt(Integer.BYTES);
+                int sampleCount = header.getInt(2 * Integer.BYTES);
+                long time = header.getLong(3 * Integer.BYTES);
+                if (bodyLength < 0 || bodyLength > channel.size() - channel.position()) {
+                    LOGGER.warning("Incomplete block at the end of utilization log file: " + logFile);
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(bodyLength);
+                readFully(channel, body);
+                body.flip();
+                decodeBlock(body, sampleCount, time, samples);
+            }
+        }
+        return samples;
+    }
+
+    private static void decodeBlock(ByteBuffer body, int sampleCount, long firstTime,
+                                    List<UtilizationSample> samples) {
+        String[] dictionary = new String[(int) readVarLong(body)];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] value = new byte[(int) readVarLong(body)];
+            body.get(value);
+            dictionary[i] = new String(value, StandardCharsets.UTF_8);
+        }
+
+        long time = firstTime;
+        for (int i = 0; i < sampleCount; i++) {
+            long delta = readVarLong(body);
+            time += (delta >>> 1) ^ -(delta & 1);
+            int queueLength = (int) readVarLong(body);
+            int nodeCount = (int) readVarLong(body);
+            String[] nodeNames = new String[nodeCount];
+            int[] busy = new int[nodeCount];
+            int[] idle = new int[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                nodeNames[node] = dictionary[(int) readVarLong(body)];
+                busy[node] = (int) readVarLong(body);
+                idle[node] = (int) readVarLong(body);
+            }
+            samples.add(new UtilizationSample(time, queueLength, nodeNames, busy, idle));
+        }
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get() & BYTE_MASK;
+            value |= (long) (b & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        } while ((b & VARINT_MORE) != 0);
+        return value;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
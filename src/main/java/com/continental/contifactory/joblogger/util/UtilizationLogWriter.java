@@ -0,0 +1,157 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.UtilizationSample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A utility class to write {@link UtilizationSample}s to a compact time series file.<p>
+ * The file is a sequence of blocks, one per write. Every block starts with a header, followed by a dictionary of
+ * the node names in the block and the samples:
+ * <pre>
+ * header:     int magic, int body length, int sample count, long time of the first sample
+ * dictionary: varint size, size x (varint length, UTF-8 bytes)
+ * samples:    varint time delta, varint queue length, varint node count,
+ *             node count x (varint node index, varint busy executors, varint idle executors)
+ * </pre>
+ * The time of a sample is stored as difference to the previous sample in milliseconds (zigzag encoded, the first
+ * sample has a difference of 0), all numbers of the body as unsigned variable length integers with 7 bits per byte.
+ * With a fixed sample interval, a node takes about 3 bytes per sample.
+ *
+ * @see UtilizationLogReader
+ */
+public final class UtilizationLogWriter {
+    /**
+     * Magic number at the start of each block.
+     */
+    public static final int BLOCK_MAGIC = 0x4A4C5542; // "JLUB"
+    /**
+     * Size of a block header in bytes.
+     */
+    public static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+
+    private static final Logger LOGGER = Logger.getLogger(UtilizationLogWriter.class.getName());
+    private static final String LOG_FILE_EXT = ".jlu";
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+
+    private static final AppendingLogFile LOG_FILE = new AppendingLogFile("utilization log file");
+
+    private UtilizationLogWriter() {
+        // avoid instantiation
+    }
+
+    /**
+     * @return the file extension of utilization log files
+     */
+    public static String getLogFileExtension() {
+        return LOG_FILE_EXT;
+    }
+
+    /**
+     * Appends the given samples to the given utilization log file, in one block.<p>
+     * If the log file exceed the maximum size or rotation period, it is archived like the CSV log file.
+     *
+     * @param logFile the utilization log file
+     * @param samples the samples to be logged, oldest first
+     */
+    public static synchronized void logSamples(File logFile, List<UtilizationSample> samples) {
+        if (logFile == null) {
+            LOGGER.fine("Utilization log file cannot be null!");
+            return;
+        }
+        if (samples.isEmpty()) {
+            return;
+        }
+
+        try {
+            LOG_FILE.open(logFile);
+            LOG_FILE.rotate(logFile, LOG_FILE_EXT);
+
+            LOG_FILE.write(encodeBlock(samples));
+        } catch (IOException e) {
+            LOGGER.severe("IOException during writing utilization log file: " + e.getMessage());
+            closeLogFile();
+        }
+    }
+
+    /**
+     * Closes the utilization log file if it is still open from a previous write.
+     */
+    public static synchronized void closeLogFile() {
+        LOG_FILE.close();
+    }
+
+    /**
+     * @param samples at least one sample, oldest first
+     * @return a buffer with the encoded block, ready to be written
+     */
+    static ByteBuffer encodeBlock(List<UtilizationSample> samples) {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> dictionary = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        long previousTime = samples.get(0).getTime();
+        for (UtilizationSample sample : samples) {
+            writeVarLong(body, zigzag(sample.getTime() - previousTime));
+            previousTime = sample.getTime();
+            writeVarLong(body, sample.getQueueLength());
+            writeVarLong(body, sample.getNodeCount());
+            for (int node = 0; node < sample.getNodeCount(); node++) {
+                writeVarLong(body, index(indexes, dictionary, sample.getNodeName(node)));
+                writeVarLong(body, sample.getBusyExecutors(node));
+                writeVarLong(body, sample.getIdleExecutors(node));
+            }
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeVarLong(header, dictionary.size());
+        for (byte[] value : dictionary) {
+            writeVarLong(header, value.length);
+            header.write(value, 0, value.length);
+        }
+
+        int bodyLength = header.size() + body.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodyLength);
+        buffer.putInt(BLOCK_MAGIC);
+        buffer.putInt(bodyLength);
+        buffer.putInt(samples.size());
+        buffer.putLong(samples.get(0).getTime());
+        buffer.put(header.toByteArray());
+        buffer.put(body.toByteArray());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int index(Map<String, Integer> indexes, List<byte[]> dictionary, String value) {
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            indexes.put(value, index);
+            dictionary.add(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        long rest = value;
+        while ((rest & ~VARINT_MASK) != 0) {
+            out.write((int) (rest & VARINT_MASK) | VARINT_MORE);
+            rest >>>= VARINT_BITS;
+        }
+        out.write((int) rest);
+    }
+}
@@ -0,0 +1,117 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.UtilizationSample;
+import hudson.model.Computer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects {@link UtilizationSample}s and writes them in batches to the utilization log file.<p>
+ * Samples are kept in memory until {@value #BATCH_SIZE} samples are collected or the oldest sample is older than
+ * {@link #MAX_BATCH_AGE}, so the log file is written about once a minute instead of on every sample.
+ *
+ * @see UtilizationLogWriter
+ */
+public class UtilizationSampler {
+    /**
+     * Maximum number of samples written in one block.
+     */
+    public static final int BATCH_SIZE = 60;
+    /**
+     * Maximum time in ms a sample is kept in memory before it is written.
+     */
+    public static final long MAX_BATCH_AGE = 60000;
+
+    private static UtilizationSampler instance = new UtilizationSampler();
+
+    private final List<UtilizationSample> samples = new ArrayList<>();
+    private long lastSampleTime = Long.MIN_VALUE;
+
+    /**
+     * @return the utilization sampler of this plugin
+     */
+    public static UtilizationSampler getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param now      the current time, in epoch milliseconds
+     * @param interval the sample interval in ms
+     * @return true if the sample interval is over since the last sample
+     */
+    public synchronized boolean isSampleDue(long now, long interval) {
+        return lastSampleTime == Long.MIN_VALUE || now - lastSampleTime >= interval;
+    }
+
+    /**
+     * Takes a sample of the given computers. The computers are read without locking the build queue, the counts
+     * are only as consistent as the executors of each computer at the time they are read.
+     *
+     * @param computers   the computers of Jenkins
+     * @param queueLength the number of items in the build queue
+     * @param now         the current time, in epoch milliseconds
+     */
+    public synchronized void sample(Computer[] computers, int queueLength, long now) {
+        lastSampleTime = now;
+        samples.add(snapshot(computers, queueLength, now));
+    }
+
+    /**
+     * @param now the current time, in epoch milliseconds
+     * @return true if the collected samples should be written
+     */
+    public synchronized boolean isFlushDue(long now) {
+        return samples.size() >= BATCH_SIZE || !samples.isEmpty() && now - samples.get(0).getTime() >= MAX_BATCH_AGE;
+    }
+
+    /**
+     * Writes all collected samples to the given utilization log file.
+     *
+     * @param logFile the utilization log file
+     */
+    public void flush(File logFile) {
+        List<UtilizationSample> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(samples);
+            samples.clear();
+        }
+        UtilizationLogWriter.logSamples(logFile, batch);
+    }
+
+    /**
+     * @return the number of collected samples which are not written yet
+     */
+    public synchronized int size() {
+        return samples.size();
+    }
+
+    /**
+     * Drops all collected samples, the next call of {@link #isSampleDue(long, long)} is true.
+     */
+    public synchronized void clear() {
+        samples.clear();
+        lastSampleTime = Long.MIN_VALUE;
+    }
+
+    /**
+     * @param computers   the computers of Jenkins
+     * @param queueLength the number of items in the build queue
+     * @param now         the current time, in epoch milliseconds
+     * @return a sample of the busy and idle executors of the given computers
+     */
+    static UtilizationSample snapshot(Computer[] computers, int queueLength, long now) {
+        String[] nodeNames = new String[computers.length];
+        int[] busy = new int[computers.length];
+        int[] idle = new int[computers.length];
+        for (int i = 0; i < computers.length; i++) {
+            Computer computer = computers[i];
+            nodeNames[i] = computer.getDisplayName();
+            busy[i] = computer.countBusy();
+            // executors of an offline node cannot take builds, so they are not idle
+            idle[i] = computer.isOnline() ? Math.max(computer.countExecutors() - busy[i], 0) : 0;
+        }
+        return new UtilizationSample(now, queueLength, nodeNames, busy, idle);
+    }
+}
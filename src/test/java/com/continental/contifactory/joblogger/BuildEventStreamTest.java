@@ -0,0 +1,142 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class BuildEventStreamTest {
+    private static final int CAPACITY = 4;
+    private static final long TIMEOUT = 5000;
+
+    private final BuildEventStream stream = new BuildEventStream(CAPACITY, 2);
+
+    private static JobStatus getJobStatus(int jobNumber) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("testJob");
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setBuildResult("SUCCESS");
+        return jobStatus;
+    }
+
+    private static String getResponse(ServletOutputStream out) throws Exception {
+        ArgumentCaptor<byte[]> bytes = ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(out, Mockito.timeout(TIMEOUT)).write(bytes.capture());
+        return new String(bytes.getValue(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void read_EventsAfterSequence() {
+        for (int i = 1; i <= 3; i++) {
+            stream.publish(getJobStatus(i));
+        }
+
+        BuildEventStream.Batch batch = stream.read(1, 10);
+
+        assertThat(batch.getEvents(), hasSize(2));
+        assertThat(batch.getEvents().get(0), startsWith("{\"sequence\":2,\"jobName\":\"testJob\",\"jobNumber\":2,"));
+        assertThat(batch.getSequence(), is(3L));
+        assertThat(batch.getDropped(), is(0L));
+        assertThat(stream.read(0, 1).getSequence(), is(1L));
+        assertThat(stream.read(3, 10).getEvents(), is(empty()));
+        assertThat(stream.read(3, 10).getSequence(), is(3L));
+    }
+
+    @Test
+    public void read_FellBehind_Dropped() {
+        for (int i = 1; i <= 10; i++) {
+            stream.publish(getJobStatus(i));
+        }
+
+        BuildEventStream.Batch batch = stream.read(2, 10);
+
+        assertThat(batch.getEvents(), hasSize(CAPACITY));
+        assertThat(batch.getEvents().get(0), startsWith("{\"sequence\":7,"));
+        assertThat(batch.getDropped(), is(4L));
+        assertThat(batch.isReset(), is(false));
+    }
+
+    @Test
+    public void read_SequenceAfterNewest_Reset() {
+        stream.publish(getJobStatus(1));
+
+        BuildEventStream.Batch batch = stream.read(42, 10);
+
+        assertThat(batch.isReset(), is(true));
+        assertThat(batch.getEvents(), hasSize(1));
+        assertThat(batch.getSequence(), is(1L));
+        assertThat(BuildEventStream.toJson(batch), startsWith("{\"sequence\":1,\"dropped\":0,\"reset\":true,"
+                + "\"events\":[{\"sequence\":1,"));
+    }
+
+    @Test
+    public void poll_Async_AnsweredWhenPublished() throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        AsyncContext context = Mockito.mock(AsyncContext.class);
+        ServletResponse asyncResponse = Mockito.mock(ServletResponse.class);
+        ServletOutputStream out = Mockito.mock(ServletOutputStream.class);
+        Mockito.when(request.isAsyncSupported()).thenReturn(true);
+        Mockito.when(request.startAsync()).thenReturn(context);
+        Mockito.when(context.getResponse()).thenReturn(asyncResponse);
+        Mockito.when(asyncResponse.getOutputStream()).thenReturn(out);
+
+        stream.poll(request, Mockito.mock(HttpServletResponse.class), 0, 10, TIMEOUT);
+
+        assertThat(stream.getWaiterCount(), is(1));
+        Mockito.verify(context).setTimeout(TIMEOUT);
+        Mockito.verify(out, Mockito.never()).write(Mockito.any(byte[].class));
+
+        stream.publish(getJobStatus(1));
+
+        assertThat(getResponse(out), startsWith("{\"sequence\":1,\"dropped\":0,\"reset\":false,\"events\":[{"));
+        Mockito.verify(context, Mockito.timeout(TIMEOUT)).complete();
+        assertThat(stream.getWaiterCount(), is(0));
+    }
+
+    @Test
+    public void poll_TooManyWaiters_Unavailable() throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.isAsyncSupported()).thenReturn(true);
+        Mockito.when(request.startAsync()).thenReturn(Mockito.mock(AsyncContext.class));
+        stream.poll(request, Mockito.mock(HttpServletResponse.class), 0, 10, TIMEOUT);
+        stream.poll(request, Mockito.mock(HttpServletResponse.class), 0, 10, TIMEOUT);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        stream.poll(request, response, 0, 10, TIMEOUT);
+
+        Mockito.verify(response).sendError(Mockito.eq(HttpServletResponse.SC_SERVICE_UNAVAILABLE),
+                Mockito.anyString());
+        assertThat(stream.getWaiterCount(), is(2));
+    }
+
+    @Test
+    public void poll_NoAsyncSupport_WaitsForEvent() throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        ServletOutputStream out = Mockito.mock(ServletOutputStream.class);
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Thread poller = new Thread(() -> {
+            try {
+                stream.poll(request, response, 0, 10, TIMEOUT);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        poller.start();
+
+        stream.publish(getJobStatus(1));
+        poller.join(TIMEOUT);
+
+        assertThat(getResponse(out), containsString("\"events\":[{\"sequence\":1,"));
+    }
+}
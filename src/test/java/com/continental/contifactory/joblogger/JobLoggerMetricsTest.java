@@ -0,0 +1,55 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.util.PluginMetrics;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobLoggerMetricsTest {
+
+    @After
+    public void tearDown() {
+        JobLoggerMetrics.unregister();
+        PluginMetrics.setEnabled(false);
+        PluginMetrics.reset();
+    }
+
+    @Test
+    public void register() throws Exception {
+        PluginMetrics.setEnabled(true);
+        PluginMetrics.stop(PluginMetrics.Timer.ON_COMPLETED, PluginMetrics.start());
+        JobLoggerMetrics.register();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(JobLoggerMetrics.OBJECT_NAME);
+        assertThat(server.getAttribute(name, "Enabled"), is((Object) true));
+        TabularData timers = (TabularData) server.getAttribute(name, "Timers");
+        CompositeData onCompleted = (CompositeData) timers.get(new Object[]{"onCompleted"}).get("value");
+        assertThat(onCompleted.get("count"), is((Object) 1L));
+        assertThat(server.getAttribute(name, "JobStatusCacheSize"), is((Object) 0));
+
+        server.invoke(name, "reset", null, null);
+        assertThat(PluginMetrics.getStatistics(PluginMetrics.Timer.ON_COMPLETED).getCount(), is(0L));
+    }
+
+    @Test
+    public void writeText() {
+        PluginMetrics.setEnabled(true);
+        PluginMetrics.addNodeNameBytesScanned(1024);
+
+        StringBuilder sb = new StringBuilder();
+        JobLoggerMetrics.getInstance().writeText(sb);
+
+        assertThat(sb.toString(), allOf(startsWith("enabled true\n"),
+                containsString("timer onStarted count=0 mean=0.000ms max=0.000ms\n"),
+                containsString("nodeNameBytesScanned 1024\n"), containsString("jobStatusCache size=0")));
+    }
+}
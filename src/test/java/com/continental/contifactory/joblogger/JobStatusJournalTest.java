@@ -0,0 +1,150 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobStatusJournalTest {
+    private static final long MAX_AGE = TimeUnit.DAYS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File journalFile;
+
+    @Before
+    public void setUp() {
+        journalFile = new File(temp.getRoot(), JobStatusJournal.JOURNAL_FILE_NAME);
+    }
+
+    private static JobStatus getJobStatus(String jobName, int jobNumber, String cause) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setStartDate(new Date());
+        jobStatus.setBuildCause(cause);
+        jobStatus.setConsoleUrl("http://jenkins/job/" + jobName + "/" + jobNumber + "/console");
+        return jobStatus;
+    }
+
+    @Test
+    public void replay_StartedBuilds_Restored() throws Exception {
+        JobStatusJournal journal = new JobStatusJournal(journalFile);
+        JobStatus jobStatus = getJobStatus("folder/job", 42, "Started by user\tadmin\nwith \\ backslash");
+        journal.started("folder/job#42", jobStatus);
+        journal.started("folder/job#43", getJobStatus("folder/job", 43, "timer"));
+        journal.completed("folder/job#43");
+        journal.stop();
+
+        Map<String, JobStatus> replayed = new JobStatusJournal(journalFile).replay(MAX_AGE);
+
+        assertThat(replayed.keySet(), contains("folder/job#42"));
+        JobStatus restored = replayed.get("folder/job#42");
+        assertThat(restored.getJobName(), is("folder/job"));
+        assertThat(restored.getJobNumber(), is(42));
+        assertThat(restored.getStartDate(), is(jobStatus.getStartDate()));
+        assertThat(restored.getBuildCause(), is(jobStatus.getBuildCause()));
+        assertThat(restored.getConsoleUrl(), is(jobStatus.getConsoleUrl()));
+        assertThat(restored.isNodeNamesCaptured(), is(false));
+    }
+
+    @Test
+    public void replay_QueueTimes_Restored() throws Exception {
+        JobStatusJournal journal = new JobStatusJournal(journalFile);
+        JobStatus jobStatus = getJobStatus("job", 1, "timer");
+        jobStatus.setQueueDate(new Date(jobStatus.getStartDate().getTime() - 2000));
+        jobStatus.setLeftQueueDate(new Date(jobStatus.getStartDate().getTime() - 1000));
+        jobStatus.setLabel("linux && docker");
+        jobStatus.setExecutor(3);
+        journal.started("job#1", jobStatus);
+        journal.started("job#2", getJobStatus("job", 2, "timer"));
+        journal.stop();
+
+        Map<String, JobStatus> replayed = new JobStatusJournal(journalFile).replay(MAX_AGE);
+
+        JobStatus restored = replayed.get("job#1");
+        assertThat(restored.getQueueDate(), is(jobStatus.getQueueDate()));
+        assertThat(restored.getLeftQueueDate(), is(jobStatus.getLeftQueueDate()));
+        assertThat(restored.getLabel(), is("linux && docker"));
+        assertThat(restored.getExecutor(), is(3));
+        JobStatus withoutQueueTime = replayed.get("job#2");
+        assertThat(withoutQueueTime.getQueueDate(), is(nullValue()));
+        assertThat(withoutQueueTime.getLabel(), is(nullValue()));
+        assertThat(withoutQueueTime.getExecutor(), is(nullValue()));
+    }
+
+    @Test
+    public void replay_NodeNames_Restored() throws Exception {
+        JobStatusJournal journal = new JobStatusJournal(journalFile);
+        journal.started("pipeline#1", getJobStatus("pipeline", 1, "timer"));
+        journal.nodeAdded("pipeline#1", "master");
+        journal.nodeAdded("pipeline#1", "agent\t1");
+        journal.started("pipeline#2", getJobStatus("pipeline", 2, "timer"));
+        journal.nodeAdded("pipeline#3", "agent");
+        journal.stop();
+
+        Map<String, JobStatus> replayed = new JobStatusJournal(journalFile).replay(MAX_AGE);
+        Map<String, JobStatus> replayedAgain = new JobStatusJournal(journalFile).replay(MAX_AGE);
+
+        assertThat(replayed.keySet(), contains("pipeline#1", "pipeline#2"));
+        assertThat(replayed.get("pipeline#1").getNodeNames(), contains("master", "agent\t1"));
+        assertThat(replayed.get("pipeline#1").isNodeNamesCaptured(), is(true));
+        assertThat(replayed.get("pipeline#2").getNodeNames(), is(nullValue()));
+        assertThat(replayed.get("pipeline#2").isNodeNamesCaptured(), is(false));
+        assertThat(replayedAgain.get("pipeline#1").getNodeNames(), contains("master", "agent\t1"));
+    }
+
+    @Test
+    public void replay_JournalCompacted() throws Exception {
+        JobStatusJournal journal = new JobStatusJournal(journalFile);
+        for (int i = 1; i <= 10; i++) {
+            journal.started("job#" + i, getJobStatus("job", i, "timer"));
+            if (i % 2 == 0) {
+                journal.completed("job#" + i);
+            }
+        }
+        journal.stop();
+        assertThat(FileUtils.readLines(journalFile), hasSize(15));
+
+        Map<String, JobStatus> replayed = new JobStatusJournal(journalFile).replay(MAX_AGE);
+
+        assertThat(replayed.keySet(), contains("job#1", "job#3", "job#5", "job#7", "job#9"));
+        assertThat(FileUtils.readLines(journalFile), hasSize(5));
+    }
+
+    @Test
+    public void replay_OldAndInvalidRecords_Dropped() throws Exception {
+        long old = System.currentTimeMillis() - 2 * MAX_AGE;
+        FileUtils.writeStringToFile(journalFile, "S\tjob#1\tjob\t1\t" + old + "\ttimer\turl\n"
+                + "S\tjob#2\tjob\tinvalid\n"
+                + "S\tjob#3\tjob\t3\t" + System.currentTimeMillis() + "\ttimer\turl\n"
+                + "S\tjob#4\tjob\t4\t12", "UTF-8");
+
+        Map<String, JobStatus> replayed = new JobStatusJournal(journalFile).replay(MAX_AGE);
+
+        assertThat(replayed.keySet(), contains("job#3"));
+    }
+
+    @Test
+    public void clear_AllRecordsRemoved() throws Exception {
+        JobStatusJournal journal = new JobStatusJournal(journalFile);
+        journal.started("job#1", getJobStatus("job", 1, "timer"));
+        journal.clear();
+        journal.started("job#2", getJobStatus("job", 2, "timer"));
+        journal.stop();
+
+        Map<String, JobStatus> replayed = new JobStatusJournal(journalFile).replay(MAX_AGE);
+
+        assertThat(replayed.keySet(), contains("job#2"));
+    }
+}
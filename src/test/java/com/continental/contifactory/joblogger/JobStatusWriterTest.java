@@ -0,0 +1,136 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.model.StageStatus;
+import com.continental.contifactory.joblogger.sinks.BinarySink;
+import com.continental.contifactory.joblogger.sinks.CsvSink;
+import com.continental.contifactory.joblogger.sinks.JobStatusSink;
+import com.continental.contifactory.joblogger.sinks.StageSink;
+import com.continental.contifactory.joblogger.util.LogFormat;
+import com.continental.contifactory.joblogger.util.PipelineTiming;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class, JobStatusSink.class})
+public class JobStatusWriterTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File csvLogFile;
+    private File stageLogFile;
+    private JobStatusWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        csvLogFile = new File(temp.getRoot(), "job_logger.csv");
+        stageLogFile = new File(temp.getRoot(), "job_logger.stages");
+        JobLoggerPluginConfiguration config = PowerMockito.mock(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(config.getCsvLogFile()).thenReturn(csvLogFile);
+        PowerMockito.when(config.getLogFile(LogFormat.CSV)).thenReturn(csvLogFile);
+        PowerMockito.when(config.getLogFile(LogFormat.STAGES)).thenReturn(stageLogFile);
+        PowerMockito.when(config.getPipelineTiming()).thenReturn(PipelineTiming.STAGES);
+        PowerMockito.when(config.getMaxLogFileSize()).thenReturn(1.0);
+        PowerMockito.when(config.getWriterBatchSize()).thenReturn(10);
+        PowerMockito.when(config.getWriterFlushInterval()).thenReturn(50L);
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.get()).thenReturn(config);
+        PowerMockito.mockStatic(JobStatusSink.class);
+        PowerMockito.when(JobStatusSink.all()).thenReturn(Collections.singletonList(new CsvSink()));
+        writer = new JobStatusWriter(temp.newFolder("spill"));
+    }
+
+    @After
+    public void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    public void submit_StopWritesAllQueuedJobStatus() throws Exception {
+        for (int i = 1; i <= 25; i++) {
+            JobStatus jobStatus = new JobStatus();
+            jobStatus.setJobName("testJob");
+            jobStatus.setJobNumber(i);
+            writer.submit(jobStatus);
+        }
+
+        writer.stop();
+
+        List<String> lines = FileUtils.readLines(csvLogFile);
+        assertThat(lines, hasSize(26));
+        assertThat(lines.get(1), startsWith("testJob;1;"));
+        assertThat(lines.get(25), startsWith("testJob;25;"));
+        assertThat(writer.getQueueSize(), is(0));
+    }
+
+    @Test
+    public void submit_StageStatusOnlyWrittenToStageSink() throws Exception {
+        PowerMockito.when(JobStatusSink.all()).thenReturn(Arrays.asList(new CsvSink(), new StageSink()));
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("testJob");
+        StageStatus stage = new StageStatus();
+        stage.setJobName("testJob");
+        stage.setType(StageStatus.Type.STAGE);
+        stage.setStageName("Build");
+        writer.submit(jobStatus);
+        writer.submit(stage);
+
+        writer.stop();
+
+        List<String> lines = FileUtils.readLines(csvLogFile);
+        assertThat(lines, hasSize(2));
+        lines = FileUtils.readLines(stageLogFile);
+        assertThat(lines, hasSize(2));
+        assertThat(lines.get(0), startsWith("JobName;JobNumber;Id;ParentId;Type;Name;"));
+        assertThat(lines.get(1), startsWith("testJob;0;;;STAGE;Build;"));
+    }
+
+    @Test
+    public void submit_WrittenWithinFlushInterval() throws Exception {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("testJob");
+        writer.submit(jobStatus);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((!csvLogFile.exists() || FileUtils.readLines(csvLogFile).size() < 2)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(FileUtils.readLines(csvLogFile), hasItem(startsWith("testJob;0;;;;;;;;;;;1;")));
+    }
+
+    @Test
+    public void submit_OnlyEnabledSinksWritten() throws Exception {
+        File binaryLogFile = new File(temp.getRoot(), "job_logger.jlb");
+        JobLoggerPluginConfiguration config = JobLoggerPluginConfiguration.get();
+        PowerMockito.when(config.getLogFile(LogFormat.BINARY)).thenReturn(binaryLogFile);
+        PowerMockito.when(config.isBinaryLogEnabled()).thenReturn(false);
+        PowerMockito.when(JobStatusSink.all()).thenReturn(Arrays.asList(new CsvSink(), new BinarySink()));
+
+        writer.submit(new JobStatus());
+        assertThat(writer.getQueues(), hasSize(1));
+
+        PowerMockito.when(config.isBinaryLogEnabled()).thenReturn(true);
+        writer.submit(new JobStatus());
+        writer.stop();
+
+        assertThat(FileUtils.readLines(csvLogFile), hasSize(3));
+        assertThat(binaryLogFile.exists(), is(true));
+    }
+}
@@ -0,0 +1,51 @@
+package com.continental.contifactory.joblogger;
+
+import com.continental.contifactory.joblogger.QueueTimeCache.QueueTime;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class QueueTimeCacheTest {
+    private static final long TIME_TO_LIVE = 1000;
+
+    @Test
+    public void remove_QueueTimeRemoved() {
+        QueueTimeCache cache = new QueueTimeCache(10, TIME_TO_LIVE);
+        cache.put(1, new QueueTime(100, 200, "linux"));
+
+        QueueTime queueTime = cache.remove(1);
+
+        assertThat(queueTime.getQueueTime(), is(100L));
+        assertThat(queueTime.getLeftTime(), is(200L));
+        assertThat(queueTime.getLabel(), is("linux"));
+        assertThat(cache.remove(1), is(nullValue()));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void put_Full_StaleQueueTimesEvicted() {
+        QueueTimeCache cache = new QueueTimeCache(2, TIME_TO_LIVE);
+        cache.put(1, new QueueTime(0, 0, null));
+        cache.put(2, new QueueTime(0, 500, null));
+
+        cache.put(3, new QueueTime(0, 1200, null));
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.remove(1), is(nullValue()));
+        assertThat(cache.remove(2), is(notNullValue()));
+        assertThat(cache.remove(3), is(notNullValue()));
+    }
+
+    @Test
+    public void put_FullWithoutStaleQueueTimes_NotCached() {
+        QueueTimeCache cache = new QueueTimeCache(2, TIME_TO_LIVE);
+        cache.put(1, new QueueTime(0, 100, null));
+        cache.put(2, new QueueTime(0, 200, null));
+
+        cache.put(3, new QueueTime(0, 300, null));
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.remove(3), is(nullValue()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.continental.contifactory.joblogger.action;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ActionUtilTest {
+
+    @Test
+    public void parseTime_EpochMillisAndIso() {
+        assertThat(ActionUtil.parseTime(null, 42L), is(42L));
+        assertThat(ActionUtil.parseTime("1520434868000", 0L), is(1520434868000L));
+        assertThat(ActionUtil.parseTime("2018-03-07T15:01:08Z", 0L), is(1520434868000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseTime_Invalid() {
+        ActionUtil.parseTime("yesterday", 0L);
+    }
+
+    @Test
+    public void parseLimit() {
+        assertThat(ActionUtil.parseLimit(null), is(100));
+        assertThat(ActionUtil.parseLimit("5"), is(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseLimit_TooLarge() {
+        ActionUtil.parseLimit("100000");
+    }
+}
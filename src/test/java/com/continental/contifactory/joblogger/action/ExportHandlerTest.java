@@ -0,0 +1,37 @@
+package com.continental.contifactory.joblogger.action;
+
+import com.continental.contifactory.joblogger.util.ExportFormat;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ExportHandlerTest {
+
+    @Test
+    public void parseFormat() {
+        assertThat(ExportHandler.parseFormat(null), is(ExportFormat.CSV));
+        assertThat(ExportHandler.parseFormat("ndjson"), is(ExportFormat.NDJSON));
+    }
+
+    @Test
+    public void parseRange() {
+        assertThat(ExportHandler.parseRange(null, 1000), is(nullValue()));
+        assertThat(ExportHandler.parseRange("bytes=0-99", 1000), is(new long[]{0, 100}));
+        assertThat(ExportHandler.parseRange("bytes=100-", 1000), is(new long[]{100, 1000}));
+        assertThat(ExportHandler.parseRange("bytes=-10", 1000), is(new long[]{990, 1000}));
+        assertThat(ExportHandler.parseRange("bytes=0-5000", 1000), is(new long[]{0, 1000}));
+        assertThat(ExportHandler.parseRange("bytes=1000-", 1000), is(new long[0]));
+        assertThat(ExportHandler.parseRange("bytes=5-2", 1000), is(nullValue()));
+        assertThat(ExportHandler.parseRange("bytes=1-2,4-5", 1000), is(nullValue()));
+    }
+
+    @Test
+    public void acceptsGzip() {
+        assertThat(ExportHandler.acceptsGzip(null), is(false));
+        assertThat(ExportHandler.acceptsGzip("deflate, gzip;q=1.0"), is(true));
+        assertThat(ExportHandler.acceptsGzip("br, GZIP ;q=0.5"), is(true));
+        assertThat(ExportHandler.acceptsGzip("gzip;q=0"), is(false));
+        assertThat(ExportHandler.acceptsGzip("identity"), is(false));
+    }
+}
@@ -0,0 +1,147 @@
+package com.continental.contifactory.joblogger.listeners;
+
+import com.continental.contifactory.joblogger.model.StageStatus;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.workflow.actions.ErrorAction;
+import org.jenkinsci.plugins.workflow.actions.LabelAction;
+import org.jenkinsci.plugins.workflow.actions.ThreadNameAction;
+import org.jenkinsci.plugins.workflow.actions.WorkspaceAction;
+import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.powermock.api.mockito.PowerMockito.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Jenkins.class})
+public class PipelineTimingListenerTest {
+    private PipelineTimingListener.BuildTiming build;
+    private int nextId;
+
+    @Before
+    public void setUp() {
+        mockStatic(Jenkins.class);
+        when(Jenkins.getInstance()).thenReturn(null);
+        build = new PipelineTimingListener.BuildTiming("testJob", 7);
+    }
+
+    private <T extends FlowNode> T mockNode(Class<T> type, FlowNode parent, List<BlockStartNode> enclosing) {
+        T node = mock(type);
+        when(node.getId()).thenReturn(String.valueOf(++nextId));
+        when(node.getParents()).thenReturn(parent != null ? Collections.singletonList(parent)
+                : Collections.emptyList());
+        doReturn(enclosing).when(node).getEnclosingBlocks();
+        return node;
+    }
+
+    private BlockStartNode mockStage(FlowNode parent, List<BlockStartNode> enclosing, String name) {
+        BlockStartNode stage = mockNode(BlockStartNode.class, parent, enclosing);
+        LabelAction label = mock(LabelAction.class);
+        when(label.getDisplayName()).thenReturn(name);
+        when(stage.getAction(LabelAction.class)).thenReturn(label);
+        return stage;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BlockEndNode<BlockStartNode> mockEnd(BlockStartNode start, FlowNode parent) {
+        BlockEndNode<BlockStartNode> end = mockNode(BlockEndNode.class, parent, Collections.emptyList());
+        when(end.getStartNode()).thenReturn(start);
+        return end;
+    }
+
+    private static List<BlockStartNode> enclosing(BlockStartNode... blocks) {
+        return new ArrayList<>(Arrays.asList(blocks));
+    }
+
+    @Test
+    public void onNewHead_Stage() {
+        BlockStartNode nodeStep = mockNode(BlockStartNode.class, null, enclosing());
+        WorkspaceAction workspace = mock(WorkspaceAction.class);
+        when(workspace.getNode()).thenReturn("slave1");
+        when(nodeStep.getAction(WorkspaceAction.class)).thenReturn(workspace);
+        BlockStartNode stage = mockStage(nodeStep, enclosing(nodeStep), "Build");
+        FlowNode step = mockNode(FlowNode.class, stage, enclosing(stage, nodeStep));
+        when(step.getDisplayFunctionName()).thenReturn("sh");
+        BlockEndNode<BlockStartNode> end = mockEnd(stage, step);
+
+        assertThat(build.onNewHead(nodeStep, false), empty());
+        assertThat(build.onNewHead(stage, false), empty());
+        assertThat(build.onNewHead(step, false), empty());
+        assertThat(build.getOpenCount(), is(1));
+        List<StageStatus> completed = build.onNewHead(end, false);
+
+        assertThat(completed, hasSize(1));
+        StageStatus status = completed.get(0);
+        assertThat(status.getJobName(), is("testJob"));
+        assertThat(status.getJobNumber(), is(7));
+        assertThat(status.getType(), is(StageStatus.Type.STAGE));
+        assertThat(status.getStageName(), is("Build"));
+        assertThat(status.getId(), is(stage.getId()));
+        assertThat(status.getParentId(), nullValue());
+        assertThat(status.getBuildResult(), is("SUCCESS"));
+        assertThat(status.getNodeNames(), contains("slave1"));
+        assertThat(status.getDuration(), greaterThanOrEqualTo(0L));
+        assertThat(build.getOpenCount(), is(0));
+    }
+
+    @Test
+    public void onNewHead_StepsAndBranches() {
+        BlockStartNode stage = mockStage(null, enclosing(), "Test");
+        BlockStartNode branch = mockNode(BlockStartNode.class, stage, enclosing(stage));
+        ThreadNameAction thread = mock(ThreadNameAction.class);
+        when(thread.getThreadName()).thenReturn("linux");
+        when(branch.getAction(ThreadNameAction.class)).thenReturn(thread);
+        FlowNode step = mockNode(FlowNode.class, branch, enclosing(branch, stage));
+        when(step.getDisplayFunctionName()).thenReturn("sh");
+        when(step.getAction(ErrorAction.class)).thenReturn(mock(ErrorAction.class));
+        BlockEndNode<BlockStartNode> branchEnd = mockEnd(branch, step);
+        when(branchEnd.getAction(ErrorAction.class)).thenReturn(mock(ErrorAction.class));
+        BlockEndNode<BlockStartNode> stageEnd = mockEnd(stage, branchEnd);
+
+        build.onNewHead(stage, true);
+        build.onNewHead(branch, true);
+        build.onNewHead(step, true);
+        assertThat(build.getOpenCount(), is(3));
+        List<StageStatus> completed = build.onNewHead(branchEnd, true);
+        completed.addAll(build.onNewHead(stageEnd, true));
+
+        assertThat(completed, hasSize(3));
+        assertThat(completed.get(0).getType(), is(StageStatus.Type.STEP));
+        assertThat(completed.get(0).getStageName(), is("sh"));
+        assertThat(completed.get(0).getParentId(), is(branch.getId()));
+        assertThat(completed.get(0).getBuildResult(), is("FAILURE"));
+        assertThat(completed.get(1).getType(), is(StageStatus.Type.BRANCH));
+        assertThat(completed.get(1).getStageName(), is("linux"));
+        assertThat(completed.get(1).getParentId(), is(stage.getId()));
+        assertThat(completed.get(1).getBuildResult(), is("FAILURE"));
+        assertThat(completed.get(2).getType(), is(StageStatus.Type.STAGE));
+        assertThat(completed.get(2).getBuildResult(), is("SUCCESS"));
+        assertThat(build.getOpenCount(), is(0));
+    }
+
+    @Test
+    public void onNewHead_MaxOpenStages() {
+        FlowNode parent = null;
+        List<BlockStartNode> blocks = enclosing();
+        for (int i = 0; i < PipelineTimingListener.MAX_OPEN_STAGES + 10; i++) {
+            BlockStartNode stage = mockStage(parent, new ArrayList<>(blocks), "stage" + i);
+            build.onNewHead(stage, false);
+            blocks.add(0, stage);
+            parent = stage;
+        }
+
+        assertThat(build.getOpenCount(), is(PipelineTimingListener.MAX_OPEN_STAGES));
+    }
+}
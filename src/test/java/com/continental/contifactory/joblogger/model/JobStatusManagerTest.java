@@ -1,20 +1,32 @@
 package com.continental.contifactory.joblogger.model;
 
 import com.continental.contifactory.joblogger.JobStatusManager;
+import hudson.model.Job;
 import hudson.model.Run;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class JobStatusManagerTest {
 
+    private static Run mockRun(String jobName, int number) {
+        Job job = mock(Job.class);
+        when(job.getFullName()).thenReturn(jobName);
+        Run run = mock(Run.class);
+        when(run.getParent()).thenReturn(job);
+        when(run.getNumber()).thenReturn(number);
+        return run;
+    }
+
     @Test
     public void testAddAndRemove_OneJobStatus() {
         JobStatusManager mgr = JobStatusManager.getInstance();
-        Run run = mock(Run.class);
+        Run run = mockRun("job", 1);
         assertThat(mgr.get(run), is(nullValue()));
 
         JobStatus jobStatus = new JobStatus();
@@ -28,8 +40,8 @@ public class JobStatusManagerTest {
     @Test
     public void testAddAndRemove_MultipleJobStatus() {
         JobStatusManager mgr = JobStatusManager.getInstance();
-        Run run1 = mock(Run.class);
-        Run run2 = mock(Run.class);
+        Run run1 = mockRun("folder/job", 1);
+        Run run2 = mockRun("folder/job", 2);
         assertThat(mgr.get(run1), is(nullValue()));
         assertThat(mgr.get(run2), is(nullValue()));
 
@@ -55,9 +67,9 @@ public class JobStatusManagerTest {
     @Test
     public void testClear() {
         JobStatusManager mgr = JobStatusManager.getInstance();
-        Run run1 = mock(Run.class);
+        Run run1 = mockRun("folder/job", 1);
         JobStatus jobStatus1 = new JobStatus();
-        Run run2 = mock(Run.class);
+        Run run2 = mockRun("folder/job", 2);
         JobStatus jobStatus2 = new JobStatus();
         mgr.put(run1, jobStatus1);
         mgr.put(run2, jobStatus2);
@@ -69,4 +81,70 @@ public class JobStatusManagerTest {
         assertThat(mgr.get(run1), is(nullValue()));
         assertThat(mgr.get(run2), is(nullValue()));
     }
+
+    @Test
+    public void testGetBuildId() {
+        assertThat(JobStatusManager.getBuildId(mockRun("folder/job", 42)), is("folder/job#42"));
+        assertThat(JobStatusManager.getBuildId(mock(Run.class)), is("#0"));
+    }
+
+    @Test
+    public void testSameBuildId_SameJobStatus() {
+        JobStatusManager mgr = new JobStatusManager();
+        JobStatus jobStatus = new JobStatus();
+        mgr.put(mockRun("job", 1), jobStatus);
+
+        assertThat(mgr.get(mockRun("job", 1)), is(jobStatus));
+        assertThat(mgr.get(mockRun("job", 2)), is(nullValue()));
+        assertThat(mgr.getHits(), is(1L));
+        assertThat(mgr.getMisses(), is(1L));
+    }
+
+    @Test
+    public void testMaxSize_OldestEvicted() throws Exception {
+        JobStatusManager mgr = new JobStatusManager(2, JobStatusManager.DEFAULT_TIME_TO_LIVE);
+        Run run1 = mockRun("job", 1);
+        Run run2 = mockRun("job", 2);
+        Run run3 = mockRun("job", 3);
+        mgr.put(run1, new JobStatus());
+        Thread.sleep(5);
+        mgr.put(run2, new JobStatus());
+        Thread.sleep(5);
+        mgr.put(run3, new JobStatus());
+
+        assertThat(mgr.size(), is(2));
+        assertThat(mgr.get(run1), is(nullValue()));
+        assertThat(mgr.get(run2), is(notNullValue()));
+        assertThat(mgr.get(run3), is(notNullValue()));
+        assertThat(mgr.getEvictions(), is(1L));
+    }
+
+    @Test
+    public void testMaxSize_OldestTenthEvictedAtOnce() throws Exception {
+        JobStatusManager mgr = new JobStatusManager(20, JobStatusManager.DEFAULT_TIME_TO_LIVE);
+        for (int i = 1; i <= 20; i++) {
+            mgr.put(mockRun("job", i), new JobStatus());
+            Thread.sleep(2);
+        }
+        mgr.put(mockRun("job", 21), new JobStatus());
+        mgr.put(mockRun("job", 22), new JobStatus());
+
+        assertThat(mgr.size(), is(20));
+        assertThat(mgr.get(mockRun("job", 1)), is(nullValue()));
+        assertThat(mgr.get(mockRun("job", 2)), is(nullValue()));
+        assertThat(mgr.get(mockRun("job", 3)), is(notNullValue()));
+        assertThat(mgr.getEvictions(), is(2L));
+    }
+
+    @Test
+    public void testTimeToLive_StaleEvicted() throws Exception {
+        JobStatusManager mgr = new JobStatusManager(JobStatusManager.DEFAULT_MAX_SIZE, 1);
+        Run run = mockRun("job", 1);
+        mgr.put(run, new JobStatus());
+        Thread.sleep(5);
+
+        assertThat(mgr.evictStale(), is(1));
+        assertThat(mgr.get(run), is(nullValue()));
+        assertThat(mgr.getEvictions(), is(1L));
+    }
 }
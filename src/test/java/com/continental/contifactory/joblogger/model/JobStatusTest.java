@@ -0,0 +1,19 @@
+package com.continental.contifactory.joblogger.model;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class JobStatusTest {
+
+    @Test
+    public void testAddNodeName_IgnoreDuplicates() {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.addNodeName("Test Node 1");
+        jobStatus.addNodeName("Test Node 2");
+        jobStatus.addNodeName("Test Node 1");
+
+        assertThat(jobStatus.getNodeNames(), contains("Test Node 1", "Test Node 2"));
+    }
+}
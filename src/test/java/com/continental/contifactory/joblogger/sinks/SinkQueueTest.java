@@ -0,0 +1,199 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SinkQueueTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private SinkQueue queue;
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    public void offer_Drop_QueueFull() throws Exception {
+        TestSink sink = new TestSink(BackpressurePolicy.DROP);
+        sink.blocked = new CountDownLatch(1);
+        queue = new SinkQueue(sink, temp.getRoot());
+        queue.start();
+
+        offerUntilQueueFull(sink);
+        queue.offer(getJobStatus(100));
+        sink.blocked.countDown();
+        queue.stop();
+
+        assertThat(queue.getDropped(), is(greaterThanOrEqualTo(1L)));
+        assertThat(sink.jobNumbers, not(hasItem(100)));
+        assertThat(queue.getWritten(), is((long) sink.jobNumbers.size()));
+    }
+
+    @Test
+    public void offer_Spill_QueueFull_WrittenLater() throws Exception {
+        TestSink sink = new TestSink(BackpressurePolicy.SPILL);
+        sink.blocked = new CountDownLatch(1);
+        queue = new SinkQueue(sink, temp.getRoot());
+        queue.start();
+
+        offerUntilQueueFull(sink);
+        queue.offer(getJobStatus(100));
+        assertThat(queue.getSpilled(), is(1L));
+        assertThat(new File(temp.getRoot(), "test.spill").exists(), is(true));
+        sink.blocked.countDown();
+
+        waitFor(() -> sink.jobNumbers.contains(100));
+        assertThat(queue.getDropped(), is(0L));
+        waitFor(() -> !new File(temp.getRoot(), "test.spill").exists()
+                && !new File(temp.getRoot(), "test.replay").exists());
+    }
+
+    @Test
+    public void write_SinkFails_SpilledAndRetried() throws Exception {
+        TestSink sink = new TestSink(BackpressurePolicy.SPILL);
+        sink.failing = true;
+        queue = new SinkQueue(sink, temp.getRoot());
+        queue.start();
+
+        queue.offer(getJobStatus(1));
+        queue.offer(getJobStatus(2));
+        waitFor(() -> queue.getFailures() > 0 && queue.getSpilled() >= 2);
+        assertThat(sink.jobNumbers, is(empty()));
+
+        sink.failing = false;
+        waitFor(() -> sink.jobNumbers.size() == 2);
+        assertThat(sink.jobNumbers, contains(1, 2));
+        assertThat(queue.getDropped(), is(0L));
+    }
+
+    @Test
+    public void start_SpillFileOfPreviousRun_Written() throws Exception {
+        TestSink failingSink = new TestSink(BackpressurePolicy.SPILL);
+        failingSink.failing = true;
+        queue = new SinkQueue(failingSink, temp.getRoot());
+        queue.start();
+        queue.offer(getJobStatus(42));
+        waitFor(() -> queue.getSpilled() >= 1);
+        queue.stop();
+
+        TestSink sink = new TestSink(BackpressurePolicy.DROP);
+        queue = new SinkQueue(sink, temp.getRoot());
+        queue.start();
+
+        waitFor(() -> sink.jobNumbers.size() == 1);
+        assertThat(sink.jobNumbers, contains(42));
+    }
+
+    @Test
+    public void offer_SpillWithoutDirectory_Blocks() {
+        queue = new SinkQueue(new TestSink(BackpressurePolicy.SPILL), null);
+
+        assertThat(queue.getPolicy(), is(BackpressurePolicy.BLOCK));
+    }
+
+    // fills the queue while the sink is blocked in its first write
+    private void offerUntilQueueFull(TestSink sink) throws Exception {
+        queue.offer(getJobStatus(0));
+        waitFor(() -> sink.writing);
+        for (int i = 1; i <= sink.getQueueCapacity(); i++) {
+            queue.offer(getJobStatus(i));
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean(), is(true));
+    }
+
+    private static JobStatus getJobStatus(int jobNumber) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("testJob");
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setEndDate(new Date());
+        return jobStatus;
+    }
+
+    private static class TestSink extends JobStatusSink {
+        private final BackpressurePolicy policy;
+        private final List<Integer> jobNumbers = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+        private volatile boolean writing;
+        private volatile boolean failing;
+
+        private TestSink(BackpressurePolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public String getId() {
+            return "test";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void write(List<JobStatus> jobStatuses) throws IOException {
+            writing = true;
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            if (failing) {
+                throw new IOException("sink is down");
+            }
+            for (JobStatus jobStatus : jobStatuses) {
+                jobNumbers.add(jobStatus.getJobNumber());
+            }
+        }
+
+        @Override
+        public int getQueueCapacity() {
+            return 2;
+        }
+
+        @Override
+        public int getBatchSize() {
+            return 1;
+        }
+
+        @Override
+        public long getFlushInterval() {
+            return 10;
+        }
+
+        @Override
+        public BackpressurePolicy getBackpressurePolicy() {
+            return policy;
+        }
+
+        @Override
+        public long getRetryInterval() {
+            return 50;
+        }
+    }
+}
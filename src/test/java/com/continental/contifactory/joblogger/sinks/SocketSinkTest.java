@@ -0,0 +1,84 @@
+package com.continental.contifactory.joblogger.sinks;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class})
+public class SocketSinkTest {
+    private ServerSocket server;
+    private JobLoggerPluginConfiguration config;
+    private SocketSink sink;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new ServerSocket(0);
+        config = PowerMockito.mock(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(config.getSocketHost()).thenReturn("localhost");
+        PowerMockito.when(config.getSocketPort()).thenReturn(server.getLocalPort());
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.get()).thenReturn(config);
+        sink = new SocketSink();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sink.close();
+        server.close();
+    }
+
+    @Test
+    public void isEnabled_HostConfigured() {
+        assertThat(sink.isEnabled(), is(true));
+        PowerMockito.when(config.getSocketHost()).thenReturn("");
+        assertThat(sink.isEnabled(), is(false));
+    }
+
+    @Test
+    public void write_SyslogMessagePerJobStatus() throws Exception {
+        sink.write(Arrays.asList(getJobStatus("testJob", 1), getJobStatus("test\"Job", 2)));
+
+        try (Socket client = server.accept();
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(),
+                     StandardCharsets.UTF_8))) {
+            String first = in.readLine();
+            assertThat(first, startsWith("<134>1 2018-03-07T15:01:08Z "));
+            assertThat(first, containsString(" jenkins-job-logger - - - {\"jobName\":\"testJob\",\"jobNumber\":1,"));
+            assertThat(in.readLine(), containsString("{\"jobName\":\"test\\\"Job\",\"jobNumber\":2,"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void write_ReceiverNotReachable() throws Exception {
+        server.close();
+
+        sink.write(Arrays.asList(getJobStatus("testJob", 1)));
+    }
+
+    private static JobStatus getJobStatus(String jobName, int jobNumber) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setEndDate(new Date(1520434868000L));
+        return jobStatus;
+    }
+}
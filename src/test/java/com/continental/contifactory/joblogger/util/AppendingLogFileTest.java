@@ -0,0 +1,96 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class})
+public class AppendingLogFileTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+    private AppendingLogFile appendingLogFile;
+
+    @Before
+    public void setUp() {
+        logFile = new File(temp.getRoot(), "job_logger.test");
+        JobLoggerPluginConfiguration config = PowerMockito.mock(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(config.getMaxLogFileSize()).thenReturn(0.00001);
+        PowerMockito.when(config.getArchiveCompression()).thenReturn(ArchiveCompression.NONE);
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.get()).thenReturn(config);
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileShortname()).thenReturn("job_logger");
+        appendingLogFile = new AppendingLogFile("test log file");
+    }
+
+    @After
+    public void tearDown() {
+        appendingLogFile.close();
+    }
+
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void write_ExistingLogFile_AppendedAndSizeCounted() throws Exception {
+        FileUtils.writeStringToFile(logFile, "first\n", StandardCharsets.UTF_8);
+
+        appendingLogFile.open(logFile);
+        appendingLogFile.write(bytes("second\n"));
+
+        assertThat(appendingLogFile.isOpen(logFile), is(true));
+        assertThat(appendingLogFile.getSize(), is(13L));
+        assertThat(FileUtils.readLines(logFile, StandardCharsets.UTF_8), contains("first", "second"));
+    }
+
+    @Test
+    public void open_InvalidEnd_TruncatedToValidLength() throws Exception {
+        FileUtils.writeStringToFile(logFile, "first\ntorn", StandardCharsets.UTF_8);
+        List<FileChannel> closedChannels = new ArrayList<>();
+        appendingLogFile = new AppendingLogFile("test log file", file -> "first\n".length(), closedChannels::add);
+
+        appendingLogFile.open(logFile);
+        appendingLogFile.write(bytes("second\n"));
+        appendingLogFile.close();
+
+        assertThat(FileUtils.readLines(logFile, StandardCharsets.UTF_8), contains("first", "second"));
+        assertThat(closedChannels, hasSize(1));
+        assertThat(appendingLogFile.isOpen(logFile), is(false));
+    }
+
+    @Test
+    public void rotate_ExceedMaxSize_ArchivedAndNewLogFileOpened() throws Exception {
+        appendingLogFile.open(logFile);
+        assertThat(appendingLogFile.rotate(logFile, ".test"), is(false));
+        appendingLogFile.write(bytes("a line which exceeds the maximum size\n"));
+
+        assertThat(appendingLogFile.rotate(logFile, ".test"), is(true));
+
+        assertThat(appendingLogFile.isOpen(logFile), is(true));
+        assertThat(appendingLogFile.getSize(), is(0L));
+        File[] archiveFiles = temp.getRoot().listFiles((dir, name) -> name.startsWith("job_logger_"));
+        assertThat(archiveFiles, arrayWithSize(1));
+        assertThat(FileUtils.readLines(archiveFiles[0], StandardCharsets.UTF_8),
+                contains("a line which exceeds the maximum size"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.continental.contifactory.joblogger.util;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ArchiveCompressorTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void compress_None() throws Exception {
+        File archiveFile = temp.newFile("job_logger_2018-03-06_14-55-55.csv");
+        assertThat(ArchiveCompressor.compress(archiveFile, ArchiveCompression.NONE), is(archiveFile));
+        assertThat(archiveFile.exists(), is(true));
+    }
+
+    @Test
+    public void compress_Gzip() throws Exception {
+        File archiveFile = temp.newFile("job_logger_2018-03-06_14-55-55.csv");
+        FileUtils.writeStringToFile(archiveFile, "JobName;JobNumber\ntestJob;42\n", StandardCharsets.UTF_8);
+
+        File compressedFile = ArchiveCompressor.compressLater(archiveFile, ArchiveCompression.GZIP).get();
+
+        assertThat(compressedFile.getName(), is("job_logger_2018-03-06_14-55-55.csv.gz"));
+        assertThat(archiveFile.exists(), is(false));
+        assertThat(new File(compressedFile.getPath() + ".tmp").exists(), is(false));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(compressedFile.toPath()))) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8), is("JobName;JobNumber\ntestJob;42\n"));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class})
+public class BinaryLogWriterTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+    private JobLoggerPluginConfiguration config;
+
+    @Before
+    public void setUp() {
+        logFile = new File(temp.getRoot(), "job_logger.jlb");
+        config = PowerMockito.mock(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(config.getMaxLogFileSize()).thenReturn(1.0);
+        PowerMockito.when(config.getArchiveCompression()).thenReturn(ArchiveCompression.NONE);
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.get()).thenReturn(config);
+    }
+
+    @After
+    public void tearDown() {
+        BinaryLogWriter.closeLogFile();
+    }
+
+    private static JobStatus getJobStatus(String jobName, int jobNumber, String result, long startDate,
+                                          String... nodeNames) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setBuildResult(result);
+        jobStatus.setStartDate(new Date(startDate));
+        jobStatus.setEndDate(new Date(startDate + 1000));
+        jobStatus.setBuildCause("Started by timer");
+        jobStatus.setConsoleUrl("http://jenkins/job/" + jobName + "/" + jobNumber + "/console");
+        jobStatus.setNodeNames(Arrays.asList(nodeNames));
+        return jobStatus;
+    }
+
+    @Test
+    public void logJobStatuses_ReadAll_SameJobStatus() throws Exception {
+        JobStatus first = getJobStatus("projectA", 1, "SUCCESS", 1520000000000L, "master", "node 1");
+        first.setQueueDate(new Date(1519999990000L));
+        first.setLeftQueueDate(new Date(1519999995000L));
+        first.setLabel("linux && docker");
+        first.setExecutor(3);
+        JobStatus second = getJobStatus("projectA", 2, "FAILURE", 1520000100000L);
+        BinaryLogWriter.logJobStatuses(logFile, Arrays.asList(first, second));
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(new JobStatus()));
+
+        List<JobStatus> jobStatuses = BinaryLogReader.readAll(logFile);
+
+        assertThat(jobStatuses, hasSize(3));
+        assertThat(jobStatuses.get(0).toString(), is(first.toString()));
+        assertThat(jobStatuses.get(0).getQueueDate(), is(first.getQueueDate()));
+        assertThat(jobStatuses.get(0).getLeftQueueDate(), is(first.getLeftQueueDate()));
+        assertThat(jobStatuses.get(0).getLabel(), is("linux && docker"));
+        assertThat(jobStatuses.get(0).getExecutor(), is(3));
+        assertThat(jobStatuses.get(1).toString(), is(second.toString()));
+        JobStatus empty = jobStatuses.get(2);
+        assertThat(empty.getJobName(), is(nullValue()));
+        assertThat(empty.getStartDate(), is(nullValue()));
+        assertThat(empty.getNodeNames(), is(empty()));
+        assertThat(empty.getExecutor(), is(nullValue()));
+    }
+
+    @Test
+    public void closeLogFile_PendingSegments_WrittenAsOneSegment() throws Exception {
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 1, "SUCCESS", 1520000000000L)));
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 2, "SUCCESS", 1520000000000L)));
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            assertThat(reader.next().isPending(), is(true));
+            assertThat(reader.next().isPending(), is(true));
+        }
+
+        BinaryLogWriter.closeLogFile();
+
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            BinaryLogReader.Segment segment = reader.next();
+            assertThat(segment.isPending(), is(false));
+            assertThat(segment.getRowCount(), is(2));
+            assertThat(reader.next(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void logJobStatuses_SegmentFull_PendingSegmentsSuperseded() throws Exception {
+        // the pending segments stay in the log file until it is archived
+        PowerMockito.when(config.getMaxLogFileSize()).thenReturn(10.0);
+        for (int i = 0; i < BinaryLogWriter.SEGMENT_ROWS + 1; i++) {
+            BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                    getJobStatus("projectA", i, "SUCCESS", 1520000000000L + i)));
+        }
+
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            BinaryLogReader.Segment segment = reader.next();
+            assertThat(segment.isPending(), is(false));
+            assertThat(segment.getRowCount(), is(BinaryLogWriter.SEGMENT_ROWS));
+            segment = reader.next();
+            assertThat(segment.isPending(), is(true));
+            assertThat(segment.getJobNumber(0), is(BinaryLogWriter.SEGMENT_ROWS));
+            assertThat(reader.next(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void logJobStatuses_PendingSegmentsOfStoppedWriter_Restored() throws Exception {
+        File stoppedFile = new File(temp.getRoot(), "stopped.jlb");
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 1, "SUCCESS", 1520000000000L)));
+        // a copy of the log file with a pending segment, as if Jenkins stopped without closing it
+        Files.copy(logFile.toPath(), stoppedFile.toPath());
+
+        BinaryLogWriter.logJobStatuses(stoppedFile, Collections.singletonList(
+                getJobStatus("projectA", 2, "SUCCESS", 1520000000000L)));
+        BinaryLogWriter.closeLogFile();
+
+        try (BinaryLogReader reader = new BinaryLogReader(stoppedFile)) {
+            BinaryLogReader.Segment segment = reader.next();
+            assertThat(segment.isPending(), is(false));
+            assertThat(segment.getRowCount(), is(2));
+            assertThat(segment.getJobNumber(0), is(1));
+            assertThat(segment.getJobNumber(1), is(2));
+            assertThat(reader.next(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void logJobStatuses_DictionaryEncoded() throws Exception {
+        BinaryLogWriter.logJobStatuses(logFile, Arrays.asList(
+                getJobStatus("projectA", 1, "SUCCESS", 1520000000000L, "node 1"),
+                getJobStatus("projectA", 2, "SUCCESS", 1520000000000L, "node 1")));
+
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            BinaryLogReader.Segment segment = reader.next();
+            assertThat(segment.getRowCount(), is(2));
+            assertThat(segment.getJobNameIndex(0), is(segment.getJobNameIndex(1)));
+            assertThat(segment.getBuildResultIndex(0), is(segment.getBuildResultIndex(1)));
+            // job name, result, cause, 2 console URLs and node name
+            assertThat(segment.getDictionarySize(), is(6));
+            assertThat(reader.next(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void logJobStatuses_ManyJobStatus_SplitIntoSegments() throws Exception {
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        for (int i = 0; i < BinaryLogWriter.SEGMENT_ROWS + 1; i++) {
+            jobStatuses.add(getJobStatus("projectA", i, "SUCCESS", 1520000000000L + i));
+        }
+        BinaryLogWriter.logJobStatuses(logFile, jobStatuses);
+
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            assertThat(reader.next().getRowCount(), is(BinaryLogWriter.SEGMENT_ROWS));
+            assertThat(reader.next().getRowCount(), is(1));
+            assertThat(reader.next(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void next_TimeRange_OtherSegmentsSkipped() throws Exception {
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 1, "SUCCESS", 1000000L)));
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 2, "SUCCESS", 5000000L)));
+
+        try (BinaryLogReader reader = new BinaryLogReader(logFile)) {
+            BinaryLogReader.Segment segment = reader.next(4000000L, 6000000L);
+            assertThat(segment.getJobNumber(0), is(2));
+            assertThat(reader.next(4000000L, 6000000L), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void readAll_TruncatedSegment_Ignored() throws Exception {
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 1, "SUCCESS", 1520000000000L)));
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 2, "SUCCESS", 1520000000000L)));
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.setLength(file.length() - 10);
+        }
+
+        List<JobStatus> jobStatuses = BinaryLogReader.readAll(logFile);
+
+        assertThat(jobStatuses, hasSize(1));
+        assertThat(jobStatuses.get(0).getJobNumber(), is(1));
+    }
+
+    @Test
+    public void readAll_WrongChecksum_Ignored() throws Exception {
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 1, "SUCCESS", 1520000000000L)));
+        BinaryLogWriter.logJobStatuses(logFile, Collections.singletonList(
+                getJobStatus("projectA", 2, "SUCCESS", 1520000000000L)));
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 1);
+        }
+
+        List<JobStatus> jobStatuses = BinaryLogReader.readAll(logFile);
+
+        assertThat(jobStatuses, hasSize(1));
+        assertThat(jobStatuses.get(0).getJobNumber(), is(1));
+    }
+
+    @Test
+    public void logJobStatuses_TornFullSegment_PendingSegmentsKept() throws Exception {
+        List<JobStatus> pending = Arrays.asList(getJobStatus("projectA", 1, "SUCCESS", 1520000000000L),
+                getJobStatus("projectA", 2, "SUCCESS", 1520000000000L));
+        BinaryLogWriter.logJobStatuses(logFile, pending.subList(0, 1));
+        BinaryLogWriter.logJobStatuses(logFile, pending.subList(1, 2));
+        File crashedFile = new File(temp.getRoot(), "crashed.jlb");
+        Files.copy(logFile.toPath(), crashedFile.toPath());
+        // Jenkins crashed while the full segment was appended
+        ByteBuffer fullSegment = BinaryLogWriter.encodeSegment(pending, BinaryLogWriter.SEGMENT_MAGIC);
+        try (RandomAccessFile file = new RandomAccessFile(crashedFile, "rw")) {
+            file.seek(file.length());
+            file.write(fullSegment.array(), 0, fullSegment.limit() - 10);
+        }
+        assertThat(BinaryLogReader.readAll(crashedFile), hasSize(2));
+
+        BinaryLogWriter.logJobStatuses(crashedFile, Collections.singletonList(
+                getJobStatus("projectA", 3, "SUCCESS", 1520000000000L)));
+        BinaryLogWriter.closeLogFile();
+
+        try (BinaryLogReader reader = new BinaryLogReader(crashedFile)) {
+            BinaryLogReader.Segment segment = reader.next();
+            assertThat(segment.isPending(), is(false));
+            assertThat(segment.getRowCount(), is(3));
+            assertThat(reader.next(), is(nullValue()));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import com.continental.contifactory.joblogger.util.BuildStatistics.Snapshot;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class BuildStatisticsTest {
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long NOW = 1000 * HOUR + 30 * MINUTE;
+
+    private BuildStatistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = new BuildStatistics();
+    }
+
+    private static JobStatus createJobStatus(String jobName, String result, long end, long duration, String node) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setBuildResult(result);
+        jobStatus.setStartDate(new Date(end - duration));
+        jobStatus.setEndDate(new Date(end));
+        if (node != null) {
+            jobStatus.setNodeNames(Collections.singletonList(node));
+        }
+        return jobStatus;
+    }
+
+    @Test
+    public void getSnapshot() {
+        statistics.record(Arrays.asList(
+                createJobStatus("a", "SUCCESS", NOW - MINUTE, 10 * MINUTE, "node1"),
+                createJobStatus("a", "FAILURE", NOW - 2 * MINUTE, 5 * MINUTE, "node1"),
+                createJobStatus("b", "SUCCESS", NOW - 3 * HOUR, MINUTE, "node2"),
+                createJobStatus("c", null, NOW - 2 * MINUTE, MINUTE, null)));
+
+        Snapshot hour = statistics.getSnapshot(StatisticsWindow.HOUR, NOW);
+        assertThat(hour.getJobs().keySet(), contains("a", "c"));
+        assertThat(hour.getJobs().get("a").getCount(), is(2L));
+        assertThat(hour.getJobs().get("a").getResults(), allOf(hasEntry("SUCCESS", 1L), hasEntry("FAILURE", 1L)));
+        assertThat(hour.getJobs().get("a").getDurations().getSum(), is(15 * MINUTE));
+        assertThat(hour.getJobs().get("c").getResults(), hasEntry(BuildStatistics.NO_RESULT, 1L));
+        assertThat(hour.getResults(), hasEntry("SUCCESS", 1L));
+        assertThat(hour.getNodes().keySet(), contains("node1"));
+        // the window started with the oldest slot, 55 minutes ago
+        assertThat(hour.getUtilization(hour.getNodes().get("node1")), closeTo(15.0 / 55, 0.001));
+
+        Snapshot day = statistics.getSnapshot(StatisticsWindow.DAY, NOW);
+        assertThat(day.getJobs().keySet(), contains("a", "b", "c"));
+        assertThat(day.getNodes().keySet(), contains("node1", "node2"));
+    }
+
+    @Test
+    public void getSnapshot_WindowExpired() {
+        statistics.record(Collections.singletonList(createJobStatus("a", "SUCCESS", NOW, MINUTE, "node1")));
+
+        assertThat(statistics.getSnapshot(StatisticsWindow.HOUR, NOW + 30 * MINUTE).getJobs().keySet(),
+                contains("a"));
+        assertThat(statistics.getSnapshot(StatisticsWindow.HOUR, NOW + 2 * HOUR).getJobs().keySet(), empty());
+        assertThat(statistics.getSnapshot(StatisticsWindow.DAY, NOW + 2 * HOUR).getJobs().keySet(), contains("a"));
+        assertThat(statistics.getSnapshot(StatisticsWindow.DAY, NOW + 25 * HOUR).getJobs().keySet(), empty());
+    }
+
+    @Test
+    public void record_SlotReused() {
+        statistics.record(Collections.singletonList(createJobStatus("a", "SUCCESS", NOW, MINUTE, null)));
+        // the slot of the same time of the next hour replaces the old slot
+        statistics.record(Collections.singletonList(createJobStatus("b", "SUCCESS", NOW + HOUR, MINUTE, null)));
+        // builds older than their slot are ignored
+        statistics.record(Collections.singletonList(createJobStatus("c", "SUCCESS", NOW, MINUTE, null)));
+
+        assertThat(statistics.getSnapshot(StatisticsWindow.HOUR, NOW + HOUR).getJobs().keySet(), contains("b"));
+        assertThat(statistics.getSnapshot(StatisticsWindow.DAY, NOW + HOUR).getJobs().keySet(),
+                contains("a", "b", "c"));
+    }
+
+    @Test
+    public void record_MaxKeys() {
+        List<JobStatus> jobStatuses = new ArrayList<>();
+        for (int i = 0; i < BuildStatistics.MAX_KEYS + 10; i++) {
+            jobStatuses.add(createJobStatus("job" + i, "SUCCESS", NOW, MINUTE, null));
+        }
+        statistics.record(jobStatuses);
+
+        Snapshot hour = statistics.getSnapshot(StatisticsWindow.HOUR, NOW);
+        assertThat(hour.getJobs().size(), is(BuildStatistics.MAX_KEYS + 1));
+        assertThat(hour.getJobs().get(BuildStatistics.OTHER).getCount(), is(10L));
+    }
+
+    @Test
+    public void writePrometheus() {
+        statistics.record(Collections.singletonList(createJobStatus("a \"b\"", "SUCCESS", NOW, 2000, "node1")));
+
+        StringBuilder sb = new StringBuilder();
+        StatisticsWriter.writePrometheus(sb, Collections.singletonList(
+                statistics.getSnapshot(StatisticsWindow.HOUR, NOW)));
+        String text = sb.toString();
+
+        assertThat(text, containsString("# TYPE job_logger_builds gauge\n"));
+        assertThat(text, containsString("job_logger_builds{window=\"1h\",job=\"a \\\"b\\\"\",result=\"SUCCESS\"} 1\n"));
+        assertThat(text, containsString("job_logger_build_duration_seconds_sum{window=\"1h\",job=\"a \\\"b\\\"\"} 2\n"));
+        assertThat(text, containsString("job_logger_node_builds{window=\"1h\",node=\"node1\",result=\"SUCCESS\"} 1\n"));
+    }
+
+    @Test
+    public void writeJson() {
+        statistics.record(Collections.singletonList(createJobStatus("a", "SUCCESS", NOW, 2000, "node1")));
+
+        StringBuilder sb = new StringBuilder();
+        StatisticsWriter.writeJson(sb, statistics.getSnapshot(StatisticsWindow.HOUR, NOW));
+
+        assertThat(sb.toString(), allOf(startsWith("{\"window\":\"1h\","),
+                containsString("\"results\":{\"SUCCESS\":1},\"jobs\":{\"a\":{\"count\":1,"),
+                containsString("\"max\":2000}"), containsString("\"nodes\":{\"node1\":{")));
+    }
+}
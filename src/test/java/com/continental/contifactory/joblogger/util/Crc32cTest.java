@@ -0,0 +1,35 @@
+package com.continental.contifactory.joblogger.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class Crc32cTest {
+    private static final byte[] CHECK_INPUT = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void getValue_CheckValue() {
+        Crc32c checksum = new Crc32c();
+        checksum.update(CHECK_INPUT, 0, CHECK_INPUT.length);
+
+        assertThat(checksum.getValue(), is(0xE3069283L));
+        checksum.reset();
+        assertThat(checksum.getValue(), is(0L));
+    }
+
+    @Test
+    public void update_DirectBuffer_SameAsBytes() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHECK_INPUT.length + 2);
+        buffer.put((byte) 'x').put(CHECK_INPUT);
+        Crc32c checksum = new Crc32c();
+
+        checksum.update(buffer, 1, 1 + CHECK_INPUT.length);
+
+        assertThat(checksum.getValue(), is(0xE3069283L));
+        assertThat(buffer.position(), is(1 + CHECK_INPUT.length));
+    }
+}
@@ -0,0 +1,113 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CsvEncoderTest {
+    private final CsvEncoder encoder = new CsvEncoder(true, StandardCharsets.UTF_8);
+
+    @Test
+    public void encode_SameAsDateToString() {
+        // around the daylight saving time changes, and dates far apart
+        long[] starts = {Instant.parse("2018-03-24T12:00:00Z").toEpochMilli(),
+                Instant.parse("2018-10-27T12:00:00Z").toEpochMilli(), 0L,
+                Instant.parse("1999-12-31T20:00:00Z").toEpochMilli()};
+        long step = TimeUnit.SECONDS.toMillis(1013);
+        JobStatus jobStatus = new JobStatus();
+        for (long start : starts) {
+            long end = start + TimeUnit.DAYS.toMillis(2);
+            for (long time = start; time < end; time += step) {
+                jobStatus.setStartDate(new Date(time));
+                encoder.clear();
+                encoder.encode(jobStatus, false);
+
+                assertThat(encoder.decode().split(";")[3], is(new Date(time).toString()));
+            }
+        }
+    }
+
+    @Test
+    public void encode_FilledLine() {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("testJob");
+        jobStatus.setJobNumber(-42);
+        jobStatus.setBuildResult("SUCCESS");
+        jobStatus.setStartDate(new Date(Instant.parse("2018-03-12T15:55:42Z").toEpochMilli()));
+        jobStatus.setNodeNames(Arrays.asList("node 1", "node 2"));
+        jobStatus.setLabel("linux");
+        jobStatus.setExecutor(2);
+
+        encoder.encode(jobStatus, true);
+
+        assertThat(encoder.decode(), is("testJob;-42;SUCCESS;2018-03-12T15:55:42Z;;;[node 1, node 2];;;;linux;2\n"));
+    }
+
+    @Test
+    public void encode_EscapedStrings_ParsedBack() {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("folder;job\\\u00e4");
+        jobStatus.setBuildCause("Started by\r\nuser;\u00f6 \u20ac");
+        jobStatus.setNodeNames(Arrays.asList("node;1", "node 2"));
+
+        encoder.encode(jobStatus, false);
+        String line = encoder.decode();
+        JobStatus parsed = new CsvReader().parse(line.substring(0, line.length() - 1));
+
+        assertThat(line, is("folder\\;job\\\\\u00e4;0;;;;Started by\\r\\nuser\\;\u00f6 \u20ac;[node\\;1, node 2];;;;;\n"));
+        assertThat(parsed.getJobName(), is("folder;job\\\u00e4"));
+        assertThat(parsed.getBuildCause(), is("Started by\r\nuser;\u00f6 \u20ac"));
+        assertThat(parsed.getNodeNames(), contains("node;1", "node 2"));
+    }
+
+    @Test
+    public void encode_EscapedStringsNotAsciiCompatible_NotCut() {
+        CsvEncoder utf16Encoder = new CsvEncoder(false, StandardCharsets.UTF_16BE);
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("folder;job\\1");
+        jobStatus.setBuildCause("Started by\nuser");
+
+        utf16Encoder.encode(jobStatus, false);
+        String line = utf16Encoder.decode();
+        utf16Encoder.clear();
+        utf16Encoder.encodeRecord(jobStatus, 7);
+        String record = utf16Encoder.decode();
+
+        assertThat(line, is("folder\\;job\\\\1;0;;;;Started by\\nuser;;;;;;\n"));
+        assertThat(record, startsWith(line.substring(0, line.length() - 1) + ";7;"));
+        assertThat(record.length(), is(line.length() + ";7;".length() + CsvEncoder.CHECKSUM_DIGITS));
+    }
+
+    @Test
+    public void encode_LargeLines_BufferGrownAndShrunk() {
+        char[] name = new char[CsvEncoder.MAX_RETAINED_CAPACITY];
+        Arrays.fill(name, '\u00fc');
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(new String(name));
+
+        encoder.writeHeader();
+        encoder.encode(jobStatus, false);
+        ByteBuffer buffer = encoder.flip();
+
+        assertThat(buffer.remaining(), is(CsvEncoder.RECORD_HEADER.length() + 2 * name.length + ";0;;;;;;;;;;\n".length()));
+        assertThat(buffer.isDirect(), is(true));
+        encoder.clear();
+        assertThat(encoder.flip().capacity(), is(CsvEncoder.INITIAL_CAPACITY));
+    }
+
+    @Test
+    public void escape() {
+        assertThat(CsvEncoder.escape(null), is(nullValue()));
+        assertThat(CsvEncoder.escape("stage 1"), is("stage 1"));
+        assertThat(CsvEncoder.escape("a;b\nc\\"), is("a\\;b\\nc\\\\"));
+    }
+}
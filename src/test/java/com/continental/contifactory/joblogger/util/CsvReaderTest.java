@@ -0,0 +1,75 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Locale;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CsvReaderTest {
+    private final CsvReader reader = new CsvReader();
+
+    @Test
+    public void parse_FilledLine() throws Exception {
+        JobStatus jobStatus = reader.parse("testJob;42;SUCCESS;Mon Mar 12 16:55:42 CET 2018;"
+                + "Mon Mar 12 17:42:55 CET 2018;testCause;[node 1, node 2];testUrl");
+
+        SimpleDateFormat format = new SimpleDateFormat(CsvReader.DATE_PATTERN, Locale.US);
+        assertThat(jobStatus.getJobName(), is("testJob"));
+        assertThat(jobStatus.getJobNumber(), is(42));
+        assertThat(jobStatus.getBuildResult(), is("SUCCESS"));
+        assertThat(jobStatus.getStartDate(), is(format.parse("Mon Mar 12 16:55:42 CET 2018")));
+        assertThat(jobStatus.getEndDate(), is(format.parse("Mon Mar 12 17:42:55 CET 2018")));
+        assertThat(jobStatus.getBuildCause(), is("testCause"));
+        assertThat(jobStatus.getNodeNames(), contains("node 1", "node 2"));
+        assertThat(jobStatus.getConsoleUrl(), is("testUrl"));
+    }
+
+    @Test
+    public void parse_IsoDates() throws Exception {
+        JobStatus jobStatus = reader.parse("testJob;42;SUCCESS;2018-03-12T15:55:42Z;2018-03-12T16:42:55Z;"
+                + "testCause;[node 1];testUrl");
+
+        SimpleDateFormat format = new SimpleDateFormat(CsvReader.DATE_PATTERN, Locale.US);
+        assertThat(jobStatus.getStartDate(), is(format.parse("Mon Mar 12 16:55:42 CET 2018")));
+        assertThat(jobStatus.getEndDate(), is(format.parse("Mon Mar 12 17:42:55 CET 2018")));
+        assertThat(reader.parse("testJob;42;SUCCESS;2018-03-12;;;;"), is(nullValue()));
+    }
+
+    @Test
+    public void parse_QueueFields() throws Exception {
+        JobStatus jobStatus = reader.parse("testJob;42;SUCCESS;2018-03-12T15:55:42Z;2018-03-12T16:42:55Z;"
+                + "testCause;[node 1];testUrl;2018-03-12T15:50:00Z;2018-03-12T15:55:40Z;linux;2");
+
+        assertThat(jobStatus.getQueueDate(), is(new Date(Instant.parse("2018-03-12T15:50:00Z").toEpochMilli())));
+        assertThat(jobStatus.getLeftQueueDate(), is(new Date(Instant.parse("2018-03-12T15:55:40Z").toEpochMilli())));
+        assertThat(jobStatus.getLabel(), is("linux"));
+        assertThat(jobStatus.getExecutor(), is(2));
+        assertThat(reader.parse("testJob;42;SUCCESS;;;;;;;;;x"), is(nullValue()));
+    }
+
+    @Test
+    public void parse_EmptyLine() {
+        JobStatus jobStatus = reader.parse(";0;;;;;;");
+
+        assertThat(jobStatus.getJobName(), is(nullValue()));
+        assertThat(jobStatus.getStartDate(), is(nullValue()));
+        assertThat(jobStatus.getNodeNames(), is(empty()));
+        assertThat(reader.parse(";0;;;;;;;;;;").getExecutor(), is(nullValue()));
+    }
+
+    @Test
+    public void parse_HeaderAndInvalidLines() {
+        assertThat(reader.parse("JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl"), is(nullValue()));
+        assertThat(reader.parse("JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl;QueueDate;"
+                + "LeftQueueDate;Label;Executor"), is(nullValue()));
+        assertThat(reader.parse("testJob;42;SUCCESS"), is(nullValue()));
+        assertThat(reader.parse("testJob;x;SUCCESS;;;;;"), is(nullValue()));
+        assertThat(reader.parse("testJob;42;SUCCESS;yesterday;;;;"), is(nullValue()));
+    }
+}
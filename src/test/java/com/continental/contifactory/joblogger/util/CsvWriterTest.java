@@ -1,5 +1,6 @@
 package com.continental.contifactory.joblogger.util;
 
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
 import com.continental.contifactory.joblogger.model.JobStatus;
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
@@ -12,6 +13,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -19,23 +21,39 @@ import java.util.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({CsvWriter.class, FileUtil.class, Calendar.class})
+@PrepareForTest({CsvWriter.class, FileUtil.class, Calendar.class, JobLoggerPluginConfiguration.class})
 public class CsvWriterTest {
-    private final String HEADER = "JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl";
+    private final String HEADER = "JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl;QueueDate;LeftQueueDate;Label;Executor;Sequence;Checksum";
 
     @Rule
     public TemporaryFolder temp = new TemporaryFolder();
+    private JobLoggerPluginConfiguration mockConfig;
 
     @Before
     public void setUp() {
         PowerMockito.mockStatic(FileUtil.class);
         PowerMockito.mockStatic(Calendar.class);
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        mockConfig = PowerMockito.mock(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.get()).thenReturn(mockConfig);
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileShortname()).thenReturn("job_logger");
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileExtension()).thenReturn(".csv");
+        PowerMockito.when(mockConfig.getArchiveCompression()).thenReturn(ArchiveCompression.NONE);
+    }
+
+    private void mockCurrentDate(String date) throws ParseException {
+        Calendar cal = PowerMockito.mock(Calendar.class);
+        PowerMockito.when(Calendar.getInstance()).thenReturn(cal);
+        SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+        PowerMockito.when(cal.getTime()).thenReturn(format.parse(date));
     }
 
     private void mockFileUtil(boolean exceedSize) {
         PowerMockito.when(FileUtil.exceedMaximumSize(any())).thenReturn(exceedSize);
+        PowerMockito.when(FileUtil.exceedMaximumSize(anyLong())).thenReturn(exceedSize);
     }
 
     @Test
@@ -50,7 +68,7 @@ public class CsvWriterTest {
 
         List<String> lines = FileUtils.readLines(tmpFile);
         assertThat(lines, hasItem(HEADER));
-        assertThat(lines, hasItem(";0;;;;;;"));
+        assertThat(lines, hasItem(record(";0;;;;;;;;;;", 1)));
     }
 
     @Test
@@ -67,7 +85,7 @@ public class CsvWriterTest {
 
         List<String> logFileContent = FileUtils.readLines(tmpLogFile);
         assertThat(logFileContent, hasItem(HEADER));
-        String expectedFirstLog = "testJob;42;SUCCESS;Mon Mar 12 16:55:42 CET 2018;Mon Mar 12 17:42:55 CET 2018;testCause;[node 1, node 2];testUrl";
+        String expectedFirstLog = record("testJob;42;SUCCESS;Mon Mar 12 16:55:42 CET 2018;Mon Mar 12 17:42:55 CET 2018;testCause;[node 1, node 2];testUrl;;;;", 1);
         assertThat(logFileContent, hasItem(expectedFirstLog));
 
         // log a second job status, check if both are available in the log file
@@ -78,7 +96,7 @@ public class CsvWriterTest {
 
         logFileContent = FileUtils.readLines(tmpLogFile);
         assertThat(logFileContent, hasItem(HEADER));
-        String expectedSecondLog = "testJob2;88;FAILURE;Tue Mar 13 15:54:41 CET 2018;Tue Mar 13 16:41:54 CET 2018;testCause2;[node 3];testUrl2";
+        String expectedSecondLog = record("testJob2;88;FAILURE;Tue Mar 13 15:54:41 CET 2018;Tue Mar 13 16:41:54 CET 2018;testCause2;[node 3];testUrl2;;;;", 2);
         assertThat(logFileContent, hasItem(expectedFirstLog));
         assertThat(logFileContent, hasItem(expectedSecondLog));
         assertThat(logFileContent.indexOf(expectedFirstLog), is(1));
@@ -90,8 +108,8 @@ public class CsvWriterTest {
         // first create and fill a test log file
         File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
 
-        String expectedFirstLog = "testJob;42;SUCCESS;Mon Mar 12 16:55:42 CET 2018;Mon Mar 12 17:42:55 CET 2018;testCause;[node 1, node 2];testUrl";
-        String expectedSecondLog = "testJob2;88;FAILURE;Tue Mar 13 15:54:41 CET 2018;Tue Mar 13 16:41:54 CET 2018;testCause2;[node 3];testUrl2";
+        String expectedFirstLog = "testJob;42;SUCCESS;Mon Mar 12 16:55:42 CET 2018;Mon Mar 12 17:42:55 CET 2018;testCause;[node 1, node 2];testUrl;;;;";
+        String expectedSecondLog = "testJob2;88;FAILURE;Tue Mar 13 15:54:41 CET 2018;Tue Mar 13 16:41:54 CET 2018;testCause2;[node 3];testUrl2;;;;";
 
         FileUtils.writeStringToFile(tmpLogFile, HEADER + "\n", true);
         FileUtils.writeStringToFile(tmpLogFile, expectedFirstLog + "\n", true);
@@ -111,7 +129,7 @@ public class CsvWriterTest {
         JobStatus jobStatus3 = getJobStatus("testJob3", 55, "testCause3", "testUrl3",
                 "Wed Mar 14 14:52:39 CET 2018", "Wed Mar 14 15:40:53 CET 2018", "SUCCESS",
                 "node 4");
-        String expectedNewLog = "testJob3;55;SUCCESS;Wed Mar 14 14:52:39 CET 2018;Wed Mar 14 15:40:53 CET 2018;testCause3;[node 4];testUrl3";
+        String expectedNewLog = record("testJob3;55;SUCCESS;Wed Mar 14 14:52:39 CET 2018;Wed Mar 14 15:40:53 CET 2018;testCause3;[node 4];testUrl3;;;;", 1);
 
         // archive file should be created AFTER logJobStatus is completed
         File archiveFile = new File(tmpLogFile.getParent() + File.separator + "job_logger_2018-03-06_14-55-55.csv");
@@ -138,6 +156,132 @@ public class CsvWriterTest {
         assertThat(logFileContent, not(hasItem(expectedSecondLog)));
     }
 
+    @Test
+    public void logJobStatuses_MultipleJobStatus_NotExceedMaxSize() throws Exception {
+        mockFileUtil(false);
+        File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
+
+        JobStatus jobStatus = getJobStatus("testJob", 42, "testCause", "testUrl",
+                "Mon Mar 12 16:55:42 CET 2018", "Mon Mar 12 17:42:55 CET 2018", "SUCCESS",
+                "node 1", "node 2");
+        JobStatus jobStatus2 = getJobStatus("testJob2", 88, "testCause2", "testUrl2",
+                "Tue Mar 13 15:54:41 CET 2018", "Tue Mar 13 16:41:54 CET 2018", "FAILURE",
+                "node 3");
+
+        CsvWriter.logJobStatuses(tmpLogFile, Arrays.asList(jobStatus, jobStatus2));
+
+        List<String> logFileContent = FileUtils.readLines(tmpLogFile);
+        assertThat(logFileContent, hasSize(3));
+        assertThat(logFileContent.get(0), is(HEADER));
+        assertThat(logFileContent.get(1), is(record("testJob;42;SUCCESS;Mon Mar 12 16:55:42 CET 2018;Mon Mar 12 17:42:55 CET 2018;testCause;[node 1, node 2];testUrl;;;;", 1)));
+        assertThat(logFileContent.get(2), is(record("testJob2;88;FAILURE;Tue Mar 13 15:54:41 CET 2018;Tue Mar 13 16:41:54 CET 2018;testCause2;[node 3];testUrl2;;;;", 2)));
+    }
+
+    @Test
+    public void logJobStatus_LogFileClosedAndDeleted_RecreatedWithHeader() throws Exception {
+        mockFileUtil(false);
+        File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
+
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+        CsvWriter.closeLogFile();
+        assertThat(tmpLogFile.delete(), is(true));
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+
+        List<String> logFileContent = FileUtils.readLines(tmpLogFile);
+        assertThat(logFileContent, contains(HEADER, record(";0;;;;;;;;;;", 1)));
+    }
+
+    @Test
+    public void logJobStatus_OutdatedHeader_ArchivedBeforeAppending() throws Exception {
+        mockFileUtil(false);
+        mockCurrentDate("Tue Mar 06 14:55:55 CET 2018");
+        File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
+        FileUtils.writeStringToFile(tmpLogFile, "JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl\n"
+                + "first;1;;;;;;\n", true);
+
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+
+        File archiveFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55.csv");
+        assertThat(FileUtils.readLines(archiveFile), contains(
+                "JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl", "first;1;;;;;;"));
+        assertThat(FileUtils.readLines(tmpLogFile), contains(HEADER, record(";0;;;;;;;;;;", 1)));
+    }
+
+    @Test
+    public void logJobStatus_ExceedMaxSize_ArchiveInSameSecond() throws Exception {
+        File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
+        FileUtils.writeStringToFile(tmpLogFile, HEADER + "\n" + "first;1;;;;;;\n", true);
+        mockFileUtil(true);
+        mockCurrentDate("Tue Mar 06 14:55:55 CET 2018");
+
+        File archiveFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55.csv");
+        File secondArchiveFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55_1.csv");
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+
+        assertThat(archiveFile.exists(), is(true));
+        assertThat(secondArchiveFile.exists(), is(true));
+        assertThat(FileUtils.readLines(archiveFile), hasItem("first;1;;;;;;"));
+        assertThat(FileUtils.readLines(secondArchiveFile), contains(HEADER, record(";0;;;;;;;;;;", 1)));
+    }
+
+    @Test
+    public void logJobStatus_ExceedMaxSize_CompressedArchiveInSameSecondKept() throws Exception {
+        File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
+        FileUtils.writeStringToFile(tmpLogFile, HEADER + "\n" + "second;1;;;;;;\n", true);
+        File compressedFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55.csv.gz");
+        FileUtils.writeStringToFile(compressedFile, "first", true);
+        mockFileUtil(true);
+        mockCurrentDate("Tue Mar 06 14:55:55 CET 2018");
+
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+
+        assertThat(FileUtils.readFileToString(compressedFile), is("first"));
+        File archiveFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55_1.csv");
+        assertThat(FileUtils.readLines(archiveFile), hasItem("second;1;;;;;;"));
+    }
+
+    @Test
+    public void logJobStatus_ExceedMaxSize_CompressArchive() throws Exception {
+        File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
+        FileUtils.writeStringToFile(tmpLogFile, HEADER + "\n" + "first;1;;;;;;\n", true);
+        mockFileUtil(true);
+        mockCurrentDate("Tue Mar 06 14:55:55 CET 2018");
+        PowerMockito.when(mockConfig.getArchiveCompression()).thenReturn(ArchiveCompression.GZIP);
+
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+
+        File compressedFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55.csv.gz");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!compressedFile.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(compressedFile.exists(), is(true));
+        assertThat(FileUtils.readLines(tmpLogFile), contains(HEADER, record(";0;;;;;;;;;;", 1)));
+    }
+
+    @Test
+    public void logJobStatus_TornLine_TruncatedAndNumberingResumed() throws Exception {
+        mockFileUtil(false);
+        File tmpLogFile = new File(temp.getRoot().getAbsolutePath(), "test.log");
+        CsvWriter.logJobStatuses(tmpLogFile, Arrays.asList(new JobStatus(), new JobStatus()));
+        CsvWriter.closeLogFile();
+        FileUtils.writeStringToFile(tmpLogFile, "torn;3;SUCC", true);
+
+        CsvWriter.logJobStatus(tmpLogFile, new JobStatus());
+
+        assertThat(FileUtils.readLines(tmpLogFile), contains(HEADER, record(";0;;;;;;;;;;", 1),
+                record(";0;;;;;;;;;;", 2), record(";0;;;;;;;;;;", 3)));
+    }
+
+    private static String record(String line, long sequence) {
+        String record = line + ";" + sequence;
+        Crc32c checksum = new Crc32c();
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        checksum.update(bytes, 0, bytes.length);
+        return record + ";" + String.format("%08x", checksum.getValue());
+    }
+
     private JobStatus getJobStatus(String jobName, int buildNr, String cause, String url, String start, String end,
                                    String result, String... nodes) throws ParseException {
         JobStatus jobStatus = new JobStatus();
@@ -0,0 +1,74 @@
+package com.continental.contifactory.joblogger.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DurationHistogramTest {
+
+    @Test
+    public void getIndex_UpperBound() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 100, 1000, 60000, 3600000, 1L << 39}) {
+            int index = DurationHistogram.getIndex(value);
+            assertThat(DurationHistogram.getUpperBound(index), greaterThanOrEqualTo(value));
+            assertThat(index, lessThan(DurationHistogram.MAX_BUCKETS));
+            if (index > 0) {
+                assertThat(DurationHistogram.getUpperBound(index - 1), lessThan(value));
+            }
+        }
+    }
+
+    @Test
+    public void getIndex_RelativeError() {
+        for (long value = 8; value < 10000000; value = value * 3 + 1) {
+            long upperBound = DurationHistogram.getUpperBound(DurationHistogram.getIndex(value));
+            assertThat((double) (upperBound - value) / value, lessThanOrEqualTo(1.0 / DurationHistogram.SUB_BUCKETS));
+        }
+    }
+
+    @Test
+    public void getValueAtPercentile() {
+        DurationHistogram histogram = new DurationHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertThat(histogram.getCount(), is(100L));
+        assertThat(histogram.getSum(), is(5050000L));
+        assertThat(histogram.getMax(), is(100000L));
+        assertThat(histogram.getValueAtPercentile(50), allOf(greaterThanOrEqualTo(50000L), lessThan(57000L)));
+        assertThat(histogram.getValueAtPercentile(99), allOf(greaterThanOrEqualTo(99000L), lessThanOrEqualTo(100000L)));
+        assertThat(histogram.getValueAtPercentile(100), is(100000L));
+    }
+
+    @Test
+    public void getValueAtPercentile_Empty() {
+        assertThat(new DurationHistogram().getValueAtPercentile(50), is(0L));
+    }
+
+    @Test
+    public void record_Clamped() {
+        DurationHistogram histogram = new DurationHistogram();
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE / 2);
+
+        assertThat(histogram.getValueAtPercentile(50), is(0L));
+        assertThat(histogram.getValueAtPercentile(100), is(Long.MAX_VALUE / 2));
+        assertThat(histogram.getMax(), is(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void add() {
+        DurationHistogram histogram = new DurationHistogram();
+        histogram.record(10);
+        DurationHistogram other = new DurationHistogram();
+        other.record(3600000);
+        histogram.add(other);
+
+        assertThat(histogram.getCount(), is(2L));
+        assertThat(histogram.getSum(), is(3600010L));
+        assertThat(histogram.getMax(), is(3600000L));
+        assertThat(histogram.getValueAtPercentile(50), is(10L));
+    }
+}
@@ -11,6 +11,8 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.File;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -90,4 +92,40 @@ public class FileUtilTest {
         when(file.length()).thenReturn(2097152L);
         assertThat(FileUtil.exceedMaximumSize(file), is(true));
     }
+
+    @Test
+    public void exceedMaximumSize_FileSize() {
+        PowerMockito.when(mockConfig.getMaxLogFileSize()).thenReturn(1.0);
+
+        assertThat(FileUtil.exceedMaximumSize(0L), is(false));
+        assertThat(FileUtil.exceedMaximumSize(1048576L), is(false));
+        assertThat(FileUtil.exceedMaximumSize(1048577L), is(true));
+    }
+
+    @Test
+    public void exceedRotationPeriod() {
+        long hourAgo = System.currentTimeMillis() - 60 * 60 * 1000;
+        long dayAgo = System.currentTimeMillis() - 24 * 60 * 60 * 1000;
+        PowerMockito.when(mockConfig.getRotationPeriod()).thenReturn(RotationPeriod.NONE);
+        assertThat(FileUtil.exceedRotationPeriod(dayAgo), is(false));
+
+        PowerMockito.when(mockConfig.getRotationPeriod()).thenReturn(RotationPeriod.HOURLY);
+        assertThat(FileUtil.exceedRotationPeriod(hourAgo), is(true));
+        assertThat(FileUtil.exceedRotationPeriod(System.currentTimeMillis()), is(false));
+
+        PowerMockito.when(mockConfig.getRotationPeriod()).thenReturn(RotationPeriod.DAILY);
+        assertThat(FileUtil.exceedRotationPeriod(dayAgo), is(true));
+    }
+
+    @Test
+    public void rotationPeriod_NewPeriod() {
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+        long time = ZonedDateTime.of(2018, 3, 12, 23, 59, 0, 0, zone).toInstant().toEpochMilli();
+        long minuteLater = time + 60 * 1000;
+
+        assertThat(RotationPeriod.DAILY.isNewPeriod(time, minuteLater, zone), is(true));
+        assertThat(RotationPeriod.DAILY.isNewPeriod(time, minuteLater, ZoneId.of("UTC")), is(false));
+        assertThat(RotationPeriod.HOURLY.isNewPeriod(time - 60 * 1000, time, zone), is(false));
+        assertThat(RotationPeriod.NONE.isNewPeriod(0, time, zone), is(false));
+    }
 }
@@ -1,8 +1,12 @@
 package com.continental.contifactory.joblogger.util;
 
 import hudson.FilePath;
+import hudson.model.AbstractBuild;
 import hudson.model.Cause;
+import hudson.model.Computer;
+import hudson.model.Executor;
 import hudson.model.Job;
+import hudson.model.Node;
 import hudson.model.Run;
 import jenkins.model.Jenkins;
 import org.junit.Before;
@@ -146,6 +150,44 @@ public class JenkinsUtilTest {
         assertThat(JenkinsUtil.getBuildName(run), is("testJobName"));
     }
 
+    @Test
+    public void getExecutorNodeName_NotAbstractBuild() {
+        Run run = mock(Run.class);
+        assertThat(JenkinsUtil.getExecutorNodeName(run), is(nullValue()));
+    }
+
+    @Test
+    public void getExecutorNodeName_NoExecutor() {
+        AbstractBuild build = mock(AbstractBuild.class);
+        when(build.getExecutor()).thenReturn(null);
+        assertThat(JenkinsUtil.getExecutorNodeName(build), is(nullValue()));
+    }
+
+    @Test
+    public void getExecutorNodeName_ValidExecutor() {
+        AbstractBuild build = mock(AbstractBuild.class);
+        Executor executor = mock(Executor.class);
+        Computer computer = mock(Computer.class);
+        Node node = mock(Node.class);
+        when(build.getExecutor()).thenReturn(executor);
+        when(executor.getOwner()).thenReturn(computer);
+        when(computer.getNode()).thenReturn(node);
+        when(node.getDisplayName()).thenReturn("Test Node 1");
+        assertThat(JenkinsUtil.getExecutorNodeName(build), is("Test Node 1"));
+    }
+
+    @Test
+    public void getNodeDisplayName_Master() {
+        when(jenkins.getDisplayName()).thenReturn("master");
+        assertThat(JenkinsUtil.getNodeDisplayName(""), is("master"));
+    }
+
+    @Test
+    public void getNodeDisplayName_UnknownNode() {
+        when(jenkins.getNode("unknown")).thenReturn(null);
+        assertThat(JenkinsUtil.getNodeDisplayName("unknown"), is("unknown"));
+    }
+
     @Test
     public void getNodeNames_NoSlave() throws Exception {
         Run run = mock(Run.class);
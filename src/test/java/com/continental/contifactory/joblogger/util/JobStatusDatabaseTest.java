@@ -0,0 +1,152 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class})
+@PowerMockIgnore({"org.h2.*", "javax.management.*"})
+public class JobStatusDatabaseTest {
+    private final SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private JobStatusDatabase database;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileShortname()).thenReturn("job_logger");
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileExtension()).thenReturn(".csv");
+
+        database = new JobStatusDatabase(new File(temp.getRoot(), "db"));
+        database.insert(Arrays.asList(
+                getJobStatus("testJob", 1, "SUCCESS", "Mon Mar 12 17:42:55 CET 2018", "node 1"),
+                getJobStatus("testJob2", 1, "FAILURE", "Tue Mar 13 16:41:54 CET 2018", "node 2"),
+                getJobStatus("testJob", 2, "FAILURE", "Wed Mar 14 15:40:53 CET 2018", "node 2"),
+                getJobStatus("testJob", 3, "FAILURE", "Thu Mar 15 15:40:53 CET 2018", "node 1")));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void query_JobAndResult() throws Exception {
+        LogQuery query = new LogQuery();
+        query.setJobName("testJob");
+        query.setResult("FAILURE");
+
+        List<JobStatus> jobStatuses = database.query(query);
+
+        assertThat(jobStatuses, hasSize(2));
+        assertThat(jobStatuses.get(0).getJobNumber(), is(2));
+        assertThat(jobStatuses.get(0).getNodeNames(), contains("node 2"));
+        assertThat(jobStatuses.get(0).getEndDate(), is(format.parse("Wed Mar 14 15:40:53 CET 2018")));
+        assertThat(jobStatuses.get(1).getJobNumber(), is(3));
+    }
+
+    @Test
+    public void query_TimeRangeAndNodeAndLimit() throws Exception {
+        LogQuery query = new LogQuery();
+        query.setFrom(format.parse("Tue Mar 13 00:00:00 CET 2018").getTime());
+        query.setTo(format.parse("Wed Mar 14 23:59:59 CET 2018").getTime());
+        assertThat(database.query(query), hasSize(2));
+
+        query.setNodeName("node 1");
+        assertThat(database.query(query), is(empty()));
+
+        query = new LogQuery();
+        query.setNodeName("node 2");
+        query.setLimit(1);
+        List<JobStatus> jobStatuses = database.query(query);
+        assertThat(jobStatuses, hasSize(1));
+        assertThat(jobStatuses.get(0).getJobName(), is("testJob2"));
+    }
+
+    @Test
+    public void insert_SkipExisting() throws Exception {
+        try (Connection connection = database.openConnection()) {
+            int inserted = database.insert(connection, Arrays.asList(
+                    getJobStatus("testJob", 3, "FAILURE", "Thu Mar 15 15:40:53 CET 2018", "node 1"),
+                    getJobStatus("testJob", 4, "SUCCESS", "Fri Mar 16 15:40:53 CET 2018", "node 1")), true);
+            assertThat(inserted, is(1));
+        }
+
+        LogQuery query = new LogQuery();
+        query.setJobName("testJob");
+        assertThat(database.query(query), hasSize(4));
+    }
+
+    @Test
+    public void importLogFiles_ArchivesImportedOnce() throws Exception {
+        File logDir = temp.newFolder("userContent");
+        File logFile = new File(logDir, "job_logger.csv");
+        writeLogFile(logFile, false,
+                getJobStatus("testJob", 3, "FAILURE", "Thu Mar 15 15:40:53 CET 2018", "node 1"),
+                getJobStatus("testJob", 5, "SUCCESS", "Sat Mar 17 15:40:53 CET 2018", "node 3"));
+        writeLogFile(new File(logDir, "job_logger_2018-03-16_00-00-00.csv.gz"), true,
+                getJobStatus("testJob3", 1, "ABORTED", "Fri Mar 16 10:00:00 CET 2018", "node 3"));
+        assertThat(database.isImportComplete(), is(false));
+
+        LogImporter importer = new LogImporter(database);
+        assertThat(importer.importLogFiles(logFile), is(2L));
+        assertThat(database.isImportComplete(), is(true));
+        assertThat(importer.importLogFile(logFile), is(0));
+
+        LogQuery query = new LogQuery();
+        query.setNodeName("node 3");
+        List<JobStatus> jobStatuses = database.query(query);
+        assertThat(jobStatuses, hasSize(2));
+        assertThat(jobStatuses.get(0).getJobName(), is("testJob3"));
+        assertThat(jobStatuses.get(1).getJobNumber(), is(5));
+    }
+
+    private void writeLogFile(File file, boolean compressed, JobStatus... jobStatuses) throws Exception {
+        StringBuilder sb = new StringBuilder(CsvWriter.getHeader());
+        for (JobStatus jobStatus : jobStatuses) {
+            sb.append(CsvWriter.toCsvLine(jobStatus));
+        }
+        try (OutputStream out = compressed ? new GZIPOutputStream(Files.newOutputStream(file.toPath()))
+                : Files.newOutputStream(file.toPath())) {
+            out.write(sb.toString().getBytes(Charset.defaultCharset()));
+        }
+    }
+
+    private JobStatus getJobStatus(String jobName, int number, String result, String endDate, String nodeName)
+            throws Exception {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(number);
+        jobStatus.setBuildResult(result);
+        jobStatus.setStartDate(format.parse("Mon Mar 12 17:00:00 CET 2018"));
+        jobStatus.setEndDate(format.parse(endDate));
+        jobStatus.setBuildCause("Started by user");
+        jobStatus.setNodeNames(new ArrayList<>(Collections.singletonList(nodeName)));
+        jobStatus.setConsoleUrl("http://localhost/job/" + jobName + "/" + number + "/console");
+        return jobStatus;
+    }
+}
@@ -0,0 +1,120 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LogCommitterTest {
+    private static final long TIMEOUT = 5000;
+    private static final long NEVER = 600000;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private final LogCommitter committer = new LogCommitter();
+    private FileChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        channel = FileChannel.open(temp.newFile("test.csv").toPath(), StandardOpenOption.WRITE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        committer.setDurability(LogDurability.NONE, 1, 0);
+        channel.close();
+    }
+
+    private static JobStatus getJobStatus(String jobName, int jobNumber) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(jobNumber);
+        return jobStatus;
+    }
+
+    @Test
+    public void awaitCommit_GroupCommit_CommittedAfterRecords() {
+        committer.setDurability(LogDurability.GROUP_COMMIT, 2, NEVER);
+        JobStatus first = getJobStatus("job", 1);
+        JobStatus second = getJobStatus("job", 2);
+        committer.register(first);
+        committer.register(second);
+
+        committer.written(channel, Collections.singletonList(first));
+        assertThat(committer.getCommitDelay(System.currentTimeMillis()), is(greaterThan(NEVER / 2)));
+        committer.written(channel, Collections.singletonList(second));
+
+        assertThat(committer.awaitCommit(second, TIMEOUT), is(true));
+        assertThat(committer.awaitCommit(first, TIMEOUT), is(true));
+        assertThat(committer.getWritten(), is(2L));
+        assertThat(committer.getCommitted(), is(2L));
+        assertThat(committer.getCommits(), is(1L));
+    }
+
+    @Test
+    public void awaitCommit_SpilledJobStatus_Committed() {
+        committer.setDurability(LogDurability.GROUP_COMMIT, 1, NEVER);
+        JobStatus jobStatus = getJobStatus("folder/job", 42);
+        committer.register(jobStatus);
+
+        // a spilled job status is read back as a new object
+        committer.written(channel, Collections.singletonList(getJobStatus("folder/job", 42)));
+
+        assertThat(committer.awaitCommit(jobStatus, TIMEOUT), is(true));
+    }
+
+    @Test
+    public void awaitCommit_Periodic_CommittedAfterInterval() {
+        committer.setDurability(LogDurability.PERIODIC, 1, 1);
+        JobStatus jobStatus = getJobStatus("job", 1);
+        committer.register(jobStatus);
+
+        committer.written(channel, Collections.singletonList(jobStatus));
+
+        assertThat(committer.awaitCommit(jobStatus, TIMEOUT), is(true));
+        assertThat(committer.awaitCommit(jobStatus, TIMEOUT), is(false));
+    }
+
+    @Test
+    public void awaitCommit_None_NotWaiting() {
+        JobStatus jobStatus = getJobStatus("job", 1);
+        committer.register(jobStatus);
+
+        committer.written(channel, Collections.singletonList(jobStatus));
+
+        assertThat(committer.awaitCommit(jobStatus, NEVER), is(false));
+        assertThat(committer.getCommitDelay(System.currentTimeMillis()), is(Long.MAX_VALUE));
+        assertThat(committer.getCommits(), is(0L));
+    }
+
+    @Test
+    public void closing_CommitsWrittenRecords() {
+        committer.setDurability(LogDurability.GROUP_COMMIT, 100, NEVER);
+        committer.written(channel, Collections.nCopies(3, new JobStatus()));
+
+        committer.closing(channel);
+
+        assertThat(committer.getCommitted(), is(3L));
+        assertThat(committer.getCommitDelay(System.currentTimeMillis()), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void getCommitDelay_GroupCommit_OldestUncommittedWrite() {
+        committer.setDurability(LogDurability.GROUP_COMMIT, 100, NEVER);
+        long now = System.currentTimeMillis();
+        committer.written(channel, Collections.singletonList(new JobStatus()));
+
+        assertThat(committer.getCommitDelay(now), is(both(greaterThan(NEVER - TIMEOUT)).and(lessThanOrEqualTo(NEVER
+                + TIMEOUT))));
+        assertThat(committer.getCommitDelay(now + 2 * NEVER), is(0L));
+    }
+}
@@ -0,0 +1,129 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class})
+public class LogCompactorTest {
+    private final SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+    private LogCompactor compactor;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileShortname()).thenReturn("job_logger");
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileExtension()).thenReturn(".csv");
+
+        LogIndex.getInstance().reset();
+        compactor = new LogCompactor(ZoneId.of("UTC"));
+        logFile = new File(temp.getRoot(), "job_logger.csv");
+        writeLogFile(logFile, false, getJobStatus("liveJob", 1, "Sat Mar 17 15:40:53 UTC 2018"));
+        writeLogFile(new File(temp.getRoot(), "job_logger_2018-03-16_00-00-00.csv"), false,
+                getJobStatus("testJob", 2, "Thu Mar 15 15:40:53 UTC 2018"),
+                getJobStatus("testJob", 1, "Thu Mar 15 10:40:53 UTC 2018"),
+                getJobStatus("testJob2", 1, "Fri Mar 16 01:00:00 UTC 2018"));
+        writeLogFile(new File(temp.getRoot(), "job_logger_2018-03-17_00-00-00.csv.gz"), true,
+                getJobStatus("testJob", 2, "Thu Mar 15 15:40:53 UTC 2018"),
+                getJobStatus("testJob3", 1, "Fri Mar 16 20:00:00 UTC 2018"));
+    }
+
+    @After
+    public void tearDown() {
+        LogIndex.getInstance().reset();
+    }
+
+    @Test
+    public void compact_DailyLogFiles() throws Exception {
+        assertThat(compactor.compact(logFile), is(2));
+
+        assertThat(temp.getRoot().list(), arrayContainingInAnyOrder("job_logger.csv", "job_logger_2018-03-15.csv.gz",
+                "job_logger_2018-03-16.csv.gz"));
+        List<String> lines = readLines(LogCompactor.getDailyLogFile(temp.getRoot(), LocalDate.of(2018, 3, 15)));
+        assertThat(lines, contains(CsvWriter.getHeader().trim(),
+                "testJob;1;SUCCESS;2018-03-15T10:40:53Z;2018-03-15T10:40:53Z;testCause;[node 1];testUrl;;;;",
+                "testJob;2;SUCCESS;2018-03-15T15:40:53Z;2018-03-15T15:40:53Z;testCause;[node 1];testUrl;;;;"));
+        assertThat(compactor.compact(logFile), is(0));
+    }
+
+    @Test
+    public void compact_MergedWithDailyLogFile() throws Exception {
+        compactor.compact(logFile);
+        writeLogFile(new File(temp.getRoot(), "job_logger_2018-03-18_00-00-00.csv"), false,
+                getJobStatus("testJob3", 1, "Fri Mar 16 20:00:00 UTC 2018"),
+                getJobStatus("testJob3", 2, "Fri Mar 16 21:00:00 UTC 2018"));
+
+        assertThat(compactor.compact(logFile), is(1));
+
+        LogQuery query = new LogQuery();
+        query.setJobName("testJob3");
+        List<JobStatus> jobStatuses = LogIndex.getInstance().query(logFile, query);
+        assertThat(jobStatuses, hasSize(2));
+        assertThat(jobStatuses.get(1).getEndDate(), is(format.parse("Fri Mar 16 21:00:00 UTC 2018")));
+        assertThat(LogIndex.getInstance().query(logFile, new LogQuery()), hasSize(6));
+    }
+
+    private List<String> readLines(File file) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                Files.newInputStream(file.toPath())), Charset.defaultCharset()))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private void writeLogFile(File file, boolean compressed, JobStatus... jobStatuses) throws Exception {
+        StringBuilder sb = new StringBuilder(CsvWriter.getHeader());
+        for (JobStatus jobStatus : jobStatuses) {
+            sb.append(CsvWriter.toCsvLine(jobStatus));
+        }
+        try (OutputStream out = compressed ? new GZIPOutputStream(Files.newOutputStream(file.toPath()))
+                : Files.newOutputStream(file.toPath())) {
+            out.write(sb.toString().getBytes(Charset.defaultCharset()));
+        }
+    }
+
+    private JobStatus getJobStatus(String jobName, int number, String endDate) throws Exception {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(number);
+        jobStatus.setBuildResult("SUCCESS");
+        jobStatus.setStartDate(format.parse(endDate));
+        jobStatus.setEndDate(format.parse(endDate));
+        jobStatus.setBuildCause("testCause");
+        jobStatus.setNodeNames(new ArrayList<>(Collections.singletonList("node 1")));
+        jobStatus.setConsoleUrl("testUrl");
+        return jobStatus;
+    }
+}
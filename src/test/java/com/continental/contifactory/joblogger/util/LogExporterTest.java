@@ -0,0 +1,191 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({CsvWriter.class, FileUtil.class, JobLoggerPluginConfiguration.class})
+public class LogExporterTest {
+    private final String HEADER = "JobName;JobNumber;Result;StartDate;EndDate;Cause;Node;ConsoleUrl;QueueDate;LeftQueueDate;Label;Executor";
+    private final String RECORD_HEADER = HEADER + ";Sequence;Checksum";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+    private File archiveFile;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(FileUtil.class);
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileShortname()).thenReturn("job_logger");
+        PowerMockito.when(FileUtil.exceedMaximumSize(any())).thenReturn(false);
+        PowerMockito.when(FileUtil.exceedMaximumSize(anyLong())).thenReturn(false);
+        LogIndex.getInstance().reset();
+
+        archiveFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55.csv");
+        CsvWriter.logJobStatuses(archiveFile, Arrays.asList(getJobStatus("testJob", 1, "SUCCESS", 1000L),
+                getJobStatus("testJob2", 1, "FAILURE", 2000L)));
+        CsvWriter.closeLogFile();
+        ArchiveCompressor.compress(archiveFile, ArchiveCompression.GZIP);
+
+        logFile = new File(temp.getRoot(), "job_logger.csv");
+        CsvWriter.logJobStatuses(logFile, Arrays.asList(getJobStatus("testJob", 2, "FAILURE", 3000L),
+                getJobStatus("testJob", 3, "SUCCESS", 4000L)));
+        CsvWriter.closeLogFile();
+    }
+
+    @After
+    public void tearDown() {
+        LogIndex.getInstance().reset();
+    }
+
+    @Test
+    public void write_Raw_AllLogFilesWithOneHeader() throws Exception {
+        LogQuery query = getExportQuery();
+        LogExporter exporter = new LogExporter(LogIndex.getInstance().findLogFiles(logFile, query), query,
+                ExportFormat.CSV);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.write(out);
+
+        List<String> lines = Arrays.asList(out.toString().split("\n"));
+        assertThat(exporter.isRaw(), is(true));
+        assertThat(exporter.getLength(), is((long) out.size()));
+        assertThat(lines, hasSize(5));
+        assertThat(lines.get(0), is(RECORD_HEADER));
+        assertThat(lines.get(1), startsWith("testJob;1;SUCCESS;"));
+        assertThat(lines.get(4), startsWith("testJob;3;SUCCESS;"));
+        for (String line : lines) {
+            assertThat(line, line.split(";", -1).length, is(14));
+        }
+    }
+
+    @Test
+    public void write_FramedAndUnframedLogFiles_FramesRemoved() throws Exception {
+        File unframedFile = new File(temp.getRoot(), "job_logger_2018-03-07_10-00-00.csv");
+        FileUtils.writeStringToFile(unframedFile, HEADER + "\n"
+                + CsvWriter.toCsvLine(getJobStatus("testJob3", 1, "SUCCESS", 2500L)), Charset.defaultCharset());
+        LogQuery query = getExportQuery();
+        LogExporter exporter = new LogExporter(LogIndex.getInstance().findLogFiles(logFile, query), query,
+                ExportFormat.CSV);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.write(out);
+
+        List<String> lines = Arrays.asList(out.toString().split("\n"));
+        assertThat(exporter.isRaw(), is(false));
+        assertThat(lines, hasSize(6));
+        assertThat(lines.get(0), is(HEADER));
+        assertThat(lines.get(3), startsWith("testJob3;1;SUCCESS;"));
+        for (String line : lines) {
+            assertThat(line, line.split(";", -1).length, is(12));
+        }
+    }
+
+    @Test
+    public void write_Ranges_SameAsWholeExport() throws Exception {
+        LogQuery query = getExportQuery();
+        LogExporter exporter = new LogExporter(LogIndex.getInstance().findLogFiles(logFile, query), query,
+                ExportFormat.CSV);
+        ByteArrayOutputStream whole = new ByteArrayOutputStream();
+        exporter.write(whole);
+
+        for (long split : new long[]{0, 10, HEADER.length() + 1, whole.size() / 2, whole.size() - 1}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            exporter.write(out, 0, split);
+            exporter.write(out, split, exporter.getLength());
+            assertThat(out.toByteArray(), is(whole.toByteArray()));
+        }
+    }
+
+    @Test
+    public void write_PartialLastLine_NotExported() throws Exception {
+        FileUtils.writeStringToFile(logFile, "testJob;4;SUC", true);
+        LogQuery query = getExportQuery();
+        LogExporter exporter = new LogExporter(LogIndex.getInstance().findLogFiles(logFile, query), query,
+                ExportFormat.CSV);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.write(out);
+
+        assertThat(out.toString(), not(containsString("testJob;4;")));
+        assertThat(out.toString(), endsWith("\n"));
+    }
+
+    @Test
+    public void write_Filtered_Ndjson() throws Exception {
+        LogQuery query = getExportQuery();
+        query.setResult("FAILURE");
+        LogExporter exporter = new LogExporter(LogIndex.getInstance().findLogFiles(logFile, query), query,
+                ExportFormat.NDJSON);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.write(out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(exporter.isRaw(), is(false));
+        assertThat(lines.length, is(2));
+        assertThat(lines[0], startsWith("{\"jobName\":\"testJob2\",\"jobNumber\":1,\"result\":\"FAILURE\""));
+        assertThat(lines[1], startsWith("{\"jobName\":\"testJob\",\"jobNumber\":2,\"result\":\"FAILURE\""));
+    }
+
+    @Test
+    public void write_FilteredWithLimit_Csv() throws Exception {
+        LogQuery query = getExportQuery();
+        query.setJobName("testJob");
+        query.setLimit(2);
+        LogExporter exporter = new LogExporter(LogIndex.getInstance().findLogFiles(logFile, query), query,
+                ExportFormat.CSV);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.write(out);
+
+        String[] lines = out.toString().split("\n");
+        assertThat(lines.length, is(3));
+        assertThat(lines[0], is(HEADER));
+        assertThat(lines[1], startsWith("testJob;1;"));
+        assertThat(lines[2], startsWith("testJob;2;"));
+        for (String line : lines) {
+            assertThat(line, line.split(";", -1).length, is(12));
+        }
+    }
+
+    private LogQuery getExportQuery() {
+        LogQuery query = new LogQuery();
+        query.setLimit(Integer.MAX_VALUE);
+        return query;
+    }
+
+    private JobStatus getJobStatus(String jobName, int jobNumber, String result, long endDate) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setBuildResult(result);
+        jobStatus.setStartDate(new Date(endDate));
+        jobStatus.setEndDate(new Date(endDate));
+        jobStatus.setNodeNames(new ArrayList<>(Collections.singletonList("node")));
+        return jobStatus;
+    }
+}
@@ -0,0 +1,142 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({CsvWriter.class, FileUtil.class, Calendar.class, JobLoggerPluginConfiguration.class})
+public class LogIndexTest {
+    private final SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(FileUtil.class);
+        PowerMockito.mockStatic(Calendar.class);
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        JobLoggerPluginConfiguration mockConfig = PowerMockito.mock(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.get()).thenReturn(mockConfig);
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileShortname()).thenReturn("job_logger");
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileExtension()).thenReturn(".csv");
+        PowerMockito.when(mockConfig.getArchiveCompression()).thenReturn(ArchiveCompression.NONE);
+        mockExceedMaximumSize(false);
+
+        Calendar cal = PowerMockito.mock(Calendar.class);
+        PowerMockito.when(Calendar.getInstance()).thenReturn(cal);
+        PowerMockito.when(cal.getTime()).thenReturn(format.parse("Tue Mar 06 14:55:55 CET 2018"));
+
+        LogIndex.getInstance().reset();
+        logFile = new File(temp.getRoot(), "job_logger.csv");
+        CsvWriter.logJobStatuses(logFile, Arrays.asList(
+                getJobStatus("testJob", 1, "SUCCESS", "Mon Mar 12 17:42:55 CET 2018", "node 1"),
+                getJobStatus("testJob2", 1, "FAILURE", "Tue Mar 13 16:41:54 CET 2018", "node 2"),
+                getJobStatus("testJob", 2, "FAILURE", "Wed Mar 14 15:40:53 CET 2018", "node 2"),
+                getJobStatus("testJob", 3, "FAILURE", "Thu Mar 15 15:40:53 CET 2018", "node 1")));
+    }
+
+    @After
+    public void tearDown() {
+        CsvWriter.closeLogFile();
+        LogIndex.getInstance().reset();
+    }
+
+    private void mockExceedMaximumSize(boolean exceedSize) {
+        PowerMockito.when(FileUtil.exceedMaximumSize(any())).thenReturn(exceedSize);
+        PowerMockito.when(FileUtil.exceedMaximumSize(anyLong())).thenReturn(exceedSize);
+    }
+
+    @Test
+    public void query_JobAndResult() throws Exception {
+        LogQuery query = new LogQuery();
+        query.setJobName("testJob");
+        query.setResult("FAILURE");
+
+        List<JobStatus> jobStatuses = LogIndex.getInstance().query(logFile, query);
+
+        assertThat(jobStatuses, hasSize(2));
+        assertThat(jobStatuses.get(0).getJobNumber(), is(2));
+        assertThat(jobStatuses.get(1).getJobNumber(), is(3));
+        assertThat(LogIndex.getIndexFile(logFile).exists(), is(true));
+    }
+
+    @Test
+    public void query_TimeRangeAndNodeAndLimit() throws Exception {
+        LogQuery query = new LogQuery();
+        query.setFrom(format.parse("Tue Mar 13 00:00:00 CET 2018").getTime());
+        query.setTo(format.parse("Wed Mar 14 23:59:59 CET 2018").getTime());
+        assertThat(LogIndex.getInstance().query(logFile, query), hasSize(2));
+
+        query.setNodeName("node 1");
+        assertThat(LogIndex.getInstance().query(logFile, query), is(empty()));
+
+        LogQuery limitQuery = new LogQuery();
+        limitQuery.setLimit(3);
+        assertThat(LogIndex.getInstance().query(logFile, limitQuery), hasSize(3));
+    }
+
+    @Test
+    public void query_IndexFileDeleted_Rebuilt() throws Exception {
+        assertThat(LogIndex.getIndexFile(logFile).delete(), is(true));
+        LogIndex.getInstance().reset();
+
+        LogQuery query = new LogQuery();
+        query.setJobName("testJob2");
+        List<JobStatus> jobStatuses = LogIndex.getInstance().query(logFile, query);
+
+        assertThat(jobStatuses, hasSize(1));
+        assertThat(jobStatuses.get(0).getBuildResult(), is("FAILURE"));
+        assertThat(LogIndex.getIndexFile(logFile).exists(), is(true));
+    }
+
+    @Test
+    public void query_LogFileArchived_FindsArchivedAndNewJobStatus() throws Exception {
+        LogQuery query = new LogQuery();
+        query.setJobName("testJob");
+        assertThat(LogIndex.getInstance().query(logFile, query), hasSize(3));
+
+        mockExceedMaximumSize(true);
+        CsvWriter.logJobStatus(logFile, getJobStatus("testJob", 4, "SUCCESS", "Fri Mar 16 15:40:53 CET 2018", "node 1"));
+
+        File archiveFile = new File(temp.getRoot(), "job_logger_2018-03-06_14-55-55.csv");
+        assertThat(archiveFile.exists(), is(true));
+        assertThat(LogIndex.getIndexFile(archiveFile).exists(), is(true));
+
+        List<JobStatus> jobStatuses = LogIndex.getInstance().query(logFile, query);
+        assertThat(jobStatuses, hasSize(4));
+        assertThat(jobStatuses.get(3).getJobNumber(), is(4));
+        assertThat(LogIndex.getInstance().getSegmentCount(), is(2));
+    }
+
+    private JobStatus getJobStatus(String jobName, int jobNumber, String result, String endDate, String nodeName)
+            throws Exception {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName(jobName);
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setBuildResult(result);
+        jobStatus.setStartDate(format.parse(endDate));
+        jobStatus.setEndDate(format.parse(endDate));
+        jobStatus.setNodeNames(new ArrayList<>(Collections.singletonList(nodeName)));
+        return jobStatus;
+    }
+}
@@ -0,0 +1,99 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LogRecoveryTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File writeLogFile(int records) throws Exception {
+        CsvEncoder encoder = new CsvEncoder(false);
+        encoder.writeHeader();
+        for (int i = 1; i <= records; i++) {
+            JobStatus jobStatus = new JobStatus();
+            jobStatus.setJobName("job;" + i);
+            jobStatus.setJobNumber(i);
+            encoder.encodeRecord(jobStatus, i);
+        }
+        ByteBuffer buffer = encoder.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        File logFile = temp.newFile("job_logger.csv");
+        Files.write(logFile.toPath(), bytes);
+        return logFile;
+    }
+
+    @Test
+    public void recover_MissingFile_FirstSequence() throws Exception {
+        assertThat(LogRecovery.recover(new File(temp.getRoot(), "missing.csv")), is(LogRecovery.FIRST_SEQUENCE));
+    }
+
+    @Test
+    public void recover_ValidRecords_NumberingResumed() throws Exception {
+        File logFile = writeLogFile(3);
+        long length = logFile.length();
+
+        assertThat(LogRecovery.recover(logFile), is(4L));
+        assertThat(logFile.length(), is(length));
+    }
+
+    @Test
+    public void recover_TornSuffix_Truncated() throws Exception {
+        File logFile = writeLogFile(2);
+        long length = logFile.length();
+        FileUtils.writeStringToFile(logFile, "job 3;3;SUCCESS;Mon Mar 12", StandardCharsets.UTF_8, true);
+
+        assertThat(LogRecovery.recover(logFile), is(3L));
+        assertThat(logFile.length(), is(length));
+    }
+
+    @Test
+    public void recover_CorruptRecordAndZeros_Truncated() throws Exception {
+        File logFile = writeLogFile(2);
+        byte[] bytes = Files.readAllBytes(logFile.toPath());
+        // the last record was only partly written, followed by zeros and a line break
+        bytes[bytes.length - 5] = '0';
+        bytes[bytes.length - 4] = '0';
+        byte[] torn = Arrays.copyOf(bytes, bytes.length + 5);
+        torn[torn.length - 1] = '\n';
+        Files.write(logFile.toPath(), torn);
+
+        assertThat(LogRecovery.recover(logFile), is(2L));
+        assertThat(FileUtils.readLines(logFile, StandardCharsets.UTF_8), hasSize(2));
+        assertThat(new CsvReader().parse(FileUtils.readLines(logFile, StandardCharsets.UTF_8).get(1)).getJobName(),
+                is("job;1"));
+    }
+
+    @Test
+    public void recover_LinesWithoutFrame_Kept() throws Exception {
+        File logFile = temp.newFile("job_logger.csv");
+        FileUtils.writeStringToFile(logFile, CsvEncoder.HEADER + "testJob;42;SUCCESS;;;;[node 1];testUrl;;;;\n",
+                StandardCharsets.UTF_8);
+        long length = logFile.length();
+
+        assertThat(LogRecovery.recover(logFile), is(LogRecovery.FIRST_SEQUENCE));
+        assertThat(logFile.length(), is(length));
+    }
+
+    @Test
+    public void scan_LineStartsBeforeTail_NotFound() {
+        byte[] tail = "ob;42;SUCCESS;;;;;;;;;;1;00000000\n".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(LogRecovery.scan(tail, false), is(nullValue()));
+        assertThat(LogRecovery.scan(tail, true).getLength(), is(0));
+        assertThat(LogRecovery.scan(new byte[0], true).getSequence(), is(0L));
+    }
+}
@@ -0,0 +1,78 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class})
+public class LogRetentionTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long NOW = 100 * DAY;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileShortname()).thenReturn("job_logger");
+        PowerMockito.when(JobLoggerPluginConfiguration.getLogFileExtension()).thenReturn(".csv");
+
+        logFile = createFile("job_logger.csv", 100, NOW - 10 * DAY);
+        createFile("job_logger_2018-03-01_00-00-00.csv", 100, NOW - 4 * DAY);
+        createFile("job_logger_2018-03-02_00-00-00.csv.gz", 100, NOW - 3 * DAY);
+        createFile("job_logger_2018-03-02_00-00-00.jlb", 100, NOW - 3 * DAY);
+        createFile("job_logger_2018-03-03.csv.gz", 100, NOW - 2 * DAY);
+        createFile("job_logger_2018-03-04_00-00-00.csv", 100, NOW - DAY);
+        createFile("job_logger_2018-03-02_00-00-00.csv.idx", 100, NOW - 5 * DAY);
+    }
+
+    private File createFile(String name, int size, long lastModified) throws Exception {
+        File file = new File(temp.getRoot(), name);
+        Files.write(file.toPath(), new byte[size]);
+        assertThat(file.setLastModified(lastModified), is(true));
+        return file;
+    }
+
+    @Test
+    public void enforce_NoLimit() throws Exception {
+        assertThat(new LogRetention(0, 0, 0).enforce(logFile, NOW), is(0));
+        assertThat(LogRetention.findArchives(logFile), hasSize(5));
+    }
+
+    @Test
+    public void enforce_MaxCount() throws Exception {
+        assertThat(new LogRetention(2, 0, 0).enforce(logFile, NOW), is(3));
+
+        assertThat(temp.getRoot().list(), arrayContainingInAnyOrder("job_logger.csv", "job_logger_2018-03-03.csv.gz",
+                "job_logger_2018-03-04_00-00-00.csv"));
+    }
+
+    @Test
+    public void enforce_MaxSize() throws Exception {
+        assertThat(new LogRetention(0, 250, 0).enforce(logFile, NOW), is(3));
+        assertThat(LogRetention.findArchives(logFile), hasSize(2));
+    }
+
+    @Test
+    public void enforce_MaxAge() throws Exception {
+        assertThat(new LogRetention(10, 0, 2 * DAY + 1).enforce(logFile, NOW), is(3));
+
+        assertThat(logFile.exists(), is(true));
+        assertThat(LogRetention.findArchives(logFile), hasSize(2));
+    }
+}
@@ -0,0 +1,133 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.JobStatus;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LogTailReaderTest {
+    private static final int RECORDS = 1000;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+
+    @Before
+    public void setUp() throws Exception {
+        logFile = new File(temp.getRoot(), "job_logger.csv");
+        StringBuilder sb = new StringBuilder(CsvWriter.getHeader());
+        for (int i = 1; i <= RECORDS; i++) {
+            sb.append(CsvWriter.toCsvLine(getJobStatus(i)));
+        }
+        // more than one chunk, so lines are read across chunk borders
+        assertThat(sb.length(), is(greaterThan(2 * LogTailReader.CHUNK_SIZE)));
+        write(sb.toString());
+    }
+
+    private static JobStatus getJobStatus(int jobNumber) {
+        JobStatus jobStatus = new JobStatus();
+        jobStatus.setJobName("testJob");
+        jobStatus.setJobNumber(jobNumber);
+        jobStatus.setBuildResult("SUCCESS");
+        jobStatus.setStartDate(new Date(1520000000000L + jobNumber * 1000L));
+        jobStatus.setEndDate(new Date(1520000000000L + jobNumber * 2000L));
+        jobStatus.setBuildCause("Started by timer");
+        jobStatus.setNodeNames(Collections.singletonList("node 1"));
+        jobStatus.setConsoleUrl("http://jenkins/job/testJob/" + jobNumber + "/console");
+        return jobStatus;
+    }
+
+    private void write(String content) throws Exception {
+        FileUtils.writeStringToFile(logFile, content, Charset.defaultCharset(), true);
+    }
+
+    @Test
+    public void readLast_NewestRecords() throws Exception {
+        LogTailReader.Tail tail = LogTailReader.readLast(logFile, 3);
+
+        assertThat(tail.getJobStatuses(), hasSize(3));
+        assertThat(tail.getJobStatuses().get(0).getJobNumber(), is(RECORDS - 2));
+        assertThat(tail.getJobStatuses().get(2).getJobNumber(), is(RECORDS));
+        assertThat(tail.getCursor(), endsWith("-" + logFile.length()));
+        assertThat(tail.isReset(), is(false));
+    }
+
+    @Test
+    public void readLast_MoreThanLogFile_AllRecordsWithoutHeader() throws Exception {
+        LogTailReader.Tail tail = LogTailReader.readLast(logFile, 2 * RECORDS);
+
+        assertThat(tail.getJobStatuses(), hasSize(RECORDS));
+        assertThat(tail.getJobStatuses().get(0).getJobNumber(), is(1));
+        assertThat(tail.getJobStatuses().get(RECORDS - 1).getJobNumber(), is(RECORDS));
+    }
+
+    @Test
+    public void readAfter_Cursor_OnlyNewCompleteRecords() throws Exception {
+        String cursor = LogTailReader.readLast(logFile, 1).getCursor();
+        String line = CsvWriter.toCsvLine(getJobStatus(RECORDS + 1));
+        write(line.substring(0, 10));
+
+        LogTailReader.Tail tail = LogTailReader.readAfter(logFile, cursor, 10);
+
+        assertThat(tail.getJobStatuses(), is(empty()));
+        assertThat(tail.getCursor(), is(cursor));
+
+        write(line.substring(10));
+        tail = LogTailReader.readAfter(logFile, cursor, 10);
+
+        assertThat(tail.getJobStatuses(), hasSize(1));
+        assertThat(tail.getJobStatuses().get(0).getJobNumber(), is(RECORDS + 1));
+        assertThat(tail.getCursor(), endsWith("-" + logFile.length()));
+    }
+
+    @Test
+    public void readAfter_Limit_ResumedWithCursor() throws Exception {
+        LogTailReader.Tail first = LogTailReader.readAfter(logFile, null, 400);
+        LogTailReader.Tail second = LogTailReader.readAfter(logFile, first.getCursor(), RECORDS);
+
+        assertThat(first.getJobStatuses(), hasSize(400));
+        assertThat(first.getJobStatuses().get(399).getJobNumber(), is(400));
+        assertThat(second.getJobStatuses(), hasSize(RECORDS - 400));
+        assertThat(second.getJobStatuses().get(0).getJobNumber(), is(401));
+        assertThat(second.isReset(), is(false));
+    }
+
+    @Test
+    public void readAfter_ArchivedLogFile_Reset() throws Exception {
+        String cursor = LogTailReader.readLast(logFile, 1).getCursor();
+        assertThat(logFile.renameTo(new File(temp.getRoot(), "job_logger_archive.csv")), is(true));
+        write(CsvWriter.getHeader() + CsvWriter.toCsvLine(getJobStatus(RECORDS + 1)));
+
+        LogTailReader.Tail tail = LogTailReader.readAfter(logFile, cursor, 10);
+
+        assertThat(tail.isReset(), is(true));
+        assertThat(tail.getJobStatuses(), hasSize(1));
+        assertThat(tail.getJobStatuses().get(0).getJobNumber(), is(RECORDS + 1));
+    }
+
+    @Test
+    public void readAfter_NoLogFile_Empty() throws Exception {
+        File missing = new File(temp.getRoot(), "missing.csv");
+
+        LogTailReader.Tail tail = LogTailReader.readAfter(missing, null, 10);
+
+        assertThat(tail.getJobStatuses(), is(empty()));
+        assertThat(tail.getCursor(), is("0-0"));
+        assertThat(LogTailReader.readLast(missing, 10).getJobStatuses(), is(empty()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readAfter_InvalidCursor() throws Exception {
+        LogTailReader.readAfter(logFile, "123", 10);
+    }
+}
@@ -0,0 +1,80 @@
+package com.continental.contifactory.joblogger.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class NodeNameExtractorTest {
+
+    @Test
+    public void extract_MultipleSlaves() throws Exception {
+        NodeNameExtractor extractor = new NodeNameExtractor(NodeNameExtractor.DEFAULT_MAX_NODE_NAMES, Long.MAX_VALUE,
+                null);
+        try (InputStream log = getClass().getClassLoader().getResourceAsStream("testLog_MultipleSlaves")) {
+            assertThat(extractor.extract(log), contains("Test Node 1", "Test Node 2"));
+        }
+    }
+
+    @Test
+    public void extract_NoSlave() throws Exception {
+        NodeNameExtractor extractor = new NodeNameExtractor(NodeNameExtractor.DEFAULT_MAX_NODE_NAMES, Long.MAX_VALUE,
+                null);
+        try (InputStream log = getClass().getClassLoader().getResourceAsStream("testLog_NoSlave")) {
+            assertThat(extractor.extract(log), is(empty()));
+        }
+    }
+
+    @Test
+    public void extract_DuplicateNodeNames() throws Exception {
+        String log = "Running on node1 in /ws/a\nsome output\nRunning on node2 in /ws/b\nRunning on node1 in /ws/c\n";
+        List<String> nodeNames = extract(log, NodeNameExtractor.DEFAULT_MAX_NODE_NAMES, Long.MAX_VALUE);
+        assertThat(nodeNames, contains("node1", "node2"));
+    }
+
+    @Test
+    public void extract_LastLineWithoutNewline() throws Exception {
+        assertThat(extract("output\nRunning on node1 in /ws/a", 10, Long.MAX_VALUE), contains("node1"));
+    }
+
+    @Test
+    public void extract_PartialMarker() throws Exception {
+        assertThat(extract("RunninRunning on node1 in /ws/a\nRunning o\nn node2 in /ws/b\n", 10, Long.MAX_VALUE),
+                contains("node1"));
+    }
+
+    @Test
+    public void extract_MaxNodeNames() throws Exception {
+        String log = "Running on node1 in /ws/a\nRunning on node2 in /ws/b\nRunning on node3 in /ws/c\n";
+        NodeNameExtractor extractor = new NodeNameExtractor(2, Long.MAX_VALUE, null);
+        List<String> nodeNames = extractor.extract(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+        assertThat(nodeNames, contains("node1", "node2"));
+        assertThat(extractor.getBytesScanned(), is((long) "Running on node1 in /ws/a\nRunning on node2 in /ws/b\n".length()));
+    }
+
+    @Test
+    public void extract_MaxBytes() throws Exception {
+        String log = "Running on node1 in /ws/a\n" + "Running on node2 in /ws/b\n";
+        assertThat(extract(log, 10, "Running on node1 in /ws/a\n".length()), contains("node1"));
+    }
+
+    @Test
+    public void extract_LineLongerThanBuffer() throws Exception {
+        StringBuilder sb = new StringBuilder("Running on node1 in ");
+        for (int i = 0; i < 100000; i++) {
+            sb.append('x');
+        }
+        sb.append('\n');
+        assertThat(extract(sb.toString(), 10, Long.MAX_VALUE), contains("node1"));
+    }
+
+    private List<String> extract(String log, int maxNodeNames, long maxBytes) throws Exception {
+        NodeNameExtractor extractor = new NodeNameExtractor(maxNodeNames, maxBytes, StandardCharsets.UTF_8);
+        return extractor.extract(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+    }
+}
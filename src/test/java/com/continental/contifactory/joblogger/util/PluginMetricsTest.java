@@ -0,0 +1,61 @@
+package com.continental.contifactory.joblogger.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PluginMetricsTest {
+
+    @Before
+    public void setUp() {
+        PluginMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        PluginMetrics.setEnabled(false);
+        PluginMetrics.reset();
+    }
+
+    @Test
+    public void stop_Disabled() {
+        PluginMetrics.setEnabled(false);
+        long start = PluginMetrics.start();
+        PluginMetrics.stop(PluginMetrics.Timer.WRITE, start);
+        PluginMetrics.addNodeNameBytesScanned(100);
+
+        assertThat(start, is(PluginMetrics.DISABLED));
+        assertThat(PluginMetrics.getStatistics(PluginMetrics.Timer.WRITE).getCount(), is(0L));
+        assertThat(PluginMetrics.getNodeNameBytesScanned(), is(0L));
+    }
+
+    @Test
+    public void stop_Enabled() throws Exception {
+        PluginMetrics.setEnabled(true);
+        long start = PluginMetrics.start();
+        Thread.sleep(10);
+        PluginMetrics.stop(PluginMetrics.Timer.WRITE, start);
+        PluginMetrics.stop(PluginMetrics.Timer.WRITE, PluginMetrics.start());
+        PluginMetrics.addNodeNameBytesScanned(100);
+
+        TimerStatistics statistics = PluginMetrics.getStatistics(PluginMetrics.Timer.WRITE);
+        assertThat(statistics.getCount(), is(2L));
+        assertThat(statistics.getMaxMillis(), greaterThanOrEqualTo(10.0));
+        assertThat(statistics.getMeanMillis(), allOf(greaterThanOrEqualTo(5.0), lessThan(statistics.getMaxMillis())));
+        assertThat(PluginMetrics.getStatistics(PluginMetrics.Timer.ROTATION).getCount(), is(0L));
+        assertThat(PluginMetrics.getNodeNameBytesScanned(), is(100L));
+    }
+
+    @Test
+    public void stop_DisabledWhileMeasuring() {
+        PluginMetrics.setEnabled(false);
+        long start = PluginMetrics.start();
+        PluginMetrics.setEnabled(true);
+        PluginMetrics.stop(PluginMetrics.Timer.WRITE, start);
+
+        assertThat(PluginMetrics.getStatistics(PluginMetrics.Timer.WRITE).getCount(), is(0L));
+    }
+}
@@ -0,0 +1,101 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.JobLoggerPluginConfiguration;
+import com.continental.contifactory.joblogger.model.UtilizationSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({JobLoggerPluginConfiguration.class})
+public class UtilizationLogWriterTest {
+    private static final long TIME = 1520000000000L;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File logFile;
+
+    @Before
+    public void setUp() {
+        logFile = new File(temp.getRoot(), "job_logger.jlu");
+        JobLoggerPluginConfiguration config = PowerMockito.mock(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(config.getMaxLogFileSize()).thenReturn(1.0);
+        PowerMockito.when(config.getArchiveCompression()).thenReturn(ArchiveCompression.NONE);
+        PowerMockito.mockStatic(JobLoggerPluginConfiguration.class);
+        PowerMockito.when(JobLoggerPluginConfiguration.get()).thenReturn(config);
+    }
+
+    @After
+    public void tearDown() {
+        UtilizationLogWriter.closeLogFile();
+    }
+
+    private static UtilizationSample getSample(long time, int queueLength, int busy) {
+        return new UtilizationSample(time, queueLength, new String[]{"master", "node 1"}, new int[]{busy, 0},
+                new int[]{2 - busy, 0});
+    }
+
+    @Test
+    public void logSamples_ReadAll_SameSamples() throws Exception {
+        UtilizationSample first = getSample(TIME, 0, 0);
+        UtilizationSample second = getSample(TIME + 10000, 300, 2);
+        // the clock may be set back between two samples
+        UtilizationSample third = getSample(TIME + 5000, 1, 1);
+        UtilizationLogWriter.logSamples(logFile, Arrays.asList(first, second));
+        UtilizationLogWriter.logSamples(logFile, Collections.singletonList(third));
+
+        List<UtilizationSample> samples = UtilizationLogReader.readAll(logFile);
+
+        assertThat(samples, hasSize(3));
+        assertThat(samples.get(0).toString(), is(first.toString()));
+        assertThat(samples.get(1).toString(), is(second.toString()));
+        assertThat(samples.get(2).toString(), is(third.toString()));
+        assertThat(samples.get(1).getIdleExecutors(0), is(0));
+        assertThat(samples.get(1).getQueueLength(), is(300));
+    }
+
+    @Test
+    public void encodeBlock_FixedInterval_FewBytesPerNode() {
+        List<UtilizationSample> samples = new ArrayList<>();
+        for (int i = 0; i < UtilizationSampler.BATCH_SIZE; i++) {
+            samples.add(getSample(TIME + i * 10000, 0, i % 2));
+        }
+
+        int blockSize = UtilizationLogWriter.encodeBlock(samples).remaining();
+
+        // header and dictionary once, then 5 bytes per sample and 3 bytes per node
+        assertThat(blockSize, is(lessThanOrEqualTo(UtilizationLogWriter.HEADER_SIZE + 16
+                + UtilizationSampler.BATCH_SIZE * (5 + 2 * 3))));
+    }
+
+    @Test
+    public void readAll_TruncatedBlock_Ignored() throws Exception {
+        UtilizationLogWriter.logSamples(logFile, Collections.singletonList(getSample(TIME, 0, 1)));
+        UtilizationLogWriter.logSamples(logFile, Collections.singletonList(getSample(TIME + 1000, 0, 2)));
+        UtilizationLogWriter.closeLogFile();
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        List<UtilizationSample> samples = UtilizationLogReader.readAll(logFile);
+
+        assertThat(samples, hasSize(1));
+        assertThat(samples.get(0).getBusyExecutors(0), is(1));
+    }
+}
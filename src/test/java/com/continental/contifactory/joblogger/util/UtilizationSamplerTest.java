@@ -0,0 +1,68 @@
+package com.continental.contifactory.joblogger.util;
+
+import com.continental.contifactory.joblogger.model.UtilizationSample;
+import hudson.model.Computer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UtilizationSamplerTest {
+    private static final long INTERVAL = 10000;
+
+    private static Computer getComputer(String name, int executors, int busy, boolean online) {
+        Computer computer = Mockito.mock(Computer.class);
+        Mockito.when(computer.getDisplayName()).thenReturn(name);
+        Mockito.when(computer.countExecutors()).thenReturn(executors);
+        Mockito.when(computer.countBusy()).thenReturn(busy);
+        Mockito.when(computer.isOnline()).thenReturn(online);
+        return computer;
+    }
+
+    @Test
+    public void snapshot_BusyAndIdleExecutors() {
+        Computer[] computers = {getComputer("master", 2, 1, true), getComputer("node 1", 4, 0, false)};
+
+        UtilizationSample sample = UtilizationSampler.snapshot(computers, 5, 1000);
+
+        assertThat(sample.getTime(), is(1000L));
+        assertThat(sample.getQueueLength(), is(5));
+        assertThat(sample.getNodeCount(), is(2));
+        assertThat(sample.getNodeName(0), is("master"));
+        assertThat(sample.getBusyExecutors(0), is(1));
+        assertThat(sample.getIdleExecutors(0), is(1));
+        assertThat(sample.getNodeName(1), is("node 1"));
+        assertThat(sample.getIdleExecutors(1), is(0));
+    }
+
+    @Test
+    public void isSampleDue_AfterInterval() {
+        UtilizationSampler sampler = new UtilizationSampler();
+        assertThat(sampler.isSampleDue(0, INTERVAL), is(true));
+
+        sampler.sample(new Computer[0], 0, 0);
+
+        assertThat(sampler.isSampleDue(INTERVAL - 1, INTERVAL), is(false));
+        assertThat(sampler.isSampleDue(INTERVAL, INTERVAL), is(true));
+        assertThat(sampler.size(), is(1));
+    }
+
+    @Test
+    public void isFlushDue_BatchSizeOrAge() {
+        UtilizationSampler sampler = new UtilizationSampler();
+        assertThat(sampler.isFlushDue(0), is(false));
+
+        sampler.sample(new Computer[0], 0, 0);
+        assertThat(sampler.isFlushDue(UtilizationSampler.MAX_BATCH_AGE - 1), is(false));
+        assertThat(sampler.isFlushDue(UtilizationSampler.MAX_BATCH_AGE), is(true));
+
+        sampler.clear();
+        for (int i = 1; i < UtilizationSampler.BATCH_SIZE; i++) {
+            sampler.sample(new Computer[0], 0, i);
+        }
+        assertThat(sampler.isFlushDue(UtilizationSampler.BATCH_SIZE), is(false));
+        sampler.sample(new Computer[0], 0, UtilizationSampler.BATCH_SIZE);
+        assertThat(sampler.isFlushDue(UtilizationSampler.BATCH_SIZE), is(true));
+    }
+}